@@ -0,0 +1,398 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Table;
+import com.google.common.graph.Graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.singletonList;
+
+/**
+ * Breadth-first search engine for computing geodesic distances. Instances traverse the index arrays of a
+ * {@link CompressedGraph}, either in the direction of edges or ignoring direction, and keep their distance and queue
+ * buffers between searches, resetting only entries touched by the previous search. This makes it inexpensive to run
+ * a search from every node of a graph. Searches may stop early once a target node is found or once a maximum
+ * distance is reached. Instances are not thread-safe; use one per thread.
+ * <p>
+ * For a single search on an arbitrary graph, the static methods {@link #distances(Graph, Object, int)} and
+ * {@link #distance(Graph, Object, Object)} walk the graph's successor sets directly, without building an index. Many
+ * distance queries may be answered together with {@link #distances(Graph, Multimap, boolean)}.
+ *
+ * @param <N> graph node type
+ *
+ * @author Elisha Peterson
+ */
+public final class BreadthFirstSearch<N> {
+
+    /** Distance value for nodes not reached by a search */
+    public static final int UNREACHED = -1;
+
+    /** The graph */
+    private final CompressedGraph<N> graph;
+    /** Adjacency offsets used for traversal */
+    private final int[] offsets;
+    /** Adjacency targets used for traversal */
+    private final int[] targets;
+
+    /** Distance to each node in the last search, or {@link #UNREACHED} */
+    private final int[] distances;
+    /** Nodes reached by the last search in order of discovery, also used as the search queue */
+    private final int[] order;
+    /** Number of nodes reached by the last search */
+    private int reached = 0;
+    /** Marks target nodes of the current search, with entries equal to {@link #stamp} */
+    private final int[] targetStamps;
+    /** Stamp for the current search, incremented so that target marks need not be cleared */
+    private int stamp = 0;
+
+    /**
+     * Construct search engine for a graph.
+     * @param graph the graph
+     * @param directed if true, searches follow edge direction; if false, or if the graph is undirected, searches
+     *                 follow edges in both directions
+     */
+    public BreadthFirstSearch(CompressedGraph<N> graph, boolean directed) {
+        this.graph = graph;
+        this.offsets = directed ? graph.successorOffsets() : graph.neighborOffsets();
+        this.targets = directed ? graph.successorTargets() : graph.neighborTargets();
+        int n = graph.nodeCount();
+        distances = new int[n];
+        order = new int[n];
+        targetStamps = new int[n];
+        Arrays.fill(distances, UNREACHED);
+    }
+
+    /**
+     * Construct search engine for a graph, compressing the graph if necessary.
+     * @param graph the graph
+     * @param directed whether searches follow edge direction
+     * @param <N> graph node type
+     * @return search engine
+     */
+    public static <N> BreadthFirstSearch<N> create(Graph<N> graph, boolean directed) {
+        return new BreadthFirstSearch<>(CompressedGraph.copyOf(graph), directed);
+    }
+
+    //region PROPERTIES
+
+    /**
+     * Get the graph being searched, whose node indices are used by the search methods.
+     * @return graph
+     */
+    public CompressedGraph<N> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Get number of nodes reached by the last search, including the start node.
+     * @return number of nodes
+     */
+    public int reachedCount() {
+        return reached;
+    }
+
+    /**
+     * Get index of a node reached by the last search. Nodes are in order of non-decreasing distance.
+     * @param i position in the order of discovery
+     * @return node index
+     */
+    public int reachedAt(int i) {
+        return order[i];
+    }
+
+    /**
+     * Get distance to a node in the last search.
+     * @param node node index
+     * @return distance, or {@link #UNREACHED} if not reached
+     */
+    public int distance(int node) {
+        return distances[node];
+    }
+
+    /**
+     * Get the largest distance to a node reached by the last search. If the search was complete, this is the
+     * eccentricity of the start node within its component.
+     * @return largest distance
+     */
+    public int maxDistance() {
+        return reached == 0 ? 0 : distances[order[reached - 1]];
+    }
+
+    /**
+     * Get distances to nodes reached by the last search.
+     * @return new map of distances
+     */
+    public Map<N, Integer> distanceMap() {
+        Map<N, Integer> res = new HashMap<>(reached * 2);
+        for (int i = 0; i < reached; i++) {
+            res.put(graph.nodeAt(order[i]), distances[order[i]]);
+        }
+        return res;
+    }
+
+    //endregion
+
+    //region SEARCH
+
+    /**
+     * Run a complete search from the given node.
+     * @param start index of start node
+     */
+    public void search(int start) {
+        search(start, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Run a search from the given node, up to a maximum distance.
+     * @param start index of start node
+     * @param maxDistance maximum distance
+     */
+    public void search(int start, int maxDistance) {
+        checkArgument(maxDistance >= 0, "Max distance must be non-negative");
+        stamp++;
+        run(start, maxDistance, -1);
+    }
+
+    /**
+     * Run a search from the given node, stopping once the target is found.
+     * @param start index of start node
+     * @param target index of target node
+     * @return distance to target, or {@link #UNREACHED} if it cannot be reached
+     */
+    public int searchTo(int start, int target) {
+        stamp++;
+        targetStamps[target] = stamp;
+        run(start, Integer.MAX_VALUE, start == target ? 0 : 1);
+        return distances[target];
+    }
+
+    /**
+     * Run a search from the given node, stopping once all targets are found. Distances to the targets may then be
+     * retrieved with {@link #distance(int)}.
+     * @param start index of start node
+     * @param targets indices of target nodes
+     * @param count number of entries of the targets array to use
+     */
+    public void searchTo(int start, int[] targets, int count) {
+        stamp++;
+        int remaining = 0;
+        for (int i = 0; i < count; i++) {
+            int t = targets[i];
+            if (t != start && targetStamps[t] != stamp) {
+                targetStamps[t] = stamp;
+                remaining++;
+            }
+        }
+        run(start, Integer.MAX_VALUE, remaining);
+    }
+
+    /**
+     * Run a search, after the caller has marked target nodes with the current stamp.
+     * @param start index of start node
+     * @param maxDistance maximum distance
+     * @param targetCount number of marked targets; the search stops once all are found, or never stops early if -1
+     */
+    private void run(int start, int maxDistance, int targetCount) {
+        for (int i = 0; i < reached; i++) {
+            distances[order[i]] = UNREACHED;
+        }
+
+        int head = 0;
+        int tail = 0;
+        order[tail++] = start;
+        distances[start] = 0;
+        int remaining = targetCount;
+        if (remaining != 0) {
+            search:
+            while (head < tail) {
+                int v = order[head++];
+                int d = distances[v] + 1;
+                if (d > maxDistance) {
+                    break;
+                }
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    int w = targets[k];
+                    if (distances[w] == UNREACHED) {
+                        distances[w] = d;
+                        order[tail++] = w;
+                        if (targetStamps[w] == stamp && --remaining == 0) {
+                            break search;
+                        }
+                    }
+                }
+            }
+        }
+        reached = tail;
+    }
+
+    //endregion
+
+    //region SINGLE SEARCH UTILITIES
+
+    /**
+     * Compute distances from a node to all nodes within a maximum distance, following edge direction.
+     * @param graph the graph
+     * @param start the start node
+     * @param maxDistance maximum distance
+     * @param <N> graph node type
+     * @return distances to nodes reached, including the start node
+     */
+    public static <N> Map<N, Integer> distances(Graph<N> graph, N start, int maxDistance) {
+        return search(graph, start, maxDistance);
+    }
+
+    /**
+     * Compute distance from one node to another, following edge direction. Uses a bidirectional search, expanding
+     * forward from the start node along successors and backward from the target along predecessors, one level at a
+     * time from whichever side has the smaller frontier, until the two searches meet.
+     * @param graph the graph
+     * @param start the start node
+     * @param target the target node
+     * @param <N> graph node type
+     * @return distance, or {@link #UNREACHED} if the target cannot be reached
+     */
+    public static <N> int distance(Graph<N> graph, N start, N target) {
+        if (start.equals(target)) {
+            return 0;
+        } else if (!graph.nodes().contains(start) || !graph.nodes().contains(target)) {
+            return UNREACHED;
+        }
+        Map<N, Integer> forward = new HashMap<>();
+        Map<N, Integer> backward = new HashMap<>();
+        forward.put(start, 0);
+        backward.put(target, 0);
+        List<N> forwardFrontier = new ArrayList<>(singletonList(start));
+        List<N> backwardFrontier = new ArrayList<>(singletonList(target));
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            boolean isForward = forwardFrontier.size() <= backwardFrontier.size();
+            List<N> frontier = isForward ? forwardFrontier : backwardFrontier;
+            Map<N, Integer> visited = isForward ? forward : backward;
+            Map<N, Integer> other = isForward ? backward : forward;
+            List<N> next = new ArrayList<>();
+            int best = Integer.MAX_VALUE;
+            for (N v : frontier) {
+                int d = visited.get(v) + 1;
+                for (N w : isForward ? graph.successors(v) : graph.predecessors(v)) {
+                    Integer dOther = other.get(w);
+                    if (dOther != null) {
+                        best = Math.min(best, d + dOther);
+                    } else if (!visited.containsKey(w)) {
+                        visited.put(w, d);
+                        next.add(w);
+                    }
+                }
+            }
+            // all meeting points are found while expanding a full level, so the shortest is known
+            if (best != Integer.MAX_VALUE) {
+                return best;
+            }
+            if (isForward) {
+                forwardFrontier = next;
+            } else {
+                backwardFrontier = next;
+            }
+        }
+        return UNREACHED;
+    }
+
+    /**
+     * Compute distances for a collection of queries. Queries are grouped by source node, and a single search from
+     * each source answers all of its queries, stopping once all of its targets have been found.
+     * @param graph the graph
+     * @param queries target nodes for each source node
+     * @param directed whether paths must follow edge direction
+     * @param <N> graph node type
+     * @return table with distance for each query, by source and target, or {@link #UNREACHED} if the target cannot be
+     *   reached or either node is not in the graph
+     */
+    public static <N> Table<N, N, Integer> distances(Graph<N> graph, Multimap<N, N> queries, boolean directed) {
+        Table<N, N, Integer> res = HashBasedTable.create();
+        if (queries.isEmpty()) {
+            return res;
+        }
+        BreadthFirstSearch<N> bfs = create(graph, directed);
+        CompressedGraph<N> cg = bfs.getGraph();
+        int[] targets = new int[0];
+        for (Map.Entry<N, Collection<N>> en : queries.asMap().entrySet()) {
+            N source = en.getKey();
+            Collection<N> nodes = en.getValue();
+            int start = cg.indexOf(source);
+            if (start == -1) {
+                nodes.forEach(n -> res.put(source, n, source.equals(n) ? 0 : UNREACHED));
+                continue;
+            }
+            if (targets.length < nodes.size()) {
+                targets = new int[nodes.size()];
+            }
+            int count = 0;
+            for (N n : nodes) {
+                int t = cg.indexOf(n);
+                if (t != -1) {
+                    targets[count++] = t;
+                }
+            }
+            bfs.searchTo(start, targets, count);
+            for (N n : nodes) {
+                int t = cg.indexOf(n);
+                res.put(source, n, t == -1 ? UNREACHED : bfs.distance(t));
+            }
+        }
+        return res;
+    }
+
+    private static <N> Map<N, Integer> search(Graph<N> graph, N start, int maxDistance) {
+        Map<N, Integer> res = new HashMap<>();
+        res.put(start, 0);
+        if (maxDistance == 0 || !graph.nodes().contains(start)) {
+            return res;
+        }
+        Queue<N> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            N v = queue.remove();
+            int d = res.get(v) + 1;
+            for (N w : graph.successors(v)) {
+                if (!res.containsKey(w)) {
+                    res.put(w, d);
+                    if (d < maxDistance) {
+                        queue.add(w);
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    //endregion
+
+}
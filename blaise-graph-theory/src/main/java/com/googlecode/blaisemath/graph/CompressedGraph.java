@@ -0,0 +1,488 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.graph.AbstractGraph;
+import com.google.common.graph.ElementOrder;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graph;
+import com.google.common.graph.ImmutableGraph;
+import com.google.common.graph.Network;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * An immutable, memory-compact graph that assigns each node a dense integer index in {@code [0, nodeCount())}, and
+ * stores adjacencies in compressed sparse row (CSR) form: the neighbors of node {@code i} are the entries of
+ * {@code targets[offsets[i]]} through {@code targets[offsets[i+1]-1]}, sorted in increasing order.
+ * <p>
+ * In addition to the standard {@link Graph} API, the class exposes its index arrays directly so that algorithms can
+ * traverse the graph without boxing or allocation. The arrays returned by the index methods are the internal storage
+ * of this graph, and must not be modified by callers.
+ * <p>
+ * Three adjacency structures are maintained: <em>neighbors</em> (matching {@link #adjacentNodes(Object)}),
+ * <em>successors</em>, and <em>predecessors</em>. For undirected graphs these are the same arrays.
+ *
+ * @param <N> graph node type
+ *
+ * @author Elisha Peterson
+ */
+@SuppressWarnings("UnstableApiUsage")
+public final class CompressedGraph<N> extends AbstractGraph<N> {
+
+    /** Whether graph is directed */
+    private final boolean directed;
+    /** Whether graph allows self loops */
+    private final boolean allowsSelfLoops;
+    /** Nodes, by index */
+    private final ImmutableList<N> nodeList;
+    /** Indices, by node */
+    private final ImmutableMap<N, Integer> indices;
+    /** Degree of each node, as reported by {@link Graph#degree(Object)} */
+    private final int[] degrees;
+
+    /** Row offsets for adjacent nodes, of length n+1 */
+    private final int[] nbrOffsets;
+    /** Adjacent node indices, sorted within each row */
+    private final int[] nbrTargets;
+    /** Row offsets for successors (same as neighbors if undirected) */
+    private final int[] outOffsets;
+    /** Successor indices (same as neighbors if undirected) */
+    private final int[] outTargets;
+    /** Row offsets for predecessors (same as neighbors if undirected) */
+    private final int[] inOffsets;
+    /** Predecessor indices (same as neighbors if undirected) */
+    private final int[] inTargets;
+
+    private CompressedGraph(boolean directed, boolean allowsSelfLoops, ImmutableList<N> nodes,
+                            ImmutableMap<N, Integer> indices, int[] sources, int[] targets, int edgeCount) {
+        this.directed = directed;
+        this.nodeList = nodes;
+        this.indices = indices;
+
+        int n = nodeList.size();
+        boolean selfLoops = false;
+        for (int e = 0; e < edgeCount; e++) {
+            checkElementIndex(sources[e], n, "edge source");
+            checkElementIndex(targets[e], n, "edge target");
+            selfLoops |= sources[e] == targets[e];
+        }
+        this.allowsSelfLoops = allowsSelfLoops || selfLoops;
+
+        if (directed) {
+            int[][] out = compress(n, sources, targets, edgeCount, false);
+            int[][] in = compress(n, targets, sources, edgeCount, false);
+            int[][] nbr = compress(n, sources, targets, edgeCount, true);
+            outOffsets = out[0];
+            outTargets = out[1];
+            inOffsets = in[0];
+            inTargets = in[1];
+            nbrOffsets = nbr[0];
+            nbrTargets = nbr[1];
+        } else {
+            int[][] nbr = compress(n, sources, targets, edgeCount, true);
+            nbrOffsets = outOffsets = inOffsets = nbr[0];
+            nbrTargets = outTargets = inTargets = nbr[1];
+        }
+
+        degrees = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (directed) {
+                degrees[i] = (outOffsets[i + 1] - outOffsets[i]) + (inOffsets[i + 1] - inOffsets[i]);
+            } else {
+                // self-loops are counted twice toward the degree of an undirected node
+                degrees[i] = nbrOffsets[i + 1] - nbrOffsets[i] + (containsIndex(nbrOffsets, nbrTargets, i, i) ? 1 : 0);
+            }
+        }
+    }
+
+    //region FACTORY METHODS
+
+    /**
+     * Create a compressed copy of the given graph. Node indices follow the iteration order of the graph's nodes.
+     * If the argument is already a {@code CompressedGraph}, it is returned unchanged.
+     * @param <N> graph node type
+     * @param graph graph to copy
+     * @return compressed graph
+     */
+    public static <N> CompressedGraph<N> copyOf(Graph<N> graph) {
+        if (graph instanceof CompressedGraph) {
+            return (CompressedGraph<N>) graph;
+        }
+        ImmutableList<N> nodes = ImmutableList.copyOf(graph.nodes());
+        ImmutableMap<N, Integer> indices = indexMap(nodes);
+
+        int[] sources = new int[16];
+        int[] targets = new int[16];
+        int count = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            for (N y : graph.successors(nodes.get(i))) {
+                int j = indices.get(y);
+                if (graph.isDirected() || i <= j) {
+                    if (count == sources.length) {
+                        sources = Arrays.copyOf(sources, 2 * count);
+                        targets = Arrays.copyOf(targets, 2 * count);
+                    }
+                    sources[count] = i;
+                    targets[count] = j;
+                    count++;
+                }
+            }
+        }
+        return new CompressedGraph<>(graph.isDirected(), graph.allowsSelfLoops(), nodes, indices, sources, targets, count);
+    }
+
+    /**
+     * Create a compressed graph from a list of nodes and edges given as pairs of node indices. Edge {@code e} connects
+     * {@code nodes.get(sources[e])} to {@code nodes.get(targets[e])}. Duplicate edges are ignored.
+     * @param <N> graph node type
+     * @param directed whether result should be a directed graph
+     * @param nodes the nodes, in index order; must be distinct
+     * @param sources source index of each edge
+     * @param targets target index of each edge
+     * @param edgeCount number of edges to read from the index arrays
+     * @return compressed graph
+     * @throws IllegalArgumentException if nodes are not distinct
+     * @throws IndexOutOfBoundsException if an edge index is not a valid node index
+     */
+    public static <N> CompressedGraph<N> fromIndexEdges(boolean directed, List<N> nodes,
+                                                        int[] sources, int[] targets, int edgeCount) {
+        checkArgument(edgeCount <= sources.length && edgeCount <= targets.length, "Not enough edges in arrays");
+        ImmutableList<N> nodeList = ImmutableList.copyOf(nodes);
+        return new CompressedGraph<>(directed, true, nodeList, indexMap(nodeList), sources, targets, edgeCount);
+    }
+
+    //endregion
+
+    //region INDEX API
+
+    /**
+     * Number of nodes in the graph.
+     * @return node count
+     */
+    public int nodeCount() {
+        return nodeList.size();
+    }
+
+    /**
+     * Get the index of the given node.
+     * @param node the node
+     * @return index, or -1 if the node is not in the graph
+     */
+    public int indexOf(N node) {
+        Integer res = indices.get(node);
+        return res == null ? -1 : res;
+    }
+
+    /**
+     * Get the node with the given index.
+     * @param index node index
+     * @return node
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public N nodeAt(int index) {
+        return nodeList.get(index);
+    }
+
+    /**
+     * Nodes in index order.
+     * @return node list
+     */
+    public List<N> nodeList() {
+        return nodeList;
+    }
+
+    /**
+     * Degree of the node at the given index. This is the same as {@link #degree(Object)}.
+     * @param index node index
+     * @return degree
+     */
+    public int degreeAt(int index) {
+        return degrees[index];
+    }
+
+    /**
+     * Number of nodes adjacent to the node at the given index, i.e. the size of its row in {@link #neighborTargets()}.
+     * @param index node index
+     * @return neighbor count
+     */
+    public int neighborCount(int index) {
+        return nbrOffsets[index + 1] - nbrOffsets[index];
+    }
+
+    /**
+     * Row offsets for adjacent nodes, of length {@code nodeCount()+1}. Do not modify.
+     * @return offsets array
+     */
+    public int[] neighborOffsets() {
+        return nbrOffsets;
+    }
+
+    /**
+     * Indices of adjacent nodes, ignoring edge direction, sorted within each row. Do not modify.
+     * @return targets array
+     */
+    public int[] neighborTargets() {
+        return nbrTargets;
+    }
+
+    /**
+     * Row offsets for successors, of length {@code nodeCount()+1}. Do not modify.
+     * @return offsets array
+     */
+    public int[] successorOffsets() {
+        return outOffsets;
+    }
+
+    /**
+     * Indices of successors, sorted within each row. Do not modify.
+     * @return targets array
+     */
+    public int[] successorTargets() {
+        return outTargets;
+    }
+
+    /**
+     * Row offsets for predecessors, of length {@code nodeCount()+1}. Do not modify.
+     * @return offsets array
+     */
+    public int[] predecessorOffsets() {
+        return inOffsets;
+    }
+
+    /**
+     * Indices of predecessors, sorted within each row. Do not modify.
+     * @return targets array
+     */
+    public int[] predecessorTargets() {
+        return inTargets;
+    }
+
+    //endregion
+
+    //region OVERRIDES
+
+    @Override
+    public Set<N> nodes() {
+        return indices.keySet();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public boolean allowsSelfLoops() {
+        return allowsSelfLoops;
+    }
+
+    @Override
+    public ElementOrder<N> nodeOrder() {
+        return ElementOrder.insertion();
+    }
+
+    @Override
+    public Set<N> adjacentNodes(N node) {
+        int i = checkedIndex(node);
+        return new IndexSet(nbrTargets, nbrOffsets[i], nbrOffsets[i + 1]);
+    }
+
+    @Override
+    public Set<N> predecessors(N node) {
+        int i = checkedIndex(node);
+        return new IndexSet(inTargets, inOffsets[i], inOffsets[i + 1]);
+    }
+
+    @Override
+    public Set<N> successors(N node) {
+        int i = checkedIndex(node);
+        return new IndexSet(outTargets, outOffsets[i], outOffsets[i + 1]);
+    }
+
+    @Override
+    public int degree(N node) {
+        return degrees[checkedIndex(node)];
+    }
+
+    @Override
+    public int inDegree(N node) {
+        int i = checkedIndex(node);
+        return directed ? inOffsets[i + 1] - inOffsets[i] : degrees[i];
+    }
+
+    @Override
+    public int outDegree(N node) {
+        int i = checkedIndex(node);
+        return directed ? outOffsets[i + 1] - outOffsets[i] : degrees[i];
+    }
+
+    @Override
+    public boolean hasEdgeConnecting(N nodeU, N nodeV) {
+        int i = indexOf(nodeU);
+        int j = indexOf(nodeV);
+        return i >= 0 && j >= 0 && containsIndex(outOffsets, outTargets, i, j);
+    }
+
+    @Override
+    public boolean hasEdgeConnecting(EndpointPair<N> endpoints) {
+        // unordered endpoints never match edges of a directed graph
+        return (endpoints.isOrdered() || !directed) && hasEdgeConnecting(endpoints.nodeU(), endpoints.nodeV());
+    }
+
+    @Override
+    public Network<N, EndpointPair<N>> asNetwork() {
+        return ImmutableGraph.copyOf(this).asNetwork();
+    }
+
+    //endregion
+
+    //region UTILITIES
+
+    /** Assign indices to nodes based on list order. */
+    private static <N> ImmutableMap<N, Integer> indexMap(List<N> nodes) {
+        ImmutableMap.Builder<N, Integer> res = ImmutableMap.builderWithExpectedSize(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            res.put(nodes.get(i), i);
+        }
+        return res.buildOrThrow();
+    }
+
+    private int checkedIndex(N node) {
+        int i = indexOf(node);
+        checkArgument(i >= 0, "Node %s is not an element of this graph.", node);
+        return i;
+    }
+
+    /** Check whether row i of the given CSR structure contains index j. */
+    private static boolean containsIndex(int[] offsets, int[] targets, int i, int j) {
+        return Arrays.binarySearch(targets, offsets[i], offsets[i + 1], j) >= 0;
+    }
+
+    /**
+     * Build CSR arrays from an edge list, sorting each row and removing duplicates.
+     * @param n number of nodes
+     * @param sources edge sources
+     * @param targets edge targets
+     * @param count number of edges
+     * @param symmetric if true, each edge is also added in the reverse direction
+     * @return array with offsets as the first element and targets as the second element
+     */
+    private static int[][] compress(int n, int[] sources, int[] targets, int count, boolean symmetric) {
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < count; e++) {
+            offsets[sources[e] + 1]++;
+            if (symmetric && sources[e] != targets[e]) {
+                offsets[targets[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] res = new int[offsets[n]];
+        int[] pos = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < count; e++) {
+            res[pos[sources[e]]++] = targets[e];
+            if (symmetric && sources[e] != targets[e]) {
+                res[pos[targets[e]]++] = sources[e];
+            }
+        }
+
+        // sort rows and compact duplicates in place
+        int write = 0;
+        int rowStart = 0;
+        for (int i = 0; i < n; i++) {
+            int rowEnd = offsets[i + 1];
+            Arrays.sort(res, rowStart, rowEnd);
+            offsets[i] = write;
+            for (int k = rowStart; k < rowEnd; k++) {
+                if (k == rowStart || res[k] != res[k - 1]) {
+                    res[write++] = res[k];
+                }
+            }
+            rowStart = rowEnd;
+        }
+        offsets[n] = write;
+        return new int[][] { offsets, write == res.length ? res : Arrays.copyOf(res, write) };
+    }
+
+    //endregion
+
+    //region INNER CLASSES
+
+    /** Read-only view of a row of a CSR structure, as a set of nodes. */
+    private final class IndexSet extends AbstractSet<N> {
+
+        private final int[] targets;
+        private final int start;
+        private final int end;
+
+        IndexSet(int[] targets, int start, int end) {
+            this.targets = targets;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer j = indices.get(o);
+            return j != null && Arrays.binarySearch(targets, start, end, j) >= 0;
+        }
+
+        @Override
+        public Iterator<N> iterator() {
+            return new Iterator<N>() {
+                int k = start;
+
+                @Override
+                public boolean hasNext() {
+                    return k < end;
+                }
+
+                @Override
+                public N next() {
+                    if (k >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return nodeList.get(targets[k++]);
+                }
+            };
+        }
+    }
+
+    //endregion
+
+}
@@ -20,6 +20,8 @@ package com.googlecode.blaisemath.graph;
  * #L%
  */
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Sets;
 import com.google.common.graph.Graph;
 import com.google.common.graph.Graphs;
@@ -30,6 +32,7 @@ import java.util.Set;
 
 /**
  * Encapsulate graph with its set of components, storing each as a separate collection of nodes and a separate graph.
+ * Component graphs are created when first requested.
  * Designed as an immutable structure, although if the underlying graph changes this class is not aware.
  *
  * @param <N> node type
@@ -42,8 +45,8 @@ final class GraphComponents<N> {
     private final Graph<N> graph;
     /** The connected components of the graph. */
     private final Collection<Set<N>> components;
-    /** Stored components as graphs. */
-    private final Set<Graph<N>> componentGraphs;
+    /** Stored components as graphs, computed when first requested. */
+    private final Supplier<Set<Graph<N>>> componentGraphs;
 
     /**
      * Construct components for specified graph.
@@ -53,14 +56,18 @@ final class GraphComponents<N> {
     public GraphComponents(Graph<N> graph, Collection<Set<N>> components) {
         this.graph = graph;
         this.components = components;
+        this.componentGraphs = Suppliers.memoize(this::createComponentGraphs);
+    }
+
+    private Set<Graph<N>> createComponentGraphs() {
         if (components.size() == 1) {
-            componentGraphs = Collections.singleton(graph);
-        } else {
-            this.componentGraphs = Sets.newHashSet();
-            for (Set<N> c : components) {
-                componentGraphs.add(Graphs.inducedSubgraph(graph, c));
-            }
+            return Collections.singleton(graph);
+        }
+        Set<Graph<N>> res = Sets.newHashSet();
+        for (Set<N> c : components) {
+            res.add(Graphs.inducedSubgraph(graph, c));
         }
+        return Collections.unmodifiableSet(res);
     }
 
     /**
@@ -92,7 +99,7 @@ final class GraphComponents<N> {
      * @return sub-components
      */
     public Set<Graph<N>> componentGraphs() {
-        return Collections.unmodifiableSet(componentGraphs);
+        return componentGraphs.get();
     }
 
 }
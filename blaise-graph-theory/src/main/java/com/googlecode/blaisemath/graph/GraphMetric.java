@@ -22,6 +22,7 @@ package com.googlecode.blaisemath.graph;
 
 import com.google.common.graph.Graph;
 
+import java.util.Collections;
 import java.util.function.Function;
 
 /**
@@ -31,5 +32,16 @@ import java.util.function.Function;
  * @author Elisha Peterson
  */
 public interface GraphMetric<T> extends Function<Graph, T> {
-    
+
+    /**
+     * Get the current values of any settings that affect the metric's value. This is used to tell apart values
+     * computed with different settings, e.g. by {@link GraphMetricCache}. Metrics with mutable settings should return
+     * a new immutable object with value-based {@code equals} and {@code hashCode}.
+     *
+     * @return settings, or an empty list if the metric has no settings
+     */
+    default Object settings() {
+        return Collections.emptyList();
+    }
+
 }
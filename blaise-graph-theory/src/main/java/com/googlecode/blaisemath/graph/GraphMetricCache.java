@@ -0,0 +1,362 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graph;
+import com.google.common.graph.ImmutableGraph;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches the results of {@link GraphMetric}s and {@link GraphNodeMetric}s across calls, so that repeated requests for
+ * the same metric on the same graph are only computed once. Results are keyed by the identity of the graph, a version
+ * for the graph's content, the metric (compared using {@code equals}), and the metric's current
+ * {@linkplain GraphNodeMetric#settings() settings}, so changing a metric's settings does not return results computed
+ * with the old settings. The version is either provided by the
+ * caller, or computed as a fingerprint of the graph's nodes and edges, so that changes to a mutable graph are never
+ * served stale results. Fingerprints of immutable graphs are computed only once.
+ * <p>
+ * The number of results held in memory is bounded, and the least recently used result is evicted first. If a spill
+ * directory is provided, evicted results that are {@link Serializable} are written to disk and read back if they are
+ * requested again. Graphs are only weakly referenced, so caching does not prevent graphs from being garbage collected.
+ *
+ * @author Elisha Peterson
+ */
+public final class GraphMetricCache {
+
+    private static final Logger LOG = Logger.getLogger(GraphMetricCache.class.getName());
+
+    /** Results held in memory */
+    private final Cache<Key, Object> results;
+    /** Fingerprints of immutable graphs, by graph identity */
+    private final Cache<Graph<?>, Long> fingerprints = CacheBuilder.newBuilder().weakKeys().build();
+    /** Directory for evicted results, null if results are not written to disk */
+    private final @Nullable Path spillDirectory;
+    /** Files containing evicted results */
+    private final Map<Key, Path> spilled = new ConcurrentHashMap<>();
+    /** Used to generate spill file names */
+    private final AtomicLong spillCount = new AtomicLong();
+
+    /**
+     * Construct a cache that keeps results in memory only.
+     * @param maximumSize maximum number of results to keep
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    public GraphMetricCache(int maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * Construct a cache that writes evicted results to the given directory.
+     * @param maximumSize maximum number of results to keep in memory
+     * @param spillDirectory directory for evicted results, or null to discard evicted results
+     * @throws IllegalArgumentException if the maximum size is not positive, or the spill directory is not a directory
+     */
+    public GraphMetricCache(int maximumSize, @Nullable Path spillDirectory) {
+        checkArgument(maximumSize > 0, "Maximum size must be positive: %s", maximumSize);
+        checkArgument(spillDirectory == null || Files.isDirectory(spillDirectory), "Not a directory: %s", spillDirectory);
+        this.spillDirectory = spillDirectory;
+        // a single segment makes eviction strictly least-recently-used
+        this.results = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumSize(maximumSize)
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    //region QUERIES
+
+    /**
+     * Get number of results currently held in memory.
+     * @return size
+     */
+    public long size() {
+        return results.size();
+    }
+
+    /**
+     * Get number of results currently written to disk.
+     * @return number of spilled results
+     */
+    public int spilledSize() {
+        return spilled.size();
+    }
+
+    /**
+     * Get the values of a node metric for all nodes in a graph, computing them if necessary.
+     * @param <N> graph node type
+     * @param <T> metric value type
+     * @param graph the graph
+     * @param metric the metric
+     * @return unmodifiable map of values by node
+     */
+    public <N, T> Map<N, T> nodeValues(Graph<N> graph, GraphNodeMetric<T> metric) {
+        return nodeValues(graph, fingerprint(graph), metric);
+    }
+
+    /**
+     * Get the values of a node metric for all nodes in a graph, computing them if necessary. The caller is responsible
+     * for changing the version whenever the graph changes.
+     * @param <N> graph node type
+     * @param <T> metric value type
+     * @param graph the graph
+     * @param version version of the graph's content
+     * @param metric the metric
+     * @return unmodifiable map of values by node
+     */
+    @SuppressWarnings("unchecked")
+    public <N, T> Map<N, T> nodeValues(Graph<N> graph, long version, GraphNodeMetric<T> metric) {
+        Key key = new Key(graph, version, metric, metric.settings(), true);
+        return Collections.unmodifiableMap((Map<N, T>) get(key, () -> metric.apply(graph)));
+    }
+
+    /**
+     * Get the value of a global metric for a graph, computing it if necessary.
+     * @param <T> metric value type
+     * @param graph the graph
+     * @param metric the metric
+     * @return value
+     */
+    public <T> T value(Graph<?> graph, GraphMetric<T> metric) {
+        return value(graph, fingerprint(graph), metric);
+    }
+
+    /**
+     * Get the value of a global metric for a graph, computing it if necessary. The caller is responsible for changing
+     * the version whenever the graph changes.
+     * @param <T> metric value type
+     * @param graph the graph
+     * @param version version of the graph's content
+     * @param metric the metric
+     * @return value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T value(Graph<?> graph, long version, GraphMetric<T> metric) {
+        Key key = new Key(graph, version, metric, metric.settings(), false);
+        return (T) get(key, () -> metric.apply(graph));
+    }
+
+    //endregion
+
+    //region MUTATORS
+
+    /**
+     * Remove all results for the given graph.
+     * @param graph the graph
+     */
+    public void invalidate(Graph<?> graph) {
+        results.asMap().keySet().removeIf(k -> k.graph.get() == graph);
+        spilled.keySet().stream().filter(k -> k.graph.get() == graph).forEach(this::deleteSpilled);
+    }
+
+    /** Remove all results, including results written to disk. */
+    public void invalidateAll() {
+        results.invalidateAll();
+        spilled.keySet().forEach(this::deleteSpilled);
+    }
+
+    //endregion
+
+    //region FINGERPRINTS
+
+    /**
+     * Compute a fingerprint of the graph's content, independent of iteration order. Graphs with the same nodes and
+     * edges have the same fingerprint, and changes to a graph change its fingerprint with high probability. Takes time
+     * linear in the size of the graph.
+     * @param graph the graph
+     * @return fingerprint
+     */
+    public static long graphFingerprint(Graph<?> graph) {
+        long nodeHash = 0;
+        for (Object n : graph.nodes()) {
+            nodeHash += mix(n.hashCode());
+        }
+        long edgeHash = 0;
+        for (EndpointPair<?> e : graph.edges()) {
+            // unordered pairs hash the same in either direction
+            long hu = e.nodeU().hashCode();
+            long hv = e.nodeV().hashCode();
+            edgeHash += graph.isDirected() ? mix(31 * hu + mix(hv)) : mix(mix(hu) + mix(hv));
+        }
+        return mix(mix(nodeHash + graph.nodes().size()) + edgeHash + (graph.isDirected() ? 1 : 0));
+    }
+
+    /** Get fingerprint of a graph, reusing previous computations for immutable graphs. */
+    private long fingerprint(Graph<?> graph) {
+        if (graph instanceof ImmutableGraph || graph instanceof CompressedGraph) {
+            try {
+                return fingerprints.get(graph, () -> graphFingerprint(graph));
+            } catch (ExecutionException x) {
+                throw new IllegalStateException(x.getCause());
+            }
+        }
+        return graphFingerprint(graph);
+    }
+
+    /** Mixes bits of a hash value, from the finalizer of the SplitMix64 generator. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    //endregion
+
+    //region LOADING AND SPILLING
+
+    /** Get cached result, reading it from disk or computing it if necessary. */
+    private Object get(Key key, Callable<?> compute) {
+        try {
+            return results.get(key, () -> {
+                Object res = readSpilled(key);
+                return res != null ? res : requireNonNull(compute.call(), "Metric returned null");
+            });
+        } catch (ExecutionException | UncheckedExecutionException x) {
+            Throwables.throwIfUnchecked(x.getCause());
+            throw new IllegalStateException(x.getCause());
+        }
+    }
+
+    /** Write results evicted due to size to disk, if there is a spill directory. */
+    private void onRemoval(RemovalNotification<Key, Object> notification) {
+        Key key = notification.getKey();
+        if (spillDirectory == null || notification.getCause() != RemovalCause.SIZE
+                || key == null || key.graph.get() == null || !(notification.getValue() instanceof Serializable)) {
+            return;
+        }
+        purgeSpilled();
+        Path file = spillDirectory.resolve("metric-" + spillCount.incrementAndGet() + ".ser");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file))) {
+            out.writeObject(notification.getValue());
+            spilled.put(key, file);
+        } catch (IOException x) {
+            LOG.log(Level.FINE, "Unable to write metric result to disk", x);
+            delete(file);
+        }
+    }
+
+    /** Read and remove a result from disk, returning null if it is not there. */
+    private @Nullable Object readSpilled(Key key) {
+        Path file = spilled.remove(key);
+        if (file == null) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(file))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException x) {
+            LOG.log(Level.FINE, "Unable to read metric result from disk", x);
+            return null;
+        } finally {
+            delete(file);
+        }
+    }
+
+    /** Delete results on disk whose graphs have been garbage collected. */
+    private void purgeSpilled() {
+        spilled.keySet().stream().filter(k -> k.graph.get() == null).forEach(this::deleteSpilled);
+    }
+
+    private void deleteSpilled(Key key) {
+        Path file = spilled.remove(key);
+        if (file != null) {
+            delete(file);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException x) {
+            LOG.log(Level.FINE, "Unable to delete " + file, x);
+        }
+    }
+
+    //endregion
+
+    //region INNER CLASSES
+
+    /** Cache key, with a weak reference to the graph, compared by identity. */
+    private static final class Key {
+
+        private final WeakReference<Graph<?>> graph;
+        private final int graphHash;
+        private final long version;
+        private final Object metric;
+        private final Object settings;
+        private final boolean nodeMetric;
+
+        private Key(Graph<?> graph, long version, Object metric, Object settings, boolean nodeMetric) {
+            this.graph = new WeakReference<>(requireNonNull(graph));
+            this.graphHash = System.identityHashCode(graph);
+            this.version = version;
+            this.metric = requireNonNull(metric);
+            this.settings = requireNonNull(settings);
+            this.nodeMetric = nodeMetric;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(graphHash, version, metric, settings, nodeMetric);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            Graph<?> g = graph.get();
+            return g != null && g == other.graph.get() && version == other.version
+                    && nodeMetric == other.nodeMetric && metric.equals(other.metric) && settings.equals(other.settings);
+        }
+    }
+
+    //endregion
+
+}
@@ -23,7 +23,9 @@ package com.googlecode.blaisemath.graph;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
 import com.google.common.graph.Graph;
+import com.google.common.graph.Graphs;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -47,7 +49,8 @@ public class GraphMetrics {
     }
 
     /**
-     * Compute the distribution of the values of a particular metric, for all nodes in the graph.
+     * Compute the distribution of the values of a particular metric, for all nodes in the graph. Values are computed
+     * together, using {@link GraphNodeMetric#apply(Graph)}.
      * @param <N> node type
      * @param <T> metric result type
      * @param graph the graph
@@ -55,9 +58,21 @@ public class GraphMetrics {
      * @return distribution of values
      */
     public static <N,T> Multiset<T> distribution(Graph<N> graph, GraphNodeMetric<T> metric) {
-        return graph.nodes().stream()
-                .map(n -> metric.apply(graph, n))
-                .collect(collectingAndThen(toList(), HashMultiset::create));
+        return HashMultiset.create(metric.apply(graph).values());
+    }
+
+    /**
+     * Compute the distribution of the values of a particular metric, for all nodes in the graph, reusing values
+     * from the given cache if possible.
+     * @param <N> node type
+     * @param <T> metric result type
+     * @param graph the graph
+     * @param metric metric used to generate values
+     * @param cache cache of metric values
+     * @return distribution of values
+     */
+    public static <N,T> Multiset<T> distribution(Graph<N> graph, GraphNodeMetric<T> metric, GraphMetricCache cache) {
+        return HashMultiset.create(cache.nodeValues(graph, metric).values());
     }
 
     /**
@@ -90,20 +105,16 @@ public class GraphMetrics {
             return singletonMap(graph.nodes().iterator().next(), 0.0);
         }
 
-        Set<Graph<N>> components = GraphUtils.componentGraphs(graph);
+        Collection<Set<N>> components = GraphUtils.components(graph);
         Map<N, Double> values = new HashMap<>();
-        for (Graph<N> c : components) {
-            if (c.nodes().size() == 1) {
-                values.put(c.nodes().iterator().next(), 0.0);
-            } else {
-                values.putAll(connectedGraphMetric.apply(c));
-            }
-        }
-        for (Graph<N> c : components) {
-            double multiplier = c.nodes().size() / (double) n;
-            for (N v : c.nodes()) {
-                values.put(v, multiplier * values.get(v));
+        for (Set<N> c : components) {
+            if (c.size() == 1) {
+                values.put(c.iterator().next(), 0.0);
+                continue;
             }
+            Graph<N> cg = components.size() == 1 ? graph : Graphs.inducedSubgraph(graph, c);
+            double multiplier = c.size() / (double) n;
+            connectedGraphMetric.apply(cg).forEach((v, x) -> values.put(v, multiplier * x));
         }
         return values;
     }
@@ -21,6 +21,7 @@ package com.googlecode.blaisemath.graph;
  */
 
 import com.google.common.graph.Graph;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -55,4 +56,15 @@ public interface GraphNodeMetric<T> {
      */
     <N> Map<N, T> apply(Graph<N> graph);
 
+    /**
+     * Get the current values of any settings that affect the metric's values. This is used to tell apart values
+     * computed with different settings, e.g. by {@link GraphMetricCache}. Metrics with mutable settings should return
+     * a new immutable object with value-based {@code equals} and {@code hashCode}.
+     *
+     * @return settings, or an empty list if the metric has no settings
+     */
+    default Object settings() {
+        return Collections.emptyList();
+    }
+
 }
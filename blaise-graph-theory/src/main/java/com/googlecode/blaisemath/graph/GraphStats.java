@@ -22,11 +22,17 @@ package com.googlecode.blaisemath.graph;
 
 import com.google.common.collect.Maps;
 import com.google.common.graph.Graph;
+import org.jspecify.annotations.Nullable;
 
+import java.util.List;
 import java.util.Map;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Caches computations of metrics on a graph. Both {@link GraphNodeMetric}s and {@link GraphMetric}s are captured here.
+ * If a shared {@link GraphMetricCache} is provided, metric values are also reused across stats objects for the same
+ * graph.
  *
  * @author Elisha Peterson
  */
@@ -38,13 +44,25 @@ public class GraphStats {
     private final Map<GraphNodeMetric, GraphNodeStats> nodeStats = Maps.newHashMap();
     /** The global metrics that have been computed. */
     private final Map<GraphMetric, Object> globalStats = Maps.newHashMap();
+    /** Shared cache of metric values, may be null. */
+    private final @Nullable GraphMetricCache cache;
 
     /**
      * Construct graph stats object.
      * @param graph graph for computations
      */
     public GraphStats(Graph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Construct graph stats object that looks up metric values in a shared cache.
+     * @param graph graph for computations
+     * @param cache shared cache of metric values, or null to compute all values
+     */
+    public GraphStats(Graph<?> graph, @Nullable GraphMetricCache cache) {
         this.graph = graph;
+        this.cache = cache;
     }
 
     /**
@@ -73,10 +91,17 @@ public class GraphStats {
      */
     public GraphNodeStats nodeStatsOf(GraphNodeMetric metric) {
         if (!nodeStats.containsKey(metric)) {
-            nodeStats.put(metric, new GraphNodeStats(graph, metric));
+            nodeStats.put(metric, cache == null ? new GraphNodeStats(graph, metric)
+                    : new GraphNodeStats(cachedValues(cache, graph, metric)));
         }
         return nodeStats.get(metric);
     }
+
+    /** Get numeric values of a node metric from the shared cache. */
+    private static List<Number> cachedValues(GraphMetricCache cache, Graph<?> graph, GraphNodeMetric<?> metric) {
+        return cache.nodeValues(graph, metric).values().stream().map(Number.class::cast).collect(toList());
+    }
+
     /**
      * Returns whether stats have been computed for specified metric.
      * @param metric the metric
@@ -95,7 +120,7 @@ public class GraphStats {
      */
     public Object globalStatsOf(GraphMetric<?> metric) {
         if (!globalStats.containsKey(metric)) {
-            globalStats.put(metric, metric.apply(graph));
+            globalStats.put(metric, cache == null ? metric.apply(graph) : cache.value(graph, metric));
         }
         return globalStats.get(metric);
     }
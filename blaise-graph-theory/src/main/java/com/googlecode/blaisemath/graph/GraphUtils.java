@@ -24,11 +24,9 @@ import com.google.common.collect.*;
 import com.google.common.graph.*;
 import com.googlecode.blaisemath.graph.internal.Matrices;
 
-import java.lang.reflect.Array;
 import java.util.*;
 import java.util.Map.Entry;
 
-import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -254,42 +252,7 @@ public class GraphUtils {
      * @return graph with objects associated to each node that describe the distance from the main node.
      */
     public static <N> Map<N, Integer> geodesicTree(Graph<N> graph, N node, int max) {
-        // nodes left to add
-        Set<N> remaining = Sets.newHashSet(graph.nodes());
-        // nodes added already, by distance
-        List<Set<N>> added = Lists.newArrayList();
-        // stores size of remaining nodes
-        int sRemaining = -1;
-        
-        int max2 = max == Integer.MAX_VALUE ? max-1 : max;
-
-        remaining.remove(node);
-        added.add(new HashSet<>(singletonList(node)));
-        while (sRemaining != remaining.size() && added.size() < max2+1) {
-            sRemaining = remaining.size();
-            added.add(new HashSet<>());
-            for (N n1 : added.get(added.size() - 2)) {
-                Set<N> toRemove = Sets.newHashSet();
-                for (N n2 : remaining) {
-                    if (graph.hasEdgeConnecting(n1, n2)) {
-                        toRemove.add(n2);
-                        added.get(added.size() - 1).add(n2);
-                        N[] arr = (N[]) Array.newInstance(n1.getClass(), 2);
-                        arr[0] = n1;
-                        arr[1] = n2;
-                    }
-                }
-                remaining.removeAll(toRemove);
-            }
-        }
-
-        Map<N, Integer> result = new HashMap<>();
-        for (int i = 0; i < added.size(); i++) {
-            for (N n : added.get(i)) {
-                result.put(n, i);
-            }
-        }
-        return result;
+        return BreadthFirstSearch.distances(graph, node, max);
     }
 
     /**
@@ -302,38 +265,20 @@ public class GraphUtils {
      * @return geodesic distance between the nodes, or 0 if they are the same node, or -1 if they are not connected
      */
     public static <N> int geodesicDistance(Graph<N> graph, N start, N end) {
-        if (start.equals(end)) {
-            return 0;
-        }
-        if (!(graph.nodes().contains(start) && graph.nodes().contains(end))) {
-            return -1;
-        }
-
-        List<N> nodesToAdd = Lists.newArrayList(graph.nodes());
-        List<Set<N>> nodesAdded = Lists.newArrayList();
-        int nodesToAddCount;
-
-        nodesToAdd.remove(start);
-        nodesAdded.add(Sets.newHashSet(start));
-        do {
-            nodesToAddCount = nodesToAdd.size();
-            nodesAdded.add(new HashSet<>());
-            for (N n1 : nodesAdded.get(nodesAdded.size() - 2)) {
-                Set<N> toRemove = new HashSet<>();
-                for (N n2 : nodesToAdd) {
-                    if (graph.hasEdgeConnecting(n1, n2)) {
-                        if (n2.equals(end)) {
-                            return nodesAdded.size() - 1;
-                        }
-                        toRemove.add(n2);
-                        nodesAdded.get(nodesAdded.size() - 1).add(n2);
-                    }
-                }
-                nodesToAdd.removeAll(toRemove);
-            }
-        } while (nodesToAddCount != nodesToAdd.size());
+        return BreadthFirstSearch.distance(graph, start, end);
+    }
 
-        return -1;
+    /**
+     * Finds geodesic distances for a collection of node pairs. Pairs are grouped by their first node, so that one
+     * search answers all queries from the same node. For directed graphs, paths must traverse the graph in the
+     * direction of the edges.
+     * @param <N> graph node type
+     * @param graph the graph
+     * @param queries second nodes of each pair, keyed by first node
+     * @return geodesic distance for each pair, by first and second node, or -1 if they are not connected
+     */
+    public static <N> Table<N, N, Integer> geodesicDistances(Graph<N> graph, Multimap<N, N> queries) {
+        return BreadthFirstSearch.distances(graph, queries, true);
     }
 
     //endregion
@@ -373,37 +318,11 @@ public class GraphUtils {
      * @return set of components, as a set of sets
      */
     public static <N> Collection<Set<N>> components(Multimap<N, N> dirAdj) {
-        // ensure symmetry
-        Multimap<N, N> adj = HashMultimap.create();
+        IncrementalComponents<N> res = new IncrementalComponents<>();
         for (Entry<N, N> en : dirAdj.entries()) {
-            adj.put(en.getKey(), en.getValue());
-            adj.put(en.getValue(), en.getKey());
+            res.addEdge(en.getKey(), en.getValue());
         }
-        
-        List<Set<N>> res = Lists.newArrayList();
-        Set<N> toAdd = Sets.newHashSet(adj.keySet());
-        while (!toAdd.isEmpty()) {
-            N next = toAdd.iterator().next();
-            Set<N> nComp = component(adj, next);
-            res.add(nComp);
-            toAdd.removeAll(nComp);
-        }
-        return res;
-    }
-    
-    private static <N> Set<N> component(Multimap<N, N> adj, N v0) {
-        Set<N> toSearch = Sets.newHashSet(v0);
-        Set<N> res = Sets.newHashSet();
-        while (!toSearch.isEmpty()) {
-            Set<N> next = Sets.newHashSet();
-            for (N n : toSearch) {
-                next.addAll(adj.get(n));
-            }
-            res.addAll(toSearch);
-            next.removeAll(res);
-            toSearch = next;
-        }
-        return res;
+        return res.components();
     }
 
     /**
@@ -413,7 +332,18 @@ public class GraphUtils {
      * @return set of connected components
      */
     public static <N> Collection<Set<N>> components(Graph<N> graph) {
-        return components(adjacencies(graph, graph.nodes()));
+        CompressedGraph<N> cg = CompressedGraph.copyOf(graph);
+        return IncrementalComponents.components(cg.nodeList(), UnionFind.of(cg));
+    }
+
+    /**
+     * Count connected components of a graph, without computing the components.
+     * @param <N> graph node type
+     * @param graph the graph
+     * @return number of connected components
+     */
+    public static <N> int componentCount(Graph<N> graph) {
+        return UnionFind.of(CompressedGraph.copyOf(graph)).setCount();
     }
 
     /**
@@ -424,7 +354,16 @@ public class GraphUtils {
      * @return set of connected components
      */
     public static <N> Collection<Set<N>> components(Graph<N> graph, Set<N> nodes) {
-        return components(adjacencies(graph, nodes));
+        IncrementalComponents<N> res = new IncrementalComponents<>();
+        for (N n : nodes) {
+            res.addNode(n);
+            for (N m : graph.adjacentNodes(n)) {
+                if (nodes.contains(m)) {
+                    res.addEdge(n, m);
+                }
+            }
+        }
+        return res.components();
     }
 
     /**
@@ -0,0 +1,181 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Tracks the connected components of a graph as nodes and edges are added, without rescanning the graph. Edge
+ * direction is ignored. Backed by a {@link UnionFind} over ids assigned to nodes in the order they are added.
+ * Removing nodes or edges is not supported; create a new instance if that is required. Instances are not
+ * thread-safe.
+ *
+ * @param <N> graph node type
+ *
+ * @author Elisha Peterson
+ */
+public final class IncrementalComponents<N> {
+
+    /** Id of each node */
+    private final Map<N, Integer> ids = new HashMap<>();
+    /** Node for each id */
+    private final List<N> nodes = new ArrayList<>();
+    /** Tracks sets of ids */
+    private final UnionFind sets = new UnionFind(0);
+
+    /**
+     * Compute components of a graph, which may then be updated as nodes and edges are added.
+     * @param graph the graph
+     * @param <N> graph node type
+     * @return components
+     */
+    public static <N> IncrementalComponents<N> of(Graph<N> graph) {
+        IncrementalComponents<N> res = new IncrementalComponents<>();
+        graph.nodes().forEach(res::addNode);
+        for (EndpointPair<N> e : graph.edges()) {
+            res.addEdge(e.nodeU(), e.nodeV());
+        }
+        return res;
+    }
+
+    //region PROPERTIES
+
+    /**
+     * Get number of nodes.
+     * @return number of nodes
+     */
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Get number of components.
+     * @return number of components
+     */
+    public int componentCount() {
+        return sets.setCount();
+    }
+
+    //endregion
+
+    //region MUTATORS
+
+    /**
+     * Add a node, in its own component if it is new.
+     * @param node the node
+     * @return true if the node was added
+     */
+    public boolean addNode(N node) {
+        if (ids.containsKey(node)) {
+            return false;
+        }
+        ids.put(node, sets.add());
+        nodes.add(node);
+        return true;
+    }
+
+    /**
+     * Add an edge, merging the components of its endpoints. Endpoints are added if necessary.
+     * @param u first node
+     * @param v second node
+     * @return true if the edge merged two components
+     */
+    public boolean addEdge(N u, N v) {
+        addNode(u);
+        addNode(v);
+        return sets.union(ids.get(u), ids.get(v));
+    }
+
+    //endregion
+
+    //region QUERIES
+
+    /**
+     * Test whether two nodes are in the same component.
+     * @param u first node
+     * @param v second node
+     * @return true if both nodes have been added and are in the same component
+     */
+    public boolean connected(N u, N v) {
+        Integer iu = ids.get(u);
+        Integer iv = ids.get(v);
+        return iu != null && iv != null && sets.connected(iu, iv);
+    }
+
+    /**
+     * Get the component containing a node.
+     * @param node the node
+     * @return nodes in the same component
+     * @throws IllegalArgumentException if the node has not been added
+     */
+    public Set<N> component(N node) {
+        Integer id = ids.get(node);
+        checkArgument(id != null, "Node not found: " + node);
+        int root = sets.find(id);
+        Set<N> res = new HashSet<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            if (sets.find(i) == root) {
+                res.add(nodes.get(i));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get all components.
+     * @return list of components, as sets of nodes
+     */
+    public List<Set<N>> components() {
+        return components(nodes, sets);
+    }
+
+    /**
+     * Group nodes by their sets.
+     * @param nodes nodes, indexed by id
+     * @param sets sets of ids
+     * @param <N> graph node type
+     * @return list of sets of nodes, ordered by smallest id
+     */
+    static <N> List<Set<N>> components(List<N> nodes, UnionFind sets) {
+        int[] labels = sets.setLabels();
+        List<Set<N>> res = new ArrayList<>(sets.setCount());
+        for (int i = 0; i < sets.setCount(); i++) {
+            res.add(new HashSet<>());
+        }
+        for (int i = 0; i < labels.length; i++) {
+            res.get(labels[i]).add(nodes.get(i));
+        }
+        return res;
+    }
+
+    //endregion
+
+}
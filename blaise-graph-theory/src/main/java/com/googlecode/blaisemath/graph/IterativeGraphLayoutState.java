@@ -46,6 +46,8 @@ public abstract class IterativeGraphLayoutState<N> {
     private final Map<N, Point2D.Double> updateLoc = Maps.newHashMap();
     /** If true, the in-memory state will be updated to include only nodes in the update. */
     private boolean resetNodes = false;
+    /** If true, the graph may have been edited since the last layout step. */
+    private boolean graphInvalid = false;
     
     /** Cooling parameter, used to gradually reduce the impact of the layout */
     private double coolingParameter;
@@ -81,6 +83,32 @@ public abstract class IterativeGraphLayoutState<N> {
         }
     }
     
+    /**
+     * Notify the state that the graph being laid out may have been edited in place, so that any structures derived
+     * from the graph are rebuilt before the next layout step.
+     */
+    public synchronized void invalidateGraph() {
+        graphInvalid = true;
+    }
+
+    /**
+     * Check whether {@link #invalidateGraph()} has been called since the last check, and clear the flag.
+     * @return true if the graph may have been edited
+     */
+    protected synchronized boolean checkGraphInvalid() {
+        boolean res = graphInvalid;
+        graphInvalid = false;
+        return res;
+    }
+
+    /**
+     * Check whether there are location updates waiting to be applied by {@link #nodeLocationSync(Set)}.
+     * @return true if there are pending updates
+     */
+    protected synchronized boolean hasPendingUpdates() {
+        return !updateLoc.isEmpty();
+    }
+    
     //endregion
     
     //region LOCATION UPDATES
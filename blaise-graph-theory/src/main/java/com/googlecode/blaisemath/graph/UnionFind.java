@@ -0,0 +1,192 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * Disjoint-set structure over int ids 0..n-1, used to track connected components as edges are added. Uses union by
+ * size and path halving, so that any sequence of operations runs in nearly linear time. Ids may be added after
+ * construction. Instances are not thread-safe.
+ *
+ * @author Elisha Peterson
+ */
+public final class UnionFind {
+
+    /** Parent of each id, or the id itself for roots */
+    private int[] parent;
+    /** Size of the set rooted at each id; only valid for roots */
+    private int[] size;
+    /** Number of ids */
+    private int count;
+    /** Number of disjoint sets */
+    private int setCount;
+
+    /**
+     * Construct with given number of ids, each in its own set.
+     * @param count number of ids
+     */
+    public UnionFind(int count) {
+        parent = new int[Math.max(count, 4)];
+        size = new int[parent.length];
+        for (int i = 0; i < count; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        this.count = count;
+        this.setCount = count;
+    }
+
+    /**
+     * Compute the components of a graph, ignoring edge direction.
+     * @param graph the graph
+     * @return union-find structure, whose ids are the graph's node indices
+     */
+    public static UnionFind of(CompressedGraph<?> graph) {
+        UnionFind res = new UnionFind(graph.nodeCount());
+        int[] offsets = graph.successorOffsets();
+        int[] targets = graph.successorTargets();
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                res.union(i, targets[k]);
+            }
+        }
+        return res;
+    }
+
+    //region PROPERTIES
+
+    /**
+     * Get number of ids.
+     * @return number of ids
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Get number of disjoint sets.
+     * @return number of sets
+     */
+    public int setCount() {
+        return setCount;
+    }
+
+    //endregion
+
+    //region OPERATIONS
+
+    /**
+     * Add a new id in its own set.
+     * @return the new id
+     */
+    public int add() {
+        if (count == parent.length) {
+            parent = Arrays.copyOf(parent, 2 * count);
+            size = Arrays.copyOf(size, 2 * count);
+        }
+        parent[count] = count;
+        size[count] = 1;
+        setCount++;
+        return count++;
+    }
+
+    /**
+     * Find the representative of the set containing an id.
+     * @param id the id
+     * @return representative id
+     */
+    public int find(int id) {
+        checkElementIndex(id, count);
+        int x = id;
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Merge the sets containing two ids.
+     * @param a first id
+     * @param b second id
+     * @return true if the ids were in different sets
+     */
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        if (size[ra] < size[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+        setCount--;
+        return true;
+    }
+
+    /**
+     * Test whether two ids are in the same set.
+     * @param a first id
+     * @param b second id
+     * @return true if in the same set
+     */
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * Get size of the set containing an id.
+     * @param id the id
+     * @return set size
+     */
+    public int setSize(int id) {
+        return size[find(id)];
+    }
+
+    /**
+     * Label each id by its set, using labels 0..setCount()-1 assigned in order of each set's smallest id.
+     * @return label of each id
+     */
+    public int[] setLabels() {
+        int[] labels = new int[count];
+        int[] rootLabel = new int[count];
+        Arrays.fill(rootLabel, -1);
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            int r = find(i);
+            if (rootLabel[r] == -1) {
+                rootLabel[r] = next++;
+            }
+            labels[i] = rootLabel[r];
+        }
+        return labels;
+    }
+
+    //endregion
+
+}
@@ -22,23 +22,38 @@ package com.googlecode.blaisemath.graph.generate;
 
 import com.google.common.graph.Graph;
 import com.googlecode.blaisemath.graph.GraphGenerator;
-import com.googlecode.blaisemath.graph.GraphUtils;
 import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator.EdgeLikelihoodParameters;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * Generate random graph with specified edge probability.
+ * Generate random graph with specified edge probability. Rather than drawing a random number for every pair of nodes,
+ * the generator jumps directly from one edge to the next, using the fact that the gaps between edges follow a
+ * geometric distribution (<i>Batagelj and Brandes</i>, "Efficient Generation of Large Random Networks"). This takes
+ * time proportional to the number of nodes and edges.
+ * <p>
+ * Candidate node pairs are split into blocks with independent random number generators, split in order from a single
+ * seed drawn from the generator's random seed. In parallel mode, blocks are processed in the common
+ * {@link ForkJoinPool}. The number of blocks depends only on the parameters, so the result for a given seed does not
+ * depend on the parallel setting.
  *
  * @author Elisha Peterson
  */
 public final class EdgeLikelihoodGenerator implements GraphGenerator<EdgeLikelihoodParameters,Integer> {
-    
+
+    /** Expected number of edges per block of node pairs */
+    private static final int EDGES_PER_BLOCK = 1 << 16;
+    /** Maximum number of blocks of node pairs */
+    private static final int MAX_BLOCKS = 1 << 12;
+
     private Random seed = null;
+    /** Whether to split generation across multiple threads */
+    private boolean parallel = false;
 
     public EdgeLikelihoodGenerator() {
     }
@@ -47,11 +62,41 @@ public final class EdgeLikelihoodGenerator implements GraphGenerator<EdgeLikelih
         this.seed = seed;
     }
 
+    /**
+     * Construct with specified random seed and parallel setting.
+     * @param seed random seed, or null to use a new random seed
+     * @param parallel if true, generation will be split across threads in the common fork-join pool
+     */
+    public EdgeLikelihoodGenerator(Random seed, boolean parallel) {
+        this.seed = seed;
+        this.parallel = parallel;
+    }
+
     @Override
     public String toString() {
         return "Random Graph (fixed Edge Probability)";
     }
 
+    //region PROPERTIES
+
+    /**
+     * Get whether graphs are generated on multiple threads.
+     * @return true if parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Set whether graphs are generated on multiple threads.
+     * @param parallel true to use the common fork-join pool
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    //endregion
+
     @Override
     public EdgeLikelihoodParameters createParameters() {
         return new EdgeLikelihoodParameters();
@@ -59,20 +104,134 @@ public final class EdgeLikelihoodGenerator implements GraphGenerator<EdgeLikelih
 
     @Override
     public Graph<Integer> apply(EdgeLikelihoodParameters p) {
-        boolean directed = p.isDirected();
         Random r = seed == null ? new Random() : seed;
-        List<Integer> nn = GraphGenerators.intList(0, p.getNodeCount());
-        List<Integer[]> edges = new ArrayList<>();
-        for (int i = 0; i < p.getNodeCount(); i++) {
-            for (int j = directed ? 0 : i + 1; j < p.getNodeCount(); j++) {
-                if (r.nextDouble() < p.getProbability()) {
-                    edges.add(new Integer[]{nn.get(i), nn.get(j)});
+        PairSampler sampler = new PairSampler(p.isDirected(), p.getNodeCount(), p.getProbability(), r.nextLong());
+        IndexEdgeBuffer edges;
+        if (parallel && sampler.blockCount > 1) {
+            edges = ForkJoinPool.commonPool().invoke(new SamplerTask(sampler, 0, sampler.blockCount));
+        } else {
+            edges = sampler.sample(0, sampler.blockCount);
+        }
+        return edges.toGraph(p.isDirected(), GraphGenerators.intList(0, p.getNodeCount()));
+    }
+
+    //region SAMPLING
+
+    /**
+     * Samples node pairs with a fixed probability. Pairs are numbered consecutively: in the directed case, pair
+     * (i, j) has number i*n+j, and in the undirected case, pair (i, j) with i &lt; j has number j(j-1)/2+i.
+     */
+    private static final class PairSampler {
+
+        private final boolean directed;
+        private final int nodeCount;
+        private final double probability;
+        /** Logarithm of the probability that a pair is not selected */
+        private final double logMiss;
+        /** Total number of candidate pairs */
+        private final long pairCount;
+        private final int blockCount;
+        /** Random number generators, one per block */
+        private final SplittableRandom[] randoms;
+
+        private PairSampler(boolean directed, int nodeCount, double probability, long seed) {
+            this.directed = directed;
+            this.nodeCount = nodeCount;
+            this.probability = probability;
+            this.logMiss = Math.log(1 - probability);
+            this.pairCount = directed ? (long) nodeCount * nodeCount : (long) nodeCount * (nodeCount - 1) / 2;
+            double expectedEdges = pairCount * probability;
+            long blocks = (long) Math.ceil(expectedEdges / EDGES_PER_BLOCK);
+            blockCount = (int) Math.max(1, Math.min(Math.min(blocks, MAX_BLOCKS), pairCount));
+            SplittableRandom root = new SplittableRandom(seed);
+            randoms = new SplittableRandom[blockCount];
+            for (int b = 0; b < blockCount; b++) {
+                randoms[b] = root.split();
+            }
+        }
+
+        /** Number of the first pair in the given block. */
+        private long blockStart(int block) {
+            return block * (pairCount / blockCount) + Math.min(block, pairCount % blockCount);
+        }
+
+        /**
+         * Sample edges from a range of blocks.
+         * @param fromBlock first block (inclusive)
+         * @param toBlock last block (exclusive)
+         * @return edges
+         */
+        private IndexEdgeBuffer sample(int fromBlock, int toBlock) {
+            IndexEdgeBuffer res = new IndexEdgeBuffer((int) Math.min(Integer.MAX_VALUE - 8,
+                    1.1 * (blockStart(toBlock) - blockStart(fromBlock)) * probability + 16));
+            for (int b = fromBlock; b < toBlock; b++) {
+                sampleBlock(b, res);
+            }
+            return res;
+        }
+
+        private void sampleBlock(int block, IndexEdgeBuffer res) {
+            if (probability <= 0) {
+                return;
+            }
+            SplittableRandom random = randoms[block];
+            long end = blockStart(block + 1);
+            long k = blockStart(block) - 1;
+            while (true) {
+                // gap to next selected pair is geometric; the uniform value is in (0,1] to avoid log(0)
+                double skip = probability >= 1 ? 0 : Math.floor(Math.log(1 - random.nextDouble()) / logMiss);
+                if (skip >= end - k - 1) {
+                    return;
+                }
+                k += 1 + (long) skip;
+                if (directed) {
+                    res.add((int) (k / nodeCount), (int) (k % nodeCount));
+                } else {
+                    int j = (int) ((1 + Math.sqrt(1 + 8.0 * k)) / 2);
+                    // correct for rounding in the square root
+                    while ((long) j * (j - 1) / 2 > k) {
+                        j--;
+                    }
+                    while ((long) (j + 1) * j / 2 <= k) {
+                        j++;
+                    }
+                    res.add((int) (k - (long) j * (j - 1) / 2), j);
                 }
             }
         }
-        return GraphUtils.createFromArrayEdges(directed, nn, edges);
     }
 
+    /** Samples edges for a range of blocks, splitting the range across workers. */
+    @SuppressWarnings("serial")
+    private static final class SamplerTask extends RecursiveTask<IndexEdgeBuffer> {
+
+        private final PairSampler sampler;
+        private final int from;
+        private final int to;
+
+        SamplerTask(PairSampler sampler, int from, int to) {
+            this.sampler = sampler;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IndexEdgeBuffer compute() {
+            if (to - from <= 1) {
+                return sampler.sample(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            SamplerTask left = new SamplerTask(sampler, from, mid);
+            left.fork();
+            IndexEdgeBuffer right = new SamplerTask(sampler, mid, to).compute();
+            IndexEdgeBuffer res = left.join();
+            res.addAll(right);
+            return res;
+        }
+    }
+
+    //endregion
+
     //region PARAMETERS CLASS
     
     /** Parameters for edge probability generator */
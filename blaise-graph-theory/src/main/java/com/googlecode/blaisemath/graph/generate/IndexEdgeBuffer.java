@@ -0,0 +1,92 @@
+package com.googlecode.blaisemath.graph.generate;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.googlecode.blaisemath.graph.CompressedGraph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable list of edges given as pairs of node indices, stored in primitive arrays. Used by generators to collect
+ * edges for {@link CompressedGraph#fromIndexEdges(boolean, List, int[], int[], int)} without allocating an object
+ * per edge.
+ *
+ * @author Elisha Peterson
+ */
+final class IndexEdgeBuffer {
+
+    private int[] sources;
+    private int[] targets;
+    private int size = 0;
+
+    IndexEdgeBuffer() {
+        this(16);
+    }
+
+    IndexEdgeBuffer(int capacity) {
+        sources = new int[Math.max(capacity, 1)];
+        targets = new int[Math.max(capacity, 1)];
+    }
+
+    /** Number of edges in the buffer. */
+    int size() {
+        return size;
+    }
+
+    /** Add an edge. */
+    void add(int source, int target) {
+        if (size == sources.length) {
+            grow(size + 1);
+        }
+        sources[size] = source;
+        targets[size] = target;
+        size++;
+    }
+
+    /** Add all edges from another buffer. */
+    void addAll(IndexEdgeBuffer other) {
+        if (size + other.size > sources.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.sources, 0, sources, size, other.size);
+        System.arraycopy(other.targets, 0, targets, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Create a graph with the edges in this buffer.
+     * @param <N> graph node type
+     * @param directed whether graph is directed
+     * @param nodes nodes of the graph, by index
+     * @return graph
+     */
+    <N> CompressedGraph<N> toGraph(boolean directed, List<N> nodes) {
+        return CompressedGraph.fromIndexEdges(directed, nodes, sources, targets, size);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, sources.length + (sources.length >> 1));
+        sources = Arrays.copyOf(sources, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+    }
+
+}
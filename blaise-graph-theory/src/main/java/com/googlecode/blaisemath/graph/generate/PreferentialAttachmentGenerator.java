@@ -20,27 +20,45 @@ package com.googlecode.blaisemath.graph.generate;
  * #L%
  */
 
+import com.google.common.graph.EndpointPair;
 import com.google.common.graph.Graph;
 import com.googlecode.blaisemath.graph.GraphGenerator;
-import com.googlecode.blaisemath.graph.GraphUtils;
 import com.googlecode.blaisemath.graph.generate.PreferentialAttachmentGenerator.PreferentialAttachmentParameters;
 import org.jspecify.annotations.Nullable;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Provides static utility methods for generating graphs using preferential
- * attachment.
+ * attachment. Each new node is attached to existing nodes chosen with probability
+ * proportional to their degree, by sampling from an array that lists both endpoints
+ * of every edge (<i>Batagelj and Brandes</i>, "Efficient Generation of Large Random
+ * Networks"). This takes constant time per edge, and edges are collected in primitive
+ * arrays until the graph is built. The targets of each new node are distinct, so it
+ * gets the requested number of edges unless fewer nodes have edges to attach to.
  *
  * @author Elisha Peterson
  */
 public final class PreferentialAttachmentGenerator implements GraphGenerator<PreferentialAttachmentParameters,Integer> {
 
+    private Random seed = null;
+
+    public PreferentialAttachmentGenerator() {
+    }
+
+    public PreferentialAttachmentGenerator(Random seed) {
+        this.seed = seed;
+    }
+
     @Override
     public String toString() {
         return "Preferential Attachment Graph";
@@ -53,70 +71,102 @@ public final class PreferentialAttachmentGenerator implements GraphGenerator<Pre
 
     @Override
     public Graph<Integer> apply(PreferentialAttachmentParameters parameters) {
-        if (parameters.getConnectProbabilities() == null) {
-            return generate(parameters.generateSeedGraph(), parameters.getNodeCount(), parameters.getEdgesPerStep());
-        } else {
-            return generate(parameters.generateSeedGraph(), parameters.getNodeCount(), parameters.getConnectProbabilities());
-        }
+        Random r = seed == null ? new Random() : seed;
+        return generate(r, parameters.generateSeedGraph(), parameters.getNodeCount(),
+                parameters.getEdgesPerStep(), parameters.getConnectProbabilities());
     }
 
     //region ALGORITHM
     
     /**
-     * Common method for preferential attachment algorithm
+     * Common method for preferential attachment algorithm. New nodes are labeled by the smallest integers not
+     * used in the seed graph.
+     * @param random random seed
+     * @param seedGraph initial graph
+     * @param nodeCount number of nodes in the result
+     * @param edgesPerStep number of edges added with each node, if probabilities are null
+     * @param connectProbabilities probabilities of the number of edges added with each node
+     * @return generated graph
      */
-    private static Graph<Integer> generate(Graph<Integer> seedGraph, final int nodeCount, Object edgesPerStep) {
-        // prepare parameters for graph to be created
-        List<Integer> nodes = new ArrayList<>(seedGraph.nodes());
-        List<Integer[]> edges = new ArrayList<>();
-        int[] degrees = new int[nodeCount];
-        Arrays.fill(degrees, 0);
-        int degreeSum = 0;
-
-        // initialize with values from seed graph
-        for (Integer i1 : nodes) {
-            for (Integer i2 : nodes) {
-                if (seedGraph.hasEdgeConnecting(i1, i2)) {
-                    degreeSum += addEdge(edges, degrees, i1, i2);
-                }
+    private static Graph<Integer> generate(Random random, Graph<Integer> seedGraph, int nodeCount, int edgesPerStep,
+                                           @Nullable float[] connectProbabilities) {
+        int seedCount = seedGraph.nodes().size();
+        int total = Math.max(nodeCount, seedCount);
+        int maxPerStep = connectProbabilities == null ? edgesPerStep : Math.max(0, connectProbabilities.length - 1);
+        long capacity = 2L * (seedGraph.edges().size() + (long) (total - seedCount) * maxPerStep);
+        checkArgument(capacity < Integer.MAX_VALUE - 8, "Too many edges: %s", capacity / 2);
+
+        // node labels by index, starting with nodes of the seed graph
+        int[] labels = new int[total];
+        Map<Integer, Integer> seedIndices = new HashMap<>(seedCount * 2);
+        BitSet used = new BitSet();
+        for (Integer n : seedGraph.nodes()) {
+            labels[seedIndices.size()] = n;
+            seedIndices.put(n, seedIndices.size());
+            if (n >= 0) {
+                used.set(n);
             }
         }
 
-        int cur = 0;
-        boolean variableEdgeNumber = edgesPerStep instanceof float[];
-        int numberEdgesToAdd = variableEdgeNumber ? 0 : (Integer) edgesPerStep;
-        float[] connectionProbabilities = variableEdgeNumber ? (float[]) edgesPerStep : new float[]{};
+        // each edge adds both endpoints, so sampling this array chooses nodes in proportion to degree
+        int[] endpoints = new int[(int) capacity];
+        int endpointCount = 0;
+        IndexEdgeBuffer edges = new IndexEdgeBuffer((int) (capacity / 2));
+        // number of distinct nodes with at least one edge
+        BitSet connected = new BitSet(total);
+        for (EndpointPair<Integer> e : seedGraph.edges()) {
+            int u = seedIndices.get(e.nodeU());
+            int v = seedIndices.get(e.nodeV());
+            edges.add(u, v);
+            endpoints[endpointCount++] = u;
+            endpoints[endpointCount++] = v;
+            connected.set(u);
+            connected.set(v);
+        }
+        int connectedCount = connected.cardinality();
 
-        while (nodes.size() < nodeCount) {
-            while (nodes.contains(cur)) {
-                cur++;
+        int[] targets = new int[maxPerStep];
+        // step at which each node was last chosen as a target, used to reject repeated targets
+        int[] chosenAt = new int[total];
+        Arrays.fill(chosenAt, -1);
+        int cur = 0;
+        for (int i = seedCount; i < total; i++) {
+            cur = used.nextClearBit(cur);
+            labels[i] = cur++;
+            int count = connectProbabilities == null ? edgesPerStep : sampleRandom(random, connectProbabilities);
+            if (count > 0 && endpointCount == 0) {
+                throw new IllegalStateException("Cannot attach nodes to a graph without edges");
             }
-            nodes.add(cur);
-            if (variableEdgeNumber) {
-                numberEdgesToAdd = sampleRandom(connectionProbabilities);
+            // targets are chosen before adding any edges, and are distinct, so each adds an edge to the graph
+            count = Math.min(count, connectedCount);
+            int existing = endpointCount;
+            for (int k = 0; k < count; k++) {
+                int t;
+                do {
+                    t = endpoints[random.nextInt(existing)];
+                } while (chosenAt[t] == i);
+                chosenAt[t] = i;
+                targets[k] = t;
+            }
+            if (count > 0) {
+                connectedCount++;
+            }
+            for (int k = 0; k < count; k++) {
+                edges.add(i, targets[k]);
+                endpoints[endpointCount++] = i;
+                endpoints[endpointCount++] = targets[k];
             }
-            degreeSum += addEdge(edges, degrees, cur, weightedRandomNode(degrees, degreeSum, numberEdgesToAdd));
-        }
-        return GraphUtils.createFromArrayEdges(false, nodes, edges);
-    }
-
-    /**
-     * Utility to add specified nodes to the edge set and increment the
-     * corresponding degrees.
-     *
-     * @param edges current list of edges
-     * @param degrees current list of degrees
-     * @param v1 first node of edge to add
-     * @param attachments second node(s) of edges to add
-     * @return number of new degrees added
-     */
-    static int addEdge(List<Integer[]> edges, int[] degrees, int v1, int... attachments) {
-        for (int v : attachments) {
-            edges.add(new Integer[]{v1, v});
-            degrees[v]++;
         }
-        degrees[v1] += attachments.length;
-        return attachments.length * 2;
+        return edges.toGraph(false, new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return labels[index];
+            }
+            @Override
+            public int size() {
+                return labels.length;
+            }
+        });
     }
 
     /**
@@ -163,7 +213,17 @@ public final class PreferentialAttachmentGenerator implements GraphGenerator<Pre
      * @return index of a randomly chosen # in provided array of probabilities
      */
     public static int sampleRandom(float[] probabilities) {
-        double rand = Math.random();
+        return sampleRandom(new Random(), probabilities);
+    }
+
+    /**
+     * Generate a random index based on a probability array.
+     * @param random random seed
+     * @param probabilities the probability array
+     * @return index of a randomly chosen # in provided array of probabilities
+     */
+    static int sampleRandom(Random random, float[] probabilities) {
+        double rand = random.nextDouble();
         float sum = 0f;
         for (int i = 0; i < probabilities.length; i++) {
             sum += probabilities[i];
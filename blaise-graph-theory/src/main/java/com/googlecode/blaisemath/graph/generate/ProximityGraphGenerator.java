@@ -23,26 +23,80 @@ package com.googlecode.blaisemath.graph.generate;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import com.google.common.graph.Graph;
 import com.googlecode.blaisemath.geom.Rectangles;
 import com.googlecode.blaisemath.graph.GraphGenerator;
-import com.googlecode.blaisemath.graph.GraphUtils;
 import com.googlecode.blaisemath.graph.generate.ProximityGraphGenerator.ProximityGraphParameters;
 
 /**
  * Generates a graph in specified bounding box, where edges are added for points that are within a certain distance.
+ * Points are bucketed into a uniform grid whose cells are at least as large as the connection distance, so only points
+ * in the same or adjacent cells are compared, and generation takes time roughly linear in the number of points and
+ * edges. In parallel mode, rows of grid cells are split across the common {@link ForkJoinPool}. The result does not
+ * depend on the parallel setting.
  *
  * @author Elisha Peterson
  */
 public final class ProximityGraphGenerator implements GraphGenerator<ProximityGraphParameters,Point2D.Double> {
 
+    /** Maximum average number of grid cells per point, limiting grid size for small connection distances */
+    private static final int MAX_CELLS_PER_POINT = 4;
+    /** Number of row ranges per worker thread, used to balance load in parallel mode */
+    private static final int TASKS_PER_THREAD = 8;
+
+    private Random seed = null;
+    /** Whether to split edge computation across multiple threads */
+    private boolean parallel = false;
+
+    public ProximityGraphGenerator() {
+    }
+
+    public ProximityGraphGenerator(Random seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Construct with specified random seed and parallel setting.
+     * @param seed random seed, or null to use a new random seed
+     * @param parallel if true, computation will be split across threads in the common fork-join pool
+     */
+    public ProximityGraphGenerator(Random seed, boolean parallel) {
+        this.seed = seed;
+        this.parallel = parallel;
+    }
+
     @Override
     public String toString() {
         return "Proximity Graph";
     }
 
+    //region PROPERTIES
+
+    /**
+     * Get whether edges are computed on multiple threads.
+     * @return true if parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Set whether edges are computed on multiple threads.
+     * @param parallel true to use the common fork-join pool
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    //endregion
+
     @Override
     public ProximityGraphParameters createParameters() {
         return new ProximityGraphParameters();
@@ -55,23 +109,173 @@ public final class ProximityGraphGenerator implements GraphGenerator<ProximityGr
         double x1 = parameters.getBounds().getMaxX();
         double y0 = parameters.getBounds().getMinY();
         double y1 = parameters.getBounds().getMaxY();
-        double connectDistance = parameters.getConnectDistance();
-        
-        List<Point2D.Double> pts = new ArrayList<>();
+        Random r = seed == null ? new Random() : seed;
+
+        // coincident points are merged into a single node
+        List<Point2D.Double> pts = new ArrayList<>(nodes);
+        Set<Point2D.Double> distinct = new HashSet<>(nodes * 2);
         for (int i = 0; i < nodes; i++) {
-            pts.add(new Point2D.Double(x0 + (x1 - x0) * Math.random(), y0 + (y1 - y0) * Math.random()));
+            Point2D.Double p = new Point2D.Double(x0 + (x1 - x0) * r.nextDouble(), y0 + (y1 - y0) * r.nextDouble());
+            if (distinct.add(p)) {
+                pts.add(p);
+            }
+        }
+
+        IndexEdgeBuffer edges;
+        double connectDistance = parameters.getConnectDistance();
+        if (connectDistance <= 0 || pts.size() < 2) {
+            edges = new IndexEdgeBuffer();
+        } else {
+            PointGrid grid = new PointGrid(pts, x0, x1, y0, y1, connectDistance);
+            if (parallel && grid.rows > 1) {
+                ForkJoinPool pool = ForkJoinPool.commonPool();
+                int threshold = Math.max(1, grid.rows / (TASKS_PER_THREAD * pool.getParallelism()));
+                edges = pool.invoke(new GridTask(grid, 0, grid.rows, threshold));
+            } else {
+                edges = grid.edges(0, grid.rows);
+            }
+        }
+        return edges.toGraph(false, pts);
+    }
+
+    //region GRID
+
+    /** Points bucketed into a uniform grid of cells, stored as arrays of coordinates sorted by cell. */
+    private static final class PointGrid {
+
+        private final int rows;
+        private final int cols;
+        /** Start of each cell's points in the sorted arrays */
+        private final int[] cellStart;
+        /** Point indices, sorted by cell */
+        private final int[] index;
+        /** Point coordinates, sorted by cell */
+        private final double[] xs;
+        private final double[] ys;
+        /** Square of the connection distance */
+        private final double dist2;
+
+        private PointGrid(List<Point2D.Double> pts, double x0, double x1, double y0, double y1, double connectDistance) {
+            int n = pts.size();
+            double w = x1 - x0;
+            double h = y1 - y0;
+            double cellSize = connectDistance;
+            double maxCells = (double) MAX_CELLS_PER_POINT * n;
+            if ((w / cellSize + 1) * (h / cellSize + 1) > maxCells) {
+                // larger cells keep the grid small; neighboring cells still cover the connection distance
+                cellSize = Math.max(cellSize, Math.sqrt(w * h / maxCells));
+                cellSize = Math.max(cellSize, Math.max(w, h) / maxCells);
+            }
+            cols = Math.max(1, (int) Math.min(Math.ceil(w / cellSize), maxCells));
+            rows = Math.max(1, (int) Math.min(Math.ceil(h / cellSize), maxCells));
+            dist2 = connectDistance * connectDistance;
+
+            // counting sort of points by cell
+            int[] cell = new int[n];
+            cellStart = new int[rows * cols + 1];
+            for (int i = 0; i < n; i++) {
+                Point2D.Double p = pts.get(i);
+                int cx = Math.min(cols - 1, (int) ((p.x - x0) / cellSize));
+                int cy = Math.min(rows - 1, (int) ((p.y - y0) / cellSize));
+                cell[i] = cy * cols + cx;
+                cellStart[cell[i] + 1]++;
+            }
+            for (int c = 0; c < rows * cols; c++) {
+                cellStart[c + 1] += cellStart[c];
+            }
+            int[] pos = cellStart.clone();
+            index = new int[n];
+            xs = new double[n];
+            ys = new double[n];
+            for (int i = 0; i < n; i++) {
+                int k = pos[cell[i]]++;
+                index[k] = i;
+                xs[k] = pts.get(i).x;
+                ys[k] = pts.get(i).y;
+            }
+        }
+
+        /**
+         * Find edges between points in cells of the given rows and points in the same or following cells, so each
+         * pair of adjacent cells is compared once.
+         * @param fromRow first row (inclusive)
+         * @param toRow last row (exclusive)
+         * @return edges
+         */
+        private IndexEdgeBuffer edges(int fromRow, int toRow) {
+            IndexEdgeBuffer res = new IndexEdgeBuffer();
+            for (int cy = fromRow; cy < toRow; cy++) {
+                for (int cx = 0; cx < cols; cx++) {
+                    int c = cy * cols + cx;
+                    // pairs within the cell
+                    for (int a = cellStart[c]; a < cellStart[c + 1]; a++) {
+                        for (int b = a + 1; b < cellStart[c + 1]; b++) {
+                            addIfClose(res, a, b);
+                        }
+                    }
+                    // pairs with the cell to the right, and the three cells in the next row
+                    if (cx + 1 < cols) {
+                        compareCells(res, c, c + 1);
+                    }
+                    if (cy + 1 < rows) {
+                        for (int dx = Math.max(0, cx - 1); dx <= Math.min(cols - 1, cx + 1); dx++) {
+                            compareCells(res, c, c + cols - cx + dx);
+                        }
+                    }
+                }
+            }
+            return res;
         }
-        List<Point2D.Double[]> edges = new ArrayList<>();
-        for (int i0 = 0; i0 < pts.size(); i0++) {
-            for (int i1 = i0+1; i1 < pts.size(); i1++) {
-                if (pts.get(i0).distance(pts.get(i1)) > connectDistance) {
-                    continue;
+
+        private void compareCells(IndexEdgeBuffer res, int c1, int c2) {
+            for (int a = cellStart[c1]; a < cellStart[c1 + 1]; a++) {
+                for (int b = cellStart[c2]; b < cellStart[c2 + 1]; b++) {
+                    addIfClose(res, a, b);
                 }
-                edges.add(new Point2D.Double[]{pts.get(i0), pts.get(i1)});
             }
         }
-        return GraphUtils.createFromArrayEdges(false, pts, edges);
+
+        private void addIfClose(IndexEdgeBuffer res, int a, int b) {
+            double dx = xs[a] - xs[b];
+            double dy = ys[a] - ys[b];
+            if (dx * dx + dy * dy <= dist2) {
+                res.add(index[a], index[b]);
+            }
+        }
     }
+
+    /** Finds edges for a range of grid rows, splitting the range across workers. */
+    @SuppressWarnings("serial")
+    private static final class GridTask extends RecursiveTask<IndexEdgeBuffer> {
+
+        private final PointGrid grid;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        GridTask(PointGrid grid, int from, int to, int threshold) {
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected IndexEdgeBuffer compute() {
+            if (to - from <= threshold) {
+                return grid.edges(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            GridTask left = new GridTask(grid, from, mid, threshold);
+            left.fork();
+            IndexEdgeBuffer right = new GridTask(grid, mid, to, threshold).compute();
+            IndexEdgeBuffer res = left.join();
+            res.addAll(right);
+            return res;
+        }
+    }
+
+    //endregion
     
     //region PARAMETERS CLASS
     
@@ -0,0 +1,256 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory (v3)
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Quadtree used to approximate repulsive forces between nodes in {@link SpringLayout}, following Barnes and Hut,
+ * "A hierarchical O(N log N) force-calculation algorithm". Each cell tracks the number of points it contains and
+ * their center of mass. When computing the force on a point, a cell whose width divided by its distance to the point
+ * is below the opening angle is treated as a single point with the combined mass of its contents. Cells that are
+ * entirely outside the maximum repel distance are skipped.
+ * <p>
+ * The tree is rebuilt from scratch for each layout iteration, reusing its internal arrays, so building it allocates
+ * nothing once the arrays have grown to fit. Once built, the tree may be queried from multiple threads.
+ *
+ * @author Elisha Peterson
+ */
+final class BarnesHutTree {
+
+    /** Max number of points in a leaf cell, unless at max depth */
+    private static final int LEAF_SIZE = 4;
+    /** Max depth of the tree, limits subdivision when many points are at or near the same location */
+    private static final int MAX_DEPTH = 24;
+
+    /** Point coordinates */
+    private double[] px = new double[0];
+    private double[] py = new double[0];
+    /** Point indices, ordered so that each cell's points are contiguous */
+    private int[] order = new int[0];
+    /** Number of points */
+    private int pointCount = 0;
+
+    /** Cell bounds, as min corner and width */
+    private double[] cellX = new double[0];
+    private double[] cellY = new double[0];
+    private double[] cellSize = new double[0];
+    /** Cell center of mass */
+    private double[] massX = new double[0];
+    private double[] massY = new double[0];
+    /** Range of points in each cell, as indices into the order array */
+    private int[] cellFrom = new int[0];
+    private int[] cellTo = new int[0];
+    /** Index of first of four children of each cell, or -1 for leaf cells */
+    private int[] firstChild = new int[0];
+    /** Number of cells */
+    private int cellCount = 0;
+
+    //region BUILD
+
+    /**
+     * Rebuild the tree with the given points.
+     * @param x x coordinates of points
+     * @param y y coordinates of points
+     * @param n number of points
+     */
+    void build(double[] x, double[] y, int n) {
+        if (px.length < n) {
+            px = new double[n];
+            py = new double[n];
+            order = new int[n];
+        }
+        System.arraycopy(x, 0, px, 0, n);
+        System.arraycopy(y, 0, py, 0, n);
+        pointCount = n;
+        cellCount = 0;
+        if (n == 0) {
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            minX = Math.min(minX, px[i]);
+            minY = Math.min(minY, py[i]);
+            maxX = Math.max(maxX, px[i]);
+            maxY = Math.max(maxY, py[i]);
+        }
+        double size = Math.max(Math.max(maxX - minX, maxY - minY), Double.MIN_NORMAL) * (1 + 1e-9);
+        buildCell(newCell(), 0, n, minX, minY, size, 0);
+    }
+
+    /** Allocate a new cell, growing arrays if necessary */
+    private int newCell() {
+        if (cellCount == cellX.length) {
+            int len = Math.max(16, 2 * cellCount);
+            cellX = Arrays.copyOf(cellX, len);
+            cellY = Arrays.copyOf(cellY, len);
+            cellSize = Arrays.copyOf(cellSize, len);
+            massX = Arrays.copyOf(massX, len);
+            massY = Arrays.copyOf(massY, len);
+            cellFrom = Arrays.copyOf(cellFrom, len);
+            cellTo = Arrays.copyOf(cellTo, len);
+            firstChild = Arrays.copyOf(firstChild, len);
+        }
+        return cellCount++;
+    }
+
+    /** Initialize a cell with the given points, subdividing as needed */
+    private void buildCell(int cell, int from, int to, double x0, double y0, double size, int depth) {
+        cellX[cell] = x0;
+        cellY[cell] = y0;
+        cellSize[cell] = size;
+        cellFrom[cell] = from;
+        cellTo[cell] = to;
+        double sx = 0;
+        double sy = 0;
+        for (int k = from; k < to; k++) {
+            sx += px[order[k]];
+            sy += py[order[k]];
+        }
+        massX[cell] = sx / (to - from);
+        massY[cell] = sy / (to - from);
+
+        if (to - from <= LEAF_SIZE || depth >= MAX_DEPTH) {
+            firstChild[cell] = -1;
+            return;
+        }
+
+        // partition points into quadrants: bottom/top by y, then left/right by x within each half
+        double half = size / 2;
+        double midX = x0 + half;
+        double midY = y0 + half;
+        int splitY = partition(py, from, to, midY);
+        int splitX0 = partition(px, from, splitY, midX);
+        int splitX1 = partition(px, splitY, to, midX);
+
+        int child = newCell();
+        newCell();
+        newCell();
+        newCell();
+        firstChild[cell] = child;
+        buildCell(child, from, splitX0, x0, y0, half, depth + 1);
+        buildCell(child + 1, splitX0, splitY, midX, y0, half, depth + 1);
+        buildCell(child + 2, splitY, splitX1, x0, midY, half, depth + 1);
+        buildCell(child + 3, splitX1, to, midX, midY, half, depth + 1);
+    }
+
+    /** Reorder points in the given range so those with coordinate less than the split value come first */
+    private int partition(double[] coord, int from, int to, double split) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo <= hi) {
+            if (coord[order[lo]] < split) {
+                lo++;
+            } else {
+                int tmp = order[lo];
+                order[lo] = order[hi];
+                order[hi] = tmp;
+                hi--;
+            }
+        }
+        return lo;
+    }
+
+    //endregion
+
+    //region FORCE COMPUTATION
+
+    /**
+     * Add the approximate repulsive force on the given point from all other points in the tree. The force law matches
+     * that used by {@link SpringLayout}'s region-based computation.
+     * @param point index of point
+     * @param fx x components of net forces, by point (will be adjusted)
+     * @param fy y components of net forces, by point (will be adjusted)
+     * @param params layout parameters, including the opening angle
+     */
+    void addRepulsiveForce(int point, double[] fx, double[] fy, SpringLayoutParameters params) {
+        if (cellCount > 0) {
+            addRepulsiveForce(0, point, px[point], py[point], fx, fy, params);
+        }
+    }
+
+    private void addRepulsiveForce(int cell, int point, double x, double y, double[] fx, double[] fy,
+                                   SpringLayoutParameters params) {
+        double x0 = cellX[cell];
+        double y0 = cellY[cell];
+        double size = cellSize[cell];
+        double boxDx = Math.max(0, Math.max(x0 - x, x - (x0 + size)));
+        double boxDy = Math.max(0, Math.max(y0 - y, y - (y0 + size)));
+        double maxDist = params.maxRepelDist;
+        if (boxDx * boxDx + boxDy * boxDy >= maxDist * maxDist) {
+            return;
+        }
+
+        int child = firstChild[cell];
+        if (child == -1) {
+            for (int k = cellFrom[cell]; k < cellTo[cell]; k++) {
+                int j = order[k];
+                if (j != point) {
+                    double dx = x - px[j];
+                    double dy = y - py[j];
+                    addForce(fx, fy, point, j, dx, dy, Math.sqrt(dx * dx + dy * dy), 1, params);
+                }
+            }
+            return;
+        }
+
+        boolean outside = boxDx > 0 || boxDy > 0;
+        double dx = x - massX[cell];
+        double dy = y - massY[cell];
+        double dist = Math.sqrt(dx * dx + dy * dy);
+        if (outside && size < params.openingAngle * dist) {
+            addForce(fx, fy, point, -cell, dx, dy, dist, cellTo[cell] - cellFrom[cell], params);
+        } else {
+            for (int c = child; c < child + 4; c++) {
+                if (cellTo[c] > cellFrom[c]) {
+                    addRepulsiveForce(c, point, x, y, fx, fy, params);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add repulsive force from given displacement and mass, if within the maximum repel distance. The source id is
+     * used to pick a direction if the source is at the same location as the point.
+     */
+    private static void addForce(double[] fx, double[] fy, int point, int source, double dx, double dy, double dist,
+                                 int mass, SpringLayoutParameters params) {
+        if (dist >= params.maxRepelDist) {
+            return;
+        }
+        if (dist == 0) {
+            double angle = SpringLayout.jitterAngle(point, source);
+            fx[point] += mass * params.repulsiveC * Math.cos(angle);
+            fy[point] += mass * params.repulsiveC * Math.sin(angle);
+        } else {
+            double multiplier = mass * Math.min(params.repulsiveC/(dist*dist), params.maxForce) / dist;
+            fx[point] += multiplier * dx;
+            fy[point] += multiplier * dy;
+        }
+    }
+
+    //endregion
+
+}
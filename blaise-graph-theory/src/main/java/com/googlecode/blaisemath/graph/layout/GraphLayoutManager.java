@@ -27,6 +27,7 @@ import com.googlecode.blaisemath.graph.GraphUtils;
 import com.googlecode.blaisemath.graph.IterativeGraphLayout;
 import com.googlecode.blaisemath.graph.StaticGraphLayout;
 import com.googlecode.blaisemath.graph.layout.CircleLayout.CircleLayoutParameters;
+import com.googlecode.blaisemath.graph.layout.IncrementalSpringLayout.IncrementalSpringLayoutParameters;
 import org.jspecify.annotations.Nullable;
 
 import java.awt.geom.Point2D;
@@ -82,6 +83,12 @@ public final class GraphLayoutManager<N> {
     private final StaticGraphLayout<CircleLayoutParameters> addingLayout = new PositionalAddingLayout();
     /** The initial layout parameters */
     private final CircleLayoutParameters addingLayoutParameters = new CircleLayoutParameters(100);
+    /** The layout scheme for small graph changes, used if incremental updates are enabled */
+    private final IncrementalSpringLayout incrementalLayout = new IncrementalSpringLayout();
+    /** The incremental layout parameters */
+    private final IncrementalSpringLayoutParameters incrementalLayoutParameters = incrementalLayout.createParameters();
+    /** Whether to update positions locally when the graph changes, rather than placing new nodes only */
+    private boolean incrementalUpdates = false;
 
     /** Manager for iterative graph layout algorithm */
     private final IterativeGraphLayoutManager iterativeLayoutManager = new IterativeGraphLayoutManager();
@@ -141,7 +148,10 @@ public final class GraphLayoutManager<N> {
     
     /**
      * Change the graph. Uses the default initial position layout to position nodes if the current graph was null,
-     * otherwise uses the adding layout for any nodes that do not have current positions.
+     * otherwise uses the adding layout for any nodes that do not have current positions. If incremental updates are
+     * enabled and the new graph differs from the current graph by a small number of nodes or edges, positions are
+     * instead updated by {@link IncrementalSpringLayout}, which moves only nodes near the change. After editing the
+     * current graph in place, call this again with the same graph so the layout picks up the edits.
      *
      * @param g the graph
      */
@@ -156,9 +166,37 @@ public final class GraphLayoutManager<N> {
             initializeNodeLocations(old, g);
             setLayoutTaskActive(active);
             pcs.firePropertyChange(P_GRAPH, old, g);
+        } else {
+            iterativeLayoutManager.setGraph(g);
         }
     }
 
+    /**
+     * Return whether small graph changes are handled by a local layout update.
+     * @return true if incremental updates are enabled
+     * @see IncrementalSpringLayout
+     */
+    public boolean isIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+
+    /**
+     * Set whether small graph changes are handled by a local layout update.
+     * @param incrementalUpdates true to enable incremental updates
+     * @see IncrementalSpringLayout
+     */
+    public void setIncrementalUpdates(boolean incrementalUpdates) {
+        this.incrementalUpdates = incrementalUpdates;
+    }
+
+    /**
+     * Get parameters used for incremental updates. These may be modified to adjust the size of the updated region.
+     * @return parameters
+     */
+    public IncrementalSpringLayoutParameters getIncrementalLayoutParameters() {
+        return incrementalLayoutParameters;
+    }
+
     /**
      * Get layout algorithm.
      * @return current iterative layout algorithm
@@ -232,16 +270,23 @@ public final class GraphLayoutManager<N> {
      * When the graph is changes, call this method to set up initial positions for nodes in the graph. Will attempt to
      * use cached nodes if possible. Otherwise, it may execute the "initial layout" algorithm or the "adding layout"
      * algorithm.
-     *
-     * TODO - may take some time to execute if the graph is large, consider improving this class's design by running the
-     *   initial layout in a background thread; also, locking on the CM may be problematic if the layout takes a long time
+     * <p>
+     * This may take some time to execute if the graph is large, and locks the coordinate manager while it runs. Use
+     * {@link LayoutPipeline} to compute positions on a background thread instead. Incremental updates are computed
+     * from a copy of the current locations, without locking the coordinate manager.
      */
     private void initializeNodeLocations(Graph<N> old, Graph<N> g) {
+        Map<N, Point2D.Double> incrementalLoc = incrementalUpdates && old != null
+                ? incrementalNodeLocations(old, g) : null;
         synchronized (coordinateManager) {
             Set<N> oldNodes = Sets.difference(coordinateManager.getActive(), g.nodes());
             coordinateManager.deactivate(oldNodes);
             // defer to existing locations if possible
-            if (coordinateManager.locatesAll(g.nodes())) {
+            if (incrementalLoc != null) {
+                coordinateManager.reactivate(g.nodes());
+                coordinateManager.putAll(incrementalLoc);
+                LOG.log(Level.FINE, "Updated node locations incrementally");
+            } else if (coordinateManager.locatesAll(g.nodes())) {
                 coordinateManager.reactivate(g.nodes());
             } else {
                 // lays out new graph entirely
@@ -269,6 +314,19 @@ public final class GraphLayoutManager<N> {
         }
     }
 
+    /**
+     * Compute node locations near changes to the graph using the incremental layout. The coordinate manager is only
+     * locked while copying current locations, not while the layout runs.
+     * @return updated locations, or null if the change was too large for an incremental update
+     */
+    private @Nullable Map<N, Point2D.Double> incrementalNodeLocations(Graph<N> old, Graph<N> g) {
+        Map<N, Point2D.Double> curLoc;
+        synchronized (coordinateManager) {
+            curLoc = coordinateManager.getLocationCopy(Sets.filter(g.nodes(), coordinateManager::locates));
+        }
+        return incrementalLayout.layout(old, g, curLoc, incrementalLayoutParameters);
+    }
+
     /**
      * Update the locations of the specified nodes with the specified values. If an iterative layout is currently active,
      * locations are updated at the layout. Otherwise, locations are updated by the point manager. Nodes that are in the
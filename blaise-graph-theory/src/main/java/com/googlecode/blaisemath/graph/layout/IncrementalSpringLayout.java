@@ -0,0 +1,330 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.Sets;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graph;
+import com.google.common.graph.Graphs;
+import com.googlecode.blaisemath.graph.CompressedGraph;
+import com.googlecode.blaisemath.graph.layout.IncrementalSpringLayout.IncrementalSpringLayoutParameters;
+import org.jspecify.annotations.Nullable;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Updates an existing layout after a small change to the graph, without laying out the entire graph again. The old
+ * and new graphs are compared to find the nodes affected by the change: added nodes, endpoints of added or removed
+ * edges, and neighbors of removed nodes. New nodes are placed near their adjacent nodes, as in
+ * {@link PositionalAddingLayout}. A {@link SpringLayout} is then run only on nodes within a fixed number of hops of
+ * the affected nodes, with the ring of nodes just outside that neighborhood pinned in place, until the energy of the
+ * neighborhood converges. Nodes further away do not move. If the neighborhood is too large, e.g. because the change
+ * is adjacent to a hub node, no update is computed and the graph should be laid out by other means.
+ *
+ * @author Elisha Peterson
+ */
+public class IncrementalSpringLayout {
+
+    private static final Logger LOG = Logger.getLogger(IncrementalSpringLayout.class.getName());
+
+    @Override
+    public String toString() {
+        return "Update positions of nodes near graph changes using \"spring layout\" algorithm";
+    }
+
+    public IncrementalSpringLayoutParameters createParameters() {
+        return new IncrementalSpringLayoutParameters();
+    }
+
+    /**
+     * Compute updated positions after a graph change.
+     * @param old the previous graph
+     * @param graph the new graph
+     * @param locations current node locations, which should include all nodes of the new graph that have a position
+     * @param parameters layout parameters
+     * @param <N> graph node type
+     * @return new locations of nodes that were added or moved, or null if the change or its neighborhood is too large
+     *   for an incremental update, in which case the caller should lay out the graph by other means
+     */
+    public <N> @Nullable Map<N, Point2D.Double> layout(Graph<N> old, Graph<N> graph, Map<N, Point2D.Double> locations,
+                                                       IncrementalSpringLayoutParameters parameters) {
+        Set<N> changed = changedNodes(old, graph);
+        if (changed.size() > parameters.maxChangeFraction * Math.max(graph.nodes().size(), old.nodes().size())) {
+            LOG.log(Level.FINE, "Graph change affects {0} nodes, too many for incremental layout", changed.size());
+            return null;
+        }
+        Map<N, Point2D.Double> res = new HashMap<>();
+        if (changed.isEmpty()) {
+            return res;
+        }
+
+        // seed unlocated nodes, in waves outward from located nodes
+        List<N> unlocated = new ArrayList<>();
+        for (N n : graph.nodes()) {
+            if (!locations.containsKey(n)) {
+                unlocated.add(n);
+            }
+        }
+        Map<N, Point2D.Double> seeded = seedLocations(graph, unlocated, locations, parameters.distScale);
+        res.putAll(seeded);
+
+        // relax the neighborhood of the change, pinning its boundary
+        Set<N> local = neighborhood(graph, changed, parameters.radius + 1, parameters.maxRegionSize);
+        if (local.size() > parameters.maxRegionSize) {
+            LOG.log(Level.FINE, "Graph change neighborhood exceeds {0} nodes, too many for incremental layout",
+                    parameters.maxRegionSize);
+            return null;
+        }
+        Set<N> region = neighborhood(graph, changed, parameters.radius);
+        Set<N> boundary = Sets.difference(local, region).immutableCopy();
+        Map<N, Point2D.Double> loc = new HashMap<>();
+        for (N n : local) {
+            Point2D.Double p = seeded.containsKey(n) ? seeded.get(n) : locations.get(n);
+            loc.put(n, new Point2D.Double(p.x, p.y));
+        }
+        res.putAll(relax(CompressedGraph.copyOf(Graphs.inducedSubgraph(graph, local)), loc, boundary, parameters));
+        res.keySet().removeAll(boundary);
+        return res;
+    }
+
+    //region UTILITIES
+
+    /**
+     * Find nodes of the new graph whose adjacencies differ from the old graph: added nodes, endpoints of added or
+     * removed edges, and neighbors of removed nodes.
+     * @param old old graph
+     * @param graph new graph
+     * @param <N> graph node type
+     * @return changed nodes, all of which are in the new graph
+     */
+    static <N> Set<N> changedNodes(Graph<N> old, Graph<N> graph) {
+        Set<N> res = new HashSet<>(Sets.difference(graph.nodes(), old.nodes()));
+        for (EndpointPair<N> e : Sets.symmetricDifference(old.edges(), graph.edges())) {
+            res.add(e.nodeU());
+            res.add(e.nodeV());
+        }
+        res.retainAll(graph.nodes());
+        return res;
+    }
+
+    /**
+     * Compute locations for nodes without locations. Nodes adjacent to located nodes are placed first, so that chains
+     * of new nodes grow outward from the existing layout.
+     * @param graph the graph
+     * @param nodes nodes to locate
+     * @param locations existing locations
+     * @param distScale approximate distance between adjacent nodes
+     * @param <N> graph node type
+     * @return locations of the given nodes
+     */
+    private static <N> Map<N, Point2D.Double> seedLocations(Graph<N> graph, List<N> nodes,
+                                                            Map<N, Point2D.Double> locations, double distScale) {
+        Map<N, Point2D.Double> res = new HashMap<>();
+        Map<N, Point2D.Double> all = new HashMap<>(locations);
+        List<N> remaining = new ArrayList<>(nodes);
+        while (!remaining.isEmpty()) {
+            List<N> wave = new ArrayList<>();
+            for (N n : remaining) {
+                if (graph.adjacentNodes(n).stream().anyMatch(all::containsKey)) {
+                    wave.add(n);
+                }
+            }
+            if (wave.isEmpty()) {
+                // no remaining node is adjacent to a located node
+                wave.add(remaining.get(0));
+            }
+            Map<N, Point2D.Double> waveLocations = new HashMap<>();
+            for (N n : wave) {
+                waveLocations.put(n, PositionalAddingLayout.newNodeLocation(graph, n, all, distScale));
+            }
+            all.putAll(waveLocations);
+            res.putAll(waveLocations);
+            remaining.removeAll(wave);
+        }
+        return res;
+    }
+
+    /**
+     * Find all nodes within the given number of hops of a set of nodes.
+     * @param graph the graph
+     * @param nodes starting nodes
+     * @param radius max number of hops
+     * @param <N> graph node type
+     * @return nodes within radius
+     */
+    static <N> Set<N> neighborhood(Graph<N> graph, Set<N> nodes, int radius) {
+        return neighborhood(graph, nodes, radius, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find all nodes within the given number of hops of a set of nodes, stopping early if the result grows too large.
+     * @param graph the graph
+     * @param nodes starting nodes
+     * @param radius max number of hops
+     * @param limit max number of nodes to find
+     * @param <N> graph node type
+     * @return nodes within radius, or a set with more than limit nodes if the neighborhood is larger than the limit
+     */
+    private static <N> Set<N> neighborhood(Graph<N> graph, Set<N> nodes, int radius, int limit) {
+        Set<N> res = new HashSet<>(nodes);
+        Queue<N> frontier = new ArrayDeque<>(nodes);
+        for (int hop = 0; hop < radius && !frontier.isEmpty(); hop++) {
+            Queue<N> next = new ArrayDeque<>();
+            for (N n : frontier) {
+                for (N m : graph.adjacentNodes(n)) {
+                    if (res.add(m)) {
+                        if (res.size() > limit) {
+                            return res;
+                        }
+                        next.add(m);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return res;
+    }
+
+    /**
+     * Run spring layout iterations on a subgraph until its energy converges.
+     * @param graph the subgraph
+     * @param loc initial locations of nodes in the subgraph
+     * @param pinned nodes that should not move
+     * @param parameters layout parameters
+     * @param <N> graph node type
+     * @return final locations
+     */
+    @SuppressWarnings("unchecked")
+    private static <N> Map<N, Point2D.Double> relax(Graph<N> graph, Map<N, Point2D.Double> loc, Set<N> pinned,
+                                                    IncrementalSpringLayoutParameters parameters) {
+        SpringLayout layout = new SpringLayout();
+        SpringLayoutState<N> state = layout.createState();
+        SpringLayoutParameters params = layout.createParameters();
+        params.setDistScale(parameters.distScale);
+        params.getConstraints().setPinnedNodes(pinned);
+        state.requestPositions(loc, false);
+
+        double lastEnergy = Double.MAX_VALUE;
+        int step = 0;
+        while (step < parameters.maxSteps) {
+            double energy = layout.iterate(graph, state, params);
+            step++;
+            if (Math.abs(energy - lastEnergy) <= parameters.energyChangeThreshold * Math.abs(energy)) {
+                break;
+            }
+            lastEnergy = energy;
+        }
+        LOG.log(Level.FINE, "Incremental layout of {0} nodes completed in {1} steps",
+                new Object[] { graph.nodes().size() - pinned.size(), step });
+        return state.getPositionsCopy();
+    }
+
+    //endregion
+
+    //region INNER CLASSES
+
+    /** Parameters associated with the incremental layout. */
+    public static class IncrementalSpringLayoutParameters {
+
+        /** Approximate distance between nodes */
+        private double distScale = SpringLayoutParameters.DEFAULT_DIST_SCALE;
+        /** Number of hops from changed nodes that may move */
+        private int radius = 2;
+        /** Max number of changed nodes, as a fraction of all nodes, for an incremental update */
+        private double maxChangeFraction = .2;
+        /** Max number of nodes in the relaxed neighborhood, including its pinned boundary, for an incremental update */
+        private int maxRegionSize = 500;
+        /** Max number of iterations */
+        private int maxSteps = 200;
+        /** Iterations stop once the energy changes by less than this fraction of the energy */
+        private double energyChangeThreshold = 1E-3;
+
+        //region PROPERTIES
+
+        public double getDistScale() {
+            return distScale;
+        }
+
+        public void setDistScale(double distScale) {
+            this.distScale = distScale;
+        }
+
+        public int getRadius() {
+            return radius;
+        }
+
+        public void setRadius(int radius) {
+            checkArgument(radius >= 0, "Radius must be non-negative");
+            this.radius = radius;
+        }
+
+        public double getMaxChangeFraction() {
+            return maxChangeFraction;
+        }
+
+        public void setMaxChangeFraction(double maxChangeFraction) {
+            this.maxChangeFraction = maxChangeFraction;
+        }
+
+        public int getMaxRegionSize() {
+            return maxRegionSize;
+        }
+
+        public void setMaxRegionSize(int maxRegionSize) {
+            checkArgument(maxRegionSize >= 0, "Max region size must be non-negative");
+            this.maxRegionSize = maxRegionSize;
+        }
+
+        public int getMaxSteps() {
+            return maxSteps;
+        }
+
+        public void setMaxSteps(int maxSteps) {
+            this.maxSteps = maxSteps;
+        }
+
+        public double getEnergyChangeThreshold() {
+            return energyChangeThreshold;
+        }
+
+        public void setEnergyChangeThreshold(double energyChangeThreshold) {
+            this.energyChangeThreshold = energyChangeThreshold;
+        }
+
+        //endregion
+
+    }
+
+    //endregion
+
+}
@@ -85,8 +85,15 @@ public final class IterativeGraphLayoutManager {
         return graph;
     }
 
+    /**
+     * Set the graph to lay out. Should also be called with the current graph after editing it in place.
+     * @param graph the graph
+     */
     public void setGraph(Graph graph) {
         this.graph = graph;
+        if (state != null) {
+            state.invalidateGraph();
+        }
     }
 
     public CoordinateManager getCoordinateManager() {
@@ -0,0 +1,404 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.googlecode.blaisemath.coordinate.CoordinateManager;
+import com.googlecode.blaisemath.graph.CompressedGraph;
+import com.googlecode.blaisemath.graph.GraphUtils;
+import com.googlecode.blaisemath.graph.IterativeGraphLayout;
+import com.googlecode.blaisemath.graph.IterativeGraphLayoutState;
+import com.googlecode.blaisemath.graph.StaticGraphLayout;
+import com.googlecode.blaisemath.graph.layout.CircleLayout.CircleLayoutParameters;
+import com.googlecode.blaisemath.graph.layout.IncrementalSpringLayout.IncrementalSpringLayoutParameters;
+import org.jspecify.annotations.Nullable;
+
+import java.awt.geom.Point2D;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs an {@link IterativeGraphLayout} on a dedicated worker thread, and publishes node positions as immutable
+ * {@link LayoutSnapshot}s. The layout state is confined to the worker, which acts as a back buffer: iterations update
+ * the state, and after each loop a new snapshot is built and swapped in atomically as the front buffer. Readers such
+ * as renderers call {@link #getSnapshot()} from any thread, without locking, and always see a complete set of
+ * positions from a single loop.
+ * <p>
+ * Changes to the graph or requested positions are queued to the worker and applied between loops, so callers never
+ * block on a layout, and initial positions of new nodes are also computed on the worker. Listeners are notified of
+ * each new snapshot on the worker thread. If a {@link CoordinateManager} is provided, each snapshot is also copied
+ * to it from the worker thread, for compatibility with graphics that track positions with a coordinate manager.
+ * <p>
+ * Call {@link #shutdown()} to stop the worker when the pipeline is no longer needed.
+ *
+ * @param <N> graph node type
+ *
+ * @author Elisha Peterson
+ */
+public final class LayoutPipeline<N> {
+
+    private static final Logger LOG = Logger.getLogger(LayoutPipeline.class.getName());
+
+    /** Default time between layout loops, in milliseconds */
+    public static final int DEFAULT_LOOP_DELAY = 10;
+    /** Default # iterations per layout loop */
+    private static final int DEFAULT_ITERATIONS_PER_LOOP = 2;
+
+    /** Executes all layout work */
+    private final ScheduledExecutorService worker;
+    /** Latest published positions */
+    private final AtomicReference<LayoutSnapshot<N>> snapshot = new AtomicReference<>(LayoutSnapshot.empty());
+    /** Notified when snapshots are published */
+    private final List<Consumer<LayoutSnapshot<N>>> listeners = new CopyOnWriteArrayList<>();
+    /** Optional coordinate manager receiving copies of snapshots */
+    private volatile @Nullable CoordinateManager<N, Point2D.Double> coordinateManager;
+
+    //region WORKER-CONFINED STATE
+
+    /** The layout algorithm, with its parameters and state */
+    private final LayoutRunner<?, ?> runner;
+    /** State of the layout algorithm */
+    private final IterativeGraphLayoutState<N> state;
+    /** Copy of the graph being laid out, so later edits to the caller's graph are not seen until it is set again */
+    private Graph<N> graph = GraphUtils.emptyGraph(false);
+    /** Last positions of nodes removed from the graph, reused if the nodes are added back */
+    private final Map<N, Point2D.Double> inactiveLocations = new LinkedHashMap<N, Point2D.Double>(16, .75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<N, Point2D.Double> eldest) {
+            return size() > GraphLayoutManager.NODE_CACHE_SIZE;
+        }
+    };
+
+    /** The initial layout scheme */
+    private final StaticGraphLayout<CircleLayoutParameters> initialLayout = CircleLayout.getInstance();
+    /** The initial layout parameters */
+    private final CircleLayoutParameters initialLayoutParameters = new CircleLayoutParameters(50);
+    /** The layout scheme for adding nodes */
+    private final StaticGraphLayout<CircleLayoutParameters> addingLayout = new PositionalAddingLayout();
+    /** The adding layout parameters */
+    private final CircleLayoutParameters addingLayoutParameters = new CircleLayoutParameters(100);
+    /** The layout scheme for small graph changes */
+    private final IncrementalSpringLayout incrementalLayout = new IncrementalSpringLayout();
+    /** The incremental layout parameters */
+    private final IncrementalSpringLayoutParameters incrementalLayoutParameters = incrementalLayout.createParameters();
+
+    //endregion
+
+    /** Whether to use the incremental layout for small graph changes */
+    private volatile boolean incrementalUpdates = false;
+    /** # of iterations per loop */
+    private volatile int iterationsPerLoop = DEFAULT_ITERATIONS_PER_LOOP;
+    /** Handle for the running layout loop, if any; only modified on the worker */
+    private volatile @Nullable ScheduledFuture<?> loop;
+
+    /**
+     * Initialize pipeline with given layout algorithm.
+     * @param layout the layout algorithm
+     */
+    public LayoutPipeline(IterativeGraphLayout<?, ?> layout) {
+        this.runner = LayoutRunner.of(requireNonNull(layout));
+        this.state = runner.state();
+        this.worker = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("layout-pipeline-%d").setDaemon(true).build());
+    }
+
+    //region PROPERTIES
+
+    /**
+     * Get the latest positions. May be called from any thread, and does not block.
+     * @return latest snapshot
+     */
+    public LayoutSnapshot<N> getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Get parameters of the layout algorithm. Changes to the parameters are seen by the worker at its next loop.
+     * @return parameters
+     */
+    public Object getParameters() {
+        return runner.parameters;
+    }
+
+    /**
+     * Get parameters used for incremental updates.
+     * @return parameters
+     */
+    public IncrementalSpringLayoutParameters getIncrementalLayoutParameters() {
+        return incrementalLayoutParameters;
+    }
+
+    public boolean isIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+
+    public void setIncrementalUpdates(boolean incrementalUpdates) {
+        this.incrementalUpdates = incrementalUpdates;
+    }
+
+    public int getIterationsPerLoop() {
+        return iterationsPerLoop;
+    }
+
+    public void setIterationsPerLoop(int n) {
+        checkArgument(n > 0, "Iterations per loop must be positive");
+        this.iterationsPerLoop = n;
+    }
+
+    public @Nullable CoordinateManager<N, Point2D.Double> getCoordinateManager() {
+        return coordinateManager;
+    }
+
+    /**
+     * Set a coordinate manager that receives a copy of each snapshot. The copy is made on the worker thread.
+     * @param manager coordinate manager, or null for none
+     */
+    public void setCoordinateManager(@Nullable CoordinateManager<N, Point2D.Double> manager) {
+        this.coordinateManager = manager;
+    }
+
+    /**
+     * Return whether the layout loop is running.
+     * @return true if running
+     */
+    public boolean isRunning() {
+        return loop != null;
+    }
+
+    //endregion
+
+    //region COMMANDS
+
+    /**
+     * Change the graph. Positions for new nodes are computed on the worker thread, and a new snapshot is published
+     * when they are ready. Nodes that were removed earlier are restored to their last positions. The pipeline lays
+     * out a copy of the graph, so after editing a mutable graph in place, pass it again to apply the edits.
+     * @param g the new graph
+     * @return future that completes when the change has been applied
+     */
+    public Future<?> setGraph(Graph<N> g) {
+        requireNonNull(g);
+        return worker.submit(() -> applyGraph(g));
+    }
+
+    /**
+     * Request the specified positions be applied at the next opportunity. Nodes not in the map are not moved.
+     * @param positions new positions
+     * @return future that completes when the positions have been applied
+     */
+    public Future<?> requestPositions(Map<N, Point2D.Double> positions) {
+        Map<N, Point2D.Double> copy = new HashMap<>(positions);
+        return worker.submit(() -> {
+            Map<N, Point2D.Double> cur = snapshot.get().asMap();
+            cur.putAll(copy);
+            cur.keySet().retainAll(graph.nodes());
+            state.requestPositions(cur, true);
+            publish(cur);
+        });
+    }
+
+    /**
+     * Run a single layout loop on the worker, whether or not the loop is running.
+     * @return future with the snapshot published after the loop
+     */
+    public Future<LayoutSnapshot<N>> step() {
+        return worker.submit(() -> {
+            runOneLoop();
+            return snapshot.get();
+        });
+    }
+
+    /**
+     * Start running layout loops on the worker, with the given delay between loops. Has no effect if already running.
+     * @param delay delay between loops, in milliseconds
+     */
+    public void start(int delay) {
+        worker.execute(() -> {
+            if (loop == null) {
+                loop = worker.scheduleWithFixedDelay(this::runOneLoop, 0, delay, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * Start running layout loops on the worker, with the default delay between loops.
+     */
+    public void start() {
+        start(DEFAULT_LOOP_DELAY);
+    }
+
+    /**
+     * Stop running layout loops. The loop in progress, if any, completes and publishes its snapshot.
+     */
+    public void stop() {
+        worker.execute(() -> {
+            if (loop != null) {
+                loop.cancel(false);
+                loop = null;
+            }
+        });
+    }
+
+    /**
+     * Stop the worker thread. The pipeline cannot be used afterwards.
+     */
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    //endregion
+
+    //region WORKER OPERATIONS
+
+    /** Update the graph and compute positions of new nodes. */
+    private void applyGraph(Graph<N> nue) {
+        Graph<N> old = graph;
+        Graph<N> g = CompressedGraph.copyOf(nue);
+        if (old.equals(g)) {
+            return;
+        }
+        Map<N, Point2D.Double> cur = snapshot.get().asMap();
+        cur.forEach((n, p) -> {
+            if (!g.nodes().contains(n)) {
+                inactiveLocations.put(n, p);
+            }
+        });
+        for (N n : g.nodes()) {
+            Point2D.Double p = inactiveLocations.remove(n);
+            if (p != null) {
+                cur.putIfAbsent(n, p);
+            }
+        }
+        Map<N, Point2D.Double> newLoc = null;
+        if (cur.isEmpty()) {
+            newLoc = initialLayout.layout(g, null, initialLayoutParameters);
+        } else if (incrementalUpdates) {
+            Map<N, Point2D.Double> update = incrementalLayout.layout(old, g, cur, incrementalLayoutParameters);
+            if (update != null) {
+                newLoc = cur;
+                newLoc.putAll(update);
+            }
+        }
+        if (newLoc == null && cur.keySet().containsAll(g.nodes())) {
+            newLoc = cur;
+        } else if (newLoc == null) {
+            newLoc = addingLayout.layout(g, cur, addingLayoutParameters);
+        }
+        newLoc.keySet().retainAll(g.nodes());
+        graph = g;
+        state.invalidateGraph();
+        state.requestPositions(newLoc, true);
+        publish(newLoc);
+    }
+
+    /** Run iterations and publish the result. */
+    private void runOneLoop() {
+        try {
+            for (int i = 0; i < iterationsPerLoop; i++) {
+                runner.iterate(graph);
+            }
+            publish(state.getPositionsCopy());
+        } catch (RuntimeException x) {
+            // exceptions would otherwise silently cancel the scheduled loop
+            LOG.log(Level.SEVERE, "Layout loop failed", x);
+        }
+    }
+
+    /** Publish a new snapshot and notify listeners. */
+    private void publish(Map<N, Point2D.Double> positions) {
+        LayoutSnapshot<N> next = LayoutSnapshot.of(snapshot.get(), positions);
+        snapshot.set(next);
+        CoordinateManager<N, Point2D.Double> cm = coordinateManager;
+        if (cm != null) {
+            cm.setCoordinateMap(positions);
+        }
+        listeners.forEach(l -> l.accept(next));
+    }
+
+    /**
+     * Holds a layout algorithm with its parameters and state, so the algorithm's type parameters are preserved.
+     * @param <P> parameters type
+     * @param <S> state type
+     */
+    private static final class LayoutRunner<P, S extends IterativeGraphLayoutState<?>> {
+        private final IterativeGraphLayout<P, S> layout;
+        private final P parameters;
+        private final S state;
+
+        private LayoutRunner(IterativeGraphLayout<P, S> layout) {
+            this.layout = layout;
+            this.parameters = layout.createParameters();
+            this.state = layout.createState();
+        }
+
+        private static <P, S extends IterativeGraphLayoutState<?>> LayoutRunner<P, S> of(IterativeGraphLayout<P, S> layout) {
+            return new LayoutRunner<>(layout);
+        }
+
+        /**
+         * Get the layout state, typed by node. The state is created by the layout without a node type, and only ever
+         * sees nodes of the pipeline's graph.
+         */
+        @SuppressWarnings("unchecked")
+        private <N> IterativeGraphLayoutState<N> state() {
+            return (IterativeGraphLayoutState<N>) state;
+        }
+
+        private <N> void iterate(Graph<N> graph) {
+            layout.iterate(graph, state, parameters);
+        }
+    }
+
+    //endregion
+
+    //region EVENTS
+
+    /**
+     * Add listener notified on the worker thread whenever a snapshot is published.
+     * @param listener the listener
+     */
+    public void addSnapshotListener(Consumer<LayoutSnapshot<N>> listener) {
+        listeners.add(requireNonNull(listener));
+    }
+
+    public void removeSnapshotListener(Consumer<LayoutSnapshot<N>> listener) {
+        listeners.remove(listener);
+    }
+
+    //endregion
+
+}
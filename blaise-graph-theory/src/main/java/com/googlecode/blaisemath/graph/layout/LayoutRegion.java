@@ -21,49 +21,52 @@ package com.googlecode.blaisemath.graph.layout;
  */
 
 
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
-import java.awt.geom.Point2D;
-import java.util.Map;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * Utility class for decomposing a graph background into separate regions.
+ * Utility class for decomposing a graph background into separate regions. Tracks the indices of points in the region,
+ * reusing its storage when cleared so that repopulating the region does not allocate.
  *
- * @param <N> type of element in region
  * @author Elisha Peterson
  */
-class LayoutRegion<N> {
+class LayoutRegion {
 
-    private final Map<N,Point2D.Double> points = Maps.newHashMap();
-    private final Set<LayoutRegion<N>> adjacentRegions = Sets.newLinkedHashSet();
-    
-    Set<N> points() {
-        return points.keySet();
+    private int[] points = new int[8];
+    private int size = 0;
+    private final List<LayoutRegion> adjacentRegions = new ArrayList<>();
+
+    /** Number of points in the region. */
+    int size() {
+        return size;
     }
 
-    Iterable<Map.Entry<N, Point2D.Double>> entries() {
-        return points.entrySet();
+    /** Index of the k'th point in the region. */
+    int point(int k) {
+        return points[k];
     }
 
     void clear() {
-        points.clear();
-    }
-    
-    Point2D.Double get(N io) {
-        return points.get(io);
+        size = 0;
     }
-    
-    void put(N io, Point2D.Double iLoc) {
-        points.put(io, iLoc);
+
+    void add(int point) {
+        if (size == points.length) {
+            points = Arrays.copyOf(points, 2 * size);
+        }
+        points[size++] = point;
     }
 
-    Set<LayoutRegion<N>> adjacentRegions() {
+    /** Adjacent regions, including this region itself. Use indexed access to avoid allocating an iterator. */
+    List<LayoutRegion> adjacentRegions() {
         return adjacentRegions;
     }
-    
-    void addAdjacentRegion(LayoutRegion<N> reg) {
-        adjacentRegions.add(reg);
+
+    void addAdjacentRegion(LayoutRegion reg) {
+        if (!adjacentRegions.contains(reg)) {
+            adjacentRegions.add(reg);
+        }
     }
 
 }
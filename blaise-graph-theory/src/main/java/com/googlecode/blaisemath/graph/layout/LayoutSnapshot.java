@@ -0,0 +1,179 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+import org.jspecify.annotations.Nullable;
+
+import java.awt.geom.Point2D;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable set of node positions published by a {@link LayoutPipeline}. Coordinates are stored in arrays indexed
+ * by node, so positions can be read from any thread without locking or copying. Consecutive snapshots for the same
+ * set of nodes share the same node index.
+ *
+ * @param <N> graph node type
+ *
+ * @author Elisha Peterson
+ */
+public final class LayoutSnapshot<N> {
+
+    /** Snapshot with no nodes */
+    private static final LayoutSnapshot<Object> EMPTY = new LayoutSnapshot<>(0, ImmutableMap.of(), new double[0], new double[0]);
+
+    /** Version number, increasing with each snapshot published by a pipeline */
+    private final long version;
+    /** Index of each node in the coordinate arrays */
+    private final ImmutableMap<N, Integer> index;
+    /** Node x coordinates */
+    private final double[] x;
+    /** Node y coordinates */
+    private final double[] y;
+
+    private LayoutSnapshot(long version, ImmutableMap<N, Integer> index, double[] x, double[] y) {
+        this.version = version;
+        this.index = index;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Get a snapshot with no nodes.
+     * @param <N> graph node type
+     * @return empty snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public static <N> LayoutSnapshot<N> empty() {
+        return (LayoutSnapshot<N>) EMPTY;
+    }
+
+    /**
+     * Create a snapshot with the given positions. If the nodes are the same as those of the previous snapshot, the
+     * node index is shared with that snapshot.
+     * @param previous previous snapshot
+     * @param positions node positions
+     * @param <N> graph node type
+     * @return new snapshot, with version one more than the previous snapshot
+     */
+    static <N> LayoutSnapshot<N> of(LayoutSnapshot<N> previous, Map<N, ? extends Point2D> positions) {
+        ImmutableMap<N, Integer> index = previous.index;
+        if (!index.keySet().equals(positions.keySet())) {
+            ImmutableMap.Builder<N, Integer> builder = ImmutableMap.builderWithExpectedSize(positions.size());
+            int i = 0;
+            for (N n : positions.keySet()) {
+                builder.put(n, i++);
+            }
+            index = builder.build();
+        }
+        double[] x = new double[index.size()];
+        double[] y = new double[index.size()];
+        for (Map.Entry<N, ? extends Point2D> en : positions.entrySet()) {
+            int i = index.get(en.getKey());
+            x[i] = en.getValue().getX();
+            y[i] = en.getValue().getY();
+        }
+        return new LayoutSnapshot<>(previous.version + 1, index, x, y);
+    }
+
+    //region PROPERTIES
+
+    /**
+     * Get version of the snapshot. Snapshots published later have larger version numbers.
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get number of nodes in the snapshot.
+     * @return size
+     */
+    public int size() {
+        return x.length;
+    }
+
+    /**
+     * Get nodes in the snapshot.
+     * @return nodes
+     */
+    public Set<N> nodes() {
+        return index.keySet();
+    }
+
+    //endregion
+
+    //region QUERIES
+
+    /**
+     * Get the index of a node, for use with {@link #getX(int)} and {@link #getY(int)}.
+     * @param node the node
+     * @return index, or -1 if the node is not in the snapshot
+     */
+    public int indexOf(N node) {
+        Integer res = index.get(node);
+        return res == null ? -1 : res;
+    }
+
+    /**
+     * Get x coordinate of a node.
+     * @param i node index
+     * @return x coordinate
+     */
+    public double getX(int i) {
+        return x[i];
+    }
+
+    /**
+     * Get y coordinate of a node.
+     * @param i node index
+     * @return y coordinate
+     */
+    public double getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * Get location of a node.
+     * @param node the node
+     * @return new point with the node's location, or null if the node is not in the snapshot
+     */
+    public Point2D.@Nullable Double getLocation(N node) {
+        Integer i = index.get(node);
+        return i == null ? null : new Point2D.Double(x[i], y[i]);
+    }
+
+    /**
+     * Get node locations as a map.
+     * @return new map with node locations
+     */
+    public Map<N, Point2D.Double> asMap() {
+        Map<N, Point2D.Double> res = new HashMap<>(index.size() * 2);
+        index.forEach((n, i) -> res.put(n, new Point2D.Double(x[i], y[i])));
+        return res;
+    }
+
+    //endregion
+
+}
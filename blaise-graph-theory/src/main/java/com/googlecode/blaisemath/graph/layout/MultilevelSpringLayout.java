@@ -0,0 +1,507 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.graph.Graph;
+import com.google.common.graph.Graphs;
+import com.googlecode.blaisemath.graph.CompressedGraph;
+import com.googlecode.blaisemath.graph.StaticGraphLayout;
+import com.googlecode.blaisemath.graph.layout.MultilevelSpringLayout.MultilevelSpringLayoutParameters;
+import com.googlecode.blaisemath.graph.layout.SpringLayoutParameters.RepulsionMode;
+import org.jspecify.annotations.Nullable;
+
+import java.awt.geom.Point2D;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Positions nodes in a graph using a multilevel force-based layout. The graph is repeatedly coarsened by collapsing
+ * leaves into their neighbors and matching adjacent nodes, until it is small enough to lay out quickly. The coarsest
+ * graph is laid out with {@link SpringLayout}, and the positions are then interpolated to each finer level in turn
+ * and refined with a small number of additional iterations. Because coarse levels settle the global shape of the
+ * layout, far fewer iterations are needed on the full graph than with {@link StaticSpringLayout}.
+ * <p>
+ * Edge direction and self-loops are ignored, as are initial positions, since node positions are determined by the
+ * coarser levels. Isolated nodes are placed in a grid beside the layout.
+ *
+ * @author Elisha Peterson
+ */
+public class MultilevelSpringLayout implements StaticGraphLayout<MultilevelSpringLayoutParameters> {
+
+    private static final Logger LOG = Logger.getLogger(MultilevelSpringLayout.class.getName());
+
+    /** Coarsening stops if a level has more than this fraction of the nodes of the previous level */
+    private static final double MIN_REDUCTION = .85;
+    /** Max number of nodes that may be grouped into one coarse node, except for collapsed leaves */
+    private static final int MAX_GROUP_SIZE = 3;
+    /** Offset of nodes from their coarse node's position on interpolation, as fraction of distance scale */
+    private static final double INTERPOLATION_OFFSET = .1;
+
+    @Override
+    public String toString() {
+        return "Position nodes using multilevel \"spring layout\" algorithm";
+    }
+
+    @Override
+    public MultilevelSpringLayoutParameters createParameters() {
+        return new MultilevelSpringLayoutParameters();
+    }
+
+    @Override
+    public <N> Map<N, Point2D.Double> layout(Graph<N> graph, @Nullable Map<N, Point2D.Double> ic,
+                                             MultilevelSpringLayoutParameters parameters) {
+        Set<N> isolates = new LinkedHashSet<>();
+        for (N node : graph.nodes()) {
+            if (graph.adjacentNodes(node).stream().allMatch(node::equals)) {
+                isolates.add(node);
+            }
+        }
+        Map<N, Point2D.Double> res = new HashMap<>();
+        if (isolates.size() < graph.nodes().size()) {
+            Graph<N> core = isolates.isEmpty() ? graph
+                    : Graphs.inducedSubgraph(graph, Sets.difference(graph.nodes(), isolates));
+            layoutConnected(CompressedGraph.copyOf(core), res, parameters);
+        }
+        StaticSpringLayout.addIsolates(isolates, res, parameters.distScale, parameters.distScale * parameters.isolateScale);
+        return res;
+    }
+
+    /**
+     * Lay out a graph with no isolates.
+     * @param cg graph
+     * @param res where to put node positions
+     * @param parameters layout parameters
+     * @param <N> graph node type
+     */
+    private static <N> void layoutConnected(CompressedGraph<N> cg, Map<N, Point2D.Double> res,
+                                            MultilevelSpringLayoutParameters parameters) {
+        GraphLevel base = GraphLevel.of(cg);
+
+        // coarsen
+        List<GraphLevel> levels = Lists.newArrayList(base);
+        GraphLevel cur = base;
+        while (cur.nodeCount > parameters.coarsestSize && levels.size() < parameters.maxLevels) {
+            GraphLevel next = cur.coarsen();
+            if (next.nodeCount > MIN_REDUCTION * cur.nodeCount) {
+                break;
+            }
+            levels.add(next);
+            cur = next;
+        }
+        LOG.log(Level.FINE, "Coarsened graph to {0} levels, with sizes {1}",
+                new Object[] { levels.size(), levels.stream().map(l -> l.nodeCount).toArray() });
+
+        // lay out coarsest level, starting from a circle
+        int nc = cur.nodeCount;
+        double[] x = new double[nc];
+        double[] y = new double[nc];
+        double dist = distScale(base, cur, parameters);
+        double radius = dist * Math.sqrt(nc);
+        for (int i = 0; i < nc; i++) {
+            x[i] = radius * Math.cos(2 * Math.PI * i / nc);
+            y[i] = radius * Math.sin(2 * Math.PI * i / nc);
+        }
+        relax(cur, x, y, dist, parameters.coarsestSteps, parameters);
+
+        // interpolate and refine
+        for (int l = levels.size() - 2; l >= 0; l--) {
+            GraphLevel fine = levels.get(l);
+            dist = distScale(base, fine, parameters);
+            double[] fx = new double[fine.nodeCount];
+            double[] fy = new double[fine.nodeCount];
+            for (int i = 0; i < fine.nodeCount; i++) {
+                int p = fine.parent[i];
+                double angle = SpringLayout.jitterAngle(i, p);
+                fx[i] = x[p] + INTERPOLATION_OFFSET * dist * Math.cos(angle);
+                fy[i] = y[p] + INTERPOLATION_OFFSET * dist * Math.sin(angle);
+            }
+            x = fx;
+            y = fy;
+            relax(fine, x, y, dist, parameters.refineSteps, parameters);
+        }
+
+        for (int i = 0; i < cg.nodeCount(); i++) {
+            res.put(cg.nodeAt(i), new Point2D.Double(x[i], y[i]));
+        }
+    }
+
+    /** Distance scale for a level, chosen so that every level occupies about the same area as the final layout */
+    private static double distScale(GraphLevel base, GraphLevel level, MultilevelSpringLayoutParameters parameters) {
+        return parameters.distScale * Math.sqrt(base.nodeCount / (double) level.nodeCount);
+    }
+
+    /**
+     * Run spring layout iterations on a level, starting from and updating the given positions.
+     * @param level the level
+     * @param x node x coordinates
+     * @param y node y coordinates
+     * @param distScale distance scale for the level
+     * @param steps number of iterations
+     * @param parameters layout parameters
+     */
+    @SuppressWarnings("unchecked")
+    private static void relax(GraphLevel level, double[] x, double[] y, double distScale, int steps,
+                              MultilevelSpringLayoutParameters parameters) {
+        CompressedGraph<Integer> graph = level.graph();
+        SpringLayout layout = new SpringLayout();
+        SpringLayoutState<Integer> state = layout.createState();
+        SpringLayoutParameters params = layout.createParameters();
+        params.setDistScale(distScale);
+        params.setRepulsionMode(RepulsionMode.BARNES_HUT);
+        params.setParallelism(parameters.parallelism);
+
+        Map<Integer, Point2D.Double> init = new HashMap<>();
+        for (int i = 0; i < level.nodeCount; i++) {
+            init.put(i, new Point2D.Double(x[i], y[i]));
+        }
+        state.requestPositions(init, false);
+        for (int step = 0; step < steps; step++) {
+            double coolingAt = 1.0 - step * step / (double) (steps * steps);
+            params.setDampingConstant(parameters.coolStart * coolingAt + parameters.coolEnd * (1 - coolingAt));
+            layout.iterate(graph, state, params);
+        }
+        Map<Integer, Point2D.Double> res = state.getPositionsCopy();
+        for (int i = 0; i < level.nodeCount; i++) {
+            x[i] = res.get(i).x;
+            y[i] = res.get(i).y;
+        }
+    }
+
+    //region INNER CLASSES
+
+    /** One level of the coarsening hierarchy, with adjacencies in compressed row format. */
+    private static final class GraphLevel {
+
+        /** Number of nodes */
+        private final int nodeCount;
+        /** Neighbor offsets and targets, ignoring self-loops */
+        private final int[] offsets;
+        private final int[] targets;
+        /** Number of edges in the previous level collapsed into each edge */
+        private final int[] weights;
+        /** Number of nodes of the original graph collapsed into each node */
+        private final int[] mass;
+        /** Node of the next coarser level containing each node, set when coarsened */
+        private int[] parent;
+
+        private GraphLevel(int nodeCount, int[] offsets, int[] targets, int[] weights, int[] mass) {
+            this.nodeCount = nodeCount;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.mass = mass;
+        }
+
+        /** Create the base level from a graph */
+        static GraphLevel of(CompressedGraph<?> graph) {
+            int n = graph.nodeCount();
+            int[] nbrOffsets = graph.neighborOffsets();
+            int[] nbrTargets = graph.neighborTargets();
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[nbrTargets.length];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                offsets[i] = count;
+                for (int k = nbrOffsets[i]; k < nbrOffsets[i + 1]; k++) {
+                    if (nbrTargets[k] != i) {
+                        targets[count++] = nbrTargets[k];
+                    }
+                }
+            }
+            offsets[n] = count;
+            int[] weights = new int[count];
+            Arrays.fill(weights, 1);
+            int[] mass = new int[n];
+            Arrays.fill(mass, 1);
+            return new GraphLevel(n, offsets, Arrays.copyOf(targets, count), weights, mass);
+        }
+
+        private int degree(int i) {
+            return offsets[i + 1] - offsets[i];
+        }
+
+        /** Build a graph for use with spring layout, whose nodes are the indices of this level */
+        CompressedGraph<Integer> graph() {
+            int[] sources = new int[targets.length];
+            for (int i = 0; i < nodeCount; i++) {
+                Arrays.fill(sources, offsets[i], offsets[i + 1], i);
+            }
+            List<Integer> nodes = new AbstractList<Integer>() {
+                @Override
+                public Integer get(int index) {
+                    return index;
+                }
+
+                @Override
+                public int size() {
+                    return nodeCount;
+                }
+            };
+            return CompressedGraph.fromIndexEdges(false, nodes, sources, targets, targets.length);
+        }
+
+        /**
+         * Compute the next coarser level. Leaves are first collapsed into their neighbors, then remaining nodes are
+         * matched with the unmatched neighbor sharing the heaviest edge, visiting nodes in order of increasing degree.
+         * Nodes left over are grouped with their smallest neighboring group, if any is small enough.
+         * @return coarser level; also sets the parent of each node in this level
+         */
+        GraphLevel coarsen() {
+            int n = nodeCount;
+            int[] group = new int[n];
+            Arrays.fill(group, -1);
+            int[] groupSize = new int[n];
+            int groups = 0;
+
+            // collapse leaves
+            for (int i = 0; i < n; i++) {
+                if (group[i] == -1 && degree(i) == 1) {
+                    int j = targets[offsets[i]];
+                    if (group[j] == -1) {
+                        group[j] = groups++;
+                        groupSize[group[j]] = 1;
+                    }
+                    group[i] = group[j];
+                    groupSize[group[j]]++;
+                }
+            }
+
+            // heavy edge matching, lowest degree first
+            for (int i : orderByDegree()) {
+                if (group[i] != -1) {
+                    continue;
+                }
+                int best = -1;
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    int j = targets[k];
+                    if (group[j] == -1 && (best == -1 || weights[k] > weights[best]
+                            || (weights[k] == weights[best] && mass[j] < mass[targets[best]]))) {
+                        best = k;
+                    }
+                }
+                group[i] = groups++;
+                groupSize[group[i]] = 1;
+                if (best != -1) {
+                    group[targets[best]] = group[i];
+                    groupSize[group[i]]++;
+                } else {
+                    // join smallest adjacent group, if small enough
+                    int join = -1;
+                    for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                        int g = group[targets[k]];
+                        if (g != group[i] && groupSize[g] < MAX_GROUP_SIZE && (join == -1 || groupSize[g] < groupSize[join])) {
+                            join = g;
+                        }
+                    }
+                    if (join != -1) {
+                        groups--;
+                        group[i] = join;
+                        groupSize[join]++;
+                    }
+                }
+            }
+            parent = group;
+            return collapse(groups);
+        }
+
+        /** Node indices sorted by degree, using a counting sort */
+        private int[] orderByDegree() {
+            int maxDegree = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                maxDegree = Math.max(maxDegree, degree(i));
+            }
+            int[] starts = new int[maxDegree + 2];
+            for (int i = 0; i < nodeCount; i++) {
+                starts[degree(i) + 1]++;
+            }
+            for (int d = 0; d <= maxDegree; d++) {
+                starts[d + 1] += starts[d];
+            }
+            int[] res = new int[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                res[starts[degree(i)]++] = i;
+            }
+            return res;
+        }
+
+        /** Build the coarse level from node groups, merging parallel edges and summing their weights */
+        private GraphLevel collapse(int groups) {
+            // list members of each group
+            int[] memberStarts = new int[groups + 1];
+            for (int i = 0; i < nodeCount; i++) {
+                memberStarts[parent[i] + 1]++;
+            }
+            for (int g = 0; g < groups; g++) {
+                memberStarts[g + 1] += memberStarts[g];
+            }
+            int[] members = new int[nodeCount];
+            int[] fill = Arrays.copyOf(memberStarts, groups);
+            for (int i = 0; i < nodeCount; i++) {
+                members[fill[parent[i]]++] = i;
+            }
+
+            int[] cOffsets = new int[groups + 1];
+            int[] cTargets = new int[targets.length];
+            int[] cWeights = new int[targets.length];
+            int[] cMass = new int[groups];
+            int[] position = new int[groups];
+            Arrays.fill(position, -1);
+            int count = 0;
+            for (int g = 0; g < groups; g++) {
+                cOffsets[g] = count;
+                for (int m = memberStarts[g]; m < memberStarts[g + 1]; m++) {
+                    int i = members[m];
+                    cMass[g] += mass[i];
+                    for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                        int h = parent[targets[k]];
+                        if (h == g) {
+                            continue;
+                        }
+                        if (position[h] < cOffsets[g]) {
+                            position[h] = count;
+                            cTargets[count] = h;
+                            cWeights[count] = 0;
+                            count++;
+                        }
+                        cWeights[position[h]] += weights[k];
+                    }
+                }
+            }
+            cOffsets[groups] = count;
+            return new GraphLevel(groups, cOffsets, Arrays.copyOf(cTargets, count), Arrays.copyOf(cWeights, count), cMass);
+        }
+    }
+
+    /** Parameters associated with the multilevel spring layout. */
+    public static class MultilevelSpringLayoutParameters {
+
+        /** Approximate distance between nodes */
+        private double distScale = SpringLayoutParameters.DEFAULT_DIST_SCALE;
+        /** Distance between isolates, as percentage of distScale */
+        private double isolateScale = .5;
+        /** Coarsening stops once a level has at most this many nodes */
+        private int coarsestSize = 50;
+        /** Max number of levels, including the original graph */
+        private int maxLevels = 30;
+        /** Number of iterations used to lay out the coarsest level */
+        private int coarsestSteps = 300;
+        /** Number of iterations used to refine each finer level */
+        private int refineSteps = 50;
+        private double coolStart = 0.5;
+        private double coolEnd = 0.05;
+        /** Max number of tasks used for force computations */
+        private int parallelism = 1;
+
+        //region PROPERTIES
+
+        public double getDistScale() {
+            return distScale;
+        }
+
+        public void setDistScale(double distScale) {
+            this.distScale = distScale;
+        }
+
+        public double getIsolateScale() {
+            return isolateScale;
+        }
+
+        public void setIsolateScale(double isolateScale) {
+            this.isolateScale = isolateScale;
+        }
+
+        public int getCoarsestSize() {
+            return coarsestSize;
+        }
+
+        public void setCoarsestSize(int coarsestSize) {
+            checkArgument(coarsestSize > 0, "Coarsest size must be positive");
+            this.coarsestSize = coarsestSize;
+        }
+
+        public int getMaxLevels() {
+            return maxLevels;
+        }
+
+        public void setMaxLevels(int maxLevels) {
+            checkArgument(maxLevels > 0, "Max levels must be positive");
+            this.maxLevels = maxLevels;
+        }
+
+        public int getCoarsestSteps() {
+            return coarsestSteps;
+        }
+
+        public void setCoarsestSteps(int coarsestSteps) {
+            this.coarsestSteps = coarsestSteps;
+        }
+
+        public int getRefineSteps() {
+            return refineSteps;
+        }
+
+        public void setRefineSteps(int refineSteps) {
+            this.refineSteps = refineSteps;
+        }
+
+        public double getCoolStart() {
+            return coolStart;
+        }
+
+        public void setCoolStart(double coolStart) {
+            this.coolStart = coolStart;
+        }
+
+        public double getCoolEnd() {
+            return coolEnd;
+        }
+
+        public void setCoolEnd(double coolEnd) {
+            this.coolEnd = coolEnd;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            checkArgument(parallelism >= 1, "Parallelism must be at least 1");
+            this.parallelism = parallelism;
+        }
+
+        //endregion
+
+    }
+
+    //endregion
+
+}
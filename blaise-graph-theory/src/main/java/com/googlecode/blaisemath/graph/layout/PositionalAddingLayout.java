@@ -55,29 +55,44 @@ public class PositionalAddingLayout implements StaticGraphLayout<CircleLayoutPar
             if (curLocations != null && curLocations.containsKey(node)) {
                 res.put(node, curLocations.get(node));
             } else {
-                double sx = 0;
-                double sy = 0;
-                int n = 0;
-                for (N o : g.adjacentNodes(node)) {
-                    Point2D.Double p = curLocations.get(o);
-                    if (p != null) {
-                        sx += p.x;
-                        sy += p.y;
-                        n++;
-                    }
-                }
-                if (n == 0) {
-                    double theta = 2*Math.PI*Math.random();
-                    res.put(node, new Point2D.Double(sx+2*len*Math.cos(theta), sy+2*len*Math.sin(theta)));
-                } else if (n == 1) {
-                    double theta = 2*Math.PI*Math.random();
-                    res.put(node, new Point2D.Double(sx+len*Math.cos(theta), sy+len*Math.sin(theta)));
-                } else {
-                    res.put(node, new Point2D.Double(sx/n, sy/n));
-                }
+                res.put(node, newNodeLocation(g, node, curLocations == null ? res : curLocations, len));
             }
         }
         return res;
     }
 
+    /**
+     * Compute a location for a node near its adjacent nodes. If more than one adjacent node has a location, uses
+     * their average location; if one does, uses a random point at the given distance from it; otherwise, uses a
+     * random point at twice the given distance from the origin.
+     * @param g the graph
+     * @param node node to locate
+     * @param locations current node locations
+     * @param len approximate distance between the node and adjacent nodes
+     * @param <N> graph node type
+     * @return new location
+     */
+    static <N> Point2D.Double newNodeLocation(Graph<N> g, N node, Map<N, Point2D.Double> locations, double len) {
+        double sx = 0;
+        double sy = 0;
+        int n = 0;
+        for (N o : g.adjacentNodes(node)) {
+            Point2D.Double p = locations.get(o);
+            if (p != null) {
+                sx += p.x;
+                sy += p.y;
+                n++;
+            }
+        }
+        if (n == 0) {
+            double theta = 2*Math.PI*Math.random();
+            return new Point2D.Double(sx+2*len*Math.cos(theta), sy+2*len*Math.sin(theta));
+        } else if (n == 1) {
+            double theta = 2*Math.PI*Math.random();
+            return new Point2D.Double(sx+len*Math.cos(theta), sy+len*Math.sin(theta));
+        } else {
+            return new Point2D.Double(sx/n, sy/n);
+        }
+    }
+
 }
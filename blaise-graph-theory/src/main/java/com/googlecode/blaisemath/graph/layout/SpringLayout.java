@@ -20,23 +20,30 @@ package com.googlecode.blaisemath.graph.layout;
  * #L%
  */
 
-import com.google.common.base.Objects;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.common.graph.Graph;
 import com.googlecode.blaisemath.annotation.InvokedFromThread;
-import com.googlecode.blaisemath.graph.GraphUtils;
 import com.googlecode.blaisemath.graph.IterativeGraphLayout;
+import com.googlecode.blaisemath.graph.layout.SpringLayoutParameters.RepulsionMode;
 
 import java.awt.geom.Point2D;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Graph layout modeled after repulsive charges between nodes, and spring forces between nodes.
+ * Graph layout modeled after repulsive charges between nodes, and spring forces between nodes. Repulsive forces are
+ * computed either by comparing nodes in nearby cells of a fixed grid, or by a Barnes-Hut approximation, as determined
+ * by {@link SpringLayoutParameters#getRepulsionMode()}.
+ * <p>
+ * Forces are computed over the array representation maintained by {@link SpringLayoutState}, so an iteration does
+ * not allocate unless the graph or the pinned nodes have changed since the previous iteration. If
+ * {@link SpringLayoutParameters#getParallelism()} is more than 1, force and velocity computations are split into
+ * ranges of nodes that run in the common {@link ForkJoinPool}. Each node's net force is summed by a single task in a
+ * fixed order, and the total energy is summed in node order, so results do not depend on the parallelism setting.
  *
  * @author Elisha Peterson
  */
@@ -44,6 +51,12 @@ public class SpringLayout implements IterativeGraphLayout<SpringLayoutParameters
     
     private static final Logger LOG = Logger.getLogger(SpringLayout.class.getName());
 
+    /** Minimum number of nodes per task in parallel mode */
+    private static final int MIN_NODES_PER_TASK = 128;
+
+    /** Tasks used for parallel force computation, reused across iterations */
+    private ForceTask<?>[] tasks = new ForceTask<?>[0];
+
     @Override
     public String toString() {
         return "Spring layout algorithm";
@@ -61,47 +74,83 @@ public class SpringLayout implements IterativeGraphLayout<SpringLayoutParameters
 
     @InvokedFromThread("unknown")
     @Override
-    public final synchronized <N> double iterate(Graph<N> og, SpringLayoutState state, SpringLayoutParameters params) {
-        Graph<N> g = og.isDirected() ? GraphUtils.copyUndirected(og) : og;
-        Set<N> nodes = g.nodes();
-        Set<N> pinned = params.getConstraints().getPinnedNodes();
-        Set<N> unpinned = Sets.difference(nodes, pinned).immutableCopy();
-        double energy;
-
-        state.nodeLocationSync(nodes);
-        state.updateRegions(params.maxRepelDist);
-
-        Map<N, Point2D.Double> forces = Maps.newHashMap();
-        computeNonRepulsiveForces(g, nodes, pinned, forces, state, params);
-        computeRepulsiveForces(pinned, forces, state, params);
-        checkForces(unpinned, forces);
-        energy = move(g, unpinned, forces, state, params);
-        
+    @SuppressWarnings("unchecked")
+    public final synchronized <N> double iterate(Graph<N> g, SpringLayoutState state, SpringLayoutParameters params) {
+        SpringLayoutState<N> st = state;
+        st.prepare(g, (Set<N>) params.getConstraints().getPinnedNodes());
+        if (params.repulsionMode == RepulsionMode.BARNES_HUT) {
+            st.updateTree();
+        } else {
+            st.updateRegions(params.maxRepelDist);
+        }
+
+        int n = st.nodeCount;
+        int taskCount = Math.max(1, Math.min(params.parallelism, n / MIN_NODES_PER_TASK));
+        if (taskCount == 1) {
+            computeForces(g, st, params, 0, n, st.scratchForce, st.scratchLoc);
+        } else {
+            if (tasks.length != taskCount) {
+                tasks = new ForceTask<?>[taskCount];
+                Arrays.setAll(tasks, i -> new ForceTask<>());
+            }
+            for (int t = 0; t < taskCount; t++) {
+                // tasks hold no graph between iterations, so may be reused for any node type
+                ForceTask<N> task = (ForceTask<N>) tasks[t];
+                task.reinitialize();
+                task.setUp(g, st, params, (int) ((long) n * t / taskCount), (int) ((long) n * (t + 1) / taskCount));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            for (ForceTask<?> task : tasks) {
+                task.setUp(null, null, null, 0, 0);
+            }
+        }
+        double energy = move(st, params);
+        st.storeArrays();
         return energy;
     }
 
-    //region FORCE COMPUTATIONS
+    /**
+     * Compute forces and update velocities for a range of nodes.
+     * @param sum scratch point for additional forces
+     * @param iLoc scratch point for additional forces
+     */
+    private <N> void computeForces(Graph<N> g, SpringLayoutState<N> state, SpringLayoutParameters params,
+                                   int from, int to, Point2D.Double sum, Point2D.Double iLoc) {
+        computeNonRepulsiveForces(g, state, params, from, to, sum, iLoc);
+        computeRepulsiveForces(state, params, from, to);
+        checkForces(state, from, to);
+        for (int i = from; i < to; i++) {
+            state.energy[i] = state.pinned[i] ? 0 : adjustVelocity(state, i, params);
+        }
+    }
 
-    protected <N> void computeNonRepulsiveForces(Graph<N> g, Set<N> nodes, Set<N> pinned, Map<N, Point2D.Double> forces,
-                                                 SpringLayoutState<N> state, SpringLayoutParameters params) {
-        for (N io : nodes) {
-            Point2D.Double iLoc = state.getLoc(io);
-            if (iLoc == null) {
-                iLoc = newNodeLocation(g, io, state, params);
-                state.putLoc(io, iLoc);
-            }
-            Point2D.Double iVel = state.getVel(io);
-            if (iVel == null) {
-                iVel = new Point2D.Double();
-                state.putVel(io, iVel);
-            }
+    //region FORCE COMPUTATIONS
 
-            if (!pinned.contains(io)) {
-                Point2D.Double netForce = new Point2D.Double();
-                addGlobalForce(netForce, iLoc, params);
-                addSpringForces(g, netForce, io, iLoc, state, params);
-                addAdditionalForces(g, netForce, io, iLoc, state, params);
-                forces.put(io, netForce);
+    /**
+     * Compute global, spring, and any additional forces on unpinned nodes in a range, replacing the previous
+     * iteration's forces. In parallel mode, this is called concurrently for disjoint ranges.
+     * @param g the graph
+     * @param state layout state
+     * @param params layout parameters
+     * @param from index of first node (inclusive)
+     * @param to index of last node (exclusive)
+     * @param sum scratch point used to pass forces to {@link #addAdditionalForces}
+     * @param iLoc scratch point used to pass locations to {@link #addAdditionalForces}
+     * @param <N> graph node type
+     */
+    protected <N> void computeNonRepulsiveForces(Graph<N> g, SpringLayoutState<N> state, SpringLayoutParameters params,
+                                                 int from, int to, Point2D.Double sum, Point2D.Double iLoc) {
+        for (int i = from; i < to; i++) {
+            state.fx[i] = 0;
+            state.fy[i] = 0;
+            if (!state.pinned[i]) {
+                addGlobalForce(state, i, params);
+                addSpringForces(state, i, params);
+                sum.setLocation(state.fx[i], state.fy[i]);
+                iLoc.setLocation(state.x[i], state.y[i]);
+                addAdditionalForces(g, sum, state.nodes.get(i), iLoc, state, params);
+                state.fx[i] = sum.x;
+                state.fy[i] = sum.y;
             }
         }
     }
@@ -110,24 +159,28 @@ public class SpringLayout implements IterativeGraphLayout<SpringLayoutParameters
     protected <N> void addAdditionalForces(Graph<N> g,
                                            Point2D.Double sum, N io, Point2D.Double iLoc,
                                            SpringLayoutState<N> state, SpringLayoutParameters params) {
-        // hook for adding additional forces per the needs of child layouts
+        // hook for adding additional forces per the needs of child layouts; may be called from multiple threads
     }
-    
-    protected <N> void computeRepulsiveForces(Set<N> pinned, Map<N, Point2D.Double> forces,
-                                              SpringLayoutState<N> state, SpringLayoutParameters params) {
-        for (LayoutRegion<N>[] rr : state.regions) {
-            for (LayoutRegion<N> r : rr) {
-                for (N io : r.points()) {
-                    if (!pinned.contains(io)) {
-                        addRepulsiveForces(r, forces.get(io), io, r.get(io), params);
-                    }
-                }
-            }
-        }
 
-        for (N io : state.oRegion.points()) {
-            if (!pinned.contains(io)) {
-                addRepulsiveForces(state.oRegion, forces.get(io), io, state.oRegion.get(io), params);
+    /**
+     * Add repulsive forces to the net force on each unpinned node in a range. In parallel mode, this is called
+     * concurrently for disjoint ranges.
+     * @param state layout state
+     * @param params layout parameters
+     * @param from index of first node (inclusive)
+     * @param to index of last node (exclusive)
+     * @param <N> graph node type
+     */
+    protected <N> void computeRepulsiveForces(SpringLayoutState<N> state, SpringLayoutParameters params, int from, int to) {
+        boolean barnesHut = params.repulsionMode == RepulsionMode.BARNES_HUT;
+        for (int i = from; i < to; i++) {
+            if (state.pinned[i]) {
+                continue;
+            }
+            if (barnesHut) {
+                state.tree.addRepulsiveForce(i, state.fx, state.fy, params);
+            } else {
+                addRepulsiveForces(state, state.nodeRegions[i], i, params);
             }
         }
     }
@@ -136,67 +189,44 @@ public class SpringLayout implements IterativeGraphLayout<SpringLayoutParameters
 
     //region STATIC METHODS
 
-    /**
-     * Get a position for a node that doesn't currently have a position.
-     * @param node the node to get new location of
-     */
-    private static <N> Point2D.Double newNodeLocation(Graph<N> g, N node, SpringLayoutState<N> state, SpringLayoutParameters params) {
-        double len = params.springL;
-        double sx = 0;
-        double sy = 0;
-        int n = 0;
-        for (N o : g.adjacentNodes(node)) {
-            Point2D.Double p = state.getLoc(o);
-            if (p != null) {
-                sx += p.x;
-                sy += p.y;
-                n++;
-            }
-        }
-        if (n == 0) {
-            return new Point2D.Double(sx + 2 * len * Math.random(), sy + 2 * len * Math.random());
-        } else if (n == 1) {
-            return new Point2D.Double(sx + len * Math.random(), sy + len * Math.random());
-        } else {
-            return new Point2D.Double(sx / n, sy / n);
-        }
-    }
-
     /**
      * Add a global attractive force pushing node at specified location toward the origin.
-     * @param sum vector representing the sum of forces (will be adjusted)
-     * @param iLoc location of first node
+     * @param state layout state, whose forces will be adjusted
+     * @param i index of node
      * @param params algorithm parameters
      */
-    private static void addGlobalForce(Point2D.Double sum, Point2D.Double iLoc, SpringLayoutParameters params) {
-        double dist = iLoc.distance(0, 0);
+    private static void addGlobalForce(SpringLayoutState<?> state, int i, SpringLayoutParameters params) {
+        double x = state.x[i];
+        double y = state.y[i];
+        double dist = Math.sqrt(x * x + y * y);
         if (dist > params.minGlobalForceDist) {
-            sum.x += -params.globalC * iLoc.x / dist;
-            sum.y += -params.globalC * iLoc.y / dist;
+            state.fx[i] += -params.globalC * x / dist;
+            state.fy[i] += -params.globalC * y / dist;
         }
     }
 
     /**
      * Add all repulsive forces for a particular node.
+     * @param state layout state, whose forces will be adjusted
      * @param region the region for the node
-     * @param sum vector representing the sum of forces (will be adjusted)
-     * @param io the node of interest
-     * @param iLoc location of first node
+     * @param i index of node
      * @param params algorithm parameters
      */
-    private static <N> void addRepulsiveForces(LayoutRegion<N> region, Point2D.Double sum, N io, Point2D.Double iLoc,
-                                               SpringLayoutParameters params) {
-        Point2D.Double jLoc;
-        double dist;
-        for (LayoutRegion<N> r : region.adjacentRegions()) {
-            for (Entry<N, Point2D.Double> jEntry : r.entries()) {
-                N jo = jEntry.getKey();
-                if (io != jo) {
-                    jLoc = jEntry.getValue();
-                    dist = iLoc.distance(jLoc);
+    private static void addRepulsiveForces(SpringLayoutState<?> state, LayoutRegion region, int i,
+                                           SpringLayoutParameters params) {
+        double[] x = state.x;
+        double[] y = state.y;
+        for (int a = 0; a < region.adjacentRegions().size(); a++) {
+            LayoutRegion r = region.adjacentRegions().get(a);
+            for (int k = 0; k < r.size(); k++) {
+                int j = r.point(k);
+                if (i != j) {
+                    double dx = x[i] - x[j];
+                    double dy = y[i] - y[j];
+                    double dist = Math.sqrt(dx * dx + dy * dy);
                     // repulsive force from other nodes
                     if (dist < params.maxRepelDist) {
-                        addRepulsiveForce(sum, iLoc, jLoc, dist, params);
+                        addRepulsiveForce(state, i, j, dx, dy, dist, params);
                     }
                 }
             }
@@ -204,134 +234,162 @@ public class SpringLayout implements IterativeGraphLayout<SpringLayoutParameters
     }
 
     /**
-     * Add repulsive force at node i1 pointing away from node i2.
-     * @param sum vector representing the sum of forces (will be adjusted)
-     * @param iLoc location of first node
-     * @param jLoc location of second node
+     * Add repulsive force at node i pointing away from node j.
+     * @param state layout state, whose forces will be adjusted
+     * @param i index of node
+     * @param j index of other node
+     * @param dx x displacement from the other node
+     * @param dy y displacement from the other node
      * @param dist distance between nodes
      * @param params algorithm parameters
      */
-    private static void addRepulsiveForce(Point2D.Double sum, Point2D.Double iLoc, Point2D.Double jLoc, double dist,
-                                              SpringLayoutParameters params) {
-        if (iLoc == jLoc) {
-            return;
-        }
+    private static void addRepulsiveForce(SpringLayoutState<?> state, int i, int j, double dx, double dy, double dist,
+                                          SpringLayoutParameters params) {
         if (dist == 0) {
-            double angle = Math.random()*2*Math.PI;
-            sum.x += params.repulsiveC * Math.cos(angle);
-            sum.y += params.repulsiveC * Math.sin(angle);
+            double angle = jitterAngle(i, j);
+            state.fx[i] += params.repulsiveC * Math.cos(angle);
+            state.fy[i] += params.repulsiveC * Math.sin(angle);
         } else {
             double multiplier = Math.min(params.repulsiveC/(dist*dist), params.maxForce) / dist;
-            sum.x += multiplier * (iLoc.x - jLoc.x);
-            sum.y += multiplier * (iLoc.y - jLoc.y);
+            state.fx[i] += multiplier * dx;
+            state.fy[i] += multiplier * dy;
         }
     }
 
     /**
      * Add symmetric attractive force from adjacencies.
-     * @param g the graph
-     * @param sum the total force for the current object
-     * @param io the node of interest
-     * @param iLoc position of node of interest
+     * @param state layout state, whose forces will be adjusted
+     * @param i index of node
      * @param params algorithm parameters
      */
-    private static <N> void addSpringForces(Graph<N> g, Point2D.Double sum, N io, Point2D.Double iLoc,
-                                            SpringLayoutState<N> state, SpringLayoutParameters params) {
-        Point2D.Double jLoc;
-        double dist;
-        for (N o : g.adjacentNodes(io)) {
-            if (!Objects.equal(o, io)) {
-                jLoc = state.getLoc(o);
-                dist = iLoc.distance(jLoc);
-                addSpringForce(sum, io, iLoc, o, jLoc, dist, params);
-            }
+    private static void addSpringForces(SpringLayoutState<?> state, int i, SpringLayoutParameters params) {
+        for (int k = state.nbrOffsets[i]; k < state.nbrOffsets[i + 1]; k++) {
+            addSpringForce(state, i, state.nbrTargets[k], params);
         }
     }
 
-    /** Add spring force at node i1 pointing to node i2.
-     * @param sum vector representing the sum of forces (will be adjusted)
-     * @param io the node of interest
-     * @param iLoc location of first node
-     * @param jo the second node of interest
-     * @param jLoc location of second node
-     * @param dist distance between nodes
+    /** Add spring force at node i pointing to node j.
+     * @param state layout state, whose forces will be adjusted
+     * @param i index of node
+     * @param j index of adjacent node
+     * @param params algorithm parameters
      */
-    private static <N> void addSpringForce(Point2D.Double sum, N io, Point2D.Double iLoc, N jo, Point2D.Double jLoc,
-                                           double dist, SpringLayoutParameters params) {
+    private static void addSpringForce(SpringLayoutState<?> state, int i, int j, SpringLayoutParameters params) {
+        double dx = state.x[j] - state.x[i];
+        double dy = state.y[j] - state.y[i];
+        double dist = Math.sqrt(dx * dx + dy * dy);
         if (dist == 0) {
-            LOG.log(Level.WARNING, "Distance 0 between {0} and {1}: {2}, {3}", new Object[]{io, jo, iLoc, jLoc});
-            sum.x += params.springC / (params.minDist * params.minDist);
-            sum.y += 0;
+            LOG.log(Level.WARNING, "Distance 0 between {0} and {1}: ({2}, {3})",
+                    new Object[]{state.nodes.get(i), state.nodes.get(j), state.x[i], state.y[i]});
+            state.fx[i] += params.springC / (params.minDist * params.minDist);
         } else {
             double displacement = dist - params.springL;
-            sum.x += params.springC * displacement * (jLoc.x - iLoc.x) / dist;
-            sum.y += params.springC * displacement * (jLoc.y - iLoc.y) / dist;
+            state.fx[i] += params.springC * displacement * dx / dist;
+            state.fy[i] += params.springC * displacement * dy / dist;
         }
     }
     
-    private static <N> void checkForces(Set<N> unpinned, Map<N, Point2D.Double> forces) {
-        for (N io : unpinned) {
-            Point2D.Double netForce = forces.get(io);
-            boolean test = !Double.isNaN(netForce.x) && !Double.isNaN(netForce.y) 
-                    && !Double.isInfinite(netForce.x) && !Double.isInfinite(netForce.y);
-            if (!test) {
-                LOG.log(Level.SEVERE, "Computed infinite force: {0} for {1}", new Object[]{netForce, io});
+    private static void checkForces(SpringLayoutState<?> state, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!state.pinned[i] && !(Double.isFinite(state.fx[i]) && Double.isFinite(state.fy[i]))) {
+                LOG.log(Level.SEVERE, "Computed infinite force: ({0}, {1}) for {2}",
+                        new Object[]{state.fx[i], state.fy[i], state.nodes.get(i)});
             }
         }
     }
     
-    private static <N> double move(Graph<N> g, Set<N> unpinned, Map<N, Point2D.Double> forces,
-                                   SpringLayoutState<N> state, SpringLayoutParameters params) {
+    private static double move(SpringLayoutState<?> state, SpringLayoutParameters params) {
         double energy = 0;
-        for (N io : unpinned) {
-            energy += adjustVelocity(state.getVel(io), forces.get(io), g.degree(io), params);
-        }
-        for (N io : unpinned) {
-            adjustPosition(state.getLoc(io), state.getVel(io), params.stepT);
+        for (int i = 0; i < state.nodeCount; i++) {
+            if (!state.pinned[i]) {
+                energy += state.energy[i];
+                state.x[i] += params.stepT * state.vx[i];
+                state.y[i] += params.stepT * state.vy[i];
+            }
         }
         return energy;
     }
 
+    /**
+     * Get a pseudo-random direction in which to push apart two nodes at the same location. The direction depends only
+     * on the node indices, so layouts are reproducible.
+     * @param i index of node being pushed
+     * @param j index of other node
+     * @return angle in radians
+     */
+    static double jitterAngle(int i, int j) {
+        long h = i * 0x9E3779B97F4A7C15L + j * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 29;
+        return (h >>> 11) * 0x1.0p-53 * 2 * Math.PI;
+    }
+
     /**
      * Adjusts the velocity vector with the specified net force, possibly by applying damping. SpringLayout uses
-     * iVel = dampingC*(iVel + stepT*netForce), and caps maximum speed.
-     * @param iVel velocity to adjust
-     * @param netForce force vector to use
-     * @param iDeg node's degree, used to increase damping for high degree nodes
+     * iVel = dampingC*(iVel + stepT*netForce), and caps maximum speed. High degree nodes have lower maximum force.
+     * @param state layout state, whose velocities will be adjusted
+     * @param i index of node
      * @param params layout parameters
      * @return node's energy
      */
-    private static double adjustVelocity(Point2D.Double iVel, Point2D.Double netForce, double iDeg, SpringLayoutParameters params) {
+    private static double adjustVelocity(SpringLayoutState<?> state, int i, SpringLayoutParameters params) {
+        int iDeg = state.degrees[i];
         double maxForce = iDeg <= 15 ? params.maxForce : params.maxForce * (.2 + .8/(iDeg-15));
-        
-        double fm = netForce.distance(0, 0);
+
+        double fx = state.fx[i];
+        double fy = state.fy[i];
+        double fm = Math.sqrt(fx * fx + fy * fy);
         if (fm > maxForce) {
-            netForce.x *= maxForce/fm;
-            netForce.y *= maxForce/fm;
+            fx *= maxForce/fm;
+            fy *= maxForce/fm;
         }
-        iVel.x = params.dampingC * (iVel.x + params.stepT * netForce.x);
-        iVel.y = params.dampingC * (iVel.y + params.stepT * netForce.y);
-        double speed = iVel.x*iVel.x+iVel.y*iVel.y;
+        double vx = params.dampingC * (state.vx[i] + params.stepT * fx);
+        double vy = params.dampingC * (state.vy[i] + params.stepT * fy);
+        double speed = vx*vx+vy*vy;
 
         if (speed > params.maxSpeed) {
-            iVel.x *= params.maxSpeed/speed;
-            iVel.y *= params.maxSpeed/speed;
+            vx *= params.maxSpeed/speed;
+            vy *= params.maxSpeed/speed;
             speed = params.maxSpeed;
         }
+        state.vx[i] = vx;
+        state.vy[i] = vy;
 
         return .5 * speed * speed;
     }
 
+    //endregion
+
+    //region INNER CLASSES
+
     /**
-     * Adjusts a node's position using specified initial position and velocity.
-     * SpringLayout uses iLoc += stepT*iVel
-     * @param iLoc position to change
-     * @param iVel velocity to adjust
-     * @param stepT step time
+     * Computes forces for a range of nodes. Instances are reused across iterations.
+     * @param <N> graph node type
      */
-    private static void adjustPosition(Point2D.Double iLoc, Point2D.Double iVel, double stepT) {
-        iLoc.x += stepT * iVel.x;
-        iLoc.y += stepT * iVel.y;
+    @SuppressWarnings("serial")
+    private final class ForceTask<N> extends RecursiveAction {
+
+        private final Point2D.Double sum = new Point2D.Double();
+        private final Point2D.Double iLoc = new Point2D.Double();
+        private Graph<N> graph;
+        private SpringLayoutState<N> state;
+        private SpringLayoutParameters params;
+        private int from;
+        private int to;
+
+        void setUp(Graph<N> graph, SpringLayoutState<N> state, SpringLayoutParameters params, int from, int to) {
+            this.graph = graph;
+            this.state = state;
+            this.params = params;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            computeForces(graph, state, params, from, to, sum, iLoc);
+        }
     }
 
     //endregion
@@ -20,6 +20,7 @@ package com.googlecode.blaisemath.graph.layout;
  * #L%
  */
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 /** 
@@ -29,6 +30,16 @@ public class SpringLayoutParameters {
     
     /** Default distance scale */
     public static final int DEFAULT_DIST_SCALE = 50;
+    /** Default opening angle for Barnes-Hut repulsion */
+    public static final double DEFAULT_OPENING_ANGLE = 0.8;
+
+    /** Strategies for computing repulsive forces between nodes. */
+    public enum RepulsionMode {
+        /** Compares nodes in adjacent cells of a fixed grid around the origin, plus a catch-all outer region. */
+        REGIONS,
+        /** Approximates repulsion using a Barnes-Hut quadtree, which adapts to the extent of the layout. */
+        BARNES_HUT
+    }
     
     /** Desired distance between nodes */
     double distScale = DEFAULT_DIST_SCALE;
@@ -54,6 +65,12 @@ public class SpringLayoutParameters {
     double minDist = distScale / 100;
     /** Max distance to apply repulsive force */
     double maxRepelDist = 2 * distScale;
+    /** How repulsive forces are computed */
+    RepulsionMode repulsionMode = RepulsionMode.REGIONS;
+    /** Barnes-Hut opening angle, ratio of cell width to distance below which a cell is treated as a single point */
+    double openingAngle = DEFAULT_OPENING_ANGLE;
+    /** Max number of tasks to split force computations across, 1 for single-threaded */
+    int parallelism = 1;
     
     /** Layout constraints */
     GraphLayoutConstraints constraints = new GraphLayoutConstraints();
@@ -131,6 +148,42 @@ public class SpringLayoutParameters {
         this.stepT = stepT;
     }
 
+    public RepulsionMode getRepulsionMode() {
+        return repulsionMode;
+    }
+
+    public void setRepulsionMode(RepulsionMode repulsionMode) {
+        this.repulsionMode = requireNonNull(repulsionMode);
+    }
+
+    public double getOpeningAngle() {
+        return openingAngle;
+    }
+
+    /**
+     * Set the opening angle used for Barnes-Hut repulsion. Smaller values are more accurate, and zero computes all
+     * forces exactly; larger values are faster.
+     * @param openingAngle opening angle, must be non-negative
+     */
+    public void setOpeningAngle(double openingAngle) {
+        checkArgument(openingAngle >= 0, "Opening angle must be non-negative");
+        this.openingAngle = openingAngle;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the max number of tasks used to compute forces in each iteration. Tasks run in the common fork-join pool,
+     * and are only used for graphs large enough to benefit. Layout results do not depend on this setting.
+     * @param parallelism number of tasks, 1 for single-threaded
+     */
+    public void setParallelism(int parallelism) {
+        checkArgument(parallelism >= 1, "Parallelism must be at least 1");
+        this.parallelism = parallelism;
+    }
+
     public GraphLayoutConstraints getConstraints() {
         return constraints;
     }
@@ -20,53 +20,190 @@ package com.googlecode.blaisemath.graph.layout;
  * #L%
  */
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.CompressedGraph;
 import com.googlecode.blaisemath.graph.IterativeGraphLayoutState;
+import org.jspecify.annotations.Nullable;
 
 import java.awt.geom.Point2D;
 import java.util.List;
-import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Set;
 
 /**
  * State object for spring layout. This tracks node locations and velocities, and divides node space up into regions to allow for more efficient
  * layout calculations. This class may be safely modified by multiple threads simultaneously.
+ * <p>
+ * During layout, node locations, velocities, and forces are held in parallel arrays indexed by node id, along with
+ * the graph's adjacencies in compressed form. The arrays are rebuilt only when a different graph is laid out, the
+ * graph's node or edge count changes, {@link #invalidateGraph()} is called, the pinned nodes change, or new positions
+ * have been requested, so a layout iteration does not allocate. Edits to a mutable graph that keep the node and edge
+ * counts are only picked up after {@link #invalidateGraph()}. After each iteration, locations and velocities are
+ * copied back to the point objects exposed by {@link #getPositionsCopy()}.
+ *
  * @param <N> graph node type
  * @author Elisha Peterson
  */
 public final class SpringLayoutState<N> extends IterativeGraphLayoutState<N> {
     
-    private static final Logger LOG = Logger.getLogger(SpringLayoutState.class.getName());
-    
     /** # of regions away from origin in x and y directions. Region size is determined by the maximum repel distance. */
     private static final int REGION_N = 5;
 
     /** Regions used for localizing computation */
-    LayoutRegion<N>[][] regions;
+    LayoutRegion[][] regions;
     /** Points that are not in a region */
-    LayoutRegion<N> oRegion;
+    LayoutRegion oRegion;
     /** List of all regions */
-    List<LayoutRegion<N>> allRegions;
-    
-    //region UPDATERS
-    
-    Point2D.Double getLoc(N io) {
-        return loc.get(io);
+    List<LayoutRegion> allRegions;
+
+    /** Quadtree used for Barnes-Hut repulsion */
+    BarnesHutTree tree;
+
+    /** Graph used to build the node index, with its edge count at the time */
+    private Graph<N> indexedGraph;
+    private int indexedEdgeCount = 0;
+    /** Pinned nodes used to build pinned flags, null if the flags must be rebuilt */
+    private @Nullable Set<N> indexedPinned;
+
+    /** Nodes, by index */
+    final List<N> nodes = Lists.newArrayList();
+    /** Number of nodes */
+    int nodeCount = 0;
+    /** Neighbors of each node, ignoring direction and self-loops, in compressed row format */
+    int[] nbrOffsets = new int[1];
+    int[] nbrTargets = new int[0];
+    /** Degree of each node, in the undirected version of the graph */
+    int[] degrees = new int[0];
+    /** Whether each node is pinned */
+    boolean[] pinned = new boolean[0];
+    /** Node locations */
+    double[] x = new double[0];
+    double[] y = new double[0];
+    /** Node velocities */
+    double[] vx = new double[0];
+    double[] vy = new double[0];
+    /** Net force on each node for the current iteration */
+    double[] fx = new double[0];
+    double[] fy = new double[0];
+    /** Energy of each node for the current iteration */
+    double[] energy = new double[0];
+    /** Region containing each node, for region-based repulsion */
+    LayoutRegion[] nodeRegions = new LayoutRegion[0];
+    /** Location and velocity objects for each node, updated in place after each iteration */
+    private Point2D.Double[] locPoints = new Point2D.Double[0];
+    private Point2D.Double[] velPoints = new Point2D.Double[0];
+
+    /** Scratch objects passed to {@link SpringLayout#addAdditionalForces} in single-threaded mode */
+    final Point2D.Double scratchForce = new Point2D.Double();
+    final Point2D.Double scratchLoc = new Point2D.Double();
+
+    //region ARRAY STATE
+
+    /**
+     * Prepares the array state for an iteration, applying any requested positions and rebuilding the node index if
+     * the graph has changed since the last iteration.
+     * @param graph graph being laid out
+     * @param pinnedNodes nodes whose positions should not change
+     */
+    void prepare(Graph<N> graph, Set<N> pinnedNodes) {
+        boolean graphChanged = graphChanged(graph);
+        if (graphChanged || hasPendingUpdates()) {
+            nodeLocationSync(graph.nodes());
+            if (graphChanged) {
+                buildIndex(graph);
+            }
+            loadArrays();
+            indexedPinned = null;
+        }
+        if (indexedPinned == null || !indexedPinned.equals(pinnedNodes)) {
+            for (int i = 0; i < nodeCount; i++) {
+                pinned[i] = pinnedNodes.contains(nodes.get(i));
+            }
+            indexedPinned = ImmutableSet.copyOf(pinnedNodes);
+        }
     }
-    
-    void putLoc(N io, Point2D.Double pt) {
-        loc.put(io, pt);
+
+    /**
+     * Check whether the graph differs from the one used to build the node index. In-place edits to a mutable graph
+     * are detected by changes to the node or edge count, or by a call to {@link #invalidateGraph()}.
+     */
+    private boolean graphChanged(Graph<N> graph) {
+        boolean invalid = checkGraphInvalid();
+        return invalid || graph != indexedGraph || graph.nodes().size() != nodeCount
+                || graph.edges().size() != indexedEdgeCount;
     }
-    
-    Point2D.Double getVel(N io) {
-        return vel.get(io);
+
+    /** Rebuild node index and adjacency arrays */
+    private void buildIndex(Graph<N> graph) {
+        CompressedGraph<N> cg = CompressedGraph.copyOf(graph);
+        int n = cg.nodeCount();
+        nodes.clear();
+        nodes.addAll(cg.nodeList());
+        nodeCount = n;
+        indexedGraph = graph;
+        indexedEdgeCount = graph.edges().size();
+
+        int[] offsets = cg.neighborOffsets();
+        int[] targets = cg.neighborTargets();
+        nbrOffsets = new int[n + 1];
+        nbrTargets = new int[targets.length];
+        degrees = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            nbrOffsets[i] = count;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                if (targets[k] == i) {
+                    // self-loops count twice toward degree in an undirected graph
+                    degrees[i] += 2;
+                } else {
+                    nbrTargets[count++] = targets[k];
+                    degrees[i]++;
+                }
+            }
+        }
+        nbrOffsets[n] = count;
+
+        pinned = new boolean[n];
+        x = new double[n];
+        y = new double[n];
+        vx = new double[n];
+        vy = new double[n];
+        fx = new double[n];
+        fy = new double[n];
+        energy = new double[n];
+        nodeRegions = new LayoutRegion[n];
+        locPoints = new Point2D.Double[n];
+        velPoints = new Point2D.Double[n];
     }
-    
-    void putVel(N io, Point2D.Double pt) {
-        vel.put(io, pt);
+
+    /** Load locations and velocities from the synchronized state into the arrays */
+    private synchronized void loadArrays() {
+        for (int i = 0; i < nodeCount; i++) {
+            N node = nodes.get(i);
+            Point2D.Double p = loc.get(node);
+            Point2D.Double v = vel.get(node);
+            if (v == null) {
+                v = new Point2D.Double();
+                vel.put(node, v);
+            }
+            locPoints[i] = p;
+            velPoints[i] = v;
+            x[i] = p.x;
+            y[i] = p.y;
+            vx[i] = v.x;
+            vy[i] = v.y;
+        }
     }
-    
+
+    /** Copy locations and velocities from the arrays back to the synchronized state */
+    synchronized void storeArrays() {
+        for (int i = 0; i < nodeCount; i++) {
+            locPoints[i].setLocation(x[i], y[i]);
+            velPoints[i].setLocation(vx[i], vy[i]);
+        }
+    }
+
     //endregion
 
     //region MANAGING REGIONS
@@ -76,23 +213,28 @@ public final class SpringLayoutState<N> extends IterativeGraphLayoutState<N> {
         if (regions == null) {
             initRegions();
         }
-        for (LayoutRegion<N> r : allRegions) {
+        for (LayoutRegion r : allRegions) {
             r.clear();
         }
-        for (Map.Entry<N, Point2D.Double> en : loc.entrySet()) {
-            LayoutRegion r = regionByLoc(en.getValue(), regionSz);
-            if (r != null) {
-                r.put(en.getKey(), en.getValue());
-            } else {
-                LOG.log(Level.WARNING, "Point not in any region: {0}", en);
-            }
+        for (int i = 0; i < nodeCount; i++) {
+            LayoutRegion r = regionByLoc(x[i], y[i], regionSz);
+            r.add(i);
+            nodeRegions[i] = r;
+        }
+    }
+
+    /** Rebuilds the quadtree with current node locations */
+    void updateTree() {
+        if (tree == null) {
+            tree = new BarnesHutTree();
         }
+        tree.build(x, y, nodeCount);
     }
     
     /** Return region for specified point */
-    private LayoutRegion regionByLoc(Point2D.Double p, double regionSz) {
-        int ix = (int) ((p.x + REGION_N * regionSz) / regionSz);
-        int iy = (int) ((p.y + REGION_N * regionSz) / regionSz);
+    private LayoutRegion regionByLoc(double px, double py, double regionSz) {
+        int ix = (int) ((px + REGION_N * regionSz) / regionSz);
+        int iy = (int) ((py + REGION_N * regionSz) / regionSz);
         if (ix < 0 || ix > 2 * REGION_N || iy < 0 || iy > 2 * REGION_N) {
             return oRegion;
         }
@@ -121,20 +263,20 @@ public final class SpringLayoutState<N> extends IterativeGraphLayoutState<N> {
             }
         }
         // set up adjacencies with outer region
-        oRegion = new LayoutRegion<>();
+        oRegion = new LayoutRegion();
         allRegions.add(oRegion);
         oRegion.addAdjacentRegion(oRegion);
         for (int ix = -REGION_N; ix <= REGION_N; ix++) {
-            LayoutRegion<N> min = regions[ix + REGION_N][0];
-            LayoutRegion<N> max = regions[ix + REGION_N][2 * REGION_N];
+            LayoutRegion min = regions[ix + REGION_N][0];
+            LayoutRegion max = regions[ix + REGION_N][2 * REGION_N];
             min.addAdjacentRegion(oRegion);
             max.addAdjacentRegion(oRegion);
             oRegion.addAdjacentRegion(min);
             oRegion.addAdjacentRegion(max);
         }
         for (int iy = -REGION_N + 1; iy <= REGION_N - 1; iy++) {
-            LayoutRegion<N> min = regions[0][iy + REGION_N];
-            LayoutRegion<N> max = regions[2 * REGION_N][iy + REGION_N];
+            LayoutRegion min = regions[0][iy + REGION_N];
+            LayoutRegion max = regions[2 * REGION_N][iy + REGION_N];
             min.addAdjacentRegion(oRegion);
             max.addAdjacentRegion(oRegion);
             oRegion.addAdjacentRegion(min);
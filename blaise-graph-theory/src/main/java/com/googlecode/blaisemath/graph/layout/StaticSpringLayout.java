@@ -69,10 +69,12 @@ public class StaticSpringLayout implements StaticGraphLayout<StaticSpringLayoutP
     @Override
     public <N> Map<N, Point2D.Double> layout(Graph<N> originalGraph, @Nullable Map<N, Point2D.Double> ic,
                                              StaticSpringLayoutParameters parameters) {
-        LOG.log(Level.FINE, "originalGraph, |N|={0}, |E|={1}, #components={2}, degrees={3}\n",
-                new Object[]{originalGraph.nodes().size(), originalGraph.edges().size(),
-                        GraphUtils.components(originalGraph).size(),
-                        nicer(GraphUtils.degreeDistribution(originalGraph))});
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, "originalGraph, |N|={0}, |E|={1}, #components={2}, degrees={3}\n",
+                    new Object[]{originalGraph.nodes().size(), originalGraph.edges().size(),
+                            GraphUtils.componentCount(originalGraph),
+                            nicer(GraphUtils.degreeDistribution(originalGraph))});
+        }
 
         // reduce graph size for layout, by removing degree 1 nodes
         OptimizedGraph<N> graphForInfo = new OptimizedGraph<>(originalGraph);
@@ -83,11 +85,13 @@ public class StaticSpringLayout implements StaticGraphLayout<StaticSpringLayoutP
                 .collect(toList());
 
         OptimizedGraph<N> graphForLayout = new OptimizedGraph<>(false, keepNodes, keepEdges);
-        LOG.log(Level.FINE, "graphForLayout, |N|={0}, |E|={1}, #components={2}, degrees={3}\n",
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, "graphForLayout, |N|={0}, |E|={1}, #components={2}, degrees={3}\n",
                     new Object[] { graphForLayout.nodes().size(), graphForLayout.edges().size(),
-                    GraphUtils.components(graphForLayout).size(), 
-                    nicer(GraphUtils.degreeDistribution(graphForLayout)) 
+                    GraphUtils.componentCount(graphForLayout),
+                    nicer(GraphUtils.degreeDistribution(graphForLayout))
                     });
+        }
 
         // perform the physics-based layout
         Map<N, Point2D.Double> initialLocations = INITIAL_LAYOUT.layout(graphForLayout, null, parameters.initialLayoutParams);
@@ -216,7 +220,7 @@ public class StaticSpringLayout implements StaticGraphLayout<StaticSpringLayoutP
      * @param distScale distance between nodes
      * @param isoScale distance between isolates
      */
-    private static <N> void addIsolates(Set<N> isolates, Map<N, Point2D.Double> pos, double distScale, double isoScale) {
+    static <N> void addIsolates(Set<N> isolates, Map<N, Point2D.Double> pos, double distScale, double isoScale) {
         int n = isolates.size();
         if (n > 0) {
             Rectangle2D bounds = Points.boundingBox(pos.values(), isoScale);
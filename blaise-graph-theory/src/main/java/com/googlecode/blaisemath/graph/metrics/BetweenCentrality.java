@@ -20,34 +20,75 @@ package com.googlecode.blaisemath.graph.metrics;
  * #L%
  */
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multiset;
-import com.google.common.collect.Queues;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-
+import com.google.common.collect.ImmutableList;
 import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.CompressedGraph;
 import com.googlecode.blaisemath.util.Instrument;
-import com.googlecode.blaisemath.graph.GraphUtils;
-import java.util.Deque;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Provides a metric describing the betweenness centrality of a node in a
  * CONNECTED graph. Returns infinity if the graph is not connected. May take a
  * long time for large graphs. Computationally, the centrality measures
  * the probability that a given node lies on a randomly chosen geodesic.
+ * <p>
+ * The computation runs one breadth-first search per source node over a {@link CompressedGraph}, using int and
+ * double scratch arrays rather than maps. In parallel mode, the source nodes are split across the common
+ * {@link ForkJoinPool}, each worker accumulates partial scores in its own array, and partial scores are summed
+ * when the workers are joined.
  *
  * @author Elisha Peterson
  */
 public class BetweenCentrality extends AbstractGraphNodeMetric<Double> {
-    
+
+    /** Number of source ranges per worker thread, used to balance load in parallel mode */
+    private static final int TASKS_PER_THREAD = 8;
+
+    /** Whether to split computation across multiple threads */
+    private boolean parallel = false;
+
     public BetweenCentrality() {
         super("Betweenness centrality");
     }
 
+    /**
+     * Construct with specified parallel setting.
+     * @param parallel if true, computation will be split across threads in the common fork-join pool
+     */
+    public BetweenCentrality(boolean parallel) {
+        this();
+        this.parallel = parallel;
+    }
+
+    //region PROPERTIES
+
+    /**
+     * Get whether the metric computes values on multiple threads.
+     * @return true if parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Set whether the metric computes values on multiple threads.
+     * @param parallel true to use the common fork-join pool
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    @Override
+    public Object settings() {
+        return ImmutableList.of(parallel);
+    }
+
+    //endregion
+
     @Override
     public <N> Double apply(Graph<N> graph, N node) {
         return apply(graph).get(node);
@@ -56,54 +97,84 @@ public class BetweenCentrality extends AbstractGraphNodeMetric<Double> {
     @Override
     public <N> Map<N, Double> apply(Graph<N> graph) {
         int id = Instrument.start("BetweenCentrality.allValues", graph.nodes().size()+" nodes", graph.edges().size()+" edges");
+        CompressedGraph<N> cg = CompressedGraph.copyOf(graph);
+        int n = cg.nodeCount();
+        double[] scores;
+        if (parallel && n > 1) {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            int threshold = Math.max(1, n / (TASKS_PER_THREAD * pool.getParallelism()));
+            scores = pool.invoke(new BrandesTask(cg, 0, n, threshold));
+        } else {
+            scores = applyBrandes(cg, 0, n);
+        }
+
+        double multiplier = graph.isDirected() ? 1.0 : 0.5;
         Map<N, Double> between = new HashMap<>();
-        graph.nodes().forEach(n -> between.put(n, 0.0));
-        graph.nodes().forEach(n -> applyBrandes(graph, n, between, graph.isDirected() ? 1.0 : 0.5));
+        for (int i = 0; i < n; i++) {
+            between.put(cg.nodeAt(i), multiplier * scores[i]);
+        }
         Instrument.end(id);
         return between;
     }
 
     /**
-     * Breadth-first search algorithm for an unweighted graph to generate betweenness scores, with specified starting
-     * node. From <i>Brandes</i>, "A Faster Algorithm for Betweenness Centrality".
+     * Breadth-first search algorithm for an unweighted graph to generate betweenness scores, for a range of starting
+     * nodes. From <i>Brandes</i>, "A Faster Algorithm for Betweenness Centrality". Edges are traversed in either
+     * direction.
      *
      * @param graph the graph
-     * @param start the start node
-     * @param result data structure storing existing betweenness centrality values
-     * @param multiplier applied to all elements of resulting map
+     * @param from index of first start node (inclusive)
+     * @param to index of last start node (exclusive)
+     * @return unscaled betweenness contributions from the given start nodes, by node index
      */
-    private static <N> void applyBrandes(Graph<N> graph, N start, Map<N, Double> result, double multiplier) {
-        Set<N> nodes = graph.nodes();
-        if (!nodes.contains(start)) {
-            return;
+    private static double[] applyBrandes(CompressedGraph<?> graph, int from, int to) {
+        double[] result = new double[graph.nodeCount()];
+        BrandesSearch search = new BrandesSearch(graph);
+        for (int start = from; start < to; start++) {
+            search.search(start, true);
+            for (int i = 1; i < search.reachedCount(); i++) {
+                int w = search.reachedAt(i);
+                result[w] += search.dependency(w);
+            }
         }
+        return result;
+    }
+
+    //region INNER CLASSES
+
+    /** Computes betweenness contributions for a range of start nodes, splitting the range across workers. */
+    @SuppressWarnings("serial")
+    private static final class BrandesTask extends RecursiveTask<double[]> {
 
-        // number of shortest paths to each node
-        Multiset<N> numShortest = HashMultiset.create();
-        // length of shortest paths to each node
-        Map<N, Integer> lengths = new HashMap<>();
-        // tracks elements in non-increasing order for later use
-        Deque<N> deque = Queues.newArrayDeque();
-        // tracks node predecessors in resulting tree
-        Multimap<N, N> predecessors = HashMultimap.create();
-
-        GraphUtils.breadthFirstSearch(graph, start, numShortest, lengths, deque, predecessors);
-
-        // compute betweenness
-        Map<N, Double> dependencies = new HashMap<>();
-        for (N n : nodes) {
-            dependencies.put(n, 0.0);
+        private final CompressedGraph<?> graph;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        BrandesTask(CompressedGraph<?> graph, int from, int to, int threshold) {
+            this.graph = graph;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
         }
-        while (!deque.isEmpty()) {
-            N w = deque.pollLast();
-            for (N n : predecessors.get(w)) {
-                dependencies.put(n, dependencies.get(n) + (double) numShortest.count(n) / numShortest.count(w) * (1 + dependencies.get(w)));
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= threshold) {
+                return applyBrandes(graph, from, to);
             }
-            if (w != start) {
-                result.put(w, result.get(w) + multiplier * dependencies.get(w));
+            int mid = (from + to) >>> 1;
+            BrandesTask left = new BrandesTask(graph, from, mid, threshold);
+            left.fork();
+            double[] res = new BrandesTask(graph, mid, to, threshold).compute();
+            double[] leftRes = left.join();
+            for (int i = 0; i < res.length; i++) {
+                res[i] += leftRes[i];
             }
+            return res;
         }
-
     }
+
+    //endregion
     
 }
@@ -0,0 +1,138 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.googlecode.blaisemath.graph.CompressedGraph;
+
+import java.util.Arrays;
+
+/**
+ * Single-source shortest path search used by betweenness and closeness metrics. Traverses the neighbor arrays of a
+ * {@link CompressedGraph} (ignoring edge direction), counting shortest paths and optionally computing the dependency
+ * of the start node on each reached node, as in <i>Brandes</i>, "A Faster Algorithm for Betweenness Centrality".
+ * <p>
+ * Scratch arrays are allocated once and reused by each call to {@link #search(int, boolean)}, which resets only the
+ * entries touched by the previous search. Instances are not thread-safe; use one per thread.
+ *
+ * @author Elisha Peterson
+ */
+final class BrandesSearch {
+
+    private final int[] offsets;
+    private final int[] targets;
+
+    /** Length of shortest paths to each node, or -1 if not reached */
+    private final int[] lengths;
+    /** Number of shortest paths to each node */
+    private final double[] numShortest;
+    /** Dependency of start node on each node */
+    private final double[] dependencies;
+    /** Reached nodes in order of discovery, used both as the search queue and in reverse as a stack */
+    private final int[] order;
+    /** Number of nodes reached by the last search */
+    private int reached = 0;
+
+    BrandesSearch(CompressedGraph<?> graph) {
+        this.offsets = graph.neighborOffsets();
+        this.targets = graph.neighborTargets();
+        int n = graph.nodeCount();
+        lengths = new int[n];
+        numShortest = new double[n];
+        dependencies = new double[n];
+        order = new int[n];
+        Arrays.fill(lengths, -1);
+    }
+
+    //region PROPERTIES
+
+    /** Number of nodes reached by the last search, including the start node. */
+    int reachedCount() {
+        return reached;
+    }
+
+    /** Index of the i'th node reached by the last search, in order of non-decreasing distance. */
+    int reachedAt(int i) {
+        return order[i];
+    }
+
+    /** Distance to given node in the last search, or -1 if not reached. */
+    int length(int node) {
+        return lengths[node];
+    }
+
+    /** Dependency of last start node on the given node; only valid if dependencies were requested. */
+    double dependency(int node) {
+        return dependencies[node];
+    }
+
+    //endregion
+
+    /**
+     * Run a search from the given start node.
+     * @param start index of start node
+     * @param computeDependencies whether to compute dependencies after the search
+     */
+    void search(int start, boolean computeDependencies) {
+        // reset scratch arrays for nodes reached by the previous search
+        for (int i = 0; i < reached; i++) {
+            int w = order[i];
+            lengths[w] = -1;
+            numShortest[w] = 0;
+            dependencies[w] = 0;
+        }
+
+        int head = 0;
+        int tail = 0;
+        order[tail++] = start;
+        lengths[start] = 0;
+        numShortest[start] = 1;
+        while (head < tail) {
+            int v = order[head++];
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = targets[k];
+                // if w is found for the first time in the tree, add it to the queue, and adjust the length
+                if (lengths[w] == -1) {
+                    lengths[w] = lengths[v] + 1;
+                    order[tail++] = w;
+                }
+                // adjust the number of shortest paths to w if shortest path goes through v
+                if (lengths[w] == lengths[v] + 1) {
+                    numShortest[w] += numShortest[v];
+                }
+            }
+        }
+        reached = tail;
+
+        if (computeDependencies) {
+            // predecessors are recovered from distances, processing nodes in non-increasing order of distance
+            for (int i = tail - 1; i >= 0; i--) {
+                int w = order[i];
+                for (int k = offsets[w]; k < offsets[w + 1]; k++) {
+                    int v = targets[k];
+                    if (lengths[v] == lengths[w] - 1) {
+                        dependencies[v] += numShortest[v] / numShortest[w] * (1 + dependencies[w]);
+                    }
+                }
+            }
+        }
+    }
+
+}
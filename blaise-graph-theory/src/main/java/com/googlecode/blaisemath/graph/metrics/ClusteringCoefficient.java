@@ -21,10 +21,9 @@ package com.googlecode.blaisemath.graph.metrics;
  */
 
 import com.google.common.graph.Graph;
-import com.google.common.graph.Graphs;
 import com.googlecode.blaisemath.graph.GraphUtils;
 
-import java.util.Set;
+import java.util.Map;
 
 /**
  * Global metric describing the clustering coefficient of the graph; in the
@@ -52,7 +51,8 @@ public class ClusteringCoefficient extends AbstractGraphMetric<Double> {
     }
 
     /**
-     * Computes triple characteristics of a graph.
+     * Computes triple characteristics of a graph. Edges between neighbors are counted with {@link TriangleCount},
+     * and self-loops are ignored.
      *
      * @param <N> coordinate type of graph
      * @param graph the graph
@@ -60,27 +60,24 @@ public class ClusteringCoefficient extends AbstractGraphMetric<Double> {
      *      is number of path triples (i.e., when three nodes are connected together)
      */
     static <N> int[] triples(Graph<N> graph) {
+        TriangleCount.Result<N> counts = new TriangleCount().apply(graph);
+        if (!graph.isDirected()) {
+            // in undirected case, each pair of nodes @ distance 1 contributes to a triple
+            // ... each triangle is counted 3 times, once at each node
+            return new int[]{(int) (3 * counts.triangleCount()), (int) counts.tripleCount()};
+        }
+
+        // in the directed case, potential triples are connected nodes at distance 1 and nodes at distance 2
+        // ... each node at distance 2 contributes a triple, but no triangle
         int triangles = 0;
         int triples = 0;
-        for (N node : graph.nodes()) {
-            Set<N> g1 = graph.adjacentNodes(node);
-            int dist1 = g1.size();
-            int aDist1 = Graphs.inducedSubgraph(graph, g1).edges().size();
-            Set<N> g2 = GraphUtils.neighborhood(graph, node, 2);
-            int dist2 = g2.size() - 1 - g1.size();
-
-            if (graph.isDirected()) {
-                // in the directed case, potential triples are connected nodes at distance 1 and nodes at distance 2
-                // ... each node at distance 2 contributes a triple, but no triangle
-                triples += aDist1 + dist2;
-                triangles += aDist1;
-            } else {
-                // in copyUndirected case, each pair of nodes @ distance 1 contributes to a triple
-                // ... each edge in this neighborhood indicates a triangle
-                // corrections for later: each triangle is counted 3 times
-                triples += dist1 * (dist1 - 1) / 2;
-                triangles += aDist1;
-            }
+        for (Map.Entry<N, Integer> en : counts.counts().entrySet()) {
+            N node = en.getKey();
+            int aDist1 = en.getValue();
+            int dist1 = graph.adjacentNodes(node).size();
+            int dist2 = GraphUtils.neighborhood(graph, node, 2).size() - 1 - dist1;
+            triples += aDist1 + dist2;
+            triangles += aDist1;
         }
         return new int[]{triangles, triples};
     }
@@ -36,7 +36,7 @@ public class ComponentCount extends AbstractGraphMetric<Integer> {
 
     @Override
     public Integer apply(Graph graph) {
-        return GraphUtils.components(graph).size();
+        return GraphUtils.componentCount(graph);
     }
 
 }
@@ -20,9 +20,13 @@ package com.googlecode.blaisemath.graph.metrics;
  * #L%
  */
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.BreadthFirstSearch;
+import com.googlecode.blaisemath.graph.CompressedGraph;
 import com.googlecode.blaisemath.graph.GraphUtils;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -84,6 +88,11 @@ public class DecayCentrality extends AbstractGraphNodeMetric<Double> {
         parameter = newValue;
     }
 
+    @Override
+    public Object settings() {
+        return ImmutableList.of(parameter);
+    }
+
     //endregion
 
     @Override
@@ -91,5 +100,30 @@ public class DecayCentrality extends AbstractGraphNodeMetric<Double> {
         Map<N, Integer> nvg = GraphUtils.geodesicTree(graph, node);
         return nvg.values().stream().mapToDouble(i -> Math.pow(parameter, i)).sum();
     }
+
+    @Override
+    public <N> Map<N, Double> apply(Graph<N> graph) {
+        BreadthFirstSearch<N> bfs = BreadthFirstSearch.create(graph, true);
+        CompressedGraph<N> cg = bfs.getGraph();
+        int n = cg.nodeCount();
+        // powers of the parameter, by distance
+        double[] powers = new double[n];
+        if (n > 0) {
+            powers[0] = 1;
+        }
+        for (int d = 1; d < n; d++) {
+            powers[d] = powers[d - 1] * parameter;
+        }
+        Map<N, Double> res = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            bfs.search(i);
+            double sum = 0;
+            for (int k = 0; k < bfs.reachedCount(); k++) {
+                sum += powers[bfs.distance(bfs.reachedAt(k))];
+            }
+            res.put(cg.nodeAt(i), sum);
+        }
+        return res;
+    }
     
 }
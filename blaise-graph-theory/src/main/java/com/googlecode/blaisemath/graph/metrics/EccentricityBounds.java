@@ -0,0 +1,188 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.BreadthFirstSearch;
+import com.googlecode.blaisemath.graph.CompressedGraph;
+
+/**
+ * Computes the diameter and radius of a graph using eccentricity bounds, following <i>Takes and Kosters</i>,
+ * "Determining the Diameter of Small World Networks". Each breadth-first search from a node v gives its eccentricity
+ * e(v), and bounds the eccentricity of every other node w by max(e(v) - d(v,w), d(v,w)) &le; e(w) &le; e(v) + d(v,w).
+ * Nodes whose bounds show they cannot change the diameter or radius are discarded, and the next search starts from
+ * the remaining node with the largest upper bound or smallest lower bound, alternately. On most real-world graphs,
+ * only a handful of searches are required.
+ * <p>
+ * Edge direction is ignored, and each connected component is handled separately. The diameter is the largest
+ * eccentricity of any node, and the radius is the smallest positive eccentricity of any node.
+ *
+ * @author Elisha Peterson
+ */
+final class EccentricityBounds {
+
+    private final BreadthFirstSearch<?> bfs;
+    private final CompressedGraph<?> graph;
+    private final int nodeCount;
+    /** Lower bounds on eccentricity */
+    private final int[] lower;
+    /** Upper bounds on eccentricity */
+    private final int[] upper;
+    /** Candidate nodes of the current component */
+    private final int[] candidates;
+
+    private EccentricityBounds(Graph<?> graph) {
+        this.bfs = BreadthFirstSearch.create(graph, false);
+        this.graph = bfs.getGraph();
+        this.nodeCount = this.graph.nodeCount();
+        lower = new int[nodeCount];
+        upper = new int[nodeCount];
+        candidates = new int[nodeCount];
+    }
+
+    /**
+     * Compute the diameter of a graph.
+     * @param graph the graph
+     * @param approximate if true, the result may differ from the exact value by at most 1
+     * @return diameter, or 0 if the graph is empty
+     */
+    static int diameter(Graph<?> graph, boolean approximate) {
+        return new EccentricityBounds(graph).compute(true, approximate);
+    }
+
+    /**
+     * Compute the radius of a graph.
+     * @param graph the graph
+     * @param approximate if true, the result may differ from the exact value by at most 1
+     * @return radius, or {@link Integer#MAX_VALUE} if the graph has no edges between distinct nodes
+     */
+    static int radius(Graph<?> graph, boolean approximate) {
+        return new EccentricityBounds(graph).compute(false, approximate);
+    }
+
+    /**
+     * Compute the diameter or radius over all components.
+     * @param diameter true to compute diameter, false for radius
+     * @param approximate whether to stop once the value is known to within 1
+     * @return result
+     */
+    private int compute(boolean diameter, boolean approximate) {
+        boolean[] visited = new boolean[nodeCount];
+        int res = diameter ? 0 : Integer.MAX_VALUE;
+        for (int i = 0; i < nodeCount; i++) {
+            if (visited[i]) {
+                continue;
+            }
+            // the first search finds the component, and also provides initial bounds
+            bfs.search(i);
+            int size = bfs.reachedCount();
+            for (int k = 0; k < size; k++) {
+                int w = bfs.reachedAt(k);
+                visited[w] = true;
+                candidates[k] = w;
+                lower[w] = 0;
+                upper[w] = size - 1;
+            }
+            if (size == 1 || (diameter && size - 1 <= res)) {
+                // component cannot change the result
+                continue;
+            }
+            int value = computeInComponent(size, diameter, approximate ? 1 : 0);
+            res = diameter ? Math.max(res, value) : Math.min(res, value);
+        }
+        return res;
+    }
+
+    /**
+     * Compute the diameter or radius of a component, whose nodes are in the candidates array, after a search has been
+     * run from one of its nodes.
+     * @param size number of nodes in component
+     * @param diameter true to compute diameter, false for radius
+     * @param slack allowed error of result
+     * @return result
+     */
+    private int computeInComponent(int size, boolean diameter, int slack) {
+        int candidateCount = size;
+        // known bounds on diameter and radius
+        int diamLower = 0;
+        int diamUpper = Integer.MAX_VALUE;
+        int radLower = 0;
+        int radUpper = Integer.MAX_VALUE;
+        boolean highUpper = true;
+        while (true) {
+            int ecc = bfs.maxDistance();
+            diamLower = Math.max(diamLower, ecc);
+            radUpper = Math.min(radUpper, ecc);
+
+            // update bounds and discard nodes that cannot affect the result
+            int kept = 0;
+            for (int k = 0; k < candidateCount; k++) {
+                int w = candidates[k];
+                int d = bfs.distance(w);
+                lower[w] = Math.max(lower[w], Math.max(ecc - d, d));
+                upper[w] = Math.min(upper[w], ecc + d);
+                if (lower[w] == upper[w]) {
+                    diamLower = Math.max(diamLower, lower[w]);
+                    radUpper = Math.min(radUpper, lower[w]);
+                } else if (diameter ? upper[w] > diamLower : lower[w] < radUpper) {
+                    candidates[kept++] = w;
+                }
+            }
+            candidateCount = kept;
+
+            // bounds on the result from remaining candidates
+            diamUpper = diamLower;
+            radLower = radUpper;
+            kept = 0;
+            for (int k = 0; k < candidateCount; k++) {
+                int w = candidates[k];
+                if (diameter ? upper[w] > diamLower : lower[w] < radUpper) {
+                    candidates[kept++] = w;
+                    diamUpper = Math.max(diamUpper, upper[w]);
+                    radLower = Math.min(radLower, lower[w]);
+                }
+            }
+            candidateCount = kept;
+
+            int gap = diameter ? diamUpper - diamLower : radUpper - radLower;
+            if (candidateCount == 0 || gap <= 2 * slack) {
+                return diameter ? (diamLower + diamUpper) / 2 : (radLower + radUpper + 1) / 2;
+            }
+
+            bfs.search(nextCandidate(candidateCount, highUpper));
+            highUpper = !highUpper;
+        }
+    }
+
+    /** Select the candidate with largest upper bound or smallest lower bound, breaking ties by degree. */
+    private int nextCandidate(int candidateCount, boolean highUpper) {
+        int best = candidates[0];
+        for (int k = 1; k < candidateCount; k++) {
+            int w = candidates[k];
+            int cmp = highUpper ? Integer.compare(upper[w], upper[best]) : Integer.compare(lower[best], lower[w]);
+            if (cmp > 0 || (cmp == 0 && graph.neighborCount(w) > graph.neighborCount(best))) {
+                best = w;
+            }
+        }
+        return best;
+    }
+
+}
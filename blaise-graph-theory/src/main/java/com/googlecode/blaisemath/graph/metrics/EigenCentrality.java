@@ -20,33 +20,76 @@ package com.googlecode.blaisemath.graph.metrics;
  * #L%
  */
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.CompressedGraph;
 import com.googlecode.blaisemath.util.Instrument;
-import com.googlecode.blaisemath.graph.GraphUtils;
-import com.googlecode.blaisemath.graph.internal.Matrices;
+import org.jspecify.annotations.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * Implementation of the eigenvalue centrality calculation. Uses an approximation method to compute the largest eigenvector
- * for the adjacency matrix.
+ * Implementation of the eigenvalue centrality calculation. Uses power iteration over the adjacency lists of a
+ * {@link CompressedGraph} to compute the largest eigenvector of the adjacency matrix, so memory use is proportional
+ * to the number of nodes plus edges, and each iteration takes time proportional to the number of edges.
+ * <p>
+ * Iteration is performed with the shifted matrix {@code A+I}, which has the same eigenvectors as {@code A} but
+ * converges for bipartite graphs, whose largest eigenvalues come in pairs of opposite sign. Iteration stops when no entry
+ * of the normalized vector changes by more than the tolerance, or after the maximum number of iterations. The
+ * computation may be warm-started from a previous result using {@link #applyFrom(Graph, Map)}.
  *
  * @author Elisha Peterson
  */
 public class EigenCentrality extends AbstractGraphNodeMetric<Double> {
 
     private static final Logger LOG = Logger.getLogger(EigenCentrality.class.getName());
+
+    /** Default convergence tolerance */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+    /** Default maximum number of iterations */
+    public static final int DEFAULT_MAX_ITERATIONS = 10000;
+
+    /** Convergence tolerance, max change in any entry of the normalized vector */
+    private double tolerance = DEFAULT_TOLERANCE;
+    /** Maximum number of iterations */
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
     
     public EigenCentrality() {
         super("Eigenvalue centrality (estimated)");
     }
 
+    //region PROPERTIES
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        checkArgument(tolerance > 0, "Tolerance must be positive");
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        checkArgument(maxIterations > 0, "Max iterations must be positive");
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public Object settings() {
+        return ImmutableList.of(tolerance, maxIterations);
+    }
+
+    //endregion
+
     @Override
     public <N> Double apply(Graph<N> graph, N node) {
         return apply(graph).get(node);
@@ -54,69 +97,97 @@ public class EigenCentrality extends AbstractGraphNodeMetric<Double> {
 
     @Override
     public <N> Map<N, Double> apply(Graph<N> graph) {
+        return applyFrom(graph, null);
+    }
+
+    /**
+     * Compute centrality values, starting the iteration from a previous result. This typically converges in far fewer
+     * iterations when the graph has changed only slightly since the previous result was computed.
+     * @param <N> graph node type
+     * @param graph the graph
+     * @param start previous values to start from; nodes without a value (or all nodes, if null) start with the mean
+     *              of the provided values, or uniform values if none are provided
+     * @return centrality values
+     */
+    public <N> Map<N, Double> applyFrom(Graph<N> graph, @Nullable Map<N, Double> start) {
         int id = Instrument.start("EigenCentrality.allValues", graph.nodes().size() + " nodes", graph.edges().size() + " edges");
+        CompressedGraph<N> cg = CompressedGraph.copyOf(graph);
+        int n = cg.nodeCount();
+        int[] offsets = cg.successorOffsets();
+        int[] targets = cg.successorTargets();
 
-        // computes eigenvalue centrality via repeated powers of the adjacency matrix
-        // (this finds the largest-magnitude eigenvector)
-
-        List<N> nodes = new ArrayList<>();
-        boolean[][] adj0 = GraphUtils.adjacencyMatrix(graph, nodes);
-        int n = nodes.size();
-        double[][] mx = new double[n][n];
-        for (int i = 0; i < mx.length; i++) {
-            for (int j = 0; j < mx.length; j++) {
-                mx[i][j] = adj0[i][j] ? 1 : 0;
-                mx[i][j] = mx[i][j];
+        double[] vec = initialVector(cg, start);
+        double[] next = new double[n];
+        int iterations = 0;
+        double change = Double.POSITIVE_INFINITY;
+        while (n > 0 && change > tolerance && iterations < maxIterations) {
+            for (int i = 0; i < n; i++) {
+                double sum = vec[i];
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    sum += vec[targets[j]];
+                }
+                next[i] = sum;
             }
-        }
-        double[][] powerMatrix = Matrices.matrixProduct(mx, mx);
-        for (int i = 0; i < 10; i++) {
-          powerMatrix = Matrices.matrixProduct(powerMatrix, powerMatrix);
-          normalize(powerMatrix);
-        }
-
-        // compute 256 and 257th power vectors
-        double[] vec0 = new double[n];
-        Arrays.fill(vec0, 1.0 / n);
-        double[] powerVector1 = Matrices.matrixProduct(powerMatrix, vec0);
-        double[] powerVector2 = Matrices.matrixProduct(mx, powerVector1);
-
-        // estimate eigenvalue for testing purposes
-        double[] div = new double[n];
-        for (int i = 0; i < n; i++) {
-            div[i] = powerVector2[i] / powerVector1[i];
-        }
-        Instrument.middle(id, "EigenCentrality.allValues", "eigenvalues="+Arrays.toString(div));
-
-        Matrices.normalize(powerVector2);
-        for (int i = 0; i < n - 1; i++) {
-            if (!(powerVector2[i] * powerVector2[i] > 0)) {
-                // should not happen
-                LOG.log(Level.SEVERE, "WARNING -- eigenvector has inconsistent signs");
-                break;
+            normalize(next);
+            change = 0;
+            for (int i = 0; i < n; i++) {
+                change = Math.max(change, Math.abs(next[i] - vec[i]));
             }
+            double[] tmp = vec;
+            vec = next;
+            next = tmp;
+            iterations++;
         }
-        double sign = Math.signum(powerVector2[0]);
+        if (change > tolerance) {
+            LOG.log(Level.WARNING, "Eigenvector did not converge after {0} iterations, last change was {1}",
+                    new Object[] { iterations, change });
+        }
+        Instrument.middle(id, "EigenCentrality.allValues", "iterations="+iterations+", change="+change);
 
         Map<N, Double> result = new HashMap<>(n);
         for (int i = 0; i < n; i++) {
-            result.put(nodes.get(i), sign * powerVector2[i]);
+            result.put(cg.nodeAt(i), vec[i]);
         }
         Instrument.end(id);
         return result;
     }
 
-    /** Normalize a matrix by dividing by max value */
-    private static void normalize(double[][] mx) {
-        double max = -Double.MAX_VALUE;
-        for (double[] mx1 : mx) {
-            for (int j = 0; j < mx.length; j++) {
-                max = Math.max(max, mx1[j]);
+    /** Build normalized starting vector for the iteration, using provided values where possible */
+    private static <N> double[] initialVector(CompressedGraph<N> graph, @Nullable Map<N, Double> start) {
+        int n = graph.nodeCount();
+        double[] res = new double[n];
+        double total = 0;
+        int count = 0;
+        if (start != null) {
+            for (int i = 0; i < n; i++) {
+                Double v = start.get(graph.nodeAt(i));
+                if (v != null && v > 0) {
+                    res[i] = v;
+                    total += v;
+                    count++;
+                }
+            }
+        }
+        double fill = count == 0 ? 1.0 : total / count;
+        for (int i = 0; i < n; i++) {
+            if (res[i] == 0) {
+                res[i] = fill;
             }
         }
-        for (double[] mx1 : mx) {
-            for (int j = 0; j < mx.length; j++) {
-                mx1[j] /= max;
+        normalize(res);
+        return res;
+    }
+
+    /** Normalize a vector to unit length */
+    private static void normalize(double[] vec) {
+        double sumSq = 0;
+        for (double v : vec) {
+            sumSq += v * v;
+        }
+        double norm = Math.sqrt(sumSq);
+        if (norm > 0) {
+            for (int i = 0; i < vec.length; i++) {
+                vec[i] /= norm;
             }
         }
     }
@@ -20,43 +20,53 @@ package com.googlecode.blaisemath.graph.metrics;
  * #L%
  */
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Ordering;
+import com.google.common.collect.ImmutableList;
 import com.google.common.graph.Graph;
-import com.googlecode.blaisemath.graph.GraphUtils;
-
-import java.util.ArrayDeque;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Global metric describes the diameter of the graph, or the largest diameter of
- * one of its subcomponents.
+ * one of its subcomponents. Uses eccentricity bounds (Takes and Kosters) to avoid searching from most nodes.
  *
  * @author Elisha Peterson
  */
 public class GraphDiameter extends AbstractGraphMetric<Integer> {
 
+    /** Whether to allow results that differ from the exact value by at most 1 */
+    private boolean approximate = false;
+
     public GraphDiameter() {
+        this(false);
+    }
+
+    /**
+     * Construct metric.
+     * @param approximate if true, results may differ from the exact value by at most 1, which may require fewer
+     *                    graph searches for large graphs
+     */
+    public GraphDiameter(boolean approximate) {
         super("Graph diameter", "Diameter of the graph (longest path between two nodes).", true);
+        this.approximate = approximate;
+    }
+
+    //region PROPERTIES
+
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
     }
 
     @Override
-    public Integer apply(Graph graph) {
-        return applyTyped(graph);
+    public Object settings() {
+        return ImmutableList.of(approximate);
     }
-        
-    private static <N> Integer applyTyped(Graph<N> graph) {
-        if (graph.nodes().size() == 0) {
-            return 0;
-        }
-        int maxLength = 0;
-        Map<N, Integer> lengths = new HashMap<>();
-        for (N node : graph.nodes()) {
-            GraphUtils.breadthFirstSearch(graph, node, HashMultiset.create(), lengths, new ArrayDeque<>(), HashMultimap.create());
-            maxLength = Math.max(maxLength, Ordering.natural().max(lengths.values()));
-        }
-        return maxLength;
+
+    //endregion
+
+    @Override
+    public Integer apply(Graph graph) {
+        return EccentricityBounds.diameter(graph, approximate);
     }
 }
@@ -20,43 +20,53 @@ package com.googlecode.blaisemath.graph.metrics;
  * #L%
  */
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Ordering;
+import com.google.common.collect.ImmutableList;
 import com.google.common.graph.Graph;
-import com.googlecode.blaisemath.graph.GraphUtils;
-
-import java.util.ArrayDeque;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Global metric describes the radius of the graph, or the largest diameter of
- * one of its subcomponents.
+ * one of its subcomponents. Uses eccentricity bounds (Takes and Kosters) to avoid searching from most nodes.
  *
  * @author Elisha Peterson
  */
 public class GraphRadius extends AbstractGraphMetric<Integer> {
 
+    /** Whether to allow results that differ from the exact value by at most 1 */
+    private boolean approximate = false;
+
     public GraphRadius() {
+        this(false);
+    }
+
+    /**
+     * Construct metric.
+     * @param approximate if true, results may differ from the exact value by at most 1, which may require fewer
+     *                    graph searches for large graphs
+     */
+    public GraphRadius(boolean approximate) {
         super("Graph radius", "Radius of the graph (minimum number r such that all nodes are within r edges of a particular node).", true);
+        this.approximate = approximate;
+    }
+
+    //region PROPERTIES
+
+    public boolean isApproximate() {
+        return approximate;
     }
 
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
+
+    @Override
+    public Object settings() {
+        return ImmutableList.of(approximate);
+    }
+
+    //endregion
+
     @Override
     public Integer apply(Graph graph) {
-        if (graph.nodes().isEmpty()) {
-            return 0;
-        }
-        int minMaxLength = Integer.MAX_VALUE;
-        Map<Object, Integer> lengths = new HashMap<>();
-        for (Object node : graph.nodes()) {
-            int maxLength = 0;
-            GraphUtils.breadthFirstSearch(graph, node, HashMultiset.create(), lengths, new ArrayDeque<>(), HashMultimap.create());
-            maxLength = Math.max(maxLength, Ordering.natural().max(lengths.values()));
-            if (maxLength > 0) {
-                minMaxLength = Math.min(maxLength, minMaxLength);
-            }
-        }
-        return minMaxLength;
+        return EccentricityBounds.radius(graph, approximate);
     }
 }
@@ -0,0 +1,257 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.CompressedGraph;
+import com.googlecode.blaisemath.graph.GraphNodeMetric;
+import com.googlecode.blaisemath.graph.GraphServices;
+import com.googlecode.blaisemath.util.Instrument;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes several node metrics on the same graph, sharing work between metrics where possible. Metrics computed from
+ * shortest paths out of every node ({@link BetweenCentrality}, {@link ClosenessCentrality}, {@link GraphCentrality},
+ * and {@link DecayCentrality} on undirected graphs) are computed together, using a single breadth-first search from
+ * each node, so the cost of computing all of them is about the same as computing betweenness alone. Other metrics,
+ * including subclasses of these metrics, are computed individually using {@link GraphNodeMetric#apply(Graph)}.
+ * Values are the same as when metrics are computed individually.
+ *
+ * @author Elisha Peterson
+ */
+public final class NodeMetricBatch {
+
+    /** Utility class */
+    private NodeMetricBatch() {
+    }
+
+    /**
+     * Compute values of all registered node metrics (see {@link GraphServices#nodeMetrics()}) for the given graph.
+     * @param <N> graph node type
+     * @param graph the graph
+     * @return values for each metric, in the order metrics are registered
+     */
+    public static <N> Map<GraphNodeMetric<?>, Map<N, ?>> profile(Graph<N> graph) {
+        List<GraphNodeMetric<?>> metrics = new ArrayList<>();
+        for (GraphNodeMetric<?> m : GraphServices.nodeMetrics()) {
+            metrics.add(m);
+        }
+        return apply(graph, metrics);
+    }
+
+    /**
+     * Compute values of several node metrics for the given graph.
+     * @param <N> graph node type
+     * @param graph the graph
+     * @param metrics metrics to compute
+     * @return values for each metric, in the order provided
+     * @throws IllegalArgumentException if one of the metrics cannot be computed for the graph
+     */
+    public static <N> Map<GraphNodeMetric<?>, Map<N, ?>> apply(Graph<N> graph, Collection<? extends GraphNodeMetric<?>> metrics) {
+        int id = Instrument.start("NodeMetricBatch.apply", graph.nodes().size()+" nodes", metrics.size()+" metrics");
+        Map<GraphNodeMetric<?>, Map<N, ?>> res = new LinkedHashMap<>();
+        Map<GraphNodeMetric<?>, SearchAccumulator> accumulators = new LinkedHashMap<>();
+        for (GraphNodeMetric<?> m : metrics) {
+            // placeholder entry to maintain metric order
+            res.put(m, null);
+            SearchAccumulator acc = accumulator(graph, m);
+            if (acc != null) {
+                accumulators.put(m, acc);
+            }
+        }
+
+        if (!accumulators.isEmpty()) {
+            CompressedGraph<N> cg = CompressedGraph.copyOf(graph);
+            int n = cg.nodeCount();
+            accumulators.values().forEach(a -> a.init(n));
+            boolean dependencies = accumulators.values().stream().anyMatch(SearchAccumulator::needsDependencies);
+            BrandesSearch search = new BrandesSearch(cg);
+            for (int start = 0; start < n; start++) {
+                search.search(start, dependencies);
+                for (SearchAccumulator a : accumulators.values()) {
+                    a.accept(start, search);
+                }
+            }
+            for (Map.Entry<GraphNodeMetric<?>, SearchAccumulator> en : accumulators.entrySet()) {
+                double[] values = en.getValue().values();
+                Map<N, Double> map = new HashMap<>(n * 2);
+                for (int i = 0; i < n; i++) {
+                    map.put(cg.nodeAt(i), values[i]);
+                }
+                res.put(en.getKey(), map);
+            }
+        }
+        for (GraphNodeMetric<?> m : metrics) {
+            if (!accumulators.containsKey(m)) {
+                res.put(m, m.apply(graph));
+            }
+        }
+        Instrument.end(id);
+        return res;
+    }
+
+    /** Get accumulator that computes the metric from shortest path searches, or null if not supported. */
+    private static SearchAccumulator accumulator(Graph<?> graph, GraphNodeMetric<?> metric) {
+        Class<?> type = metric.getClass();
+        if (type == BetweenCentrality.class) {
+            return new BetweennessAccumulator(graph.isDirected() ? 1.0 : 0.5);
+        } else if (type == ClosenessCentrality.class) {
+            return new ClosenessAccumulator(false);
+        } else if (type == GraphCentrality.class) {
+            return new ClosenessAccumulator(true);
+        } else if (type == DecayCentrality.class && !graph.isDirected()) {
+            // decay centrality follows edge direction, so only shares searches in undirected graphs
+            return new DecayAccumulator(((DecayCentrality) metric).getParameter());
+        }
+        return null;
+    }
+
+    //region ACCUMULATORS
+
+    /** Computes values of a metric from a search out of each node, ignoring edge direction. */
+    private abstract static class SearchAccumulator {
+
+        /** Values by node index */
+        protected double[] values;
+
+        /** Initialize for a graph with the given number of nodes. */
+        void init(int nodeCount) {
+            values = new double[nodeCount];
+        }
+
+        /** Whether the metric requires dependencies (see {@link BrandesSearch}). */
+        boolean needsDependencies() {
+            return false;
+        }
+
+        /** Update values from the search out of the given start node. */
+        abstract void accept(int start, BrandesSearch search);
+
+        /** Get final values, by node index. */
+        double[] values() {
+            return values;
+        }
+    }
+
+    /** Accumulates dependencies for betweenness centrality. */
+    private static final class BetweennessAccumulator extends SearchAccumulator {
+
+        private final double multiplier;
+
+        BetweennessAccumulator(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        @Override
+        boolean needsDependencies() {
+            return true;
+        }
+
+        @Override
+        void accept(int start, BrandesSearch search) {
+            for (int i = 1; i < search.reachedCount(); i++) {
+                int w = search.reachedAt(i);
+                values[w] += search.dependency(w);
+            }
+        }
+
+        @Override
+        double[] values() {
+            for (int i = 0; i < values.length; i++) {
+                values[i] *= multiplier;
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Computes closeness centrality, or graph centrality (from the eccentricity rather than the sum of distances),
+     * weighting values by the size of each node's component as in {@link com.googlecode.blaisemath.graph.GraphMetrics#applyToComponents}.
+     */
+    private static final class ClosenessAccumulator extends SearchAccumulator {
+
+        private final boolean eccentricity;
+
+        ClosenessAccumulator(boolean eccentricity) {
+            this.eccentricity = eccentricity;
+        }
+
+        @Override
+        void accept(int start, BrandesSearch search) {
+            int k = search.reachedCount();
+            if (k == 1) {
+                return;
+            }
+            double multiplier = k / (double) values.length;
+            if (eccentricity) {
+                double max = search.length(search.reachedAt(k - 1));
+                values[start] = multiplier * (1.0 / max);
+            } else {
+                double sum = 0;
+                for (int i = 0; i < k; i++) {
+                    sum += search.length(search.reachedAt(i));
+                }
+                values[start] = multiplier * ((k - 1.0) / sum);
+            }
+        }
+    }
+
+    /** Computes decay centrality, with a table of powers of the decay parameter. */
+    private static final class DecayAccumulator extends SearchAccumulator {
+
+        private final double parameter;
+        private double[] powers;
+
+        DecayAccumulator(double parameter) {
+            this.parameter = parameter;
+        }
+
+        @Override
+        void init(int nodeCount) {
+            super.init(nodeCount);
+            powers = new double[nodeCount];
+            if (nodeCount > 0) {
+                powers[0] = 1;
+            }
+            for (int d = 1; d < nodeCount; d++) {
+                powers[d] = powers[d - 1] * parameter;
+            }
+        }
+
+        @Override
+        void accept(int start, BrandesSearch search) {
+            double sum = 0;
+            for (int i = 0; i < search.reachedCount(); i++) {
+                sum += powers[search.length(search.reachedAt(i))];
+            }
+            values[start] = sum;
+        }
+    }
+
+    //endregion
+
+}
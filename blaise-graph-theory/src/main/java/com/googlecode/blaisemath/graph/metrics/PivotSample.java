@@ -0,0 +1,155 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.googlecode.blaisemath.graph.CompressedGraph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A random sample of pivot nodes drawn from a population, together with the scale factors needed for unbiased
+ * estimates of sums over the population. If pivot {@code i} contributes value {@code x}, the estimated population sum
+ * is the mean of {@code scale(i) * x} over all pivots (a Horvitz-Thompson style estimate). Helper methods compute the
+ * standard error of these estimates from running sums of scaled values and their squares.
+ *
+ * @author Elisha Peterson
+ */
+final class PivotSample {
+
+    /** Selected pivot indices */
+    private final int[] pivots;
+    /** Scale factor for each pivot */
+    private final double[] scales;
+    /** Finite population correction applied to variance estimates */
+    private final double correction;
+
+    private PivotSample(int[] pivots, double[] scales, double correction) {
+        this.pivots = pivots;
+        this.scales = scales;
+        this.correction = correction;
+    }
+
+    /**
+     * Draw a sample of pivots.
+     * @param graph graph, used for degree weights
+     * @param population node indices to sample from, must be non-empty
+     * @param count number of pivots to draw; uniform samples are capped at the population size
+     * @param selection sampling strategy
+     * @param random source of randomness
+     * @return sample
+     */
+    static PivotSample draw(CompressedGraph<?> graph, int[] population, int count, PivotSelection selection, Random random) {
+        checkArgument(population.length > 0 && count > 0);
+        int n = population.length;
+        double totalWeight = 0;
+        if (selection == PivotSelection.DEGREE_WEIGHTED) {
+            for (int p : population) {
+                totalWeight += graph.neighborCount(p);
+            }
+        }
+        if (selection == PivotSelection.UNIFORM || totalWeight == 0) {
+            // partial Fisher-Yates shuffle
+            int k = Math.min(count, n);
+            int[] shuffled = Arrays.copyOf(population, n);
+            for (int i = 0; i < k; i++) {
+                int j = i + random.nextInt(n - i);
+                int tmp = shuffled[i];
+                shuffled[i] = shuffled[j];
+                shuffled[j] = tmp;
+            }
+            double[] scales = new double[k];
+            Arrays.fill(scales, n);
+            return new PivotSample(Arrays.copyOf(shuffled, k), scales, n == 1 ? 0 : 1 - k / (double) n);
+        } else {
+            double[] cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += graph.neighborCount(population[i]);
+                cumulative[i] = sum;
+            }
+            int[] pivots = new int[count];
+            double[] scales = new double[count];
+            for (int i = 0; i < count; i++) {
+                double r = random.nextDouble() * sum;
+                int pos = Arrays.binarySearch(cumulative, r);
+                pos = pos >= 0 ? pos + 1 : -pos - 1;
+                // skip past zero-weight entries
+                while (pos < n - 1 && graph.neighborCount(population[pos]) == 0) {
+                    pos++;
+                }
+                pivots[i] = population[pos];
+                scales[i] = sum / graph.neighborCount(population[pos]);
+            }
+            return new PivotSample(pivots, scales, 1);
+        }
+    }
+
+    //region PROPERTIES
+
+    /** Number of pivots in the sample. */
+    int size() {
+        return pivots.length;
+    }
+
+    /** Node index of the i'th pivot. */
+    int pivot(int i) {
+        return pivots[i];
+    }
+
+    /** Scale factor to apply to values contributed by the i'th pivot. */
+    double scale(int i) {
+        return scales[i];
+    }
+
+    //endregion
+
+    /**
+     * Estimate the population sum from running sums of scaled pivot contributions.
+     * @param sum sum of scaled contributions
+     * @return estimated population sum
+     */
+    double estimate(double sum) {
+        return sum / pivots.length;
+    }
+
+    /**
+     * Estimate the standard error of {@link #estimate(double)}, from running sums of scaled pivot contributions and
+     * their squares. Returns 0 if the sample covers the entire population, and NaN if the sample has a single pivot.
+     * @param sum sum of scaled contributions
+     * @param sumSquares sum of squares of scaled contributions
+     * @return estimated standard error
+     */
+    double standardError(double sum, double sumSquares) {
+        int k = pivots.length;
+        if (correction == 0) {
+            return 0;
+        } else if (k < 2) {
+            return Double.NaN;
+        }
+        double mean = sum / k;
+        double variance = Math.max(0, (sumSquares - k * mean * mean) / (k - 1));
+        return Math.sqrt(correction * variance / k);
+    }
+
+}
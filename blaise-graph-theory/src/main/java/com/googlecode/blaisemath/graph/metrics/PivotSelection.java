@@ -0,0 +1,34 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Strategies for choosing the pivot (source) nodes used by sampled metrics such as {@link SampledBetweenCentrality}
+ * and {@link SampledClosenessCentrality}.
+ *
+ * @author Elisha Peterson
+ */
+public enum PivotSelection {
+    /** Pivots are chosen uniformly at random, without replacement. */
+    UNIFORM,
+    /** Pivots are chosen with replacement, with probability proportional to node degree. */
+    DEGREE_WEIGHTED
+}
@@ -0,0 +1,192 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.CompressedGraph;
+import com.googlecode.blaisemath.util.Instrument;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Approximates closeness centrality by running breadth-first searches from a random sample of pivot nodes, and
+ * estimating each node's total distance to the other nodes in its component from the distances to the pivots
+ * (Eppstein/Wang 2004). Pivots are allocated to connected components in proportion to their size, with at least
+ * two pivots per component (or all nodes, for smaller components). Values are on the same scale as
+ * {@link ClosenessCentrality}, and coincide with it when uniform sampling uses at least as many pivots as there are
+ * nodes.
+ * <p>
+ * Use {@link #estimate(Graph)} to obtain the standard error of each estimate along with its value. If a node's
+ * estimated total distance is zero (possible only with degree-weighted sampling), its value is reported as NaN.
+ *
+ * @author Elisha Peterson
+ */
+public class SampledClosenessCentrality extends AbstractGraphNodeMetric<Double> {
+
+    /** Number of pivots to sample */
+    private int pivotCount = SampledBetweenCentrality.DEFAULT_PIVOT_COUNT;
+    /** How pivots are selected */
+    private PivotSelection pivotSelection = PivotSelection.UNIFORM;
+    /** Source of randomness, may be null */
+    private final @Nullable Random seed;
+
+    public SampledClosenessCentrality() {
+        this(SampledBetweenCentrality.DEFAULT_PIVOT_COUNT, PivotSelection.UNIFORM, null);
+    }
+
+    /**
+     * Construct with specified pivot count and selection.
+     * @param pivotCount total number of pivots to sample, across all components
+     * @param pivotSelection how pivots are selected
+     * @param seed source of randomness, or null to use a new random generator for each computation
+     */
+    public SampledClosenessCentrality(int pivotCount, PivotSelection pivotSelection, @Nullable Random seed) {
+        super("Closeness centrality (sampled)");
+        setPivotCount(pivotCount);
+        setPivotSelection(pivotSelection);
+        this.seed = seed;
+    }
+
+    //region PROPERTIES
+
+    public int getPivotCount() {
+        return pivotCount;
+    }
+
+    public void setPivotCount(int pivotCount) {
+        checkArgument(pivotCount > 0, "Pivot count must be positive");
+        this.pivotCount = pivotCount;
+    }
+
+    public PivotSelection getPivotSelection() {
+        return pivotSelection;
+    }
+
+    public void setPivotSelection(PivotSelection pivotSelection) {
+        this.pivotSelection = checkNotNull(pivotSelection);
+    }
+
+    @Override
+    public Object settings() {
+        return ImmutableList.of(pivotCount, pivotSelection);
+    }
+
+    //endregion
+
+    @Override
+    public <N> Double apply(Graph<N> graph, N node) {
+        return apply(graph).get(node);
+    }
+
+    @Override
+    public <N> Map<N, Double> apply(Graph<N> graph) {
+        return estimate(graph).values();
+    }
+
+    /**
+     * Estimate closeness centrality for all nodes in the graph, along with standard errors of the estimates.
+     * @param <N> graph node type
+     * @param graph the graph
+     * @return estimated values and standard errors
+     */
+    public <N> SampledEstimate<N> estimate(Graph<N> graph) {
+        int id = Instrument.start("SampledClosenessCentrality.estimate", graph.nodes().size()+" nodes", graph.edges().size()+" edges");
+        CompressedGraph<N> cg = CompressedGraph.copyOf(graph);
+        int n = cg.nodeCount();
+        double[] values = new double[n];
+        double[] errors = new double[n];
+        int pivotsUsed = 0;
+
+        // label components, storing members of each component contiguously
+        BrandesSearch search = new BrandesSearch(cg);
+        int[] members = new int[n];
+        int[] componentStarts = new int[n + 1];
+        boolean[] labeled = new boolean[n];
+        int componentCount = 0;
+        int memberCount = 0;
+        for (int v = 0; v < n; v++) {
+            if (!labeled[v]) {
+                componentStarts[componentCount++] = memberCount;
+                search.search(v, false);
+                for (int i = 0; i < search.reachedCount(); i++) {
+                    int w = search.reachedAt(i);
+                    labeled[w] = true;
+                    members[memberCount++] = w;
+                }
+            }
+        }
+        componentStarts[componentCount] = n;
+
+        Random random = seed == null ? new Random() : seed;
+        double[] sums = new double[n];
+        double[] sumSquares = new double[n];
+        for (int c = 0; c < componentCount; c++) {
+            int[] component = Arrays.copyOfRange(members, componentStarts[c], componentStarts[c + 1]);
+            int size = component.length;
+            if (size == 1) {
+                continue;
+            }
+            int k = Math.min(size, Math.max(2, (int) Math.ceil(pivotCount * size / (double) n)));
+            PivotSample sample = PivotSample.draw(cg, component, k, pivotSelection, random);
+            pivotsUsed += sample.size();
+            for (int i = 0; i < sample.size(); i++) {
+                search.search(sample.pivot(i), false);
+                double scale = sample.scale(i);
+                for (int j = 1; j < search.reachedCount(); j++) {
+                    int w = search.reachedAt(j);
+                    double y = scale * search.length(w);
+                    sums[w] += y;
+                    sumSquares[w] += y * y;
+                }
+            }
+
+            // closeness is (size-1)/sum of distances, scaled by relative component size
+            double multiplier = size / (double) n * (size - 1.0);
+            for (int w : component) {
+                double total = sample.estimate(sums[w]);
+                if (total == 0) {
+                    values[w] = errors[w] = Double.NaN;
+                } else {
+                    values[w] = multiplier / total;
+                    errors[w] = values[w] * sample.standardError(sums[w], sumSquares[w]) / total;
+                }
+            }
+        }
+
+        Map<N, Double> valueMap = new HashMap<>();
+        Map<N, Double> errorMap = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            valueMap.put(cg.nodeAt(i), values[i]);
+            errorMap.put(cg.nodeAt(i), errors[i]);
+        }
+        Instrument.end(id);
+        return new SampledEstimate<>(valueMap, errorMap, pivotsUsed);
+    }
+
+}
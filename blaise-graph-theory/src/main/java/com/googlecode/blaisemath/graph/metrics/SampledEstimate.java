@@ -0,0 +1,82 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of a sampled (approximate) node metric computation, pairing the estimated value for each node with an
+ * estimate of its standard error.
+ *
+ * @param <N> graph node type
+ *
+ * @author Elisha Peterson
+ */
+public final class SampledEstimate<N> {
+
+    /** Estimated values */
+    private final Map<N, Double> values;
+    /** Estimated standard errors */
+    private final Map<N, Double> standardErrors;
+    /** Number of pivots used in the computation */
+    private final int pivotCount;
+
+    SampledEstimate(Map<N, Double> values, Map<N, Double> standardErrors, int pivotCount) {
+        this.values = Collections.unmodifiableMap(values);
+        this.standardErrors = Collections.unmodifiableMap(standardErrors);
+        this.pivotCount = pivotCount;
+    }
+
+    /**
+     * Estimated value for each node.
+     * @return values
+     */
+    public Map<N, Double> values() {
+        return values;
+    }
+
+    /**
+     * Estimated standard error of the value for each node. This is 0 for nodes whose value was computed exactly,
+     * and NaN if there was not enough data to estimate the error.
+     * @return standard errors
+     */
+    public Map<N, Double> standardErrors() {
+        return standardErrors;
+    }
+
+    /**
+     * Total number of pivots used in the computation.
+     * @return pivot count
+     */
+    public int pivotCount() {
+        return pivotCount;
+    }
+
+    /**
+     * The largest standard error over all nodes.
+     * @return max standard error, or 0 if there are no nodes
+     */
+    public double maxStandardError() {
+        return standardErrors.values().stream().mapToDouble(d -> d).max().orElse(0);
+    }
+
+}
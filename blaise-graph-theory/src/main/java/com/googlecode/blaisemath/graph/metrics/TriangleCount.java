@@ -0,0 +1,354 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.google.common.util.concurrent.Futures;
+import com.googlecode.blaisemath.graph.CompressedGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Counts triangles in a graph, and the number of edges between each node's neighbors. Nodes are ranked by degree, and
+ * each node keeps a sorted array of its higher-ranked neighbors. Each triangle is then found exactly once, by
+ * intersecting the arrays of its two lowest-ranked nodes with a linear merge, for a total running time of
+ * O(m<sup>1.5</sup>) and no per-node allocation. In parallel mode, the nodes are split across the common
+ * {@link ForkJoinPool}, each worker thread accumulates counts in its own array, and the arrays are summed at the end.
+ * <p>
+ * Self-loops are ignored. In directed graphs, triangles are counted in the underlying undirected graph, while the
+ * per-node counts include both edges between neighbors that are connected in both directions.
+ *
+ * @author Elisha Peterson
+ */
+public final class TriangleCount {
+
+    /** Number of node ranges per worker thread, used to balance load in parallel mode */
+    private static final int TASKS_PER_THREAD = 8;
+
+    /** Whether to split computation across multiple threads */
+    private boolean parallel = false;
+
+    public TriangleCount() {
+    }
+
+    /**
+     * Construct with specified parallel setting.
+     * @param parallel if true, computation will be split across threads in the common fork-join pool
+     */
+    public TriangleCount(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    //region PROPERTIES
+
+    /**
+     * Get whether triangles are counted on multiple threads.
+     * @return true if parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Set whether triangles are counted on multiple threads.
+     * @param parallel true to use the common fork-join pool
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    //endregion
+
+    /**
+     * Count the triangles in the given graph.
+     * @param <N> graph node type
+     * @param graph the graph
+     * @return per-node and total counts
+     */
+    public <N> Result<N> apply(Graph<N> graph) {
+        CompressedGraph<N> cg = CompressedGraph.copyOf(graph);
+        RankedAdjacency adj = new RankedAdjacency(cg);
+        int n = cg.nodeCount();
+        long[] counts;
+        if (parallel && n > 1) {
+            counts = countParallel(adj, ForkJoinPool.commonPool());
+        } else {
+            counts = new long[n + 1];
+            adj.count(0, n, counts);
+        }
+
+        // convert counts by rank to counts by node index
+        int[] nodeCounts = new int[n];
+        long triples = 0;
+        for (int r = 0; r < n; r++) {
+            int i = adj.nodes[r];
+            nodeCounts[i] = (int) counts[r];
+            long d = adj.degrees[r];
+            triples += d * (d - 1) / 2;
+        }
+        return new Result<>(cg, nodeCounts, counts[n], triples);
+    }
+
+    /**
+     * Count triangles with one task per worker thread. Each task takes ranges of nodes from a shared counter until
+     * none remain, and accumulates counts in its own array, so memory use depends on the number of workers rather
+     * than the number of ranges.
+     * @param adj the adjacency lists
+     * @param pool pool to run on
+     * @return counts of edges between neighbors by rank, with the number of triangles as the last entry
+     */
+    private static long[] countParallel(RankedAdjacency adj, ForkJoinPool pool) {
+        int n = adj.nodes.length;
+        int workers = pool.getParallelism();
+        int rangeSize = Math.max(1, n / (TASKS_PER_THREAD * workers));
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<long[]>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            tasks.add(() -> {
+                long[] res = new long[n + 1];
+                for (int from = next.getAndAdd(rangeSize); from < n; from = next.getAndAdd(rangeSize)) {
+                    adj.count(from, Math.min(n, from + rangeSize), res);
+                }
+                return res;
+            });
+        }
+        long[] counts = new long[n + 1];
+        for (Future<long[]> f : pool.invokeAll(tasks)) {
+            long[] res = Futures.getUnchecked(f);
+            for (int i = 0; i <= n; i++) {
+                counts[i] += res[i];
+            }
+        }
+        return counts;
+    }
+
+    //region INNER CLASSES
+
+    /**
+     * Result of counting triangles, with the number of edges between neighbors of each node, the number of
+     * triangles, and the number of connected triples (pairs of edges sharing a node).
+     * @param <N> graph node type
+     */
+    public static final class Result<N> {
+
+        private final CompressedGraph<N> graph;
+        private final int[] counts;
+        private final long triangles;
+        private final long triples;
+
+        private Result(CompressedGraph<N> graph, int[] counts, long triangles, long triples) {
+            this.graph = graph;
+            this.counts = counts;
+            this.triangles = triangles;
+            this.triples = triples;
+        }
+
+        /**
+         * Get number of edges between the neighbors of a node. In undirected graphs, this is the number of
+         * triangles containing the node.
+         * @param node the node
+         * @return count
+         * @throws IllegalArgumentException if the node is not in the graph
+         */
+        public int count(N node) {
+            int i = graph.indexOf(node);
+            checkArgument(i >= 0, "Node %s is not an element of this graph.", node);
+            return counts[i];
+        }
+
+        /**
+         * Get number of edges between the neighbors of each node.
+         * @return counts by node
+         */
+        public Map<N, Integer> counts() {
+            Map<N, Integer> res = new HashMap<>(counts.length * 2);
+            for (int i = 0; i < counts.length; i++) {
+                res.put(graph.nodeAt(i), counts[i]);
+            }
+            return res;
+        }
+
+        /**
+         * Get total number of triangles, ignoring edge direction.
+         * @return triangle count
+         */
+        public long triangleCount() {
+            return triangles;
+        }
+
+        /**
+         * Get total number of connected triples, i.e. pairs of distinct neighbors of a node, ignoring edge direction.
+         * Each triangle contributes three connected triples.
+         * @return connected triple count
+         */
+        public long tripleCount() {
+            return triples;
+        }
+
+        /**
+         * Get global clustering coefficient (transitivity) of the graph, the fraction of connected triples that are
+         * closed by a triangle.
+         * @return coefficient, or NaN if there are no connected triples
+         */
+        public double globalClusteringCoefficient() {
+            return 3.0 * triangles / triples;
+        }
+
+    }
+
+    /**
+     * Adjacency lists of a graph with self-loops removed and nodes relabeled by increasing degree. Each node keeps
+     * only its higher-ranked neighbors, in increasing order, along with the number of directed edges to each.
+     */
+    private static final class RankedAdjacency {
+
+        /** Node indices, by rank */
+        private final int[] nodes;
+        /** Number of neighbors, excluding the node itself, by rank */
+        private final int[] degrees;
+        /** Start of each node's higher-ranked neighbors */
+        private final int[] offsets;
+        /** Higher-ranked neighbors, by rank */
+        private final int[] targets;
+        /** Number of edges between a node and each higher-ranked neighbor (always 1 for undirected graphs) */
+        private final byte[] multiplicity;
+
+        private RankedAdjacency(CompressedGraph<?> graph) {
+            int n = graph.nodeCount();
+            int[] nbrOff = graph.neighborOffsets();
+            int[] nbrTgt = graph.neighborTargets();
+
+            // rank nodes by degree, with ties broken by index
+            int[] deg = new int[n];
+            for (int i = 0; i < n; i++) {
+                deg[i] = nbrOff[i + 1] - nbrOff[i];
+                if (Arrays.binarySearch(nbrTgt, nbrOff[i], nbrOff[i + 1], i) >= 0) {
+                    deg[i]--;
+                }
+            }
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = ((long) deg[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            nodes = new int[n];
+            degrees = new int[n];
+            int[] rank = new int[n];
+            for (int r = 0; r < n; r++) {
+                int i = (int) keys[r];
+                nodes[r] = i;
+                degrees[r] = deg[i];
+                rank[i] = r;
+            }
+
+            // keep higher-ranked neighbors only
+            offsets = new int[n + 1];
+            for (int r = 0; r < n; r++) {
+                int i = nodes[r];
+                int count = 0;
+                for (int k = nbrOff[i]; k < nbrOff[i + 1]; k++) {
+                    if (rank[nbrTgt[k]] > r) {
+                        count++;
+                    }
+                }
+                offsets[r + 1] = offsets[r] + count;
+            }
+            targets = new int[offsets[n]];
+            multiplicity = new byte[offsets[n]];
+            int[] sucOff = graph.successorOffsets();
+            int[] sucTgt = graph.successorTargets();
+            for (int r = 0; r < n; r++) {
+                int i = nodes[r];
+                int pos = offsets[r];
+                for (int k = nbrOff[i]; k < nbrOff[i + 1]; k++) {
+                    if (rank[nbrTgt[k]] > r) {
+                        targets[pos++] = rank[nbrTgt[k]];
+                    }
+                }
+                Arrays.sort(targets, offsets[r], pos);
+                for (int p = offsets[r]; p < pos; p++) {
+                    if (graph.isDirected()) {
+                        int j = nodes[targets[p]];
+                        int mult = 0;
+                        if (Arrays.binarySearch(sucTgt, sucOff[i], sucOff[i + 1], j) >= 0) {
+                            mult++;
+                        }
+                        if (Arrays.binarySearch(sucTgt, sucOff[j], sucOff[j + 1], i) >= 0) {
+                            mult++;
+                        }
+                        multiplicity[p] = (byte) mult;
+                    } else {
+                        multiplicity[p] = 1;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Count triangles whose lowest-ranked node is in the given range.
+         * @param from first rank (inclusive)
+         * @param to last rank (exclusive)
+         * @param res incremented with counts of edges between neighbors by rank, and the number of triangles last
+         */
+        private void count(int from, int to, long[] res) {
+            int n = nodes.length;
+            for (int u = from; u < to; u++) {
+                int uEnd = offsets[u + 1];
+                for (int p = offsets[u]; p < uEnd; p++) {
+                    int v = targets[p];
+                    // merge the neighbors of u after v with the neighbors of v
+                    int i = p + 1;
+                    int j = offsets[v];
+                    int vEnd = offsets[v + 1];
+                    while (i < uEnd && j < vEnd) {
+                        int a = targets[i];
+                        int b = targets[j];
+                        if (a < b) {
+                            i++;
+                        } else if (a > b) {
+                            j++;
+                        } else {
+                            res[u] += multiplicity[j];
+                            res[v] += multiplicity[i];
+                            res[a] += multiplicity[p];
+                            res[n]++;
+                            i++;
+                            j++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    //endregion
+
+}
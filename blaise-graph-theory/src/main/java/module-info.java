@@ -84,13 +84,16 @@ module com.googlecode.blaisemath.graphtheory {
             EigenCentrality,
             GraphCentrality,
             InDegree,
-            OutDegree;
+            OutDegree,
+            SampledBetweenCentrality,
+            SampledClosenessCentrality;
     provides IterativeGraphLayout with
             SpringLayout;
     provides StaticGraphLayout with
             CircleLayout,
             RandomBoxLayout,
             PositionalAddingLayout,
-            StaticSpringLayout;
+            StaticSpringLayout,
+            MultilevelSpringLayout;
 
 }
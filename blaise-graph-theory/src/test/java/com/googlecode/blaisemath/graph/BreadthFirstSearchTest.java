@@ -0,0 +1,114 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@SuppressWarnings("UnstableApiUsage")
+public class BreadthFirstSearchTest {
+
+    private static final Integer[] VV = new Integer[] { 1, 2, 3, 4, 5, 6, 10, 11, 15, 20, 21 };
+    private static final Integer[][] EE = new Integer[][] { {1,2}, {2,1}, {2,3}, {2,4}, {2,5}, {1,6}, {6,6}, {6,10}, {10,11}, {11,1}, {15, 15}, {20, 21} };
+    private static final Graph<Integer> UNDIRECTED_INSTANCE = GraphUtils.createFromArrayEdges(false, asList(VV), asList(EE));
+    private static final Graph<Integer> DIRECTED_INSTANCE = GraphUtils.createFromArrayEdges(true, asList(VV), asList(EE));
+
+    @Test
+    public void testSearch() {
+        BreadthFirstSearch<Integer> bfs = BreadthFirstSearch.create(DIRECTED_INSTANCE, true);
+        CompressedGraph<Integer> g = bfs.getGraph();
+        for (Integer start : VV) {
+            bfs.search(g.indexOf(start));
+            assertEquals(GraphUtils.geodesicTree(DIRECTED_INSTANCE, start), bfs.distanceMap());
+        }
+        bfs.search(g.indexOf(2));
+        assertEquals(4, bfs.maxDistance());
+        assertEquals(BreadthFirstSearch.UNREACHED, bfs.distance(g.indexOf(15)));
+
+        // buffers are reset between searches, including partial searches
+        bfs.search(g.indexOf(2), 1);
+        assertEquals(5, bfs.reachedCount());
+        assertEquals(BreadthFirstSearch.UNREACHED, bfs.distance(g.indexOf(6)));
+        assertEquals(4, bfs.searchTo(g.indexOf(2), g.indexOf(11)));
+        assertEquals(BreadthFirstSearch.UNREACHED, bfs.searchTo(g.indexOf(3), g.indexOf(2)));
+        assertEquals(1, bfs.reachedCount());
+    }
+
+    @Test
+    public void testSearch_Undirected() {
+        BreadthFirstSearch<Integer> bfs = BreadthFirstSearch.create(DIRECTED_INSTANCE, false);
+        CompressedGraph<Integer> g = bfs.getGraph();
+        for (Integer start : VV) {
+            bfs.search(g.indexOf(start));
+            assertEquals(GraphUtils.geodesicTree(UNDIRECTED_INSTANCE, start), bfs.distanceMap());
+        }
+    }
+
+    @Test
+    public void testDistances() {
+        Map<Integer, Integer> dist = BreadthFirstSearch.distances(UNDIRECTED_INSTANCE, 2, 2);
+        assertEquals(7, dist.size());
+        assertEquals(Integer.valueOf(2), dist.get(11));
+        assertEquals(2, BreadthFirstSearch.distance(UNDIRECTED_INSTANCE, 2, 11));
+        assertEquals(4, BreadthFirstSearch.distance(DIRECTED_INSTANCE, 2, 11));
+        assertEquals(BreadthFirstSearch.UNREACHED, BreadthFirstSearch.distance(DIRECTED_INSTANCE, 3, 2));
+        assertEquals(BreadthFirstSearch.UNREACHED, BreadthFirstSearch.distance(DIRECTED_INSTANCE, 3, 0));
+    }
+
+    @Test
+    public void testDistance_Bidirectional() {
+        Random random = new Random(12);
+        MutableGraph<Integer> graph = GraphBuilder.directed().allowsSelfLoops(true).build();
+        for (int i = 0; i < 60; i++) {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 90; i++) {
+            graph.putEdge(random.nextInt(60), random.nextInt(60));
+        }
+        for (int i = 0; i < 60; i++) {
+            Map<Integer, Integer> dist = BreadthFirstSearch.distances(graph, i, Integer.MAX_VALUE);
+            for (int j = 0; j < 60; j++) {
+                assertEquals(dist.getOrDefault(j, BreadthFirstSearch.UNREACHED).intValue(),
+                        BreadthFirstSearch.distance(graph, i, j));
+            }
+        }
+    }
+
+    @Test
+    public void testSearchTo_Targets() {
+        BreadthFirstSearch<Integer> bfs = BreadthFirstSearch.create(DIRECTED_INSTANCE, true);
+        CompressedGraph<Integer> g = bfs.getGraph();
+        int[] targets = { g.indexOf(3), g.indexOf(6), g.indexOf(3) };
+        bfs.searchTo(g.indexOf(1), targets, 3);
+        assertEquals(2, bfs.distance(g.indexOf(3)));
+        assertEquals(1, bfs.distance(g.indexOf(6)));
+        assertEquals(BreadthFirstSearch.UNREACHED, bfs.distance(g.indexOf(11)));
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graph;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.googlecode.blaisemath.test.AssertUtils.assertCollectionContentsSame;
+import static com.googlecode.blaisemath.test.AssertUtils.assertIllegalArgumentException;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@SuppressWarnings("UnstableApiUsage")
+public class CompressedGraphTest {
+
+    private static final Integer[] VV = new Integer[] { 1, 2, 3, 4, 5, 6, 10, 11, 15, 20, 21 };
+    private static final Integer[][] EE = new Integer[][] { {1,2}, {2,1}, {2,3}, {2,4}, {2,5}, {1,6}, {6,6}, {6,10}, {10,11}, {11,1}, {15, 15}, {20, 21} };
+    private static final Graph<Integer> UNDIRECTED_BASE = GraphUtils.createFromArrayEdges(false, asList(VV), asList(EE));
+    private static final Graph<Integer> DIRECTED_BASE = GraphUtils.createFromArrayEdges(true, asList(VV), asList(EE));
+    private static final CompressedGraph<Integer> UNDIRECTED_INSTANCE = CompressedGraph.copyOf(UNDIRECTED_BASE);
+    private static final CompressedGraph<Integer> DIRECTED_INSTANCE = CompressedGraph.copyOf(DIRECTED_BASE);
+
+    @Test
+    public void testCopyOf() {
+        assertSame(UNDIRECTED_INSTANCE, CompressedGraph.copyOf(UNDIRECTED_INSTANCE));
+        assertEquals(UNDIRECTED_BASE, UNDIRECTED_INSTANCE);
+        assertEquals(DIRECTED_BASE, DIRECTED_INSTANCE);
+        assertFalse(UNDIRECTED_INSTANCE.isDirected());
+        assertTrue(DIRECTED_INSTANCE.isDirected());
+    }
+
+    @Test
+    public void testEdgesAndDegrees() {
+        assertEquals(UNDIRECTED_BASE.edges().size(), UNDIRECTED_INSTANCE.edges().size());
+        assertEquals(DIRECTED_BASE.edges().size(), DIRECTED_INSTANCE.edges().size());
+        for (Integer n : VV) {
+            assertEquals(UNDIRECTED_BASE.degree(n), UNDIRECTED_INSTANCE.degree(n));
+            assertEquals(DIRECTED_BASE.degree(n), DIRECTED_INSTANCE.degree(n));
+            assertEquals(DIRECTED_BASE.inDegree(n), DIRECTED_INSTANCE.inDegree(n));
+            assertEquals(DIRECTED_BASE.outDegree(n), DIRECTED_INSTANCE.outDegree(n));
+            assertEquals(UNDIRECTED_INSTANCE.degree(n), UNDIRECTED_INSTANCE.degreeAt(UNDIRECTED_INSTANCE.indexOf(n)));
+        }
+    }
+
+    @Test
+    public void testAdjacentNodes() {
+        assertIllegalArgumentException(() -> UNDIRECTED_INSTANCE.adjacentNodes(0).size());
+        assertIllegalArgumentException(() -> DIRECTED_INSTANCE.successors(0).size());
+        for (Integer n : VV) {
+            assertCollectionContentsSame(UNDIRECTED_BASE.adjacentNodes(n), UNDIRECTED_INSTANCE.adjacentNodes(n));
+            assertCollectionContentsSame(DIRECTED_BASE.adjacentNodes(n), DIRECTED_INSTANCE.adjacentNodes(n));
+            assertCollectionContentsSame(DIRECTED_BASE.successors(n), DIRECTED_INSTANCE.successors(n));
+            assertCollectionContentsSame(DIRECTED_BASE.predecessors(n), DIRECTED_INSTANCE.predecessors(n));
+        }
+    }
+
+    @Test
+    public void testHasEdgeConnecting() {
+        assertTrue(UNDIRECTED_INSTANCE.hasEdgeConnecting(3, 2));
+        assertTrue(UNDIRECTED_INSTANCE.hasEdgeConnecting(6, 6));
+        assertFalse(UNDIRECTED_INSTANCE.hasEdgeConnecting(1, 3));
+        assertFalse(UNDIRECTED_INSTANCE.hasEdgeConnecting(0, 1));
+        assertTrue(DIRECTED_INSTANCE.hasEdgeConnecting(2, 3));
+        assertFalse(DIRECTED_INSTANCE.hasEdgeConnecting(3, 2));
+        assertTrue(DIRECTED_INSTANCE.hasEdgeConnecting(EndpointPair.ordered(11, 1)));
+        assertFalse(DIRECTED_INSTANCE.hasEdgeConnecting(EndpointPair.unordered(11, 1)));
+        assertTrue(UNDIRECTED_INSTANCE.hasEdgeConnecting(EndpointPair.unordered(1, 11)));
+    }
+
+    @Test
+    public void testIndexArrays() {
+        CompressedGraph<Integer> g = UNDIRECTED_INSTANCE;
+        int i2 = g.indexOf(2);
+        assertEquals(Integer.valueOf(2), g.nodeAt(i2));
+        assertEquals(-1, g.indexOf(0));
+        assertEquals(4, g.neighborCount(i2));
+        int[] row = Arrays.copyOfRange(g.neighborTargets(), g.neighborOffsets()[i2], g.neighborOffsets()[i2 + 1]);
+        int[] expected = { g.indexOf(1), g.indexOf(3), g.indexOf(4), g.indexOf(5) };
+        Arrays.sort(expected);
+        assertArrayEquals(expected, row);
+        assertSame(g.neighborTargets(), g.successorTargets());
+    }
+
+    @Test
+    public void testFromIndexEdges() {
+        CompressedGraph<String> g = CompressedGraph.fromIndexEdges(false, asList("a", "b", "c"),
+                new int[] { 0, 1, 1, 2 }, new int[] { 1, 0, 2, 2 }, 4);
+        assertEquals(3, g.edges().size());
+        assertEquals(1, g.degree("a"));
+        assertEquals(2, g.degree("b"));
+        assertEquals(3, g.degree("c"));
+        assertTrue(g.allowsSelfLoops());
+        assertIllegalArgumentException(() -> CompressedGraph.fromIndexEdges(false, asList("a", "a"), new int[0], new int[0], 0));
+    }
+
+}
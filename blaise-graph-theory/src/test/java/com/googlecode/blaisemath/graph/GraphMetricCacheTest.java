@@ -0,0 +1,195 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import com.googlecode.blaisemath.graph.metrics.AbstractGraphNodeMetric;
+import com.googlecode.blaisemath.graph.metrics.GraphDiameter;
+import com.googlecode.blaisemath.graph.metrics.PivotSelection;
+import com.googlecode.blaisemath.graph.metrics.SampledClosenessCentrality;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.blaisemath.test.AssertUtils.assertIllegalArgumentException;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@SuppressWarnings("UnstableApiUsage")
+public class GraphMetricCacheTest {
+
+    /** Degree metric that counts the number of times it is computed */
+    private static final class CountingDegree extends AbstractGraphNodeMetric<Integer> {
+        private final AtomicInteger count = new AtomicInteger();
+
+        CountingDegree() {
+            super("Counting degree");
+        }
+
+        @Override
+        public <N> Integer apply(Graph<N> graph, N node) {
+            return graph.degree(node);
+        }
+
+        @Override
+        public <N> Map<N, Integer> apply(Graph<N> graph) {
+            count.incrementAndGet();
+            return super.apply(graph);
+        }
+    }
+
+    private static Graph<Integer> path(int n) {
+        MutableGraph<Integer> res = GraphBuilder.undirected().build();
+        for (int i = 1; i < n; i++) {
+            res.putEdge(i - 1, i);
+        }
+        return res;
+    }
+
+    @Test
+    public void testFingerprint() {
+        Graph<Integer> g1 = GraphUtils.createFromArrayEdges(false, asList(1, 2, 3), asList(new Integer[][] { {1,2}, {2,3} }));
+        Graph<Integer> g2 = GraphUtils.createFromArrayEdges(false, asList(3, 2, 1), asList(new Integer[][] { {3,2}, {2,1} }));
+        Graph<Integer> g3 = GraphUtils.createFromArrayEdges(false, asList(1, 2, 3), asList(new Integer[][] { {1,2}, {1,3} }));
+        Graph<Integer> g4 = GraphUtils.createFromArrayEdges(true, asList(1, 2, 3), asList(new Integer[][] { {1,2}, {2,3} }));
+        Graph<Integer> g5 = GraphUtils.createFromArrayEdges(true, asList(1, 2, 3), asList(new Integer[][] { {2,1}, {2,3} }));
+        assertEquals(GraphMetricCache.graphFingerprint(g1), GraphMetricCache.graphFingerprint(g2));
+        assertNotEquals(GraphMetricCache.graphFingerprint(g1), GraphMetricCache.graphFingerprint(g3));
+        assertNotEquals(GraphMetricCache.graphFingerprint(g1), GraphMetricCache.graphFingerprint(g4));
+        assertNotEquals(GraphMetricCache.graphFingerprint(g4), GraphMetricCache.graphFingerprint(g5));
+    }
+
+    @Test
+    public void testNodeValues() {
+        GraphMetricCache cache = new GraphMetricCache(10);
+        CountingDegree metric = new CountingDegree();
+        MutableGraph<Integer> graph = (MutableGraph<Integer>) path(4);
+        Map<Integer, Integer> values = cache.nodeValues(graph, metric);
+        assertEquals(Integer.valueOf(2), values.get(1));
+        assertSame(values.get(1), cache.nodeValues(graph, metric).get(1));
+        assertEquals(1, metric.count.get());
+
+        // a different graph with the same content is a different entry
+        cache.nodeValues(path(4), metric);
+        assertEquals(2, metric.count.get());
+
+        // changes to the graph are detected
+        graph.putEdge(0, 3);
+        assertEquals(Integer.valueOf(2), cache.nodeValues(graph, metric).get(0));
+        assertEquals(3, metric.count.get());
+
+        // explicit versions
+        cache.nodeValues(graph, 5L, metric);
+        cache.nodeValues(graph, 5L, metric);
+        assertEquals(4, metric.count.get());
+
+        cache.invalidate(graph);
+        assertEquals(1, cache.size());
+        cache.nodeValues(graph, metric);
+        assertEquals(5, metric.count.get());
+        assertIllegalArgumentException(() -> new GraphMetricCache(0));
+    }
+
+    @Test
+    public void testMetricSettings() {
+        Graph<Integer> graph = path(20);
+        GraphMetricCache cache = new GraphMetricCache(10);
+        GraphDiameter diameter = new GraphDiameter();
+        assertEquals(19, (int) cache.value(graph, diameter));
+        diameter.setApproximate(true);
+        cache.value(graph, diameter);
+        assertEquals(2, cache.size());
+        diameter.setApproximate(false);
+        cache.value(graph, diameter);
+        assertEquals(2, cache.size());
+
+        SampledClosenessCentrality closeness = new SampledClosenessCentrality(2, PivotSelection.UNIFORM, new Random(0));
+        cache.nodeValues(graph, closeness);
+        closeness.setPivotCount(20);
+        Map<Integer, Double> values = cache.nodeValues(graph, closeness);
+        assertEquals(4, cache.size());
+        assertEquals(values, cache.nodeValues(graph, closeness));
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        GraphMetricCache cache = new GraphMetricCache(2);
+        CountingDegree metric = new CountingDegree();
+        Graph<Integer> g1 = path(3);
+        Graph<Integer> g2 = path(4);
+        Graph<Integer> g3 = path(5);
+        cache.nodeValues(g1, metric);
+        cache.nodeValues(g2, metric);
+        cache.nodeValues(g1, metric);
+        // g2 is least recently used
+        cache.nodeValues(g3, metric);
+        assertEquals(3, metric.count.get());
+        cache.nodeValues(g1, metric);
+        assertEquals(3, metric.count.get());
+        cache.nodeValues(g2, metric);
+        assertEquals(4, metric.count.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        File folder = Files.createTempDirectory("metrics").toFile();
+        folder.deleteOnExit();
+        GraphMetricCache cache = new GraphMetricCache(1, folder.toPath());
+        CountingDegree metric = new CountingDegree();
+        Graph<Integer> g1 = path(3);
+        Graph<Integer> g2 = path(4);
+        Map<Integer, Integer> values = cache.nodeValues(g1, metric);
+        cache.nodeValues(g2, metric);
+        assertEquals(1, cache.spilledSize());
+        assertEquals(1, folder.listFiles().length);
+
+        assertEquals(values, cache.nodeValues(g1, metric));
+        assertEquals(2, metric.count.get());
+        assertEquals(1, cache.spilledSize());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.spilledSize());
+        assertEquals(0, folder.listFiles().length);
+    }
+
+    @Test
+    public void testGraphStats() {
+        GraphMetricCache cache = new GraphMetricCache(10);
+        CountingDegree metric = new CountingDegree();
+        Graph<Integer> graph = path(4);
+        assertEquals(2.0, new GraphStats(graph, cache).nodeStatsOf(metric).statistics().getMax(), 0.0);
+        assertEquals(1.5, new GraphStats(graph, cache).nodeStatsOf(metric).statistics().getAverage(), 0.0);
+        assertEquals(1, metric.count.get());
+        assertEquals(2, GraphMetrics.distribution(graph, metric, cache).count(1));
+        assertEquals(1, metric.count.get());
+        assertEquals(1.5, new GraphNodeStats(graph, metric).statistics().getAverage(), 0.0);
+        assertEquals(2, metric.count.get());
+    }
+
+}
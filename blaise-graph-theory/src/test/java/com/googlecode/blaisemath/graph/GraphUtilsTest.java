@@ -157,6 +157,21 @@ public class GraphUtilsTest {
         assertEquals(-1, GraphUtils.geodesicDistance(DIRECTED_INSTANCE, 1, 15));
     }
 
+    @Test
+    public void testGeodesicDistances() {
+        Multimap<Integer, Integer> queries = ImmutableMultimap.<Integer, Integer>builder()
+                .putAll(2, 2, 11, 15, 0).putAll(3, 2).putAll(0, 0, 1).build();
+        Table<Integer, Integer, Integer> res = GraphUtils.geodesicDistances(DIRECTED_INSTANCE, queries);
+        assertEquals(7, res.size());
+        assertEquals(Integer.valueOf(0), res.get(2, 2));
+        assertEquals(Integer.valueOf(4), res.get(2, 11));
+        assertEquals(Integer.valueOf(-1), res.get(2, 15));
+        assertEquals(Integer.valueOf(-1), res.get(2, 0));
+        assertEquals(Integer.valueOf(-1), res.get(3, 2));
+        assertEquals(Integer.valueOf(0), res.get(0, 0));
+        assertEquals(Integer.valueOf(-1), res.get(0, 1));
+    }
+
     @Test
     public void testNeighborhood() {
         assertCollectionContentsSame(Collections.singletonList(2), GraphUtils.neighborhood(UNDIRECTED_INSTANCE, 2, 0));
@@ -184,7 +199,10 @@ public class GraphUtilsTest {
             assertCollectionContentsSame(asList(1,2,3,4,5,6,10,11), result1.get(0));
             assertCollectionContentsSame(asList(20,21), result1.get(1));
             assertCollectionContentsSame(Collections.singletonList(15), result1.get(2));
+            assertEquals(3, GraphUtils.componentCount(g));
         }
+        assertSets(GraphUtils.components(UNDIRECTED_INSTANCE, ImmutableSet.of(2, 3, 6, 10, 11, 15)),
+                ImmutableSet.of(2, 3), ImmutableSet.of(6, 10, 11), ImmutableSet.of(15));
     }
     
     @Test
@@ -0,0 +1,65 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.graph.Graph;
+import org.junit.Test;
+
+import static com.googlecode.blaisemath.test.AssertUtils.assertIllegalArgumentException;
+import static com.googlecode.blaisemath.test.AssertUtils.assertSets;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+@SuppressWarnings("UnstableApiUsage")
+public class IncrementalComponentsTest {
+
+    private static final Integer[] VV = new Integer[] { 1, 2, 3, 4, 5, 6, 10, 11, 15, 20, 21 };
+    private static final Integer[][] EE = new Integer[][] { {1,2}, {2,1}, {2,3}, {2,4}, {2,5}, {1,6}, {6,6}, {6,10}, {10,11}, {11,1}, {15, 15}, {20, 21} };
+    private static final Graph<Integer> DIRECTED_INSTANCE = GraphUtils.createFromArrayEdges(true, asList(VV), asList(EE));
+
+    @Test
+    public void testOf() {
+        IncrementalComponents<Integer> comps = IncrementalComponents.of(DIRECTED_INSTANCE);
+        assertEquals(11, comps.nodeCount());
+        assertEquals(3, comps.componentCount());
+        assertSets(comps.components(), ImmutableSet.of(1, 2, 3, 4, 5, 6, 10, 11), ImmutableSet.of(15), ImmutableSet.of(20, 21));
+        assertEquals(ImmutableSet.of(20, 21), comps.component(21));
+        assertTrue(comps.connected(3, 11));
+        assertFalse(comps.connected(3, 21));
+        assertFalse(comps.connected(3, 0));
+        assertIllegalArgumentException(() -> comps.component(0));
+    }
+
+    @Test
+    public void testAdd() {
+        IncrementalComponents<Integer> comps = IncrementalComponents.of(DIRECTED_INSTANCE);
+        assertTrue(comps.addNode(0));
+        assertFalse(comps.addNode(0));
+        assertEquals(4, comps.componentCount());
+        assertTrue(comps.addEdge(15, 20));
+        assertFalse(comps.addEdge(21, 15));
+        assertTrue(comps.addEdge(22, 0));
+        assertEquals(3, comps.componentCount());
+        assertSets(comps.components(), ImmutableSet.of(1, 2, 3, 4, 5, 6, 10, 11), ImmutableSet.of(15, 20, 21), ImmutableSet.of(0, 22));
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.googlecode.blaisemath.graph;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UnionFindTest {
+
+    @Test
+    public void testUnion() {
+        UnionFind uf = new UnionFind(6);
+        assertEquals(6, uf.setCount());
+        assertTrue(uf.union(0, 1));
+        assertTrue(uf.union(2, 3));
+        assertTrue(uf.union(1, 3));
+        assertFalse(uf.union(0, 2));
+        assertEquals(3, uf.setCount());
+        assertTrue(uf.connected(0, 3));
+        assertFalse(uf.connected(0, 4));
+        assertEquals(4, uf.setSize(2));
+        assertEquals(1, uf.setSize(5));
+        assertArrayEquals(new int[] { 0, 0, 0, 0, 1, 2 }, uf.setLabels());
+    }
+
+    @Test
+    public void testAdd() {
+        UnionFind uf = new UnionFind(0);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, uf.add());
+            if (i > 0 && i % 2 == 1) {
+                uf.union(i - 1, i);
+            }
+        }
+        assertEquals(20, uf.size());
+        assertEquals(10, uf.setCount());
+        assertTrue(uf.connected(18, 19));
+        try {
+            uf.find(20);
+            fail("Expected exception");
+        } catch (IndexOutOfBoundsException x) {
+            // expected
+        }
+    }
+
+}
@@ -24,7 +24,10 @@ import com.google.common.graph.Graph;
 import com.googlecode.blaisemath.graph.GraphUtils;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("UnstableApiUsage")
 public class EdgeLikelihoodGeneratorTest {
@@ -43,4 +46,18 @@ public class EdgeLikelihoodGeneratorTest {
         System.out.println("  DIRECTED (.25 probability): " + result1.edges().size() + " edges, " + GraphUtils.printGraph(result1));
     }
 
+    @Test
+    public void testReproducible() {
+        for (boolean directed : new boolean[] { false, true }) {
+            EdgeLikelihoodGenerator.EdgeLikelihoodParameters params = new EdgeLikelihoodGenerator.EdgeLikelihoodParameters(directed, 2000, .05f);
+            Graph<Integer> graph = new EdgeLikelihoodGenerator(new Random(5)).apply(params);
+            Graph<Integer> parallel = new EdgeLikelihoodGenerator(new Random(5), true).apply(params);
+            assertEquals(graph, parallel);
+            // expected edge count is 99950 (undirected) or 200000 (directed), with standard deviation under 450
+            int expected = directed ? 200000 : 99950;
+            assertTrue(graph.edges().size() + " edges", Math.abs(graph.edges().size() - expected) < 2500);
+            graph.edges().forEach(e -> assertTrue(directed || !e.nodeU().equals(e.nodeV())));
+        }
+    }
+
 }
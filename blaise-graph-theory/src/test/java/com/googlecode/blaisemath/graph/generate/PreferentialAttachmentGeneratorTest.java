@@ -26,7 +26,11 @@ import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator.EdgeLike
 import com.googlecode.blaisemath.graph.generate.PreferentialAttachmentGenerator.PreferentialAttachmentParameters;
 import org.junit.Test;
 
+import java.util.Random;
+
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 @SuppressWarnings("UnstableApiUsage")
@@ -114,4 +118,44 @@ public class PreferentialAttachmentGeneratorTest {
         }
     }
 
+    @Test
+    public void testLargeGraph() {
+        Graph<Integer> seed = new CycleGraphGenerator().apply(new DefaultGeneratorParameters(false, 4));
+        Graph<Integer> graph = new PreferentialAttachmentGenerator(new Random(3)).apply(new PreferentialAttachmentParameters(seed, 20000, 1));
+        assertEquals(20000, graph.nodes().size());
+        assertEquals(20000, graph.edges().size());
+        assertEquals(1, GraphUtils.componentCount(graph));
+        for (int i = 0; i < 20000; i++) {
+            assertTrue(graph.nodes().contains(i));
+        }
+        // degrees of early nodes grow much faster than average
+        assertTrue(graph.degree(0) > 20);
+
+        Graph<Integer> graph2 = new PreferentialAttachmentGenerator(new Random(3)).apply(new PreferentialAttachmentParameters(seed, 20000, 1));
+        assertEquals(graph, graph2);
+    }
+
+    @Test
+    public void testDistinctTargets() {
+        Graph<Integer> seed = new CycleGraphGenerator().apply(new DefaultGeneratorParameters(false, 4));
+        Graph<Integer> graph = new PreferentialAttachmentGenerator(new Random(5)).apply(new PreferentialAttachmentParameters(seed, 2000, 3));
+        assertEquals(4 + 3 * 1996, graph.edges().size());
+        // nodes are added in label order, so each new node has 3 edges to lower labels
+        for (int n = 4; n < 2000; n++) {
+            int node = n;
+            assertEquals(3, graph.adjacentNodes(n).stream().filter(m -> m < node).count());
+        }
+    }
+
+    @Test
+    public void testSeedLabels() {
+        Graph<Integer> seed = GraphUtils.createFromArrayEdges(false, asList(1, 3, 100),
+                asList(new Integer[][] { {1,3}, {3,100} }));
+        Graph<Integer> graph = new PreferentialAttachmentGenerator(new Random(3)).apply(new PreferentialAttachmentParameters(seed, 6, 2));
+        assertEquals(6, graph.nodes().size());
+        for (int n : new int[] { 0, 1, 2, 3, 4, 100 }) {
+            assertTrue(graph.nodes().contains(n));
+        }
+    }
+
 }
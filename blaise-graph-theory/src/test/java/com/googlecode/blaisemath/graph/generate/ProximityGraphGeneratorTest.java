@@ -0,0 +1,81 @@
+package com.googlecode.blaisemath.graph.generate;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.generate.ProximityGraphGenerator.ProximityGraphParameters;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@SuppressWarnings("UnstableApiUsage")
+public class ProximityGraphGeneratorTest {
+
+    /** Count edges by comparing all pairs of points */
+    private static int bruteForceEdgeCount(Graph<Point2D.Double> graph, double dist) {
+        List<Point2D.Double> pts = new ArrayList<>(graph.nodes());
+        int res = 0;
+        for (int i = 0; i < pts.size(); i++) {
+            for (int j = i + 1; j < pts.size(); j++) {
+                if (pts.get(i).distance(pts.get(j)) <= dist) {
+                    res++;
+                }
+            }
+        }
+        return res;
+    }
+
+    @Test
+    public void testProximityGraphGenerator() {
+        Rectangle2D.Double bounds = new Rectangle2D.Double(-5, 0, 20, 10);
+        for (double dist : new double[] { 0.01, 1, 3, 50 }) {
+            ProximityGraphParameters params = new ProximityGraphParameters(false, 300, bounds, dist);
+            Graph<Point2D.Double> graph = new ProximityGraphGenerator(new Random(11)).apply(params);
+            assertEquals(300, graph.nodes().size());
+            assertFalse(graph.isDirected());
+            assertEquals(bruteForceEdgeCount(graph, dist), graph.edges().size());
+            for (EndpointPair<Point2D.Double> e : graph.edges()) {
+                assertFalse(e.nodeU().distance(e.nodeV()) > dist);
+            }
+
+            Graph<Point2D.Double> parallel = new ProximityGraphGenerator(new Random(11), true).apply(params);
+            assertEquals(graph, parallel);
+        }
+    }
+
+    @Test
+    public void testDegenerateBounds() {
+        Graph<Point2D.Double> graph = new ProximityGraphGenerator().apply(new ProximityGraphParameters());
+        assertEquals(1, graph.nodes().size());
+        assertEquals(0, graph.edges().size());
+        graph = new ProximityGraphGenerator().apply(new ProximityGraphParameters(false, 50, new Rectangle2D.Double(0, 0, 10, 0), 1));
+        assertEquals(50, graph.nodes().size());
+    }
+
+}
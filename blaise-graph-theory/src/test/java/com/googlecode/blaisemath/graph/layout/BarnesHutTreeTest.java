@@ -0,0 +1,108 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator.EdgeLikelihoodParameters;
+import com.googlecode.blaisemath.graph.layout.SpringLayoutParameters.RepulsionMode;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+public class BarnesHutTreeTest {
+
+    private static final int N = 500;
+
+    @Test
+    public void testAddRepulsiveForce() {
+        Random r = new Random(1234);
+        double[] x = new double[N];
+        double[] y = new double[N];
+        for (int i = 0; i < N; i++) {
+            x[i] = 1000 * r.nextGaussian();
+            y[i] = 1000 * r.nextGaussian();
+        }
+        SpringLayoutParameters params = new SpringLayoutParameters();
+        params.maxRepelDist = 1e6;
+        BarnesHutTree tree = new BarnesHutTree();
+        tree.build(x, y, N);
+
+        double error = 0;
+        double total = 0;
+        double[] fx = new double[N];
+        double[] fy = new double[N];
+        double[] approxX = new double[N];
+        double[] approxY = new double[N];
+        for (int i = 0; i < N; i++) {
+            Point2D.Double exact = bruteForce(i, x, y, params);
+            params.setOpeningAngle(0);
+            tree.addRepulsiveForce(i, fx, fy, params);
+            assertEquals(exact.x, fx[i], 1e-9 * Math.abs(exact.x) + 1e-12);
+            assertEquals(exact.y, fy[i], 1e-9 * Math.abs(exact.y) + 1e-12);
+
+            params.setOpeningAngle(.5);
+            tree.addRepulsiveForce(i, approxX, approxY, params);
+            error += exact.distance(approxX[i], approxY[i]);
+            total += exact.distance(0, 0);
+        }
+        assertTrue("relative error " + error / total, error / total < .02);
+    }
+
+    @Test
+    public void testSpringLayout() {
+        Graph<Integer> graph = new EdgeLikelihoodGenerator(new Random(1234))
+                .apply(new EdgeLikelihoodParameters(false, 200, .02f));
+        SpringLayout layout = new SpringLayout();
+        SpringLayoutState<Integer> state = layout.createState();
+        SpringLayoutParameters params = layout.createParameters();
+        params.setRepulsionMode(RepulsionMode.BARNES_HUT);
+        state.requestPositions(CircleLayout.getInstance().layout(graph, null, new CircleLayout.CircleLayoutParameters(100.0)), false);
+        for (int i = 0; i < 50; i++) {
+            layout.iterate(graph, state, params);
+        }
+        for (Point2D.Double p : state.getPositionsCopy().values()) {
+            assertTrue(Double.isFinite(p.x) && Double.isFinite(p.y));
+        }
+        assertEquals(200, state.getPositionsCopy().size());
+    }
+
+    private static Point2D.Double bruteForce(int i, double[] x, double[] y, SpringLayoutParameters params) {
+        Point2D.Double sum = new Point2D.Double();
+        for (int j = 0; j < x.length; j++) {
+            if (j != i) {
+                double dx = x[i] - x[j];
+                double dy = y[i] - y[j];
+                double dist = Math.sqrt(dx * dx + dy * dy);
+                double multiplier = Math.min(params.repulsiveC / (dist * dist), params.maxForce) / dist;
+                sum.x += multiplier * dx;
+                sum.y += multiplier * dy;
+            }
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableGraph;
+import com.googlecode.blaisemath.graph.layout.IncrementalSpringLayout.IncrementalSpringLayoutParameters;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@SuppressWarnings("UnstableApiUsage")
+public class IncrementalSpringLayoutTest {
+
+    /** Path graph with nodes 0..n-1, with nodes spaced along the x-axis */
+    private static MutableGraph<Integer> path(int n, Map<Integer, Point2D.Double> loc) {
+        MutableGraph<Integer> res = GraphBuilder.undirected().build();
+        for (int i = 0; i < n; i++) {
+            res.addNode(i);
+            loc.put(i, new Point2D.Double(50 * i, 0));
+            if (i > 0) {
+                res.putEdge(i - 1, i);
+            }
+        }
+        return res;
+    }
+
+    @Test
+    public void testChangedNodes() {
+        Graph<Integer> old = path(5, new HashMap<>());
+        MutableGraph<Integer> graph = Graphs.copyOf(old);
+        assertTrue(IncrementalSpringLayout.changedNodes(old, graph).isEmpty());
+        graph.removeNode(4);
+        graph.removeEdge(1, 2);
+        graph.putEdge(0, 10);
+        assertEquals(ImmutableSet.of(0, 1, 2, 3, 10), IncrementalSpringLayout.changedNodes(old, graph));
+    }
+
+    @Test
+    public void testNeighborhood() {
+        Graph<Integer> graph = path(10, new HashMap<>());
+        assertEquals(ImmutableSet.of(5), IncrementalSpringLayout.neighborhood(graph, ImmutableSet.of(5), 0));
+        assertEquals(ImmutableSet.of(3, 4, 5, 6, 7, 8), IncrementalSpringLayout.neighborhood(graph, ImmutableSet.of(5, 6), 2));
+    }
+
+    @Test
+    public void testLayout() {
+        Map<Integer, Point2D.Double> loc = new HashMap<>();
+        Graph<Integer> old = path(100, loc);
+        MutableGraph<Integer> graph = Graphs.copyOf(old);
+        graph.putEdge(50, 100);
+        graph.putEdge(100, 101);
+
+        IncrementalSpringLayout layout = new IncrementalSpringLayout();
+        IncrementalSpringLayoutParameters params = layout.createParameters();
+        Map<Integer, Point2D.Double> res = layout.layout(old, graph, loc, params);
+        assertNotNull(res);
+        assertTrue(res.containsKey(100));
+        assertTrue(res.containsKey(101));
+        for (Integer n : res.keySet()) {
+            assertTrue(n >= 48 && n <= 52 || n >= 100);
+            assertTrue(Double.isFinite(res.get(n).x) && Double.isFinite(res.get(n).y));
+        }
+        double dist = res.get(100).distance(res.getOrDefault(50, loc.get(50)));
+        assertTrue(dist > 0 && dist < 3 * params.getDistScale());
+
+        // too many changes
+        MutableGraph<Integer> graph2 = Graphs.copyOf(old);
+        for (int i = 0; i < 50; i++) {
+            graph2.putEdge(i, 99 - i);
+        }
+        assertNull(layout.layout(old, graph2, loc, params));
+    }
+
+    @Test
+    public void testLayout_RegionTooLarge() {
+        Map<Integer, Point2D.Double> loc = new HashMap<>();
+        MutableGraph<Integer> old = path(100, loc);
+        for (int i = 100; i < 1000; i++) {
+            old.putEdge(0, i);
+            loc.put(i, new Point2D.Double(50 * Math.cos(i), 50 * Math.sin(i)));
+        }
+        MutableGraph<Integer> graph = Graphs.copyOf(old);
+        graph.putEdge(1, 1000);
+
+        IncrementalSpringLayout layout = new IncrementalSpringLayout();
+        IncrementalSpringLayoutParameters params = layout.createParameters();
+        assertNull(layout.layout(old, graph, loc, params));
+        params.setMaxRegionSize(1000);
+        assertNotNull(layout.layout(old, graph, loc, params));
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import com.googlecode.blaisemath.coordinate.CoordinateManager;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@SuppressWarnings("UnstableApiUsage")
+public class LayoutPipelineTest {
+
+    @Test
+    public void testPipeline() throws Exception {
+        MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+        graph.putEdge(1, 2);
+        graph.putEdge(2, 3);
+
+        LayoutPipeline<Integer> pipeline = new LayoutPipeline<>(new SpringLayout());
+        CoordinateManager<Integer, Point2D.Double> cm = CoordinateManager.create(100);
+        pipeline.setCoordinateManager(cm);
+        List<LayoutSnapshot<Integer>> published = new CopyOnWriteArrayList<>();
+        pipeline.addSnapshotListener(published::add);
+        try {
+            assertEquals(0, pipeline.getSnapshot().size());
+            pipeline.setGraph(graph).get();
+            LayoutSnapshot<Integer> snap = pipeline.getSnapshot();
+            assertEquals(3, snap.size());
+            assertEquals(snap.nodes(), cm.getActive());
+            assertEquals(1, published.size());
+
+            LayoutSnapshot<Integer> next = pipeline.step().get();
+            assertTrue(next.getVersion() > snap.getVersion());
+            assertNotEquals(snap.getLocation(1), next.getLocation(1));
+            // earlier snapshots are not modified
+            assertEquals(snap.asMap(), published.get(0).asMap());
+
+            pipeline.requestPositions(ImmutableMap.of(1, new Point2D.Double(-500, 0))).get();
+            assertEquals(new Point2D.Double(-500, 0), pipeline.getSnapshot().getLocation(1));
+
+            MutableGraph<Integer> graph2 = GraphBuilder.undirected().build();
+            graph2.putEdge(2, 3);
+            graph2.putEdge(3, 4);
+            pipeline.setGraph(graph2).get();
+            snap = pipeline.getSnapshot();
+            assertEquals(3, snap.size());
+            assertEquals(-1, snap.indexOf(1));
+            assertNotNull(snap.getLocation(4));
+            assertEquals(snap.getLocation(4), cm.getLocation(4));
+
+            CountDownLatch loops = new CountDownLatch(3);
+            pipeline.addSnapshotListener(s -> loops.countDown());
+            pipeline.start(1);
+            assertTrue(loops.await(10, TimeUnit.SECONDS));
+            pipeline.stop();
+            pipeline.step().get();
+            assertFalse(pipeline.isRunning());
+            assertTrue(pipeline.getSnapshot().getVersion() > snap.getVersion() + 1);
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    public void testPipeline_GraphEditedInPlace() throws Exception {
+        MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+        graph.putEdge(1, 2);
+        graph.putEdge(2, 3);
+
+        LayoutPipeline<Integer> pipeline = new LayoutPipeline<>(new SpringLayout());
+        try {
+            pipeline.setGraph(graph).get();
+            pipeline.step().get();
+            Point2D.Double loc3 = pipeline.getSnapshot().getLocation(3);
+
+            // swap a node, keeping node and edge counts the same
+            graph.removeNode(3);
+            graph.putEdge(2, 4);
+            pipeline.setGraph(graph).get();
+            LayoutSnapshot<Integer> snap = pipeline.step().get();
+            assertEquals(ImmutableSet.of(1, 2, 4), snap.nodes());
+
+            // restoring a removed node reuses its last position
+            graph.putEdge(2, 3);
+            pipeline.setGraph(graph).get();
+            assertEquals(loc3, pipeline.getSnapshot().getLocation(3));
+            assertEquals(ImmutableSet.of(1, 2, 3, 4), pipeline.step().get().nodes());
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+}
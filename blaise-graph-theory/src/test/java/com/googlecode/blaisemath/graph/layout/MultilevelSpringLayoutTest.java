@@ -0,0 +1,91 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import com.googlecode.blaisemath.graph.layout.MultilevelSpringLayout.MultilevelSpringLayoutParameters;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+public class MultilevelSpringLayoutTest {
+
+    @Test
+    public void testLayout_Small() {
+        MutableGraph<Integer> graph = GraphBuilder.undirected().allowsSelfLoops(true).build();
+        graph.putEdge(1, 2);
+        graph.putEdge(2, 3);
+        graph.putEdge(3, 3);
+        graph.addNode(4);
+        graph.putEdge(5, 5);
+        MultilevelSpringLayout layout = new MultilevelSpringLayout();
+        Map<Integer, Point2D.Double> pos = layout.layout(graph, null, layout.createParameters());
+        assertEquals(5, pos.size());
+        assertFinite(pos);
+        assertTrue(pos.get(1).distance(pos.get(2)) > 0);
+        assertTrue(pos.get(4).distance(pos.get(5)) > 0);
+    }
+
+    @Test
+    public void testLayout_Grid() {
+        int size = 30;
+        MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i + 1 < size) {
+                    graph.putEdge(i * size + j, (i + 1) * size + j);
+                }
+                if (j + 1 < size) {
+                    graph.putEdge(i * size + j, i * size + j + 1);
+                }
+            }
+        }
+        graph.addNode(-1);
+        graph.addNode(-2);
+
+        MultilevelSpringLayout layout = new MultilevelSpringLayout();
+        MultilevelSpringLayoutParameters params = layout.createParameters();
+        Map<Integer, Point2D.Double> pos = layout.layout(graph, null, params);
+        assertEquals(size * size + 2, pos.size());
+        assertFinite(pos);
+
+        double edgeLength = graph.edges().stream()
+                .mapToDouble(e -> pos.get(e.nodeU()).distance(pos.get(e.nodeV())))
+                .average().orElse(0);
+        double oppositeCorners = pos.get(0).distance(pos.get(size * size - 1));
+        assertTrue(edgeLength > 0);
+        assertTrue(edgeLength < 3 * params.getDistScale());
+        assertTrue(oppositeCorners > 10 * edgeLength);
+    }
+
+    private static void assertFinite(Map<Integer, Point2D.Double> pos) {
+        for (Point2D.Double p : pos.values()) {
+            assertTrue(Double.isFinite(p.x) && Double.isFinite(p.y));
+        }
+    }
+
+}
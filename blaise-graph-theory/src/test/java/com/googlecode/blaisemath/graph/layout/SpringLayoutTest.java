@@ -0,0 +1,171 @@
+package com.googlecode.blaisemath.graph.layout;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator.EdgeLikelihoodParameters;
+import com.googlecode.blaisemath.graph.layout.SpringLayoutParameters.RepulsionMode;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+public class SpringLayoutTest {
+
+    @Test
+    public void testIterate_GraphChanges() {
+        MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+        graph.putEdge(1, 2);
+        graph.putEdge(2, 3);
+        SpringLayout layout = new SpringLayout();
+        SpringLayoutState<Integer> state = layout.createState();
+        SpringLayoutParameters params = layout.createParameters();
+        Map<Integer, Point2D.Double> init = new HashMap<>();
+        init.put(1, new Point2D.Double(0, 0));
+        init.put(2, new Point2D.Double(100, 0));
+        init.put(3, new Point2D.Double(0, 100));
+        state.requestPositions(init, false);
+        params.getConstraints().setPinnedNodes(ImmutableSet.of(1));
+
+        for (int i = 0; i < 10; i++) {
+            layout.iterate(graph, state, params);
+        }
+        Map<Integer, Point2D.Double> pos = state.getPositionsCopy();
+        assertEquals(new Point2D.Double(0, 0), pos.get(1));
+        assertNotEquals(new Point2D.Double(100, 0), pos.get(2));
+
+        // add a node and edge, and change pinned nodes, between iterations
+        graph.putEdge(3, 4);
+        params.getConstraints().setPinnedNodes(ImmutableSet.of(2));
+        Point2D.Double loc2 = new Point2D.Double(pos.get(2).x, pos.get(2).y);
+        for (int i = 0; i < 10; i++) {
+            layout.iterate(graph, state, params);
+        }
+        pos = state.getPositionsCopy();
+        assertEquals(4, pos.size());
+        assertEquals(loc2, pos.get(2));
+        assertNotEquals(new Point2D.Double(0, 0), pos.get(1));
+        for (Point2D.Double p : pos.values()) {
+            assertTrue(Double.isFinite(p.x) && Double.isFinite(p.y));
+        }
+
+        // remove a node, and request new positions
+        graph.removeNode(1);
+        state.requestPositions(ImmutableMap.of(3, new Point2D.Double(-50, -50)), false);
+        layout.iterate(graph, state, params);
+        pos = state.getPositionsCopy();
+        assertEquals(ImmutableSet.of(2, 3, 4), pos.keySet());
+        assertTrue(pos.get(3).distance(-50, -50) < 50);
+    }
+
+    @Test
+    public void testIterate_GraphEditedInPlace() {
+        MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+        graph.putEdge(1, 2);
+        graph.putEdge(2, 3);
+        SpringLayout layout = new SpringLayout();
+        SpringLayoutState<Integer> state = layout.createState();
+        SpringLayoutParameters params = layout.createParameters();
+        params.getConstraints().setPinnedNodes(Sets.newHashSet(1));
+        for (int i = 0; i < 5; i++) {
+            layout.iterate(graph, state, params);
+        }
+        assertEquals(ImmutableSet.of(1, 2, 3), state.getPositionsCopy().keySet());
+
+        // add a node, changing the node count
+        graph.addNode(5);
+        layout.iterate(graph, state, params);
+        assertEquals(ImmutableSet.of(1, 2, 3, 5), ImmutableSet.copyOf(state.nodes));
+        graph.removeNode(5);
+        layout.iterate(graph, state, params);
+
+        // swap a node, keeping node and edge counts the same
+        graph.removeNode(3);
+        graph.putEdge(2, 4);
+        state.invalidateGraph();
+        layout.iterate(graph, state, params);
+        assertEquals(ImmutableSet.of(1, 2, 4), state.getPositionsCopy().keySet());
+        assertEquals(ImmutableSet.of(1, 2, 4), ImmutableSet.copyOf(state.nodes));
+
+        // rewire an edge, keeping node and edge counts the same, which is not detected until invalidated
+        graph.removeEdge(2, 4);
+        graph.putEdge(1, 4);
+        int[] targets = state.nbrTargets;
+        layout.iterate(graph, state, params);
+        assertSame(targets, state.nbrTargets);
+        state.invalidateGraph();
+        layout.iterate(graph, state, params);
+        int i1 = state.nodes.indexOf(1);
+        int i4 = state.nodes.indexOf(4);
+        assertEquals(2, state.degrees[i1]);
+        assertTrue(Arrays.stream(state.nbrTargets, state.nbrOffsets[i4], state.nbrOffsets[i4 + 1]).anyMatch(t -> t == i1));
+
+        // edit the pinned set in place
+        Point2D.Double loc2 = state.getPositionsCopy().get(2);
+        params.getConstraints().getPinnedNodes().clear();
+        params.getConstraints().getPinnedNodes().add(2);
+        layout.iterate(graph, state, params);
+        assertTrue(state.pinned[state.nodes.indexOf(2)]);
+        assertEquals(loc2, state.getPositionsCopy().get(2));
+    }
+
+    @Test
+    public void testIterate_Parallel() {
+        Graph<Integer> graph = new EdgeLikelihoodGenerator(new Random(1234))
+                .apply(new EdgeLikelihoodParameters(false, 1000, .003f));
+        for (RepulsionMode mode : RepulsionMode.values()) {
+            Map<Integer, Point2D.Double> serial = runLayout(graph, mode, 1);
+            Map<Integer, Point2D.Double> parallel = runLayout(graph, mode, 4);
+            assertEquals(serial, parallel);
+        }
+    }
+
+    private static Map<Integer, Point2D.Double> runLayout(Graph<Integer> graph, RepulsionMode mode, int parallelism) {
+        SpringLayout layout = new SpringLayout();
+        SpringLayoutState<Integer> state = layout.createState();
+        SpringLayoutParameters params = layout.createParameters();
+        params.setRepulsionMode(mode);
+        params.setParallelism(parallelism);
+        Map<Integer, Point2D.Double> init = new HashMap<>();
+        graph.nodes().forEach(n -> init.put(n, new Point2D.Double(10 * (n % 30), 10 * (n / 30))));
+        state.requestPositions(init, false);
+        for (int i = 0; i < 20; i++) {
+            layout.iterate(graph, state, params);
+        }
+        return state.getPositionsCopy();
+    }
+
+}
@@ -22,11 +22,14 @@ package com.googlecode.blaisemath.graph.metrics;
 
 import com.google.common.graph.Graph;
 import com.googlecode.blaisemath.graph.GraphUtils;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator.EdgeLikelihoodParameters;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 
@@ -72,4 +75,22 @@ public class BetweenCentralityTest {
         assertEquals(0.0, values.get(7), 1e-6);
     }
 
+    @Test
+    public void testApply_Parallel() {
+        Map<Integer,Double> values = new BetweenCentrality(true).apply(TEST2);
+        assertEquals(1.5, values.get(2), 1e-6);
+        assertEquals(9.0, values.get(4), 1e-6);
+
+        for (boolean directed : new boolean[] { false, true }) {
+            Graph<Integer> random = new EdgeLikelihoodGenerator(new Random(12345))
+                    .apply(new EdgeLikelihoodParameters(directed, 200, .02f));
+            Map<Integer,Double> serial = INST1.apply(random);
+            Map<Integer,Double> parallel = new BetweenCentrality(true).apply(random);
+            assertEquals(serial.keySet(), parallel.keySet());
+            for (Integer n : serial.keySet()) {
+                assertEquals(serial.get(n), parallel.get(n), 1e-8);
+            }
+        }
+    }
+
 }
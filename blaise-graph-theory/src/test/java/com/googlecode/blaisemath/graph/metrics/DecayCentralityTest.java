@@ -20,11 +20,17 @@ package com.googlecode.blaisemath.graph.metrics;
  * #L%
  */
 
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.GraphUtils;
 import org.junit.Test;
 
+import java.util.Map;
+
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+@SuppressWarnings("UnstableApiUsage")
 public class DecayCentralityTest {
 
     @Test
@@ -48,4 +54,18 @@ public class DecayCentralityTest {
         }
     }
 
+    @Test
+    public void testApply() {
+        Graph<Integer> graph = GraphUtils.createFromArrayEdges(true, asList(1, 2, 3, 4, 5),
+                asList(new Integer[][] { {1,2}, {2,3}, {3,1}, {3,4} }));
+        DecayCentrality instance = new DecayCentrality(0.5);
+        assertEquals(1 + .5 + .25 + .125, instance.apply(graph, 1), 1E-12);
+        assertEquals(1.0, instance.apply(graph, 4), 1E-12);
+        Map<Integer, Double> all = instance.apply(graph);
+        assertEquals(5, all.size());
+        for (Integer n : graph.nodes()) {
+            assertEquals(instance.apply(graph, n), all.get(n), 1E-12);
+        }
+    }
+
 }
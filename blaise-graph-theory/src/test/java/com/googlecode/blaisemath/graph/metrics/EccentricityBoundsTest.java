@@ -0,0 +1,80 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import com.googlecode.blaisemath.graph.BreadthFirstSearch;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.googlecode.blaisemath.test.TestGraphs.randomGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+public class EccentricityBoundsTest {
+
+    /** Eccentricity of each node by a search from every node, giving { diameter, radius } */
+    private static int[] bruteForce(Graph<Integer> graph) {
+        BreadthFirstSearch<Integer> bfs = BreadthFirstSearch.create(graph, false);
+        int diameter = 0;
+        int radius = Integer.MAX_VALUE;
+        for (int i = 0; i < bfs.getGraph().nodeCount(); i++) {
+            bfs.search(i);
+            diameter = Math.max(diameter, bfs.maxDistance());
+            if (bfs.maxDistance() > 0) {
+                radius = Math.min(radius, bfs.maxDistance());
+            }
+        }
+        return new int[] { diameter, radius };
+    }
+
+    @Test
+    public void testDiameterAndRadius() {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 40; trial++) {
+            Graph<Integer> graph = randomGraph(random, false, 20 + random.nextInt(200), random.nextInt(300), 20);
+            int[] expected = bruteForce(graph);
+            assertEquals(expected[0], new GraphDiameter().apply(graph).intValue());
+            assertEquals(expected[1], new GraphRadius().apply(graph).intValue());
+            assertTrue(Math.abs(expected[0] - new GraphDiameter(true).apply(graph)) <= 1);
+            assertTrue(Math.abs(expected[1] - new GraphRadius(true).apply(graph)) <= 1);
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+        MutableGraph<Integer> graph = GraphBuilder.undirected().allowsSelfLoops(true).build();
+        assertEquals(0, new GraphDiameter().apply(graph).intValue());
+        graph.putEdge(1, 1);
+        graph.addNode(2);
+        assertEquals(0, new GraphDiameter().apply(graph).intValue());
+        assertEquals(Integer.MAX_VALUE, new GraphRadius().apply(graph).intValue());
+        graph.putEdge(3, 4);
+        graph.putEdge(4, 5);
+        assertEquals(2, new GraphDiameter().apply(graph).intValue());
+        assertEquals(1, new GraphRadius().apply(graph).intValue());
+    }
+
+}
@@ -22,13 +22,17 @@ package com.googlecode.blaisemath.graph.metrics;
 
 import com.google.common.graph.Graph;
 import com.googlecode.blaisemath.graph.GraphUtils;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator.EdgeLikelihoodParameters;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("UnstableApiUsage")
 public class EigenCentralityTest {
@@ -70,4 +74,30 @@ public class EigenCentralityTest {
             assertEquals(INST.apply(TEST2, i+1), values.get(i+1));
     }
 
+    @Test
+    public void testApply_Bipartite() {
+        // path 1-2-3: eigenvector is (1, sqrt(2), 1)/2
+        Graph<Integer> path = GraphUtils.createFromArrayEdges(false, Arrays.asList(1,2,3),
+                Arrays.asList(new Integer[]{1,2}, new Integer[]{2,3}));
+        Map<Integer,Double> values = INST.apply(path);
+        assertEquals(.5, values.get(1), 1e-8);
+        assertEquals(Math.sqrt(.5), values.get(2), 1e-8);
+        assertEquals(.5, values.get(3), 1e-8);
+    }
+
+    @Test
+    public void testApplyFrom() {
+        Graph<Integer> random = new EdgeLikelihoodGenerator(new Random(12345))
+                .apply(new EdgeLikelihoodParameters(false, 2000, .005f));
+        Map<Integer,Double> values = INST.apply(random);
+        Map<Integer,Double> warm = INST.applyFrom(random, values);
+        double sumSq = 0;
+        for (Integer n : values.keySet()) {
+            assertTrue(values.get(n) >= 0);
+            assertEquals(values.get(n), warm.get(n), 1e-8);
+            sumSq += values.get(n) * values.get(n);
+        }
+        assertEquals(1.0, sumSq, 1e-8);
+    }
+
 }
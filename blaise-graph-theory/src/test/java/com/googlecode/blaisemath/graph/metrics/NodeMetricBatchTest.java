@@ -0,0 +1,67 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.GraphNodeMetric;
+import com.googlecode.blaisemath.graph.GraphServices;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.googlecode.blaisemath.test.TestGraphs.randomGraph;
+import static org.junit.Assert.assertEquals;
+
+@SuppressWarnings("UnstableApiUsage")
+public class NodeMetricBatchTest {
+
+    @Test
+    public void testApply() {
+        Random random = new Random(3);
+        for (boolean directed : new boolean[] { false, true }) {
+            Graph<Integer> graph = randomGraph(random, directed, 60, 70, 5);
+            List<GraphNodeMetric<?>> metrics = Arrays.asList(new Degree(), new BetweenCentrality(),
+                    new ClosenessCentrality(), new GraphCentrality(), new DecayCentrality(0.3));
+            Map<GraphNodeMetric<?>, Map<Integer, ?>> res = NodeMetricBatch.apply(graph, metrics);
+            assertEquals(metrics, Arrays.asList(res.keySet().toArray()));
+            for (GraphNodeMetric<?> m : metrics) {
+                Map<Integer, ?> expected = m.apply(graph);
+                Map<Integer, ?> found = res.get(m);
+                assertEquals(expected.keySet(), found.keySet());
+                for (Integer n : graph.nodes()) {
+                    assertEquals(m + " at " + n, ((Number) expected.get(n)).doubleValue(), ((Number) found.get(n)).doubleValue(), 1e-10);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testProfile() {
+        Graph<Integer> graph = randomGraph(new Random(4), false, 20, 40, 5);
+        Map<GraphNodeMetric<?>, Map<Integer, ?>> res = NodeMetricBatch.profile(graph);
+        assertEquals(GraphServices.nodeMetrics().size(), res.size());
+        res.values().forEach(v -> assertEquals(graph.nodes(), v.keySet()));
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator.EdgeLikelihoodParameters;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static com.googlecode.blaisemath.test.AssertUtils.assertIllegalArgumentException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+public class SampledBetweenCentralityTest {
+
+    private static Graph<Integer> RANDOM;
+
+    @BeforeClass
+    public static void setUpClass() {
+        RANDOM = new EdgeLikelihoodGenerator(new Random(12345))
+                .apply(new EdgeLikelihoodParameters(false, 300, .02f));
+    }
+
+    @Test
+    public void testEstimate_AllPivots() {
+        Map<Integer, Double> exact = new BetweenCentrality().apply(RANDOM);
+        SampledEstimate<Integer> est = new SampledBetweenCentrality(300, PivotSelection.UNIFORM, new Random(1)).estimate(RANDOM);
+        assertEquals(300, est.pivotCount());
+        assertEquals(0.0, est.maxStandardError(), 0.0);
+        for (Integer n : exact.keySet()) {
+            assertEquals(exact.get(n), est.values().get(n), 1e-8);
+        }
+    }
+
+    @Test
+    public void testEstimate_Sampled() {
+        Map<Integer, Double> exact = new BetweenCentrality().apply(RANDOM);
+        for (PivotSelection sel : PivotSelection.values()) {
+            SampledEstimate<Integer> est = new SampledBetweenCentrality(100, sel, new Random(2)).estimate(RANDOM);
+            assertEquals(100, est.pivotCount());
+            int covered = 0;
+            double error = 0;
+            double total = 0;
+            for (Integer n : exact.keySet()) {
+                double se = est.standardErrors().get(n);
+                assertTrue(se >= 0);
+                double diff = Math.abs(exact.get(n) - est.values().get(n));
+                if (diff <= 2 * se + 1e-8) {
+                    covered++;
+                }
+                error += diff;
+                total += exact.get(n);
+            }
+            // individual estimates are skewed, so coverage of the error bounds is approximate
+            assertTrue(sel + ": " + covered, covered > 200);
+            assertTrue(sel + ": " + error / total, error / total < .4);
+        }
+    }
+
+    @Test
+    public void testPivotCount() {
+        assertIllegalArgumentException(() -> new SampledBetweenCentrality().setPivotCount(0));
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator;
+import com.googlecode.blaisemath.graph.generate.EdgeLikelihoodGenerator.EdgeLikelihoodParameters;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+public class SampledClosenessCentralityTest {
+
+    private static Graph<Integer> RANDOM;
+
+    @BeforeClass
+    public static void setUpClass() {
+        RANDOM = new EdgeLikelihoodGenerator(new Random(12345))
+                .apply(new EdgeLikelihoodParameters(false, 300, .01f));
+    }
+
+    @Test
+    public void testEstimate_AllPivots() {
+        Map<Integer, Double> exact = new ClosenessCentrality().apply(RANDOM);
+        SampledEstimate<Integer> est = new SampledClosenessCentrality(300, PivotSelection.UNIFORM, new Random(1)).estimate(RANDOM);
+        assertEquals(0.0, est.maxStandardError(), 0.0);
+        for (Integer n : exact.keySet()) {
+            assertEquals(exact.get(n), est.values().get(n), 1e-8);
+        }
+    }
+
+    @Test
+    public void testEstimate_Sampled() {
+        Map<Integer, Double> exact = new ClosenessCentrality().apply(RANDOM);
+        SampledEstimate<Integer> est = new SampledClosenessCentrality(60, PivotSelection.UNIFORM, new Random(2)).estimate(RANDOM);
+        for (Integer n : exact.keySet()) {
+            assertEquals(exact.get(n), est.values().get(n), 5 * est.standardErrors().get(n) + 0.05);
+        }
+    }
+
+}
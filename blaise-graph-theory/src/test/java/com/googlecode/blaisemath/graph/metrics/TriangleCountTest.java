@@ -0,0 +1,103 @@
+package com.googlecode.blaisemath.graph.metrics;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.googlecode.blaisemath.graph.GraphUtils;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static com.googlecode.blaisemath.test.AssertUtils.assertIllegalArgumentException;
+import static com.googlecode.blaisemath.test.TestGraphs.randomGraph;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+public class TriangleCountTest {
+
+    /** Count triangles by checking all triples of nodes */
+    private static long bruteForceTriangles(Graph<Integer> graph) {
+        int n = graph.nodes().size();
+        long res = 0;
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                for (int c = b + 1; c < n; c++) {
+                    if (graph.adjacentNodes(a).contains(b) && graph.adjacentNodes(b).contains(c) && graph.adjacentNodes(a).contains(c)) {
+                        res++;
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    @Test
+    public void testApply() {
+        // two triangles sharing the edge 2-3, with a pendant node and a self-loop
+        Graph<Integer> graph = GraphUtils.createFromArrayEdges(false, asList(1, 2, 3, 4, 5),
+                asList(new Integer[][] { {1,2}, {1,3}, {2,3}, {2,4}, {3,4}, {4,5}, {5,5} }));
+        TriangleCount.Result<Integer> res = new TriangleCount().apply(graph);
+        assertEquals(2, res.triangleCount());
+        assertEquals(1, res.count(1));
+        assertEquals(2, res.count(2));
+        assertEquals(2, res.count(3));
+        assertEquals(1, res.count(4));
+        assertEquals(0, res.count(5));
+        // triples: 1 + 3 + 3 + 3 + 0
+        assertEquals(10, res.tripleCount());
+        assertEquals(0.6, res.globalClusteringCoefficient(), 1e-10);
+        assertIllegalArgumentException(() -> res.count(0));
+    }
+
+    @Test
+    public void testApplyDirected() {
+        Graph<Integer> graph = GraphUtils.createFromArrayEdges(true, asList(1, 2, 3, 4),
+                asList(new Integer[][] { {1,2}, {2,3}, {3,2}, {3,1}, {3,4} }));
+        TriangleCount.Result<Integer> res = new TriangleCount().apply(graph);
+        assertEquals(1, res.triangleCount());
+        assertEquals(2, res.count(1));
+        assertEquals(1, res.count(2));
+        assertEquals(1, res.count(3));
+        assertEquals(0, res.count(4));
+    }
+
+    @Test
+    public void testApplyRandom() {
+        Random random = new Random(7);
+        for (boolean directed : new boolean[] { false, true }) {
+            Graph<Integer> graph = randomGraph(random, directed, 80, 400, 5);
+            TriangleCount.Result<Integer> res = new TriangleCount().apply(graph);
+            assertEquals(bruteForceTriangles(graph), res.triangleCount());
+            Map<Integer, Integer> parallel = new TriangleCount(true).apply(graph).counts();
+            assertEquals(res.counts(), parallel);
+            CliqueCount clique = new CliqueCount();
+            for (Integer n : graph.nodes()) {
+                assertEquals((int) clique.apply(graph, n), res.count(n));
+            }
+            assertEquals(res.counts(), clique.apply(graph));
+            assertTrue(res.globalClusteringCoefficient() > 0);
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.googlecode.blaisemath.test;
+
+/*
+ * #%L
+ * BlaiseGraphTheory
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+
+import java.util.Random;
+
+@SuppressWarnings("UnstableApiUsage")
+public class TestGraphs {
+
+    /**
+     * Random graph on nodes 0 to n-1, with each edge joining a node to one of the nodes at most {@code span} below it.
+     * Edges are clustered, some are self-loops, and sparse graphs have several components, including trees and isolates.
+     */
+    public static Graph<Integer> randomGraph(Random random, boolean directed, int n, int edges, int span) {
+        MutableGraph<Integer> res = (directed ? GraphBuilder.directed() : GraphBuilder.undirected()).allowsSelfLoops(true).build();
+        for (int i = 0; i < n; i++) {
+            res.addNode(i);
+        }
+        for (int i = 0; i < edges; i++) {
+            int a = random.nextInt(n);
+            res.putEdge(a, Math.max(0, a - 1 - random.nextInt(span)));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,48 @@
+package com.googlecode.blaisemath.graphics;
+
+/*
+ * #%L
+ * BlaiseGraphics
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.googlecode.blaisemath.style.AttributeSet;
+
+import java.awt.geom.Point2D;
+
+/**
+ * Renderer for points that can also draw many points with a common style in a single call, e.g. by creating the
+ * point's shape once. Drawing points with {@link #renderAll} must give the same result as calling {@link #render}
+ * for each point, so implementations that change how individual points are drawn must also override
+ * {@link #renderAll}.
+ *
+ * @param <G> the type of object used for rendering
+ * @author Elisha Peterson
+ */
+public interface BulkPointRenderer<G> extends Renderer<Point2D, G> {
+
+    /**
+     * Render points with a common style and no orientation at many locations.
+     * @param xy point coordinates, as consecutive x and y values
+     * @param indices indices of the points to render
+     * @param count number of indices to use
+     * @param style style for all points
+     * @param canvas canvas to render to
+     */
+    void renderAll(double[] xy, int[] indices, int count, AttributeSet style, G canvas);
+
+}
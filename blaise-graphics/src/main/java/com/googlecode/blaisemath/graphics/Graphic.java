@@ -267,18 +267,7 @@ public abstract class Graphic<G> {
         if (renderStyle == null) {
             renderStyle = new AttributeSet();
         }
-        Set<String> renderHints = getStyleHints();
-
-        if (parent != null) {
-            AttributeSet parStyle = parent.getStyle();
-            if (parStyle != null && parStyle != renderStyle.getParent().orElse(null)) {
-                renderStyle = renderStyle.flatCopy().immutableWithParent(parStyle);
-            }
-            Set<String> parStyleHints = parent.getStyleHints();
-            Set<String> useHints = parStyleHints == null ? renderHints : Sets.union(renderHints, parStyleHints);
-            renderStyle = parent.getStyleContext().applyModifiers(renderStyle, useHints);
-        }
-        return renderStyle;
+        return parent == null ? renderStyle : parent.childRenderStyle(renderStyle, getStyleHints());
     }
 
     /**
@@ -359,6 +348,7 @@ public abstract class Graphic<G> {
     /** Notify interested listeners of a change. */
     protected void fireGraphicChanged() {
         if (parent != null) {
+            parent.childChanged(this);
             parent.graphicChanged(this);
         }
     }
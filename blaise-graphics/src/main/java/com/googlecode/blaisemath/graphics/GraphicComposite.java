@@ -22,6 +22,7 @@ package com.googlecode.blaisemath.graphics;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import static com.googlecode.blaisemath.graphics.PrimitiveGraphic.P_STYLE;
@@ -30,6 +31,7 @@ import com.googlecode.blaisemath.style.StyleContext;
 import com.googlecode.blaisemath.style.StyleHints;
 import org.jspecify.annotations.Nullable;
 
+import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -51,6 +53,9 @@ public class GraphicComposite<G> extends Graphic<G> {
     public static final String P_BOUNDING_BOX_VISIBLE = "boundingBoxVisible";
     public static final String P_BOUNDING_BOX_STYLE = "boundingBoxStyle";
 
+    /** Padding of the visible region used for culling, in device pixels */
+    private static final double VISIBLE_REGION_PAD = 2.0;
+
     public PrimitiveGraphic<Shape, G> getBoundingBoxGraphic() {
         return boundingBoxGraphic;
     }
@@ -64,6 +69,8 @@ public class GraphicComposite<G> extends Graphic<G> {
     
     /** Delegate graphic used for drawing the bounding box */
     private final PrimitiveGraphic<Shape,G> boundingBoxGraphic = new PrimitiveGraphic<>();
+    /** Spatial index of entries, used for point and box queries on large composites */
+    private final GraphicSpatialIndex<G> index = new GraphicSpatialIndex<>();
     
     /** Constructs with default settings */
     public GraphicComposite() {
@@ -111,6 +118,7 @@ public class GraphicComposite<G> extends Graphic<G> {
     public void setStyleContext(@Nullable StyleContext styleContext) {
         if (this.styleContext != styleContext) {
             this.styleContext = styleContext;
+            invalidateIndex();
             fireGraphicChanged(); 
         } 
     }
@@ -124,6 +132,7 @@ public class GraphicComposite<G> extends Graphic<G> {
         if (this.style != sty) {
             Object old = this.style;
             this.style = sty;
+            invalidateIndex();
             fireGraphicChanged();
             pcs.firePropertyChange(P_STYLE, old, style);
         }
@@ -257,6 +266,7 @@ public class GraphicComposite<G> extends Graphic<G> {
         boolean change = !entries.isEmpty();
         entries.stream().filter(en -> en.getParent() == this).forEach(en -> en.setParent(null));
         entries.clear();
+        index.clear();
         if (change) {
             fireGraphicChanged();
             return true;
@@ -272,6 +282,7 @@ public class GraphicComposite<G> extends Graphic<G> {
                 par.removeGraphic(en);
             }
             en.setParent(this);
+            index.added(en);
             return true;
         }
         return false;
@@ -283,6 +294,7 @@ public class GraphicComposite<G> extends Graphic<G> {
             if (en.getParent() == this) {
                 en.setParent(null);
             }
+            index.removed(en);
             return true;
         }
         return false;
@@ -304,13 +316,16 @@ public class GraphicComposite<G> extends Graphic<G> {
 
     @Override
     public boolean intersects(Rectangle2D box, @Nullable G canvas) {
-        return entries.stream().anyMatch(en -> en.intersects(box, canvas));
+        return Iterables.any(entriesInReverseIn(box, canvas), en -> en.intersects(box, canvas));
     }
     
     @Override
     public void renderTo(G canvas) {
-        entries.stream().filter(en -> !StyleHints.isInvisible(en.getStyleHints()))
-                .forEach(en -> en.renderTo(canvas));
+        for (Graphic<G> en : entriesToRender(canvas)) {
+            if (!StyleHints.isInvisible(en.getStyleHints())) {
+                en.renderTo(canvas);
+            }
+        }
         if (!GraphicUtils.isInvisible(boundingBoxGraphic)) {
             AttributeSet baseStyle = boundingBoxGraphic.getStyle();
             AttributeSet modStyle = getStyleContext().applyModifiers(baseStyle, styleHints);
@@ -321,6 +336,60 @@ public class GraphicComposite<G> extends Graphic<G> {
         }
     }
     
+    /**
+     * Compute the style used to render a child graphic, inheriting attributes of this composite's style and
+     * applying style modifiers for the child's hints and this composite's hints.
+     * @param style the child's style
+     * @param hints the child's style hints
+     * @return render style
+     */
+    protected AttributeSet childRenderStyle(AttributeSet style, Set<String> hints) {
+        AttributeSet res = style;
+        AttributeSet parStyle = getStyle();
+        if (parStyle != null && parStyle != res.getParent().orElse(null)) {
+            res = res.flatCopy().immutableWithParent(parStyle);
+        }
+        Set<String> parStyleHints = getStyleHints();
+        Set<String> useHints = parStyleHints == null ? hints : Sets.union(hints, parStyleHints);
+        return getStyleContext().applyModifiers(res, useHints);
+    }
+
+    /**
+     * Entries to render, in draw order. Large composites skip entries whose bounding boxes lie outside
+     * the visible region of the canvas.
+     * @param canvas canvas
+     * @return iterable
+     */
+    private Iterable<Graphic<G>> entriesToRender(G canvas) {
+        Rectangle2D visible = entries.size() < GraphicSpatialIndex.MIN_INDEXED_SIZE ? null : visibleRegion(canvas);
+        return visible == null ? entries : Lists.reverse(index.graphicsIn(entries, visible, null));
+    }
+
+    /**
+     * Get the region of the canvas that will be painted, in local coordinates, used to skip rendering
+     * graphics outside of the region. For {@link Graphics2D} canvases, this is the bounds of the clip,
+     * which the canvas reports in local coordinates by applying the inverse of its transform, padded by
+     * a few device pixels to allow for antialiasing and differences in text metrics. Bounding boxes used
+     * for the comparison are computed without a canvas.
+     * @param canvas canvas
+     * @return visible region, or null if the whole composite should be rendered
+     */
+    protected @Nullable Rectangle2D visibleRegion(G canvas) {
+        if (!(canvas instanceof Graphics2D)) {
+            return null;
+        }
+        Graphics2D gr = (Graphics2D) canvas;
+        Shape clip = gr.getClip();
+        if (clip == null) {
+            return null;
+        }
+        Rectangle2D bounds = clip.getBounds2D();
+        double scale = Math.sqrt(Math.abs(gr.getTransform().getDeterminant()));
+        double pad = scale == 0 ? 0 : VISIBLE_REGION_PAD / scale;
+        return new Rectangle2D.Double(bounds.getX() - pad, bounds.getY() - pad,
+                bounds.getWidth() + 2 * pad, bounds.getHeight() + 2 * pad);
+    }
+
     //endregion
 
     //region QUERIES
@@ -356,6 +425,38 @@ public class GraphicComposite<G> extends Graphic<G> {
     public Iterable<Graphic<G>> functionalEntriesInReverse() {
         return Lists.reverse(Lists.newArrayList(functionalEntries()));
     }
+
+    /**
+     * Entries whose bounding boxes may contain the given point, in reverse order. Uses the spatial index
+     * for large composites, so callers must still check whether each entry actually contains the point.
+     * Used by all point queries, so subclasses may override to supply graphics that are not held as entries.
+     * @param point the point
+     * @param canvas canvas
+     * @return iterable
+     */
+    protected Iterable<Graphic<G>> entriesInReverseAt(Point2D point, @Nullable G canvas) {
+        if (entries.size() < GraphicSpatialIndex.MIN_INDEXED_SIZE) {
+            index.clear();
+            return Lists.reverse(Lists.newArrayList(entries));
+        }
+        return index.graphicsAt(entries, point, canvas);
+    }
+
+    /**
+     * Entries whose bounding boxes may intersect the given box, in reverse order. Uses the spatial index
+     * for large composites, so callers must still check whether each entry actually intersects the box.
+     * Used by all box queries, so subclasses may override to supply graphics that are not held as entries.
+     * @param box the box
+     * @param canvas canvas
+     * @return iterable
+     */
+    protected Iterable<Graphic<G>> entriesInReverseIn(Rectangle2D box, @Nullable G canvas) {
+        if (entries.size() < GraphicSpatialIndex.MIN_INDEXED_SIZE) {
+            index.clear();
+            return Lists.reverse(Lists.newArrayList(entries));
+        }
+        return index.graphicsIn(entries, box, canvas);
+    }
     
     /** 
      * Return the topmost graphic at specified point, or null if there is none.
@@ -364,7 +465,7 @@ public class GraphicComposite<G> extends Graphic<G> {
      * @return topmost graphic within the composite, or null if there is none
      */
     public Graphic<G> graphicAt(Point2D point, G canvas) {
-        for (Graphic<G> en : visibleEntriesInReverse()) {
+        for (Graphic<G> en : Iterables.filter(entriesInReverseAt(point, canvas), GraphicUtils::isVisible)) {
             if (en instanceof GraphicComposite) {
                 Graphic<G> s = ((GraphicComposite<G>)en).graphicAt(point, canvas);
                 if (s != null) {
@@ -382,7 +483,7 @@ public class GraphicComposite<G> extends Graphic<G> {
 
     @Override
     public String getTooltip(Point2D p, G canvas) {
-        for (Graphic<G> en : visibleEntriesInReverse()) {
+        for (Graphic<G> en : Iterables.filter(entriesInReverseAt(p, canvas), GraphicUtils::isVisible)) {
             if (en.isTooltipEnabled() && en.contains(p, canvas)) {
                 String l = en.getTooltip(p, canvas);
                 if (l != null) {
@@ -401,7 +502,7 @@ public class GraphicComposite<G> extends Graphic<G> {
      */
     public Graphic<G> mouseGraphicAt(Point2D point, G canvas) {
         // return the first graphic containing the point, in draw order
-        for (Graphic<G> en : functionalEntriesInReverse()) {
+        for (Graphic<G> en : Iterables.filter(entriesInReverseAt(point, canvas), GraphicUtils::isFunctional)) {
             if (en.isMouseDisabled()) {
                 // do nothing
             } else if (en instanceof GraphicComposite) {
@@ -427,7 +528,7 @@ public class GraphicComposite<G> extends Graphic<G> {
      * @return graphic at point that can be selected
      */
     public Graphic<G> selectableGraphicAt(Point2D point, G canvas) {
-        for (Graphic<G> en : visibleEntriesInReverse()) {
+        for (Graphic<G> en : Iterables.filter(entriesInReverseAt(point, canvas), GraphicUtils::isVisible)) {
             if (en instanceof GraphicComposite) {
                 Graphic<G> s = ((GraphicComposite<G>)en).selectableGraphicAt(point, canvas);
                 if (s != null) {
@@ -448,7 +549,7 @@ public class GraphicComposite<G> extends Graphic<G> {
      */
     public Set<Graphic<G>> selectableGraphicsIn(Rectangle2D box, G canvas) {
         Set<Graphic<G>> result = new HashSet<>();
-        for (Graphic<G> g : visibleEntries()) {
+        for (Graphic<G> g : Iterables.filter(entriesInReverseIn(box, canvas), GraphicUtils::isVisible)) {
             if (g instanceof GraphicComposite) {
                 result.addAll(((GraphicComposite<G>)g).selectableGraphicsIn(box, canvas));
             }
@@ -462,7 +563,7 @@ public class GraphicComposite<G> extends Graphic<G> {
 
     @Override
     public void initContextMenu(JPopupMenu menu, Graphic<G> src, Point2D point, Object focus, Set<Graphic<G>> selection, G canvas) {
-        for (Graphic<G> en : visibleEntriesInReverse()) {
+        for (Graphic<G> en : Iterables.filter(entriesInReverseAt(point, canvas), GraphicUtils::isVisible)) {
             if ((en instanceof GraphicComposite || en.isContextMenuEnabled()) && en.contains(point, canvas)) {
                 en.initContextMenu(menu, en, point, focus, selection, canvas);
             }
@@ -482,11 +583,34 @@ public class GraphicComposite<G> extends Graphic<G> {
      * @param source the entry changed
      */
     public void graphicChanged(Graphic<G> source) {
+        Graphic<G> child = source;
+        while (child != null && child.getParent() != this) {
+            child = child.getParent();
+        }
+        if (child != null) {
+            index.changed(child);
+        }
         if (parent != null) {
             parent.graphicChanged(source);
         }
     }
 
+    /**
+     * Called by a direct child whenever it changes, before {@link #graphicChanged(Graphic)}. Keeps the
+     * spatial index current even if a subclass does not propagate the change.
+     * @param child the entry changed
+     */
+    void childChanged(Graphic<G> child) {
+        index.changed(child);
+    }
+
+    /** Discards spatial indices of this composite and its descendants, e.g. after inherited styles change. */
+    private void invalidateIndex() {
+        index.clear();
+        entries.stream().filter(GraphicComposite.class::isInstance)
+                .forEach(en -> ((GraphicComposite<G>) en).invalidateIndex());
+    }
+
     //endregion
     
 }
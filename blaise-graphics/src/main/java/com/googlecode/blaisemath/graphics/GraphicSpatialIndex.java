@@ -0,0 +1,333 @@
+package com.googlecode.blaisemath.graphics;
+
+/*
+ * #%L
+ * BlaiseGraphics
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.jspecify.annotations.Nullable;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index over the children of a {@link GraphicComposite}, used to find the graphics whose bounding boxes
+ * contain a point or intersect a rectangle without scanning every child. The index is a static R-tree packed with
+ * the sort-tile-recursive algorithm, plus a short list of "pending" children that have been added or changed since
+ * the tree was packed. Pending children are checked directly, and the tree is repacked once that list grows too long,
+ * so bursts of changes (e.g. an animated layout) cost one rebuild rather than one tree update per change.
+ * <p>
+ * Query results are candidates only: each child is returned if its bounding box might contain the point or intersect
+ * the rectangle, and callers still apply the child's own {@code contains} or {@code intersects} test. Results are
+ * returned topmost-first, i.e. in reverse draw order. The index assumes that a graphic's {@code contains} and
+ * {@code intersects} tests never succeed outside its {@code boundingBox}, and that bounding boxes only change when
+ * the graphic fires a change event.
+ *
+ * @param <G> type of graphics canvas to render to
+ *
+ * @author Elisha Peterson
+ */
+final class GraphicSpatialIndex<G> {
+
+    /** Composites with fewer children than this are scanned directly. */
+    static final int MIN_INDEXED_SIZE = 64;
+    /** Maximum number of children per tree node. */
+    private static final int NODE_CAPACITY = 16;
+
+    private static final Comparator<Box> X_ORDER = Comparator.comparingDouble(b -> b.minX + b.maxX);
+    private static final Comparator<Box> Y_ORDER = Comparator.comparingDouble(b -> b.minY + b.maxY);
+
+    /** Entries by graphic, empty if the index has not been built. */
+    private final Map<Graphic<G>, Entry<G>> entries = new HashMap<>();
+    /** Entries added or changed since the tree was packed. */
+    private final List<Entry<G>> pending = new ArrayList<>();
+    /** Entries without a bounding box when the tree was packed. */
+    private final List<Entry<G>> unbounded = new ArrayList<>();
+    /** Root of the packed tree, null if there are no bounded entries. */
+    private @Nullable Node root;
+
+    /** Whether the index reflects the current children. */
+    private boolean built = false;
+    /** Canvas used to compute bounding boxes. */
+    private @Nullable G canvas;
+    /** Draw order position to assign to the next added entry. */
+    private int nextOrder;
+    /** Number of pending entries that triggers a rebuild. */
+    private int rebuildLimit;
+
+    //region UPDATES
+
+    /**
+     * Record a graphic added to the end of the draw order.
+     * @param gfc the graphic
+     */
+    void added(Graphic<G> gfc) {
+        if (built) {
+            Entry<G> e = new Entry<>(gfc, nextOrder++);
+            entries.put(gfc, e);
+            markPending(e);
+        }
+    }
+
+    /**
+     * Record a removed graphic.
+     * @param gfc the graphic
+     */
+    void removed(Graphic<G> gfc) {
+        if (built) {
+            Entry<G> e = entries.remove(gfc);
+            if (e != null) {
+                e.removed = true;
+            }
+        }
+    }
+
+    /**
+     * Record a graphic whose bounding box may have changed.
+     * @param gfc the graphic
+     */
+    void changed(Graphic<G> gfc) {
+        if (built) {
+            Entry<G> e = entries.get(gfc);
+            if (e != null) {
+                e.stale = true;
+                markPending(e);
+            }
+        }
+    }
+
+    /** Discard the index, so it is rebuilt on the next query. */
+    void clear() {
+        built = false;
+        entries.clear();
+        pending.clear();
+        unbounded.clear();
+        root = null;
+        canvas = null;
+        nextOrder = 0;
+    }
+
+    private void markPending(Entry<G> e) {
+        if (!e.pending) {
+            e.pending = true;
+            pending.add(e);
+        }
+    }
+
+    //endregion
+
+    //region QUERIES
+
+    /**
+     * Get graphics whose bounding boxes may contain the given point, in reverse draw order.
+     * @param graphics the indexed graphics, in draw order
+     * @param point the point
+     * @param canvas canvas used to compute bounding boxes
+     * @return candidate graphics
+     */
+    List<Graphic<G>> graphicsAt(Collection<Graphic<G>> graphics, Point2D point, @Nullable G canvas) {
+        return query(graphics, point.getX(), point.getY(), point.getX(), point.getY(), canvas);
+    }
+
+    /**
+     * Get graphics whose bounding boxes may intersect the given box, in reverse draw order.
+     * @param graphics the indexed graphics, in draw order
+     * @param box the box
+     * @param canvas canvas used to compute bounding boxes
+     * @return candidate graphics
+     */
+    List<Graphic<G>> graphicsIn(Collection<Graphic<G>> graphics, Rectangle2D box, @Nullable G canvas) {
+        return query(graphics, box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY(), canvas);
+    }
+
+    private List<Graphic<G>> query(Collection<Graphic<G>> graphics, double x0, double y0, double x1, double y1, @Nullable G canvas) {
+        refresh(graphics, canvas);
+        List<Entry<G>> found = new ArrayList<>();
+        if (root != null) {
+            search(root, x0, y0, x1, y1, found);
+        }
+        for (Entry<G> e : unbounded) {
+            if (!e.removed && !e.pending) {
+                found.add(e);
+            }
+        }
+        for (Entry<G> e : pending) {
+            if (!e.removed && (e.box == null || e.intersects(x0, y0, x1, y1))) {
+                found.add(e);
+            }
+        }
+        found.sort((a, b) -> Integer.compare(b.order, a.order));
+        List<Graphic<G>> res = new ArrayList<>(found.size());
+        found.forEach(e -> res.add(e.graphic));
+        return res;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void search(Node node, double x0, double y0, double x1, double y1, List<Entry<G>> found) {
+        for (Box b : node.children) {
+            if (b.intersects(x0, y0, x1, y1)) {
+                if (node.leaf) {
+                    Entry<G> e = (Entry<G>) b;
+                    if (!e.removed && !e.pending) {
+                        found.add(e);
+                    }
+                } else {
+                    search((Node) b, x0, y0, x1, y1, found);
+                }
+            }
+        }
+    }
+
+    //endregion
+
+    //region BUILD
+
+    /** Bring the index up to date, either by updating pending bounding boxes or by repacking the tree. */
+    private void refresh(Collection<Graphic<G>> graphics, @Nullable G canvas) {
+        if (!built || canvas != this.canvas || pending.size() > rebuildLimit) {
+            rebuild(graphics, canvas);
+        } else {
+            for (Entry<G> e : pending) {
+                if (e.stale && !e.removed) {
+                    e.setBox(e.graphic.boundingBox(canvas));
+                }
+            }
+        }
+    }
+
+    private void rebuild(Collection<Graphic<G>> graphics, @Nullable G canvas) {
+        clear();
+        List<Box> bounded = new ArrayList<>(graphics.size());
+        for (Graphic<G> gfc : graphics) {
+            Entry<G> e = new Entry<>(gfc, nextOrder++);
+            entries.put(gfc, e);
+            if (e.setBox(gfc.boundingBox(canvas))) {
+                bounded.add(e);
+            } else {
+                unbounded.add(e);
+            }
+        }
+        root = bounded.isEmpty() ? null : pack(bounded);
+        rebuildLimit = 32 + graphics.size() / 8;
+        this.canvas = canvas;
+        built = true;
+    }
+
+    /** Pack boxes into a tree, one level at a time, returning the root. */
+    private static Node pack(List<Box> boxes) {
+        List<Box> level = boxes;
+        boolean leaf = true;
+        do {
+            level = packLevel(level, leaf);
+            leaf = false;
+        } while (level.size() > 1);
+        return (Node) level.get(0);
+    }
+
+    /** Sort boxes into vertical slices by x, then group each slice into nodes by y. */
+    private static List<Box> packLevel(List<Box> boxes, boolean leaf) {
+        int n = boxes.size();
+        int nodeCount = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceSize = (int) Math.ceil(Math.sqrt(nodeCount)) * NODE_CAPACITY;
+        boxes.sort(X_ORDER);
+        List<Box> res = new ArrayList<>(nodeCount);
+        for (int s = 0; s < n; s += sliceSize) {
+            List<Box> slice = boxes.subList(s, Math.min(n, s + sliceSize));
+            slice.sort(Y_ORDER);
+            for (int i = 0; i < slice.size(); i += NODE_CAPACITY) {
+                res.add(new Node(slice.subList(i, Math.min(slice.size(), i + NODE_CAPACITY)).toArray(new Box[0]), leaf));
+            }
+        }
+        return res;
+    }
+
+    //endregion
+
+    //region INNER CLASSES
+
+    /** Axis-aligned bounds, treated as closed. */
+    private abstract static class Box {
+        double minX;
+        double minY;
+        double maxX;
+        double maxY;
+
+        boolean intersects(double x0, double y0, double x1, double y1) {
+            return minX <= x1 && x0 <= maxX && minY <= y1 && y0 <= maxY;
+        }
+    }
+
+    /** Tree node, whose children are entries if it is a leaf. */
+    private static final class Node extends Box {
+        private final Box[] children;
+        private final boolean leaf;
+
+        private Node(Box[] children, boolean leaf) {
+            this.children = children;
+            this.leaf = leaf;
+            minX = minY = Double.POSITIVE_INFINITY;
+            maxX = maxY = Double.NEGATIVE_INFINITY;
+            for (Box b : children) {
+                minX = Math.min(minX, b.minX);
+                minY = Math.min(minY, b.minY);
+                maxX = Math.max(maxX, b.maxX);
+                maxY = Math.max(maxY, b.maxY);
+            }
+        }
+    }
+
+    /** A graphic with its draw order position and cached bounding box. */
+    private static final class Entry<G> extends Box {
+        private final Graphic<G> graphic;
+        private final int order;
+        private @Nullable Rectangle2D box;
+        /** Whether the entry is checked directly rather than through the tree. */
+        private boolean pending;
+        /** Whether the cached bounding box needs to be recomputed. */
+        private boolean stale = true;
+        private boolean removed;
+
+        private Entry(Graphic<G> graphic, int order) {
+            this.graphic = graphic;
+            this.order = order;
+        }
+
+        /** Update the cached box, returning false if it is null. */
+        private boolean setBox(@Nullable Rectangle2D box) {
+            this.box = box;
+            stale = false;
+            if (box == null) {
+                return false;
+            }
+            minX = box.getMinX();
+            minY = box.getMinY();
+            maxX = box.getMaxX();
+            maxY = box.getMaxY();
+            return true;
+        }
+    }
+
+    //endregion
+
+}
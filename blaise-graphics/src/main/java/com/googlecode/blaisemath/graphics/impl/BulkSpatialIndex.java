@@ -0,0 +1,188 @@
+package com.googlecode.blaisemath.graphics.impl;
+
+/*
+ * #%L
+ * BlaiseGraphics
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Packed R-tree over the bounding boxes of primitives in a bulk layer, used to answer mouse queries without testing
+ * every primitive. Each primitive is given by a fixed number of consecutive points in a coordinate array, e.g. one
+ * point for a point layer or two endpoints for an edge layer. Primitives are packed with the same sort-tile-recursive
+ * scheme as the spatial index of {@link com.googlecode.blaisemath.graphics.GraphicComposite}, but are keyed by their
+ * index in the coordinate array rather than by graphic. The index is immutable, so it must be rebuilt whenever the
+ * coordinates change.
+ *
+ * @author Elisha Peterson
+ */
+final class BulkSpatialIndex {
+
+    /** Maximum number of children per node */
+    private static final int NODE_CAPACITY = 16;
+
+    /** Primitive coordinates, as consecutive x and y values */
+    private final double[] coords;
+    /** Number of coordinates per primitive */
+    private final int stride;
+    /** Root of the tree, null if there are no primitives */
+    private final @Nullable Node root;
+
+    /**
+     * Build an index over the given primitives. The array is not copied.
+     * @param coords primitive coordinates, as consecutive x and y values
+     * @param points number of points per primitive
+     * @param count number of primitives
+     */
+    BulkSpatialIndex(double[] coords, int points, int count) {
+        this.coords = coords;
+        this.stride = 2 * points;
+        List<Integer> indices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            indices.add(i);
+        }
+        List<Node> level = new ArrayList<>();
+        for (List<Integer> group : tile(indices, i -> sum(stride * i), i -> sum(stride * i + 1))) {
+            level.add(new Node(group.stream().mapToInt(Integer::intValue).toArray(), this));
+        }
+        while (level.size() > 1) {
+            List<Node> next = new ArrayList<>();
+            for (List<Node> group : tile(level, n -> n.minX + n.maxX, n -> n.minY + n.maxY)) {
+                next.add(new Node(group.toArray(new Node[0])));
+            }
+            level = next;
+        }
+        root = level.isEmpty() ? null : level.get(0);
+    }
+
+    /** Sum every other coordinate of a primitive, starting at the given offset, used to order primitives. */
+    private double sum(int k) {
+        double res = 0;
+        for (int j = k; j < k + stride; j += 2) {
+            res += coords[j];
+        }
+        return res;
+    }
+
+    /**
+     * Get indices of primitives whose bounding boxes intersect the given box.
+     * @param x0 min x of box
+     * @param y0 min y of box
+     * @param x1 max x of box
+     * @param y1 max y of box
+     * @return candidate indices, in ascending order
+     */
+    int[] query(double x0, double y0, double x1, double y1) {
+        IntStream.Builder found = IntStream.builder();
+        if (root != null) {
+            search(root, x0, y0, x1, y1, found);
+        }
+        return found.build().sorted().toArray();
+    }
+
+    private void search(Node node, double x0, double y0, double x1, double y1, IntStream.Builder found) {
+        if (node.children != null) {
+            for (Node n : node.children) {
+                if (n.intersects(x0, y0, x1, y1)) {
+                    search(n, x0, y0, x1, y1, found);
+                }
+            }
+        } else {
+            for (int i : node.items) {
+                if (intersects(i, x0, y0, x1, y1)) {
+                    found.add(i);
+                }
+            }
+        }
+    }
+
+    /** Test whether the bounding box of the i'th primitive intersects the given box. */
+    private boolean intersects(int i, double x0, double y0, double x1, double y1) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int k = stride * i; k < stride * (i + 1); k += 2) {
+            minX = Math.min(minX, coords[k]);
+            minY = Math.min(minY, coords[k + 1]);
+            maxX = Math.max(maxX, coords[k]);
+            maxY = Math.max(maxY, coords[k + 1]);
+        }
+        return minX <= x1 && x0 <= maxX && minY <= y1 && y0 <= maxY;
+    }
+
+    /** Sort items into vertical slices by x, then group each slice into runs of at most the node capacity by y. */
+    private static <T> List<List<T>> tile(List<T> items, ToDoubleFunction<T> x, ToDoubleFunction<T> y) {
+        int n = items.size();
+        int nodeCount = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceSize = (int) Math.ceil(Math.sqrt(nodeCount)) * NODE_CAPACITY;
+        items.sort((a, b) -> Double.compare(x.applyAsDouble(a), x.applyAsDouble(b)));
+        List<List<T>> res = new ArrayList<>(nodeCount);
+        for (int s = 0; s < n; s += sliceSize) {
+            List<T> slice = items.subList(s, Math.min(n, s + sliceSize));
+            slice.sort((a, b) -> Double.compare(y.applyAsDouble(a), y.applyAsDouble(b)));
+            for (int i = 0; i < slice.size(); i += NODE_CAPACITY) {
+                res.add(slice.subList(i, Math.min(slice.size(), i + NODE_CAPACITY)));
+            }
+        }
+        return res;
+    }
+
+    /** Tree node with its bounds, holding either child nodes or primitive indices. */
+    private static final class Node {
+        private double minX = Double.POSITIVE_INFINITY;
+        private double minY = Double.POSITIVE_INFINITY;
+        private double maxX = Double.NEGATIVE_INFINITY;
+        private double maxY = Double.NEGATIVE_INFINITY;
+        private final Node @Nullable [] children;
+        private final int[] items;
+
+        private Node(Node[] children) {
+            this.children = children;
+            this.items = new int[0];
+            for (Node n : children) {
+                minX = Math.min(minX, n.minX);
+                minY = Math.min(minY, n.minY);
+                maxX = Math.max(maxX, n.maxX);
+                maxY = Math.max(maxY, n.maxY);
+            }
+        }
+
+        private Node(int[] items, BulkSpatialIndex index) {
+            this.children = null;
+            this.items = items;
+            for (int i : items) {
+                for (int k = index.stride * i; k < index.stride * (i + 1); k += 2) {
+                    minX = Math.min(minX, index.coords[k]);
+                    minY = Math.min(minY, index.coords[k + 1]);
+                    maxX = Math.max(maxX, index.coords[k]);
+                    maxY = Math.max(maxY, index.coords[k + 1]);
+                }
+            }
+        }
+
+        private boolean intersects(double x0, double y0, double x1, double y1) {
+            return minX <= x1 && x0 <= maxX && minY <= y1 && y0 <= maxY;
+        }
+    }
+
+}
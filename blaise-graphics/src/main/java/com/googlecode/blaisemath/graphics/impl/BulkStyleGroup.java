@@ -0,0 +1,60 @@
+package com.googlecode.blaisemath.graphics.impl;
+
+/*
+ * #%L
+ * BlaiseGraphics
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.googlecode.blaisemath.style.AttributeSet;
+
+import java.util.Arrays;
+
+/**
+ * Indices of primitives in a bulk layer that share a common render style, so that the style is resolved once
+ * and the primitives can be drawn together.
+ *
+ * @author Elisha Peterson
+ */
+final class BulkStyleGroup {
+
+    /** Render style shared by the group */
+    final AttributeSet style;
+    /** Padding around each primitive for its rendered extent, used for culling and hit testing */
+    final double pad;
+    /** Indices of primitives in the group, in draw order */
+    int[] indices = new int[16];
+    /** Number of indices used */
+    int size = 0;
+
+    BulkStyleGroup(AttributeSet style, double pad) {
+        this.style = style;
+        this.pad = pad;
+    }
+
+    /**
+     * Add a primitive to the group.
+     * @param i index of the primitive
+     */
+    void add(int i) {
+        if (size == indices.length) {
+            indices = Arrays.copyOf(indices, 2 * size);
+        }
+        indices[size++] = i;
+    }
+
+}
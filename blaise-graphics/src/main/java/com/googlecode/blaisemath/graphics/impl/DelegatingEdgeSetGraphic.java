@@ -33,7 +33,11 @@ import com.googlecode.blaisemath.graphics.DelegatingPrimitiveGraphic;
 import com.googlecode.blaisemath.graphics.Graphic;
 import com.googlecode.blaisemath.graphics.GraphicComposite;
 import com.googlecode.blaisemath.graphics.Renderer;
+import com.googlecode.blaisemath.graphics.swing.render.PathRenderer;
+import com.googlecode.blaisemath.style.AttributeSet;
 import com.googlecode.blaisemath.style.ObjectStyler;
+import com.googlecode.blaisemath.style.StyleHints;
+import com.googlecode.blaisemath.style.Styles;
 import com.googlecode.blaisemath.coordinate.CoordinateChangeEvent;
 import com.googlecode.blaisemath.coordinate.CoordinateListener;
 import com.googlecode.blaisemath.coordinate.CoordinateManager;
@@ -42,8 +46,11 @@ import org.jspecify.annotations.Nullable;
 
 import java.awt.Shape;
 import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -52,6 +59,12 @@ import javax.swing.SwingUtilities;
 
 /**
  * A collection of edges backed by a common set of points.
+ * <p>
+ * In bulk mode, edge endpoints are kept in a coordinate array rather than in one graphic per edge, and edges are
+ * drawn in groups sharing the same style, with a single path per group when the edge renderer is a plain
+ * {@link PathRenderer}. Mouse queries use a spatial index over the edge segments. Graphics for individual edges are
+ * created only for query results, and are released once they are no longer hit by queries and have no style hints
+ * (e.g. highlighting or selection). Edges whose graphics have style hints are drawn individually on top of the groups.
  * 
  * @param <S> source object type
  * @param <E> edge type
@@ -64,6 +77,7 @@ public class DelegatingEdgeSetGraphic<S,E extends EndpointPair<S>,G> extends Gra
     private static final Logger LOG = Logger.getLogger(DelegatingEdgeSetGraphic.class.getName());
 
     public static final String P_EDGE_RENDERER = "edgeRenderer";
+    public static final String P_BULK_MODE = "bulkMode";
     public static final int DEFAULT_MAX_CACHE_SIZE = 5000;
 
     /** The edges in the graphic. */
@@ -81,6 +95,20 @@ public class DelegatingEdgeSetGraphic<S,E extends EndpointPair<S>,G> extends Gra
     protected boolean updating = false;
     /** Queue of updates to be processed */
     private final Queue<CoordinateChangeEvent> updateQueue = Queues.newConcurrentLinkedQueue();
+
+    /** Whether edges are stored in arrays and drawn in batches rather than as child graphics */
+    private boolean bulkMode = false;
+    /** In bulk mode, edges with located endpoints, in draw order */
+    private final List<E> bulkEdges = Lists.newArrayList();
+    /** In bulk mode, endpoint coordinates of edges, as x1, y1, x2, y2 for each edge */
+    private double[] bulkCoords = new double[0];
+    /** In bulk mode, spatial index of edge segments, built on demand and discarded when coordinates change */
+    private @Nullable BulkSpatialIndex bulkIndex = null;
+    /** In bulk mode, edges whose graphics have been created for query results */
+    private final Set<E> bulkGraphicEdges = Sets.newHashSet();
+    /** In bulk mode, distance from an edge within which points are tested for hits, based on the last render */
+    private double hitTolerance = DEFAULT_HIT_TOLERANCE;
+    private static final double DEFAULT_HIT_TOLERANCE = 5.0;
     
     /**
      * Initialize with default coordinate manager.
@@ -133,6 +161,10 @@ public class DelegatingEdgeSetGraphic<S,E extends EndpointPair<S>,G> extends Gra
         if (!SwingUtilities.isEventDispatchThread()) {
             LOG.log(Level.WARNING, "updateEdgeGraphics() called from non-EDT");
         }
+        if (bulkMode) {
+            updateBulkEdges(locMap, removeMe, notify);
+            return;
+        }
         updating = true;
         boolean change = false;
         List<Graphic<G>> addMe = Lists.newArrayList();
@@ -160,12 +192,52 @@ public class DelegatingEdgeSetGraphic<S,E extends EndpointPair<S>,G> extends Gra
             }
         }
         change = replaceGraphics(removeMe, addMe) || change;
+        removeMe.stream().filter(g -> g.getParent() == this).forEach(g -> g.setParent(null));
         updating = false;
         if (change && notify) {
             fireGraphicChanged();
         }
     }
 
+    /** Update coordinate arrays in bulk mode. Edge graphics are only updated if they have already been created. */
+    @InvokedFromThread("EDT")
+    private void updateBulkEdges(Map<S, Point2D.Double> locMap, List<Graphic<G>> removeMe, boolean notify) {
+        updating = true;
+        bulkEdges.clear();
+        bulkIndex = null;
+        if (bulkCoords.length != 4 * edges.size()) {
+            bulkCoords = new double[4 * edges.size()];
+        }
+        int k = 0;
+        for (Map.Entry<E, DelegatingPrimitiveGraphic<E, Shape, G>> en : edges.entrySet()) {
+            E edge = en.getKey();
+            DelegatingPrimitiveGraphic<E, Shape, G> dsg = en.getValue();
+            Point2D p1 = locMap.get(edge.nodeU());
+            Point2D p2 = locMap.get(edge.nodeV());
+            if (p1 == null || p2 == null) {
+                if (dsg != null) {
+                    removeMe.add(dsg);
+                    en.setValue(null);
+                }
+            } else {
+                bulkEdges.add(edge);
+                bulkCoords[k++] = p1.getX();
+                bulkCoords[k++] = p1.getY();
+                bulkCoords[k++] = p2.getX();
+                bulkCoords[k++] = p2.getY();
+                if (dsg != null) {
+                    dsg.setPrimitive(new Line2D.Double(p1, p2));
+                }
+            }
+        }
+        replaceGraphics(removeMe, Collections.emptyList());
+        removeMe.stream().filter(g -> g.getParent() == this).forEach(g -> g.setParent(null));
+        updating = false;
+        if (notify) {
+            fireGraphicChanged();
+        }
+    }
+
     //endregion
 
     //region PROPERTIES
@@ -215,7 +287,8 @@ public class DelegatingEdgeSetGraphic<S,E extends EndpointPair<S>,G> extends Gra
         Set<E> removeMe = edges.keySet().stream().filter(e -> !newEdges.contains(e))
                 .collect(Collectors.toSet());
         if (!removeMe.isEmpty() || !addMe.isEmpty()) {
-            List<Graphic<G>> remove = removeMe.stream().map(edges::remove).collect(Collectors.toList());
+            List<Graphic<G>> remove = removeMe.stream().map(edges::remove)
+                    .filter(Objects::nonNull).collect(Collectors.toList());
             addMe.forEach(e -> edges.put(e, null));
             updateEdgeGraphics(pointManager.getActiveLocationCopy(), remove, true);
         }
@@ -250,14 +323,228 @@ public class DelegatingEdgeSetGraphic<S,E extends EndpointPair<S>,G> extends Gra
         if (this.edgeRenderer != renderer) {
             Object old = this.edgeRenderer;
             this.edgeRenderer = renderer;
-            edges.values().forEach(e -> e.setRenderer(renderer));
+            edges.values().stream().filter(Objects::nonNull).forEach(e -> e.setRenderer(renderer));
             fireGraphicChanged();
             pcs.firePropertyChange(P_EDGE_RENDERER, old, renderer);
         }
     }
+
+    public boolean isBulkMode() {
+        return bulkMode;
+    }
+
+    /**
+     * Set whether edges are stored in arrays and drawn in batches, rather than as one child graphic per edge.
+     * Bulk mode uses much less memory and time for large edge sets. Should be called from the EDT.
+     * @param bulk true for bulk mode
+     */
+    public void setBulkMode(boolean bulk) {
+        if (this.bulkMode != bulk) {
+            this.bulkMode = bulk;
+            // existing edge graphics are discarded, and recreated as needed for the new mode
+            List<Graphic<G>> remove = edges.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+            edges.replaceAll((e, g) -> null);
+            bulkEdges.clear();
+            bulkCoords = new double[0];
+            bulkIndex = null;
+            bulkGraphicEdges.clear();
+            updateEdgeGraphics(pointManager.getActiveLocationCopy(), remove, true);
+            pcs.firePropertyChange(P_BULK_MODE, !bulk, bulk);
+        }
+    }
     
     //endregion
 
+    //region BULK MODE
+
+    /**
+     * Get the graphic for the edge at the given index of the bulk arrays, creating it if necessary.
+     * The graphic has this as its parent, but is not one of its entries.
+     */
+    private DelegatingPrimitiveGraphic<E, Shape, G> bulkEdgeGraphic(int i) {
+        E edge = bulkEdges.get(i);
+        DelegatingPrimitiveGraphic<E, Shape, G> dsg = edges.get(edge);
+        if (dsg == null) {
+            Line2D.Double line = new Line2D.Double(bulkCoords[4 * i], bulkCoords[4 * i + 1],
+                    bulkCoords[4 * i + 2], bulkCoords[4 * i + 3]);
+            dsg = new DelegatingPrimitiveGraphic<>(edge, line, edgeStyler, edgeRenderer);
+            dsg.setParent(this);
+            edges.put(edge, dsg);
+            bulkGraphicEdges.add(edge);
+        }
+        return dsg;
+    }
+
+    /**
+     * Get the graphics for edges at the given indices of the bulk arrays, in reverse order, releasing graphics
+     * created for earlier queries that are not among them and have no style hints.
+     */
+    private List<Graphic<G>> bulkEdgeGraphicsInReverse(List<Integer> indices) {
+        Set<E> keep = indices.stream().map(bulkEdges::get).collect(Collectors.toSet());
+        releaseBulkEdgeGraphics(e -> !keep.contains(e));
+        List<Graphic<G>> res = Lists.newArrayListWithCapacity(indices.size());
+        Lists.reverse(indices).forEach(i -> res.add(bulkEdgeGraphic(i)));
+        return res;
+    }
+
+    /** Release graphics created for query results that have no style hints, for edges matching the predicate. */
+    private void releaseBulkEdgeGraphics(Predicate<E> release) {
+        for (Iterator<E> it = bulkGraphicEdges.iterator(); it.hasNext(); ) {
+            E edge = it.next();
+            DelegatingPrimitiveGraphic<E, Shape, G> dsg = edges.get(edge);
+            if (dsg == null) {
+                it.remove();
+            } else if (dsg.getStyleHints().isEmpty() && release.test(edge)) {
+                edges.put(edge, null);
+                dsg.setParent(null);
+                it.remove();
+            }
+        }
+    }
+
+    /** Get the spatial index of edge segments, building it if necessary. */
+    private BulkSpatialIndex bulkIndex() {
+        if (bulkIndex == null) {
+            bulkIndex = new BulkSpatialIndex(bulkCoords, 2, bulkEdges.size());
+        }
+        return bulkIndex;
+    }
+
+    @Override
+    protected Iterable<Graphic<G>> entriesInReverseAt(Point2D point, @Nullable G canvas) {
+        if (!bulkMode) {
+            return super.entriesInReverseAt(point, canvas);
+        }
+        double tol2 = hitTolerance * hitTolerance;
+        List<Integer> hits = Lists.newArrayList();
+        for (int i : bulkIndex().query(point.getX() - hitTolerance, point.getY() - hitTolerance,
+                point.getX() + hitTolerance, point.getY() + hitTolerance)) {
+            if (Line2D.ptSegDistSq(bulkCoords[4 * i], bulkCoords[4 * i + 1], bulkCoords[4 * i + 2], bulkCoords[4 * i + 3],
+                    point.getX(), point.getY()) <= tol2) {
+                hits.add(i);
+            }
+        }
+        return bulkEdgeGraphicsInReverse(hits);
+    }
+
+    @Override
+    protected Iterable<Graphic<G>> entriesInReverseIn(Rectangle2D box, @Nullable G canvas) {
+        if (!bulkMode) {
+            return super.entriesInReverseIn(box, canvas);
+        }
+        Rectangle2D padded = new Rectangle2D.Double(box.getX() - hitTolerance, box.getY() - hitTolerance,
+                box.getWidth() + 2 * hitTolerance, box.getHeight() + 2 * hitTolerance);
+        List<Integer> hits = Lists.newArrayList();
+        for (int i : bulkIndex().query(padded.getMinX(), padded.getMinY(), padded.getMaxX(), padded.getMaxY())) {
+            if (padded.intersectsLine(bulkCoords[4 * i], bulkCoords[4 * i + 1], bulkCoords[4 * i + 2], bulkCoords[4 * i + 3])) {
+                hits.add(i);
+            }
+        }
+        return bulkEdgeGraphicsInReverse(hits);
+    }
+
+    @Override
+    public @Nullable Rectangle2D boundingBox(@Nullable G canvas) {
+        if (!bulkMode) {
+            return super.boundingBox(canvas);
+        } else if (bulkEdges.isEmpty()) {
+            return null;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < 4 * bulkEdges.size(); k += 2) {
+            minX = Math.min(minX, bulkCoords[k]);
+            minY = Math.min(minY, bulkCoords[k + 1]);
+            maxX = Math.max(maxX, bulkCoords[k]);
+            maxY = Math.max(maxY, bulkCoords[k + 1]);
+        }
+        return new Rectangle2D.Double(minX - hitTolerance, minY - hitTolerance,
+                maxX - minX + 2 * hitTolerance, maxY - minY + 2 * hitTolerance);
+    }
+
+    @Override
+    public void renderTo(G canvas) {
+        if (!bulkMode) {
+            super.renderTo(canvas);
+            return;
+        } else if (edgeRenderer == null) {
+            return;
+        }
+
+        // group edges by style, skipping edges with their own style hints and edges outside the visible region
+        Rectangle2D visible = visibleRegion(canvas);
+        Map<AttributeSet, BulkStyleGroup> groups = new IdentityHashMap<>();
+        List<Graphic<G>> hinted = Lists.newArrayList();
+        double maxPad = 0;
+        for (int i = 0; i < bulkEdges.size(); i++) {
+            E edge = bulkEdges.get(i);
+            DelegatingPrimitiveGraphic<E, Shape, G> dsg = edges.get(edge);
+            if (dsg != null && !dsg.getStyleHints().isEmpty()) {
+                hinted.add(dsg);
+                continue;
+            }
+            AttributeSet edgeStyle = edgeStyler == null ? null : edgeStyler.style(edge);
+            BulkStyleGroup group = groups.get(edgeStyle);
+            if (group == null) {
+                AttributeSet style = childRenderStyle(edgeStyle == null ? new AttributeSet() : edgeStyle, Collections.emptySet());
+                // pad for stroke width and arrowheads
+                Float width = style.getFloat(Styles.STROKE_WIDTH, 1f);
+                group = new BulkStyleGroup(style, 2 * (width == null ? 1f : width) + 1);
+                groups.put(edgeStyle, group);
+                maxPad = Math.max(maxPad, group.pad);
+            }
+            if (visible == null || intersectsPadded(visible, i, group.pad)) {
+                group.add(i);
+            }
+        }
+        if (!groups.isEmpty()) {
+            hitTolerance = maxPad;
+        }
+
+        boolean batch = edgeRenderer.getClass() == PathRenderer.class;
+        Line2D.Double line = new Line2D.Double();
+        for (BulkStyleGroup group : groups.values()) {
+            if (group.size == 0) {
+                continue;
+            } else if (batch) {
+                Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, 2 * group.size);
+                for (int j = 0; j < group.size; j++) {
+                    int k = 4 * group.indices[j];
+                    path.moveTo(bulkCoords[k], bulkCoords[k + 1]);
+                    path.lineTo(bulkCoords[k + 2], bulkCoords[k + 3]);
+                }
+                edgeRenderer.render(path, group.style, canvas);
+            } else {
+                for (int j = 0; j < group.size; j++) {
+                    int k = 4 * group.indices[j];
+                    line.setLine(bulkCoords[k], bulkCoords[k + 1], bulkCoords[k + 2], bulkCoords[k + 3]);
+                    edgeRenderer.render(line, group.style, canvas);
+                }
+            }
+        }
+        hinted.stream().filter(g -> !StyleHints.isInvisible(g.getStyleHints())).forEach(g -> g.renderTo(canvas));
+    }
+
+    /** Test whether the bounding box of the i'th edge, padded by the given amount, intersects the region. */
+    private boolean intersectsPadded(Rectangle2D region, int i, double pad) {
+        int k = 4 * i;
+        return Math.min(bulkCoords[k], bulkCoords[k + 2]) - pad <= region.getMaxX()
+                && Math.max(bulkCoords[k], bulkCoords[k + 2]) + pad >= region.getMinX()
+                && Math.min(bulkCoords[k + 1], bulkCoords[k + 3]) - pad <= region.getMaxY()
+                && Math.max(bulkCoords[k + 1], bulkCoords[k + 3]) + pad >= region.getMinY();
+    }
+
+    @Override
+    public void graphicChanged(Graphic<G> source) {
+        super.graphicChanged(source);
+        // release the graphic once hover or selection ends, so it is drawn with its group again
+        if (bulkMode && !updating && source.getParent() == this && source.getStyleHints().isEmpty()) {
+            releaseBulkEdgeGraphics(e -> edges.get(e) == source);
+        }
+    }
+
+    //endregion
+
     @Override
     public void initContextMenu(JPopupMenu menu, Graphic<G> src, Point2D point, Object focus, Set<Graphic<G>> selection, G canvas) {
         // provide additional info for context menu
@@ -28,21 +28,28 @@ import com.googlecode.blaisemath.annotation.InvokedFromThread;
 import com.googlecode.blaisemath.coordinate.CoordinateChangeEvent;
 import com.googlecode.blaisemath.coordinate.CoordinateListener;
 import com.googlecode.blaisemath.coordinate.CoordinateManager;
+import com.googlecode.blaisemath.coordinate.OrientedPoint2D;
+import com.googlecode.blaisemath.graphics.BulkPointRenderer;
 import com.googlecode.blaisemath.graphics.DelegatingPrimitiveGraphic;
 import com.googlecode.blaisemath.graphics.Graphic;
 import com.googlecode.blaisemath.graphics.GraphicComposite;
 import com.googlecode.blaisemath.graphics.Renderer;
+import com.googlecode.blaisemath.graphics.swing.render.MarkerRenderer;
+import com.googlecode.blaisemath.style.AttributeSet;
 import com.googlecode.blaisemath.style.ObjectStyler;
+import com.googlecode.blaisemath.style.StyleHints;
 import com.googlecode.blaisemath.style.Styles;
 import com.googlecode.blaisemath.util.swing.MoreSwingUtilities;
 import org.jspecify.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.googlecode.blaisemath.graphics.impl.LabeledPointGraphic.P_LABEL_RENDERER;
@@ -53,6 +60,15 @@ import com.googlecode.blaisemath.primitive.AnchoredText;
  * Manages a collection of points that are maintained as separate {@link Graphic}s,
  * and therefore fully customizable. Points and their locations are handled by a {@link CoordinateManager},
  * which allows their locations to be safely modified from other threads.
+ * <p>
+ * In bulk mode, point coordinates are kept in an array rather than in one graphic per point, and points are drawn
+ * in groups sharing the same style, resolving the style once per group. With a {@link BulkPointRenderer} such as
+ * {@link MarkerRenderer}, each group is drawn in one call, unless the group has points with an orientation, which
+ * are drawn one at a time. Mouse queries use a spatial index over the points. Graphics for individual points are
+ * created only when requested, e.g. for mouse queries, and are released by later queries that do not hit them unless
+ * they have style hints. Points whose graphics have style hints (e.g. highlighting) are drawn individually on top of
+ * the groups.
+ * Labels are drawn after all markers, so unlike with one graphic per point, markers never cover labels.
  *
  * @param <S> the type of object being displayed
  * @param <G> type of canvas to render to
@@ -69,6 +85,9 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
     
     /** Key for flag allowing individual points to be selected */
     public static final String POINT_SELECTION_ENABLED = "point-selection-enabled";
+    public static final String P_BULK_MODE = "bulkMode";
+    
+    private static final double DEFAULT_HIT_TOLERANCE = 6.0;
 
     /** Graphic objects for individual points */
     protected final Map<S, DelegatingPrimitiveGraphic<S,Point2D,G>> points = Maps.newHashMap();
@@ -91,6 +110,23 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
     /** Renderer for point labels */
     protected Renderer<AnchoredText, G> textRenderer;
 
+    /** Whether points are stored in arrays and drawn in batches rather than as child graphics */
+    private boolean bulkMode = false;
+    /** In bulk mode, source objects of points, in draw order */
+    private final List<S> bulkPoints = Lists.newArrayList();
+    /** In bulk mode, index of each source object in the point list */
+    private final Map<S, Integer> bulkIndex = Maps.newHashMap();
+    /** In bulk mode, point coordinates, as x and y for each point */
+    private double[] bulkCoords = new double[0];
+    /** In bulk mode, orientation of each point, zero unless its location is an {@link OrientedPoint2D} */
+    private double[] bulkAngles = new double[0];
+    /** In bulk mode, spatial index of points, built on demand and discarded when coordinates change */
+    private @Nullable BulkSpatialIndex bulkSpatialIndex = null;
+    /** In bulk mode, source objects whose graphics have been created on demand */
+    private final Set<S> bulkGraphicPoints = Sets.newHashSet();
+    /** In bulk mode, distance from a point within which points are tested for hits, based on the last render */
+    private double hitTolerance = DEFAULT_HIT_TOLERANCE;
+
     //region CONSTRUCTORS
     
     /**
@@ -143,7 +179,7 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
     public void setPointSelectionEnabled(boolean val) {
         if (isPointSelectionEnabled() != val) {
             setStyleHint(POINT_SELECTION_ENABLED, val);
-            points.values().forEach(p -> p.setSelectionEnabled(val));
+            points.values().stream().filter(Objects::nonNull).forEach(p -> p.setSelectionEnabled(val));
         }
     }
 
@@ -209,9 +245,7 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
             Object old = this.renderer;
             this.renderer = renderer;
             updating = true;
-            for (DelegatingPrimitiveGraphic<S,Point2D,G> dpg : points.values()) {
-                dpg.setRenderer(renderer);
-            }
+            points.values().stream().filter(Objects::nonNull).forEach(dpg -> dpg.setRenderer(renderer));
             updating = false;
             fireGraphicChanged();
             pcs.firePropertyChange(P_RENDERER, old, renderer);
@@ -226,6 +260,8 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
         if (this.textRenderer != renderer) {
             Object old = this.renderer;
             this.textRenderer = renderer;
+            points.values().stream().filter(LabeledPointGraphic.class::isInstance)
+                    .forEach(dpg -> ((LabeledPointGraphic<S, G>) dpg).setLabelRenderer(renderer));
             fireGraphicChanged();
             pcs.firePropertyChange(P_LABEL_RENDERER, old, renderer);
         }
@@ -238,9 +274,7 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
     public void setDragEnabled(boolean val) {
         if (this.dragEnabled != val) {
             this.dragEnabled = val;
-            for (DelegatingPrimitiveGraphic<S,Point2D,G> dpg : points.values()) {
-                dpg.setDragEnabled(val);
-            }
+            points.values().stream().filter(Objects::nonNull).forEach(dpg -> dpg.setDragEnabled(val));
         }
     }
 
@@ -252,6 +286,36 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
         return manager.getActive();
     }
 
+    public boolean isBulkMode() {
+        return bulkMode;
+    }
+
+    /**
+     * Set whether points are stored in arrays and drawn in batches, rather than as one child graphic per point.
+     * Bulk mode uses much less memory and time for large point sets. Should be called from the EDT.
+     * @param bulk true for bulk mode
+     */
+    public void setBulkMode(boolean bulk) {
+        if (this.bulkMode != bulk) {
+            // existing point graphics are discarded, and recreated as needed for the new mode
+            updating = true;
+            List<Graphic<G>> remove = points.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+            replaceGraphics(remove, Collections.emptyList());
+            remove.stream().filter(g -> g.getParent() == this).forEach(g -> g.setParent(null));
+            points.clear();
+            bulkPoints.clear();
+            bulkIndex.clear();
+            bulkCoords = new double[0];
+            bulkAngles = new double[0];
+            bulkSpatialIndex = null;
+            bulkGraphicPoints.clear();
+            updating = false;
+            this.bulkMode = bulk;
+            updatePointGraphics(manager.getActiveLocationCopy(), null, true);
+            pcs.firePropertyChange(P_BULK_MODE, !bulk, bulk);
+        }
+    }
+
     //endregion
 
     //region MUTATORS
@@ -268,8 +332,15 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
 
     //region LOOKUPS
 
+    /**
+     * Get the graphic for the given source object. In bulk mode, the graphic is created if necessary, and is released
+     * by a later mouse query that does not hit it unless it has style hints.
+     * @param source source object
+     * @return graphic, or null if the object is not in the graphic
+     */
     public @Nullable DelegatingPrimitiveGraphic<S,Point2D,G> getPointGraphic(S source) {
-        return points.get(source);
+        Integer i = bulkMode ? bulkIndex.get(source) : null;
+        return i == null ? points.get(source) : bulkPointGraphic(i);
     }
 
     @Override
@@ -311,6 +382,10 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
     
     @InvokedFromThread("EDT")
     private void updatePointGraphics(Map<S, Point2D.Double> added, Set<S> removed, boolean notify) {
+        if (bulkMode) {
+            updateBulkPoints(added, removed, notify);
+            return;
+        }
         updating = true;
         boolean change = false;
         List<Graphic<G>> addMe = Lists.newArrayList();
@@ -345,6 +420,60 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
             fireGraphicChanged();
         }
     }
+
+    /** Update coordinate arrays in bulk mode. Point graphics are only updated if they have already been created. */
+    @InvokedFromThread("EDT")
+    private void updateBulkPoints(Map<S, Point2D.Double> added, Set<S> removed, boolean notify) {
+        updating = true;
+        bulkSpatialIndex = null;
+        if (added != null) {
+            if (bulkCoords.length < 2 * (bulkPoints.size() + added.size())) {
+                bulkCoords = Arrays.copyOf(bulkCoords, 2 * (bulkPoints.size() + added.size()));
+                bulkAngles = Arrays.copyOf(bulkAngles, bulkPoints.size() + added.size());
+            }
+            for (Entry<S, Point2D.Double> en : added.entrySet()) {
+                S src = en.getKey();
+                Integer i = bulkIndex.get(src);
+                if (i == null) {
+                    i = bulkPoints.size();
+                    bulkPoints.add(src);
+                    bulkIndex.put(src, i);
+                }
+                bulkCoords[2 * i] = en.getValue().x;
+                bulkCoords[2 * i + 1] = en.getValue().y;
+                bulkAngles[i] = en.getValue() instanceof OrientedPoint2D ? ((OrientedPoint2D) en.getValue()).angle : 0;
+                DelegatingPrimitiveGraphic<S, Point2D, G> dpg = points.get(src);
+                if (dpg != null) {
+                    dpg.setPrimitive(en.getValue());
+                }
+            }
+        }
+        if (removed != null) {
+            for (S s : removed) {
+                Integer i = bulkIndex.remove(s);
+                if (i != null) {
+                    // move the last point into the vacated slot
+                    int last = bulkPoints.size() - 1;
+                    S moved = bulkPoints.remove(last);
+                    if (i != last) {
+                        bulkPoints.set(i, moved);
+                        bulkIndex.put(moved, i);
+                        bulkCoords[2 * i] = bulkCoords[2 * last];
+                        bulkCoords[2 * i + 1] = bulkCoords[2 * last + 1];
+                        bulkAngles[i] = bulkAngles[last];
+                    }
+                }
+                DelegatingPrimitiveGraphic<S, Point2D, G> dpg = points.remove(s);
+                if (dpg != null && dpg.getParent() == this) {
+                    dpg.setParent(null);
+                }
+            }
+        }
+        updating = false;
+        if (notify) {
+            fireGraphicChanged();
+        }
+    }
     
     @Override
     protected void fireGraphicChanged() {
@@ -367,5 +496,217 @@ public class DelegatingPointSetGraphic<S,G> extends GraphicComposite<G> {
     }
 
     //endregion
+
+    //region BULK MODE
+
+    /**
+     * Get the graphic for the point at the given index of the bulk arrays, creating it if necessary.
+     * The graphic has this as its parent, but is not one of its entries.
+     */
+    private DelegatingPrimitiveGraphic<S, Point2D, G> bulkPointGraphic(int i) {
+        S src = bulkPoints.get(i);
+        DelegatingPrimitiveGraphic<S, Point2D, G> dpg = points.get(src);
+        if (dpg == null) {
+            LabeledPointGraphic<S,G> lpg = new LabeledPointGraphic<>(src, bulkPoint(i), styler);
+            lpg.setRenderer(renderer);
+            lpg.setLabelRenderer(textRenderer);
+            lpg.setDragEnabled(dragEnabled);
+            lpg.setSelectionEnabled(isPointSelectionEnabled());
+            lpg.setParent(this);
+            points.put(src, lpg);
+            bulkGraphicPoints.add(src);
+            dpg = lpg;
+        }
+        return dpg;
+    }
+
+    /**
+     * Get the graphics for points at the given indices of the bulk arrays, in reverse order, releasing graphics
+     * created earlier that are not among them and have no style hints.
+     */
+    private List<Graphic<G>> bulkPointGraphicsInReverse(List<Integer> indices) {
+        Set<S> keep = indices.stream().map(bulkPoints::get).collect(Collectors.toSet());
+        for (Iterator<S> it = bulkGraphicPoints.iterator(); it.hasNext(); ) {
+            S src = it.next();
+            DelegatingPrimitiveGraphic<S, Point2D, G> dpg = points.get(src);
+            if (dpg == null) {
+                it.remove();
+            } else if (!keep.contains(src) && dpg.getStyleHints().isEmpty()) {
+                points.remove(src);
+                dpg.setParent(null);
+                it.remove();
+            }
+        }
+        List<Graphic<G>> res = Lists.newArrayListWithCapacity(indices.size());
+        Lists.reverse(indices).forEach(i -> res.add(bulkPointGraphic(i)));
+        return res;
+    }
+
+    /** Get the spatial index of points, building it if necessary. */
+    private BulkSpatialIndex bulkSpatialIndex() {
+        if (bulkSpatialIndex == null) {
+            bulkSpatialIndex = new BulkSpatialIndex(bulkCoords, 1, bulkPoints.size());
+        }
+        return bulkSpatialIndex;
+    }
+
+    @Override
+    protected Iterable<Graphic<G>> entriesInReverseAt(Point2D point, @Nullable G canvas) {
+        if (!bulkMode) {
+            return super.entriesInReverseAt(point, canvas);
+        }
+        double tol2 = hitTolerance * hitTolerance;
+        List<Integer> hits = Lists.newArrayList();
+        for (int i : bulkSpatialIndex().query(point.getX() - hitTolerance, point.getY() - hitTolerance,
+                point.getX() + hitTolerance, point.getY() + hitTolerance)) {
+            if (point.distanceSq(bulkCoords[2 * i], bulkCoords[2 * i + 1]) <= tol2) {
+                hits.add(i);
+            }
+        }
+        return bulkPointGraphicsInReverse(hits);
+    }
+
+    @Override
+    protected Iterable<Graphic<G>> entriesInReverseIn(Rectangle2D box, @Nullable G canvas) {
+        if (!bulkMode) {
+            return super.entriesInReverseIn(box, canvas);
+        }
+        List<Integer> hits = Lists.newArrayList();
+        for (int i : bulkSpatialIndex().query(box.getMinX() - hitTolerance, box.getMinY() - hitTolerance,
+                box.getMaxX() + hitTolerance, box.getMaxY() + hitTolerance)) {
+            hits.add(i);
+        }
+        return bulkPointGraphicsInReverse(hits);
+    }
+
+    @Override
+    public @Nullable Rectangle2D boundingBox(@Nullable G canvas) {
+        if (!bulkMode) {
+            return super.boundingBox(canvas);
+        } else if (bulkPoints.isEmpty()) {
+            return null;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < 2 * bulkPoints.size(); k += 2) {
+            minX = Math.min(minX, bulkCoords[k]);
+            minY = Math.min(minY, bulkCoords[k + 1]);
+            maxX = Math.max(maxX, bulkCoords[k]);
+            maxY = Math.max(maxY, bulkCoords[k + 1]);
+        }
+        return new Rectangle2D.Double(minX - hitTolerance, minY - hitTolerance,
+                maxX - minX + 2 * hitTolerance, maxY - minY + 2 * hitTolerance);
+    }
+
+    @Override
+    public void renderTo(G canvas) {
+        if (!bulkMode) {
+            super.renderTo(canvas);
+            return;
+        } else if (renderer == null) {
+            return;
+        }
+
+        // group points by style, skipping points with their own style hints and points outside the visible region
+        Rectangle2D visible = visibleRegion(canvas);
+        Map<AttributeSet, BulkStyleGroup> groups = new IdentityHashMap<>();
+        List<Graphic<G>> hinted = Lists.newArrayList();
+        double maxPad = 0;
+        for (int i = 0; i < bulkPoints.size(); i++) {
+            S src = bulkPoints.get(i);
+            DelegatingPrimitiveGraphic<S, Point2D, G> dpg = points.get(src);
+            if (dpg != null && !dpg.getStyleHints().isEmpty()) {
+                hinted.add(dpg);
+                continue;
+            }
+            AttributeSet pointStyle = styler.style(src);
+            BulkStyleGroup group = groups.get(pointStyle);
+            if (group == null) {
+                AttributeSet style = childRenderStyle(pointStyle == null ? new AttributeSet() : pointStyle, Collections.emptySet());
+                // pad for marker radius and stroke width
+                Float rad = style.getFloat(Styles.MARKER_RADIUS, 4f);
+                Float width = style.getFloat(Styles.STROKE_WIDTH, 1f);
+                group = new BulkStyleGroup(style, (rad == null ? 4f : rad) + (width == null ? 1f : width) + 1);
+                groups.put(pointStyle, group);
+                maxPad = Math.max(maxPad, group.pad);
+            }
+            if (visible == null || intersectsPadded(visible, i, group.pad)) {
+                group.add(i);
+            }
+        }
+        if (!groups.isEmpty()) {
+            hitTolerance = maxPad;
+        }
+
+        Point2D.Double pt = new Point2D.Double();
+        for (BulkStyleGroup group : groups.values()) {
+            if (renderer instanceof BulkPointRenderer && !hasOrientedPoints(group)) {
+                ((BulkPointRenderer<G>) renderer).renderAll(bulkCoords, group.indices, group.size, group.style, canvas);
+            } else {
+                for (int j = 0; j < group.size; j++) {
+                    int i = group.indices[j];
+                    if (bulkAngles[i] == 0) {
+                        pt.setLocation(bulkCoords[2 * i], bulkCoords[2 * i + 1]);
+                        renderer.render(pt, group.style, canvas);
+                    } else {
+                        renderer.render(bulkPoint(i), group.style, canvas);
+                    }
+                }
+            }
+        }
+        // labels are drawn after all markers, rather than after each point's marker
+        if (textRenderer != null && styler.getLabelDelegate() != null) {
+            for (BulkStyleGroup group : groups.values()) {
+                for (int j = 0; j < group.size; j++) {
+                    renderBulkLabel(group.indices[j], canvas);
+                }
+            }
+        }
+        hinted.stream().filter(g -> !StyleHints.isInvisible(g.getStyleHints())).forEach(g -> g.renderTo(canvas));
+    }
+
+    /** Get a copy of the location of the i'th point, as an {@link OrientedPoint2D} if it has an orientation. */
+    private Point2D.Double bulkPoint(int i) {
+        if (bulkAngles[i] == 0) {
+            return new Point2D.Double(bulkCoords[2 * i], bulkCoords[2 * i + 1]);
+        }
+        OrientedPoint2D res = new OrientedPoint2D(bulkCoords[2 * i], bulkCoords[2 * i + 1]);
+        res.angle = bulkAngles[i];
+        return res;
+    }
+
+    /** Test whether any point in the group has an orientation. */
+    private boolean hasOrientedPoints(BulkStyleGroup group) {
+        for (int j = 0; j < group.size; j++) {
+            if (bulkAngles[group.indices[j]] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Render the label for the i'th point, as done by {@link LabeledPointGraphic}. */
+    private void renderBulkLabel(int i, G canvas) {
+        S src = bulkPoints.get(i);
+        if (styler.getLabelFilter() != null && !styler.getLabelFilter().test(src)) {
+            return;
+        }
+        String label = styler.label(src);
+        AttributeSet style = label == null || label.isEmpty() ? null : styler.labelStyle(src);
+        if (style != null) {
+            Point2D.Double pt = new Point2D.Double(bulkCoords[2 * i], bulkCoords[2 * i + 1]);
+            textRenderer.render(new AnchoredText(pt, label), style, canvas);
+        }
+    }
+
+    /** Test whether the i'th point, padded by the given amount, intersects the region. */
+    private boolean intersectsPadded(Rectangle2D region, int i, double pad) {
+        double x = bulkCoords[2 * i];
+        double y = bulkCoords[2 * i + 1];
+        return x - pad <= region.getMaxX() && x + pad >= region.getMinX()
+                && y - pad <= region.getMaxY() && y + pad >= region.getMinY();
+    }
+
+    //endregion
     
 }
@@ -57,6 +57,7 @@ import java.util.List;
 public class JGraphicComponent extends javax.swing.JComponent implements TransformedCoordinateSpace {
 
     public static final String P_TRANSFORM = "transform";
+    public static final String P_RETAINED_MODE = "retainedMode";
 
     /** The visible shapes. */
     protected final JGraphicRoot root;
@@ -75,6 +76,8 @@ public class JGraphicComponent extends javax.swing.JComponent implements Transfo
 
     /** Whether antialias is enabled */
     protected boolean antialias = true;
+    /** Cached base layer, used in retained mode (null otherwise) */
+    private @Nullable JGraphicTileCache tileCache = null;
 
     /**
      * Construction of a generic graphics view component.
@@ -159,6 +162,30 @@ public class JGraphicComponent extends javax.swing.JComponent implements Transfo
         repaint();
     }
 
+    /**
+     * Return true if the component retains rendered graphics between repaints.
+     * @return retained mode setting
+     */
+    public boolean isRetainedMode() {
+        return tileCache != null;
+    }
+
+    /**
+     * Sets whether the component retains rendered graphics between repaints. In retained mode, the background,
+     * underlays and graphics are cached as image tiles, and a change to a graphic only re-renders the tiles
+     * covering its old and new bounds. Overlays are drawn on top of the tiles with every repaint. Changes
+     * to the underlays are not tracked, so call {@link #repaintRetained()} after modifying them.
+     * @param retained retained mode setting
+     */
+    public void setRetainedMode(boolean retained) {
+        boolean old = isRetainedMode();
+        if (old != retained) {
+            tileCache = retained ? new JGraphicTileCache(this) : null;
+            firePropertyChange(P_RETAINED_MODE, old, retained);
+            repaint();
+        }
+    }
+
     //endregion
 
     //region GRAPHICS MUTATORS
@@ -482,15 +509,74 @@ public class JGraphicComponent extends javax.swing.JComponent implements Transfo
      */
     @Override
     protected void paintChildren(Graphics g) {
-        renderTo((Graphics2D) g);
+        if (tileCache == null) {
+            renderTo((Graphics2D) g);
+        } else {
+            Graphics2D canvas = (Graphics2D) g;
+            tileCache.paint(canvas);
+            canvas.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    antialias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF );
+            renderOverlay(canvas);
+        }
         super.paintChildren(g);
     }
 
     /**
-     * Renders all shapes in root to specified graphics object.
+     * Discards all graphics rendered in retained mode, and repaints the component. Does nothing
+     * but repaint if retained mode is off.
+     */
+    public void repaintRetained() {
+        if (tileCache != null) {
+            tileCache.invalidateAll();
+        }
+        repaint();
+    }
+
+    /**
+     * Notifies retained mode rendering that a graphic has changed.
+     * @param source the graphic that changed
+     */
+    void graphicChanged(Graphic<Graphics2D> source) {
+        if (tileCache != null) {
+            tileCache.invalidate(source);
+        }
+    }
+
+    /**
+     * Notifies retained mode rendering that a graphic is likely to change, e.g. because it is under the mouse.
+     * @param gfc the graphic
+     */
+    void graphicTracked(@Nullable Graphic<Graphics2D> gfc) {
+        if (tileCache != null) {
+            tileCache.track(gfc);
+        }
+    }
+
+    /**
+     * Get the tile cache used in retained mode.
+     * @return tile cache, null if not in retained mode
+     */
+    @Nullable JGraphicTileCache tileCache() {
+        return tileCache;
+    }
+
+    /**
+     * Renders all shapes in root to specified graphics object. The transform is applied to the canvas
+     * before rendering, so the canvas clip is available to the graphics in local coordinates, and large
+     * composites skip graphics lying entirely outside of it. This always renders everything, whether or not
+     * the component is in retained mode.
      * @param canvas graphics canvas to render to
      */
     public void renderTo(Graphics2D canvas) {
+        renderBase(canvas);
+        renderOverlay(canvas);
+    }
+
+    /**
+     * Renders the background, underlays, and graphics to the specified graphics object.
+     * @param canvas graphics canvas to render to
+     */
+    void renderBase(Graphics2D canvas) {
         canvas.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                 antialias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF );
         if (isOpaque()) {
@@ -506,7 +592,6 @@ public class JGraphicComponent extends javax.swing.JComponent implements Transfo
             root.renderTo(canvas);
             canvas.setTransform(priorTransform);
         }
-        renderOverlay(canvas);
     }
 
     /**
@@ -144,8 +144,10 @@ public final class JGraphicRoot extends GraphicComposite<Graphics2D> {
     }
 
     @Override
-    public void graphicChanged(Graphic source) {
+    public void graphicChanged(Graphic<Graphics2D> source) {
+        super.graphicChanged(source);
         if (owner != null) {
+            owner.graphicChanged(source);
             owner.repaint();
         }
     }
@@ -178,6 +180,7 @@ public final class JGraphicRoot extends GraphicComposite<Graphics2D> {
         Graphic nue = mouseGraphicAt(gme.getGraphicLocation(), canvas);
         if (!Objects.equal(mouseGraphic, nue)) {
             mouseExit(mouseGraphic, gme);
+            owner.graphicTracked(nue);
             mouseGraphic = nue;
             mouseEnter(mouseGraphic, gme);
         }
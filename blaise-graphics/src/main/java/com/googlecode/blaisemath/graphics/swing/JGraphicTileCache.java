@@ -0,0 +1,275 @@
+package com.googlecode.blaisemath.graphics.swing;
+
+/*
+ * #%L
+ * BlaiseGraphics
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.googlecode.blaisemath.graphics.Graphic;
+import com.googlecode.blaisemath.graphics.GraphicComposite;
+import org.jspecify.annotations.Nullable;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Retains the rendered base layer (background, underlays and graphics) of a {@link JGraphicComponent}
+ * as a grid of image tiles. Changes to graphics only mark the tiles covering the graphic's old and new
+ * bounds as dirty, so a repaint redraws the affected tiles and copies the rest. Any change to the
+ * component's size, transform, background or antialias setting discards all tiles.
+ *
+ * @author Elisha Peterson
+ */
+final class JGraphicTileCache {
+
+    /** Width and height of tiles, in component coordinates. */
+    static final int TILE_SIZE = 256;
+    /** Padding for dirty regions, in component coordinates, to cover antialiasing and stroke rounding. */
+    private static final int DIRTY_PAD = 2;
+
+    /** The component being rendered. */
+    private final JGraphicComponent owner;
+
+    /** Tile images, in row-major order. Entries are null until first rendered. */
+    private BufferedImage[] tiles = new BufferedImage[0];
+    /** Flags tiles that must be rendered again before being drawn. */
+    private boolean[] dirty = new boolean[0];
+    /** Number of tile columns. */
+    private int cols = 0;
+    /** Number of tile rows. */
+    private int rows = 0;
+
+    /** Component width the tiles were rendered for. */
+    private int width = -1;
+    /** Component height the tiles were rendered for. */
+    private int height = -1;
+    /** Scale from component to device pixels the tiles were rendered for. */
+    private double deviceScale = 1;
+    /** Component transform the tiles were rendered for. */
+    private @Nullable AffineTransform transform = null;
+    /** Background color the tiles were rendered for. */
+    private @Nullable Color background = null;
+    /** Opacity the tiles were rendered for. */
+    private boolean opaque = true;
+    /** Antialias setting the tiles were rendered for. */
+    private boolean antialias = true;
+
+    /** Last known bounds of changed graphics, in local coordinates, used to clear the area they vacate. */
+    private final Map<Graphic<Graphics2D>, Rectangle2D> lastBounds = new WeakHashMap<>();
+    /** Number of tiles rendered since construction, for diagnostics. */
+    private int tilesRendered = 0;
+
+    JGraphicTileCache(JGraphicComponent owner) {
+        this.owner = owner;
+    }
+
+    //region INVALIDATION
+
+    /**
+     * Mark all tiles as dirty, e.g. after underlays change.
+     */
+    void invalidateAll() {
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Records the current bounds of a graphic, so that a subsequent change can clear the area it covered.
+     * Called for graphics that are likely to change soon, e.g. the graphic under the mouse.
+     * @param gfc the graphic
+     */
+    void track(@Nullable Graphic<Graphics2D> gfc) {
+        if (gfc != null && gfc != owner.root) {
+            Rectangle2D box = gfc.boundingBox(owner.canvas());
+            if (box != null) {
+                lastBounds.put(gfc, box);
+            }
+        }
+    }
+
+    /**
+     * Mark the tiles covering the old and new bounds of the given graphic as dirty. If the graphic's
+     * previous bounds are not known, all tiles are marked. Composites may move or remove their children without
+     * notifying, and removed children can no longer be traced to the composite, so a composite change also marks
+     * the tiles covering the bounds recorded for every other graphic, and then discards those bounds.
+     * @param source the graphic that changed
+     */
+    void invalidate(Graphic<Graphics2D> source) {
+        if (source == owner.root) {
+            lastBounds.clear();
+            invalidateAll();
+            return;
+        } else if (source instanceof GraphicComposite) {
+            Rectangle2D old = lastBounds.remove(source);
+            lastBounds.values().forEach(this::invalidate);
+            lastBounds.clear();
+            if (old != null) {
+                lastBounds.put(source, old);
+            }
+        }
+        Rectangle2D box = source.boundingBox(owner.canvas());
+        Rectangle2D old = box == null ? lastBounds.remove(source) : lastBounds.put(source, box);
+        if (old == null) {
+            invalidateAll();
+        } else {
+            invalidate(old);
+            if (box != null) {
+                invalidate(box);
+            }
+        }
+    }
+
+    /**
+     * Mark the tiles intersecting the given region as dirty.
+     * @param localBox region in local (graphic) coordinates
+     */
+    private void invalidate(Rectangle2D localBox) {
+        Rectangle2D box = transform == null ? localBox
+                : transform.createTransformedShape(localBox).getBounds2D();
+        int c0 = Math.max(0, (int) Math.floor((box.getMinX() - DIRTY_PAD) / TILE_SIZE));
+        int c1 = Math.min(cols - 1, (int) Math.floor((box.getMaxX() + DIRTY_PAD) / TILE_SIZE));
+        int r0 = Math.max(0, (int) Math.floor((box.getMinY() - DIRTY_PAD) / TILE_SIZE));
+        int r1 = Math.min(rows - 1, (int) Math.floor((box.getMaxY() + DIRTY_PAD) / TILE_SIZE));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                dirty[r * cols + c] = true;
+            }
+        }
+    }
+
+    //endregion
+
+    //region PAINT
+
+    /**
+     * Draw the base layer onto the canvas, rendering any dirty tiles intersecting the canvas clip first.
+     * @param canvas target canvas, in component coordinates
+     */
+    void paint(Graphics2D canvas) {
+        validate(canvas);
+        Rectangle clip = canvas.getClipBounds();
+        Rectangle bounds = new Rectangle(0, 0, width, height);
+        Rectangle area = clip == null ? bounds : clip.intersection(bounds);
+        if (area.isEmpty()) {
+            return;
+        }
+        int c0 = area.x / TILE_SIZE;
+        int c1 = Math.min(cols - 1, (area.x + area.width - 1) / TILE_SIZE);
+        int r0 = area.y / TILE_SIZE;
+        int r1 = Math.min(rows - 1, (area.y + area.height - 1) / TILE_SIZE);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int i = r * cols + c;
+                Rectangle tileBounds = tileBounds(c, r);
+                if (tiles[i] == null || dirty[i]) {
+                    renderTile(i, tileBounds, canvas);
+                }
+                canvas.drawImage(tiles[i], tileBounds.x, tileBounds.y, tileBounds.width, tileBounds.height, null);
+            }
+        }
+    }
+
+    /**
+     * Discards tiles if the component has changed in a way that affects every tile.
+     * @param canvas target canvas
+     */
+    private void validate(Graphics2D canvas) {
+        AffineTransform base = canvas.getTransform();
+        double scale = Math.max(1, Math.sqrt(Math.abs(base.getDeterminant())));
+        int w = owner.getWidth();
+        int h = owner.getHeight();
+        if (w != width || h != height || scale != deviceScale || owner.isOpaque() != opaque) {
+            width = w;
+            height = h;
+            deviceScale = scale;
+            opaque = owner.isOpaque();
+            cols = (w + TILE_SIZE - 1) / TILE_SIZE;
+            rows = (h + TILE_SIZE - 1) / TILE_SIZE;
+            tiles = new BufferedImage[cols * rows];
+            dirty = new boolean[cols * rows];
+        } else if (!Objects.equals(owner.getTransform(), transform)
+                || !Objects.equals(owner.getBackground(), background)
+                || owner.isAntialiasOn() != antialias) {
+            invalidateAll();
+        }
+        transform = owner.getTransform() == null ? null : new AffineTransform(owner.getTransform());
+        background = owner.getBackground();
+        antialias = owner.isAntialiasOn();
+    }
+
+    /** Get bounds of the given tile, in component coordinates, clipped to the component. */
+    private Rectangle tileBounds(int col, int row) {
+        int x = col * TILE_SIZE;
+        int y = row * TILE_SIZE;
+        return new Rectangle(x, y, Math.min(TILE_SIZE, width - x), Math.min(TILE_SIZE, height - y));
+    }
+
+    /** Render the base layer within the tile bounds to the tile image, creating it if necessary. */
+    private void renderTile(int i, Rectangle tileBounds, Graphics2D canvas) {
+        int pw = (int) Math.ceil(tileBounds.width * deviceScale);
+        int ph = (int) Math.ceil(tileBounds.height * deviceScale);
+        BufferedImage img = tiles[i];
+        if (img == null || img.getWidth() != pw || img.getHeight() != ph) {
+            img = createImage(pw, ph, canvas.getDeviceConfiguration());
+            tiles[i] = img;
+        }
+        Graphics2D g = img.createGraphics();
+        try {
+            if (!opaque) {
+                g.setComposite(AlphaComposite.Clear);
+                g.fillRect(0, 0, pw, ph);
+                g.setComposite(AlphaComposite.SrcOver);
+            }
+            g.scale(deviceScale, deviceScale);
+            g.translate(-tileBounds.x, -tileBounds.y);
+            g.clipRect(tileBounds.x, tileBounds.y, tileBounds.width, tileBounds.height);
+            owner.renderBase(g);
+        } finally {
+            g.dispose();
+        }
+        dirty[i] = false;
+        tilesRendered++;
+    }
+
+    /** Create an image compatible with the target device, where possible. */
+    private BufferedImage createImage(int w, int h, @Nullable GraphicsConfiguration gc) {
+        int transparency = opaque ? Transparency.OPAQUE : Transparency.TRANSLUCENT;
+        return gc != null ? gc.createCompatibleImage(w, h, transparency)
+                : new BufferedImage(w, h, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    /**
+     * Get the number of tiles rendered so far.
+     * @return tile count
+     */
+    int getTilesRendered() {
+        return tilesRendered;
+    }
+
+    //endregion
+
+}
@@ -21,7 +21,10 @@ package com.googlecode.blaisemath.graphics.swing.render;
  */
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.googlecode.blaisemath.style.AttributeSet;
+import com.googlecode.blaisemath.graphics.BulkPointRenderer;
 import com.googlecode.blaisemath.graphics.Renderer;
 import com.googlecode.blaisemath.style.Styles;
 import com.googlecode.blaisemath.coordinate.OrientedPoint2D;
@@ -29,8 +32,13 @@ import com.googlecode.blaisemath.primitive.Marker;
 import com.googlecode.blaisemath.primitive.Markers;
 import java.awt.Graphics2D;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jspecify.annotations.Nullable;
@@ -41,10 +49,22 @@ import org.jspecify.annotations.Nullable;
  * 
  * @author Elisha Peterson
  */
-public class MarkerRenderer implements Renderer<Point2D, Graphics2D> {
+public class MarkerRenderer implements BulkPointRenderer<Graphics2D> {
 
     private static final Logger LOG = Logger.getLogger(MarkerRenderer.class.getName());
 
+    /** Minimum number of markers for drawing with a pre-rasterized sprite */
+    private static final int MIN_SPRITE_COUNT = 16;
+    /** Caches marker shapes centered at the origin, keyed by marker and radius */
+    private static final Cache<List<Object>, Shape> SHAPE_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .build();
+
+    /** Caches sprites, keyed by shape renderer, style attributes, canvas scale and rendering hints */
+    private final Cache<List<Object>, BufferedImage> spriteCache = CacheBuilder.newBuilder()
+            .maximumSize(64)
+            .build();
+
     /** Delegate for rendering the shape of the marker */
     protected Renderer<Shape, Graphics2D> shapeRenderer = new ShapeRenderer();
     
@@ -67,11 +87,37 @@ public class MarkerRenderer implements Renderer<Point2D, Graphics2D> {
     public Shape getShape(Point2D primitive, AttributeSet style) {
         Float rad = style.getFloat(Styles.MARKER_RADIUS, 4f);
         double angle = primitive instanceof OrientedPoint2D ? ((OrientedPoint2D)primitive).angle : 0;
+        Marker marker = marker(style);
+        return marker == null ? null : marker.create(primitive, angle, rad);
+    }
+
+    /**
+     * Get the shape of the marker for the given style, centered at the origin with no rotation. Shapes are cached
+     * by marker and radius, and shared between calls, so the result must not be modified.
+     * @param style the style
+     * @return shape, or null if the style has an invalid marker
+     */
+    private static @Nullable Shape cachedShape(AttributeSet style) {
+        Float rad = style.getFloat(Styles.MARKER_RADIUS, 4f);
+        Marker marker = marker(style);
+        if (marker == null) {
+            return null;
+        }
+        try {
+            return SHAPE_CACHE.get(Arrays.asList(marker, rad), () -> marker.create(new Point2D.Double(), 0, rad));
+        } catch (ExecutionException x) {
+            LOG.log(Level.FINE, "Unexpected", x);
+            return marker.create(new Point2D.Double(), 0, rad);
+        }
+    }
+
+    /** Get the marker for the given style, or null if it is invalid. */
+    private static @Nullable Marker marker(AttributeSet style) {
         Object marker = style.get(Styles.MARKER);
         if (marker == null) {
-            return Markers.CIRCLE.create(primitive, angle, rad);
+            return Markers.CIRCLE;
         } else if (marker instanceof Marker) {
-            return ((Marker) marker).create(primitive, angle, rad);
+            return (Marker) marker;
         } else {
             LOG.log(Level.WARNING, marker instanceof String ? "Invalid marker object string (not supported yet): {0}" : "Invalid marker object: {0}", marker);
         }
@@ -83,6 +129,89 @@ public class MarkerRenderer implements Renderer<Point2D, Graphics2D> {
         shapeRenderer.render(getShape(primitive, style), style, canvas);
     }
 
+    /**
+     * Render markers with a common style at many locations, with no rotation. The marker shape is looked up once.
+     * If the canvas is only translated and uniformly scaled, the shape is rasterized to a sprite at the canvas scale,
+     * which is cached for later calls with the same style and scale, and the sprite is drawn at each location rounded
+     * to the nearest device pixel. Otherwise, the shape is stamped at each location by translating the canvas.
+     * This does not call {@link #render} or {@link #getShape(Point2D, AttributeSet)}, so subclasses overriding either
+     * of those must also override this method.
+     * @param xy point coordinates, as consecutive x and y values
+     * @param indices indices of the points to render
+     * @param count number of indices to use
+     * @param style style for all points
+     * @param canvas canvas to render to
+     */
+    @Override
+    public void renderAll(double[] xy, int[] indices, int count, AttributeSet style, Graphics2D canvas) {
+        Shape shape = cachedShape(style);
+        if (shape == null) {
+            return;
+        }
+        AffineTransform original = canvas.getTransform();
+        boolean scaleOnly = (original.getType() & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_UNIFORM_SCALE)) == 0;
+        BufferedImage sprite = scaleOnly && count >= MIN_SPRITE_COUNT ? cachedSprite(shape, style, original.getScaleX(), canvas) : null;
+        if (sprite != null) {
+            Rectangle2D bounds = shapeRenderer.boundingBox(shape, style, canvas);
+            double scale = original.getScaleX();
+            int x0 = (int) Math.floor(bounds.getMinX() * scale) - 1;
+            int y0 = (int) Math.floor(bounds.getMinY() * scale) - 1;
+            canvas.setTransform(new AffineTransform());
+            for (int i = 0; i < count; i++) {
+                double dx = original.getTranslateX() + scale * xy[2 * indices[i]];
+                double dy = original.getTranslateY() + scale * xy[2 * indices[i] + 1];
+                canvas.drawImage(sprite, (int) Math.round(dx) + x0, (int) Math.round(dy) + y0, null);
+            }
+            canvas.setTransform(original);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            canvas.translate(xy[2 * indices[i]], xy[2 * indices[i] + 1]);
+            shapeRenderer.render(shape, style, canvas);
+            canvas.setTransform(original);
+        }
+    }
+
+    /**
+     * Get the sprite for the given style and scale from the cache, rasterizing it if necessary.
+     * @return sprite, or null if the shape has no bounds
+     */
+    private @Nullable BufferedImage cachedSprite(Shape shape, AttributeSet style, double scale, Graphics2D canvas) {
+        List<Object> key = Arrays.asList(shapeRenderer, style.flatCopy().getAttributeMap(), scale, canvas.getRenderingHints());
+        BufferedImage sprite = spriteCache.getIfPresent(key);
+        if (sprite == null) {
+            sprite = sprite(shape, style, scale, canvas);
+            if (sprite != null) {
+                spriteCache.put(key, sprite);
+            }
+        }
+        return sprite;
+    }
+
+    /**
+     * Rasterize a shape centered at the origin, at the given scale. The sprite's origin is offset by one pixel
+     * plus the scaled minimum of the shape's bounding box.
+     * @return sprite, or null if the shape has no bounds
+     */
+    private @Nullable BufferedImage sprite(Shape shape, AttributeSet style, double scale, Graphics2D canvas) {
+        Rectangle2D bounds = shapeRenderer.boundingBox(shape, style, canvas);
+        if (bounds == null || bounds.isEmpty()) {
+            return null;
+        }
+        int x0 = (int) Math.floor(bounds.getMinX() * scale) - 1;
+        int y0 = (int) Math.floor(bounds.getMinY() * scale) - 1;
+        int w = (int) Math.ceil(bounds.getMaxX() * scale) - x0 + 2;
+        int h = (int) Math.ceil(bounds.getMaxY() * scale) - y0 + 2;
+        BufferedImage sprite = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D gr = sprite.createGraphics();
+        gr.setRenderingHints(canvas.getRenderingHints());
+        gr.translate(-x0, -y0);
+        gr.scale(scale, scale);
+        shapeRenderer.render(shape, style, gr);
+        gr.dispose();
+        return sprite;
+    }
+
     @Override
     public Rectangle2D boundingBox(Point2D primitive, AttributeSet style, @Nullable Graphics2D canvas) {
         return shapeRenderer.boundingBox(getShape(primitive, style), style, canvas);
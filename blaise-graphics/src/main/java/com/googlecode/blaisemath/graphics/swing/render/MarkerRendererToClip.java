@@ -104,6 +104,15 @@ public class MarkerRendererToClip extends MarkerRenderer {
         super.render(p, style, canvas);
     }
 
+    @Override
+    public void renderAll(double[] xy, int[] indices, int count, AttributeSet style, Graphics2D canvas) {
+        Point2D.Double p = new Point2D.Double();
+        for (int i = 0; i < count; i++) {
+            p.setLocation(xy[2 * indices[i]], xy[2 * indices[i] + 1]);
+            render(p, style, canvas);
+        }
+    }
+
     /**
      * Returns points at which the ray beginning at p1 and passing through p2 intersects the boundary of the window.
      * @param p1p first point
@@ -23,10 +23,12 @@ package com.googlecode.blaisemath.graphics;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.googlecode.blaisemath.graphics.swing.JGraphics;
+import com.googlecode.blaisemath.style.AttributeSet;
 import com.googlecode.blaisemath.style.StyleContext;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collections;
 import javax.swing.JPopupMenu;
@@ -223,4 +225,96 @@ public class GraphicCompositeTest {
         assertTrue(Iterables.isEmpty(gc.selectableGraphicsIn(box, null)));
     }
     
+    @Test
+    public void testIndexedQueries() {
+        java.util.List<PrimitiveGraphic<Point2D, Graphics2D>> grid = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++) {
+                PrimitiveGraphic<Point2D, Graphics2D> p = JGraphics.point(new Point2D.Double(20 * i, 20 * j));
+                p.setSelectionEnabled(true);
+                grid.add(p);
+            }
+        }
+        gc.addGraphics(grid);
+        assertEquals(grid.get(21), gc.graphicAt(new Point(20, 20), null));
+        assertNull(gc.graphicAt(new Point(30, 30), null));
+        assertEquals(4, gc.selectableGraphicsIn(new Rectangle(15, 15, 30, 30), null).size());
+
+        // topmost graphic wins, including after later additions
+        PrimitiveGraphic<Point2D, Graphics2D> top = JGraphics.point(new Point2D.Double(20, 20));
+        gc.addGraphic(top);
+        assertEquals(top, gc.graphicAt(new Point(20, 20), null));
+        top.setStyleHint(StyleHints.HIDDEN_HINT, true);
+        assertEquals(grid.get(21), gc.graphicAt(new Point(20, 20), null));
+
+        // moved and removed graphics
+        grid.get(0).setPrimitive(new Point2D.Double(30, 30));
+        assertEquals(grid.get(0), gc.graphicAt(new Point(30, 30), null));
+        assertNull(gc.graphicAt(new Point(0, 0), null));
+        gc.removeGraphic(grid.get(0));
+        assertNull(gc.graphicAt(new Point(30, 30), null));
+
+        // changes within nested composites
+        GraphicComposite<Graphics2D> child = new GraphicComposite<>();
+        PrimitiveGraphic<Point2D, Graphics2D> nested = JGraphics.point(new Point2D.Double(-50, -50));
+        child.addGraphic(nested);
+        gc.addGraphic(child);
+        assertEquals(nested, gc.graphicAt(new Point(-50, -50), null));
+        nested.setPrimitive(new Point2D.Double(500, 500));
+        assertNull(gc.graphicAt(new Point(-50, -50), null));
+        assertEquals(nested, gc.graphicAt(new Point(500, 500), null));
+
+        // many changes at once
+        for (PrimitiveGraphic<Point2D, Graphics2D> p : grid) {
+            Point2D loc = p.getPrimitive();
+            p.setPrimitive(new Point2D.Double(loc.getX() + 1000, loc.getY()));
+        }
+        assertNull(gc.graphicAt(new Point(20, 20), null));
+        assertEquals(grid.get(21), gc.graphicAt(new Point(1020, 20), null));
+        assertTrue(gc.intersects(new Rectangle(1015, 15, 10, 10), null));
+        assertFalse(gc.intersects(new Rectangle(-30, -30, 10, 10), null));
+    }
+    
+    @Test
+    public void testRenderCulling() {
+        int[] count = { 0 };
+        Renderer<Point2D, Graphics2D> counter = new Renderer<Point2D, Graphics2D>() {
+            @Override
+            public void render(Point2D primitive, AttributeSet style, Graphics2D canvas) {
+                count[0]++;
+            }
+            @Override
+            public Rectangle2D boundingBox(Point2D primitive, AttributeSet style, Graphics2D canvas) {
+                return new Rectangle2D.Double(primitive.getX() - 1, primitive.getY() - 1, 2, 2);
+            }
+            @Override
+            public boolean contains(Point2D point, Point2D primitive, AttributeSet style, Graphics2D canvas) {
+                return boundingBox(primitive, style, canvas).contains(point);
+            }
+            @Override
+            public boolean intersects(Rectangle2D rect, Point2D primitive, AttributeSet style, Graphics2D canvas) {
+                return boundingBox(primitive, style, canvas).intersects(rect);
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++) {
+                gc.addGraphic(new PrimitiveGraphic<>(new Point2D.Double(20 * i, 20 * j), new AttributeSet(), counter));
+            }
+        }
+        Graphics2D canvas = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        gc.renderTo(canvas);
+        assertEquals(400, count[0]);
+
+        count[0] = 0;
+        canvas.setClip(0, 0, 50, 50);
+        gc.renderTo(canvas);
+        assertEquals(9, count[0]);
+
+        count[0] = 0;
+        canvas.scale(0.5, 0.5);
+        gc.renderTo(canvas);
+        assertEquals(36, count[0]);
+        canvas.dispose();
+    }
+    
 }
@@ -20,9 +20,34 @@ package com.googlecode.blaisemath.graphics.impl;
  * #L%
  */
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.graph.EndpointPair;
 import com.googlecode.blaisemath.coordinate.CoordinateManager;
+import com.googlecode.blaisemath.graphics.DelegatingPrimitiveGraphic;
+import com.googlecode.blaisemath.graphics.Graphic;
+import com.googlecode.blaisemath.graphics.swing.render.PathRenderer;
+import com.googlecode.blaisemath.style.ObjectStyler;
+import com.googlecode.blaisemath.style.StyleHints;
+import com.googlecode.blaisemath.style.Styles;
 import org.junit.Test;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
 public class DelegatingEdgeSetGraphicTest {
 
     @Test
@@ -31,4 +56,141 @@ public class DelegatingEdgeSetGraphicTest {
         CoordinateManager result = instance.getCoordinateManager();
     }
     
+    @Test
+    public void testBulkMode() {
+        CoordinateManager<String, Point2D.Double> mgr = CoordinateManager.create(10);
+        mgr.putAll(ImmutableMap.of("a", new Point2D.Double(10, 10), "b", new Point2D.Double(90, 10),
+                "c", new Point2D.Double(10, 90)));
+        DelegatingEdgeSetGraphic<String, EndpointPair<String>, Graphics2D> instance
+                = new DelegatingEdgeSetGraphic<>(mgr, PathRenderer.getInstance());
+        instance.setEdgeStyler(ObjectStyler.<EndpointPair<String>>create().style(Styles.strokeWidth(Color.black, 2f)));
+        instance.setEdges(ImmutableSet.of(EndpointPair.unordered("a", "b"), EndpointPair.unordered("a", "c"),
+                EndpointPair.unordered("b", "d")));
+        assertEquals(2, instance.getGraphics().size());
+
+        instance.setBulkMode(true);
+        assertTrue(instance.getGraphics().isEmpty());
+        assertEquals(new Rectangle2D.Double(5, 5, 90, 90), instance.boundingBox(null));
+        BufferedImage img = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D canvas = img.createGraphics();
+        instance.renderTo(canvas);
+        canvas.dispose();
+        assertNotEquals(0, img.getRGB(50, 10));
+        assertNotEquals(0, img.getRGB(10, 50));
+        assertEquals(0, img.getRGB(50, 50));
+
+        assertNull(instance.graphicAt(new Point2D.Double(50, 50), null));
+        Graphic<Graphics2D> edge = instance.graphicAt(new Point2D.Double(50, 10.5), null);
+        assertTrue(edge instanceof DelegatingPrimitiveGraphic);
+        assertEquals(EndpointPair.unordered("a", "b"), ((DelegatingPrimitiveGraphic) edge).getSourceObject());
+        assertSame(instance, edge.getParent());
+        assertSame(edge, instance.graphicAt(new Point2D.Double(50, 10), null));
+        edge.setStyleHint(StyleHints.HIDDEN_HINT, true);
+        img = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        canvas = img.createGraphics();
+        instance.renderTo(canvas);
+        canvas.dispose();
+        assertEquals(0, img.getRGB(50, 10));
+        assertNotEquals(0, img.getRGB(10, 50));
+
+        instance.setBulkMode(false);
+        assertNull(edge.getParent());
+        assertEquals(2, instance.getGraphics().size());
+    }
+
+    @Test
+    public void testRemoveEdges() {
+        CoordinateManager<String, Point2D.Double> mgr = CoordinateManager.create(10);
+        mgr.putAll(ImmutableMap.of("a", new Point2D.Double(10, 10), "b", new Point2D.Double(90, 10),
+                "c", new Point2D.Double(10, 90)));
+        DelegatingEdgeSetGraphic<String, EndpointPair<String>, Graphics2D> instance
+                = new DelegatingEdgeSetGraphic<>(mgr, PathRenderer.getInstance());
+        instance.setEdgeStyler(ObjectStyler.<EndpointPair<String>>create().style(Styles.strokeWidth(Color.black, 2f)));
+        instance.setEdges(ImmutableSet.of(EndpointPair.unordered("a", "b"), EndpointPair.unordered("a", "c"),
+                EndpointPair.unordered("b", "c"), EndpointPair.unordered("b", "d")));
+        instance.setEdges(ImmutableSet.of(EndpointPair.unordered("a", "b"), EndpointPair.unordered("a", "c"),
+                EndpointPair.unordered("b", "c")));
+        assertEquals(3, instance.getGraphics().size());
+
+        instance.setBulkMode(true);
+        Graphic<Graphics2D> ab = instance.graphicAt(new Point2D.Double(50, 10), null);
+        ab.setStyleHint(StyleHints.SELECTED_HINT, true);
+        instance.setEdges(ImmutableSet.of(EndpointPair.unordered("a", "b"), EndpointPair.unordered("a", "c")));
+        assertEquals(2, instance.getEdges().size());
+        assertNull(instance.graphicAt(new Point2D.Double(50, 50), null));
+        instance.setEdges(ImmutableSet.of(EndpointPair.unordered("a", "c")));
+        assertNull(ab.getParent());
+        assertNull(instance.graphicAt(new Point2D.Double(50, 10), null));
+        assertNotNull(instance.graphicAt(new Point2D.Double(10, 50), null));
+    }
+
+    @Test
+    public void testBulkModeReleasesGraphics() {
+        CoordinateManager<String, Point2D.Double> mgr = CoordinateManager.create(10);
+        mgr.putAll(ImmutableMap.of("a", new Point2D.Double(10, 10), "b", new Point2D.Double(90, 10),
+                "c", new Point2D.Double(10, 90)));
+        DelegatingEdgeSetGraphic<String, EndpointPair<String>, Graphics2D> instance
+                = new DelegatingEdgeSetGraphic<>(mgr, PathRenderer.getInstance());
+        instance.setEdgeStyler(ObjectStyler.<EndpointPair<String>>create().style(Styles.strokeWidth(Color.black, 2f)));
+        instance.setEdges(ImmutableSet.of(EndpointPair.unordered("a", "b"), EndpointPair.unordered("a", "c")));
+        instance.setBulkMode(true);
+
+        Graphic<Graphics2D> ab = instance.graphicAt(new Point2D.Double(50, 10), null);
+        Graphic<Graphics2D> ac = instance.graphicAt(new Point2D.Double(10, 50), null);
+        assertNull(ab.getParent());
+        assertSame(instance, ac.getParent());
+        assertNotSame(ab, instance.graphicAt(new Point2D.Double(50, 10), null));
+
+        ac = instance.graphicAt(new Point2D.Double(10, 50), null);
+        ac.setStyleHint(StyleHints.HIGHLIGHT_HINT, true);
+        assertNull(instance.graphicAt(new Point2D.Double(50, 50), null));
+        assertSame(instance, ac.getParent());
+        assertSame(ac, instance.graphicAt(new Point2D.Double(10, 50), null));
+        ac.setStyleHint(StyleHints.HIGHLIGHT_HINT, false);
+        assertNull(ac.getParent());
+    }
+
+    @Test
+    public void testBulkModeIndexedQueries() {
+        Random random = new Random(7);
+        CoordinateManager<Integer, Point2D.Double> mgr = CoordinateManager.create(500);
+        Map<Integer, Point2D.Double> locs = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            locs.put(i, new Point2D.Double(1000 * random.nextDouble(), 1000 * random.nextDouble()));
+        }
+        mgr.putAll(locs);
+        Set<EndpointPair<Integer>> edgeSet = new LinkedHashSet<>();
+        while (edgeSet.size() < 500) {
+            edgeSet.add(EndpointPair.ordered(random.nextInt(300), random.nextInt(300)));
+        }
+        DelegatingEdgeSetGraphic<Integer, EndpointPair<Integer>, Graphics2D> instance
+                = new DelegatingEdgeSetGraphic<>(mgr, PathRenderer.getInstance());
+        instance.setEdges(edgeSet);
+        instance.setBulkMode(true);
+
+        for (int q = 0; q < 200; q++) {
+            Point2D.Double p = new Point2D.Double(1000 * random.nextDouble(), 1000 * random.nextDouble());
+            Rectangle2D box = new Rectangle2D.Double(p.x - 5, p.y - 5, 60, 40);
+            List<Object> expectedAt = new ArrayList<>();
+            List<Object> expectedIn = new ArrayList<>();
+            for (EndpointPair<Integer> e : instance.getEdges()) {
+                Point2D.Double p1 = locs.get(e.nodeU());
+                Point2D.Double p2 = locs.get(e.nodeV());
+                if (Line2D.ptSegDist(p1.x, p1.y, p2.x, p2.y, p.x, p.y) <= 5) {
+                    expectedAt.add(0, e);
+                }
+                if (box.intersectsLine(p1.x, p1.y, p2.x, p2.y)) {
+                    expectedIn.add(0, e);
+                }
+            }
+            List<Object> foundAt = new ArrayList<>();
+            instance.entriesInReverseAt(p, null).forEach(g -> foundAt.add(((DelegatingPrimitiveGraphic) g).getSourceObject()));
+            assertEquals(expectedAt, foundAt);
+            List<Object> foundIn = new ArrayList<>();
+            instance.entriesInReverseIn(new Rectangle2D.Double(p.x, p.y, 50, 30), null)
+                    .forEach(g -> foundIn.add(((DelegatingPrimitiveGraphic) g).getSourceObject()));
+            assertEquals(expectedIn, foundIn);
+        }
+    }
+    
 }
@@ -20,9 +20,31 @@ package com.googlecode.blaisemath.graphics.impl;
  * #L%
  */
 
+import com.google.common.collect.ImmutableMap;
 import com.googlecode.blaisemath.coordinate.CoordinateManager;
+import com.googlecode.blaisemath.coordinate.OrientedPoint2D;
+import com.googlecode.blaisemath.graphics.DelegatingPrimitiveGraphic;
+import com.googlecode.blaisemath.graphics.Graphic;
+import com.googlecode.blaisemath.graphics.swing.render.MarkerRenderer;
+import com.googlecode.blaisemath.primitive.Markers;
+import com.googlecode.blaisemath.style.StyleHints;
+import com.googlecode.blaisemath.style.Styles;
 import org.junit.Test;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
 public class DelegatingPointSetGraphicTest {
 
     @Test
@@ -31,4 +53,155 @@ public class DelegatingPointSetGraphicTest {
         CoordinateManager result = instance.getCoordinateManager();
     }
     
+    @Test
+    public void testBulkMode() {
+        CoordinateManager<String, Point2D.Double> mgr = CoordinateManager.create(10);
+        mgr.putAll(ImmutableMap.of("a", new Point2D.Double(20, 20), "b", new Point2D.Double(80, 20),
+                "c", new Point2D.Double(20, 80)));
+        DelegatingPointSetGraphic<String, Graphics2D> instance = new DelegatingPointSetGraphic<>(mgr, MarkerRenderer.getInstance(), null);
+        assertEquals(3, instance.getGraphics().size());
+
+        instance.setBulkMode(true);
+        assertTrue(instance.getGraphics().isEmpty());
+        BufferedImage img = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D canvas = img.createGraphics();
+        instance.renderTo(canvas);
+        canvas.dispose();
+        assertNotEquals(0, img.getRGB(20, 20));
+        assertNotEquals(0, img.getRGB(80, 20));
+        assertEquals(0, img.getRGB(80, 80));
+
+        assertNull(instance.graphicAt(new Point2D.Double(50, 50), null));
+        Graphic<Graphics2D> pt = instance.graphicAt(new Point2D.Double(81, 21), null);
+        assertTrue(pt instanceof LabeledPointGraphic);
+        assertEquals("b", ((DelegatingPrimitiveGraphic) pt).getSourceObject());
+        assertSame(instance, pt.getParent());
+        assertSame(pt, instance.getPointGraphic("b"));
+        instance.setPointSelectionEnabled(true);
+        assertEquals(2, instance.selectableGraphicsIn(new Rectangle(0, 0, 100, 50), null).size());
+
+        pt.setStyleHint(StyleHints.HIDDEN_HINT, true);
+        img = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        canvas = img.createGraphics();
+        instance.renderTo(canvas);
+        canvas.dispose();
+        assertEquals(0, img.getRGB(80, 20));
+        assertNotEquals(0, img.getRGB(20, 80));
+
+        instance.setBulkMode(false);
+        assertNull(pt.getParent());
+        assertEquals(3, instance.getGraphics().size());
+    }
+    
+    @Test
+    public void testBulkModeSprites() {
+        CoordinateManager<Integer, Point2D.Double> mgr = CoordinateManager.create(100);
+        for (int i = 0; i < 20; i++) {
+            mgr.put(i, new Point2D.Double(5 + 10 * i, 50));
+        }
+        DelegatingPointSetGraphic<Integer, Graphics2D> instance = new DelegatingPointSetGraphic<>(mgr, MarkerRenderer.getInstance(), null);
+        instance.setBulkMode(true);
+        // translated canvas, drawn with sprites
+        BufferedImage img = new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D canvas = img.createGraphics();
+        canvas.translate(0, -40);
+        instance.renderTo(canvas);
+        // non-uniform scale, drawn by stamping shapes
+        canvas.setTransform(AffineTransform.getScaleInstance(0.5, 1.5));
+        instance.renderTo(canvas);
+        canvas.dispose();
+        for (int i = 0; i < 20; i++) {
+            assertNotEquals(0, img.getRGB(5 + 10 * i, 10));
+            assertNotEquals(0, img.getRGB((int) Math.round(2.5 + 5 * i), 75));
+        }
+        assertEquals(0, img.getRGB(10, 10));
+    }
+
+    @Test
+    public void testBulkModeOrientedPoints() {
+        CoordinateManager<Integer, Point2D.Double> mgr = CoordinateManager.create(100);
+        for (int i = 0; i < 20; i++) {
+            OrientedPoint2D pt = new OrientedPoint2D(10 + 20 * i, 50);
+            pt.angle = Math.PI / 2;
+            mgr.put(i, pt);
+        }
+        DelegatingPointSetGraphic<Integer, Graphics2D> instance = new DelegatingPointSetGraphic<>(mgr, MarkerRenderer.getInstance(), null);
+        instance.getStyler().setStyle(Styles.fillStroke(Color.black, null).and(Styles.MARKER, Markers.TRIANGLE)
+                .and(Styles.MARKER_RADIUS, 8f));
+        BufferedImage expected = new BufferedImage(400, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D canvas = expected.createGraphics();
+        instance.renderTo(canvas);
+        canvas.dispose();
+
+        instance.setBulkMode(true);
+        BufferedImage img = new BufferedImage(400, 100, BufferedImage.TYPE_INT_ARGB);
+        canvas = img.createGraphics();
+        instance.renderTo(canvas);
+        canvas.dispose();
+        assertArrayEquals(expected.getRGB(0, 0, 400, 100, null, 0, 400), img.getRGB(0, 0, 400, 100, null, 0, 400));
+
+        Graphic<Graphics2D> gfc = instance.graphicAt(new Point2D.Double(10, 50), null);
+        Point2D pt = ((LabeledPointGraphic<?, ?>) gfc).getPrimitive();
+        assertTrue(pt instanceof OrientedPoint2D);
+        assertEquals(Math.PI / 2, ((OrientedPoint2D) pt).angle, 0);
+    }
+
+    @Test
+    public void testBulkModeIndexedQueries() {
+        Random random = new Random(11);
+        CoordinateManager<Integer, Point2D.Double> mgr = CoordinateManager.create(1000);
+        for (int i = 0; i < 500; i++) {
+            mgr.put(i, new Point2D.Double(1000 * random.nextDouble(), 1000 * random.nextDouble()));
+        }
+        DelegatingPointSetGraphic<Integer, Graphics2D> instance = new DelegatingPointSetGraphic<>(mgr, MarkerRenderer.getInstance(), null);
+        instance.setBulkMode(true);
+        Map<Integer, Point2D.Double> locs = mgr.getActiveLocationCopy();
+        List<Integer> order = new ArrayList<>();
+        instance.entriesInReverseIn(new Rectangle2D.Double(-10, -10, 1020, 1020), null)
+                .forEach(g -> order.add(0, (Integer) ((DelegatingPrimitiveGraphic) g).getSourceObject()));
+        assertEquals(500, order.size());
+
+        for (int q = 0; q < 200; q++) {
+            Point2D.Double p = new Point2D.Double(1000 * random.nextDouble(), 1000 * random.nextDouble());
+            Rectangle2D box = new Rectangle2D.Double(p.x, p.y, 50, 30);
+            List<Object> expectedAt = new ArrayList<>();
+            List<Object> expectedIn = new ArrayList<>();
+            for (Integer n : order) {
+                if (p.distance(locs.get(n)) <= 6) {
+                    expectedAt.add(0, n);
+                }
+                if (new Rectangle2D.Double(p.x - 6, p.y - 6, 62, 42).contains(locs.get(n))) {
+                    expectedIn.add(0, n);
+                }
+            }
+            List<Object> foundAt = new ArrayList<>();
+            instance.entriesInReverseAt(p, null).forEach(g -> foundAt.add(((DelegatingPrimitiveGraphic) g).getSourceObject()));
+            assertEquals(expectedAt, foundAt);
+            List<Object> foundIn = new ArrayList<>();
+            instance.entriesInReverseIn(box, null).forEach(g -> foundIn.add(((DelegatingPrimitiveGraphic) g).getSourceObject()));
+            assertEquals(expectedIn, foundIn);
+        }
+    }
+
+    @Test
+    public void testBulkModeReleasesGraphics() {
+        CoordinateManager<String, Point2D.Double> mgr = CoordinateManager.create(10);
+        mgr.putAll(ImmutableMap.of("a", new Point2D.Double(20, 20), "b", new Point2D.Double(80, 20)));
+        DelegatingPointSetGraphic<String, Graphics2D> instance = new DelegatingPointSetGraphic<>(mgr, MarkerRenderer.getInstance(), null);
+        instance.setBulkMode(true);
+
+        Graphic<Graphics2D> a = instance.graphicAt(new Point2D.Double(20, 20), null);
+        Graphic<Graphics2D> b = instance.graphicAt(new Point2D.Double(80, 20), null);
+        assertNull(a.getParent());
+        assertSame(instance, b.getParent());
+        assertNotSame(a, instance.getPointGraphic("a"));
+
+        b.setStyleHint(StyleHints.HIGHLIGHT_HINT, true);
+        assertNull(instance.graphicAt(new Point2D.Double(50, 50), null));
+        assertSame(b, instance.getPointGraphic("b"));
+        b.setStyleHint(StyleHints.HIGHLIGHT_HINT, false);
+        assertNull(instance.graphicAt(new Point2D.Double(50, 50), null));
+        assertNull(b.getParent());
+    }
+    
 }
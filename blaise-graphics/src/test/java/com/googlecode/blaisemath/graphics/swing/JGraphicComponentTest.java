@@ -0,0 +1,112 @@
+package com.googlecode.blaisemath.graphics.swing;
+
+/*
+ * #%L
+ * BlaiseGraphics
+ * --
+ * Copyright (C) 2009 - 2026 Elisha Peterson
+ * --
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.googlecode.blaisemath.graphics.GraphicComposite;
+import com.googlecode.blaisemath.graphics.PrimitiveGraphic;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class JGraphicComponentTest {
+
+    @Test
+    public void testRetainedMode() {
+        JGraphicComponent gc = new JGraphicComponent();
+        gc.setSize(512, 512);
+        PrimitiveGraphic<Shape, Graphics2D> moving = JGraphics.shape(new Rectangle2D.Double(10, 10, 20, 20));
+        gc.addGraphic(moving);
+        gc.addGraphic(JGraphics.shape(new Rectangle2D.Double(300, 300, 100, 100)));
+        assertFalse(gc.isRetainedMode());
+        assertNull(gc.tileCache());
+
+        gc.setRetainedMode(true);
+        assertTrue(gc.isRetainedMode());
+        JGraphicTileCache tiles = gc.tileCache();
+        assertPaintMatches(gc);
+        assertEquals(4, tiles.getTilesRendered());
+        assertPaintMatches(gc);
+        assertEquals(4, tiles.getTilesRendered());
+
+        // bounds unknown before the first change, so everything is rendered
+        moving.setPrimitive(new Rectangle2D.Double(20, 20, 20, 20));
+        assertPaintMatches(gc);
+        assertEquals(8, tiles.getTilesRendered());
+        moving.setPrimitive(new Rectangle2D.Double(30, 30, 20, 20));
+        assertPaintMatches(gc);
+        assertEquals(9, tiles.getTilesRendered());
+        moving.setPrimitive(new Rectangle2D.Double(240, 30, 20, 20));
+        assertPaintMatches(gc);
+        assertEquals(11, tiles.getTilesRendered());
+
+        gc.setTransform(AffineTransform.getTranslateInstance(5, 5));
+        assertPaintMatches(gc);
+        assertEquals(15, tiles.getTilesRendered());
+
+        gc.setRetainedMode(false);
+        assertNull(gc.tileCache());
+    }
+
+    @Test
+    public void testRetainedMode_ChildRemovedFromComposite() {
+        JGraphicComponent gc = new JGraphicComponent();
+        gc.setSize(512, 512);
+        PrimitiveGraphic<Shape, Graphics2D> moving = JGraphics.shape(new Rectangle2D.Double(10, 10, 20, 20));
+        GraphicComposite<Graphics2D> composite = new GraphicComposite<>();
+        composite.addGraphic(moving);
+        composite.addGraphic(JGraphics.shape(new Rectangle2D.Double(100, 100, 20, 20)));
+        gc.addGraphic(composite);
+        gc.setRetainedMode(true);
+        assertPaintMatches(gc);
+
+        JGraphicTileCache tiles = gc.tileCache();
+        tiles.track(composite);
+        tiles.track(moving);
+        // the child moves outside the composite's recorded bounds, then is removed
+        moving.setPrimitive(new Rectangle2D.Double(300, 300, 20, 20));
+        assertPaintMatches(gc);
+        composite.removeGraphic(moving);
+        assertPaintMatches(gc);
+    }
+
+    /** Check that painting the component produces the same result as rendering everything. */
+    private static void assertPaintMatches(JGraphicComponent gc) {
+        BufferedImage painted = new BufferedImage(gc.getWidth(), gc.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = painted.createGraphics();
+        gc.paintChildren(g);
+        g.dispose();
+        BufferedImage rendered = new BufferedImage(gc.getWidth(), gc.getHeight(), BufferedImage.TYPE_INT_RGB);
+        g = rendered.createGraphics();
+        gc.renderTo(g);
+        g.dispose();
+        assertArrayEquals(rendered.getRGB(0, 0, gc.getWidth(), gc.getHeight(), null, 0, gc.getWidth()),
+                painted.getRGB(0, 0, gc.getWidth(), gc.getHeight(), null, 0, gc.getWidth()));
+    }
+
+}